@@ -0,0 +1,110 @@
+package org.solace.scholar_ai.project_service.client.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.config.OutboundHttpProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+/**
+ * Request factory that sends each request through the JDK {@link HttpClient} of its
+ * destination. Every client keeps its own pool of keep-alive connections, negotiates
+ * HTTP/2 over TLS where the server supports it, and applies the destination's connect and
+ * read timeouts, so a slow AI generation cannot hold connections meant for other services.
+ */
+@Slf4j
+public class DestinationRoutingRequestFactory implements ClientHttpRequestFactory, DisposableBean {
+
+    public static final String DEFAULT_DESTINATION = "default";
+
+    private final Map<String, Route> routesByOrigin = new LinkedHashMap<>();
+    private final Route defaultRoute;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "outbound-http");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DestinationRoutingRequestFactory(OutboundHttpProperties properties) {
+        // Hosts nobody configured may be plain-HTTP services that mishandle an h2c upgrade
+        defaultRoute =
+                createRoute(DEFAULT_DESTINATION, properties.getConnectTimeout(), properties.getReadTimeout(), false);
+        properties.getDestinations().forEach((name, destination) -> {
+            if (destination.getBaseUrl() == null || destination.getBaseUrl().isBlank()) {
+                log.warn("Outbound HTTP destination '{}' has no base URL and is ignored", name);
+                return;
+            }
+            String origin = origin(URI.create(destination.getBaseUrl().trim()));
+            Route route = createRoute(
+                    name,
+                    destination.getConnectTimeout() != null
+                            ? destination.getConnectTimeout()
+                            : properties.getConnectTimeout(),
+                    destination.getReadTimeout() != null ? destination.getReadTimeout() : properties.getReadTimeout(),
+                    properties.isHttp2() && origin.startsWith("https:"));
+            if (routesByOrigin.putIfAbsent(origin, route) != null) {
+                log.warn("Outbound HTTP destination '{}' shares origin {} with another destination", name, origin);
+            }
+            log.info(
+                    "Outbound HTTP destination '{}' -> {} (connect {}, read {})",
+                    name,
+                    origin,
+                    route.connectTimeout(),
+                    route.readTimeout());
+        });
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return routeFor(uri).requestFactory().createRequest(uri, httpMethod);
+    }
+
+    /**
+     * Name of the destination a request to {@code uri} is sent through
+     */
+    public String destinationOf(URI uri) {
+        return routeFor(uri).name();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private Route routeFor(URI uri) {
+        return routesByOrigin.getOrDefault(origin(uri), defaultRoute);
+    }
+
+    private Route createRoute(String name, Duration connectTimeout, Duration readTimeout, boolean http2) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return new Route(name, connectTimeout, readTimeout, requestFactory);
+    }
+
+    static String origin(URI uri) {
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "http";
+        int port = uri.getPort() != -1 ? uri.getPort() : "https".equals(scheme) ? 443 : 80;
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : "";
+        return scheme + "://" + host + ":" + port;
+    }
+
+    private record Route(
+            String name, Duration connectTimeout, Duration readTimeout, JdkClientHttpRequestFactory requestFactory) {}
+}
@@ -0,0 +1,59 @@
+package org.solace.scholar_ai.project_service.client.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Records the duration and outcome of every outbound request, tagged with the destination
+ * it was routed to, as the {@code scholarai.http.outbound} timer
+ */
+public class OutboundRequestMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String METRIC_NAME = "scholarai.http.outbound";
+
+    private final MeterRegistry meterRegistry;
+    private final DestinationRoutingRequestFactory requestFactory;
+
+    public OutboundRequestMetricsInterceptor(
+            MeterRegistry meterRegistry, DestinationRoutingRequestFactory requestFactory) {
+        this.meterRegistry = meterRegistry;
+        this.requestFactory = requestFactory;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            outcome = outcome(response.getStatusCode().value());
+            return response;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("Outbound HTTP requests by destination")
+                    .tag("destination", requestFactory.destinationOf(request.getURI()))
+                    .tag("method", request.getMethod().name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        if (status >= 300) {
+            return "REDIRECTION";
+        }
+        return "SUCCESS";
+    }
+}
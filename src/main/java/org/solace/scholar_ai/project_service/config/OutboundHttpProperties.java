@@ -0,0 +1,42 @@
+package org.solace.scholar_ai.project_service.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Connection settings for outbound HTTP calls. Each destination gets its own pooled
+ * client; requests to hosts that match no destination use the default settings.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "scholarai.http")
+@Data
+public class OutboundHttpProperties {
+
+    /** Time allowed to open a connection */
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /** Time allowed to receive a response once the request is sent */
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /** Offer HTTP/2 to HTTPS destinations; plain HTTP always uses HTTP/1.1 */
+    private boolean http2 = true;
+
+    private Map<String, Destination> destinations = new LinkedHashMap<>();
+
+    @Data
+    public static class Destination {
+
+        /** Any URL of the destination; requests with the same scheme, host and port are routed here */
+        private String baseUrl;
+
+        /** Overrides the default connect timeout */
+        private Duration connectTimeout;
+
+        /** Overrides the default read timeout, e.g. for long AI generations */
+        private Duration readTimeout;
+    }
+}
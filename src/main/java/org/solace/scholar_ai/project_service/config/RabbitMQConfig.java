@@ -48,6 +48,21 @@ public class RabbitMQConfig {
     @Value("${scholarai.rabbitmq.extraction.completed-routing-key}")
     private String extractionCompletedRoutingKey;
 
+    @Value("${scholarai.rabbitmq.extraction.dead-letter-queue:scholarai.extraction.completed.dlq}")
+    private String extractionDeadLetterQueue;
+
+    @Value("${scholarai.rabbitmq.extraction.dead-letter-routing-key:scholarai.extraction.completed.dlq}")
+    private String extractionDeadLetterRoutingKey;
+
+    @Value("${scholarai.rabbitmq.extraction.consumer.concurrency:1}")
+    private int extractionConsumerConcurrency;
+
+    @Value("${scholarai.rabbitmq.extraction.consumer.max-concurrency:2}")
+    private int extractionConsumerMaxConcurrency;
+
+    @Value("${scholarai.rabbitmq.extraction.consumer.prefetch:4}")
+    private int extractionConsumerPrefetch;
+
     // Gap analysis queue properties
     @Value("${scholarai.rabbitmq.gap-analysis.request-queue}")
     private String gapAnalysisRequestQueue;
@@ -176,6 +191,30 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(extractionCompletedQueue).to(appExchange).with(extractionCompletedRoutingKey);
     }
 
+    /**
+     * Creates a durable queue for extraction completed events that could not be ingested.
+     * Failed events are republished here with their attempt count and last error as headers.
+     *
+     * @return The configured Queue for dead-lettered extraction completed events.
+     */
+    @Bean
+    public Queue extractionDeadLetterQueue() {
+        return QueueBuilder.durable(extractionDeadLetterQueue).build();
+    }
+
+    /**
+     * Binds the extraction dead-letter queue to the application exchange using its
+     * specific routing key.
+     *
+     * @param extractionDeadLetterQueue The queue for dead-lettered extraction events.
+     * @param appExchange               The main application topic exchange.
+     * @return The Binding definition.
+     */
+    @Bean
+    public Binding bindExtractionDeadLetter(Queue extractionDeadLetterQueue, TopicExchange appExchange) {
+        return BindingBuilder.bind(extractionDeadLetterQueue).to(appExchange).with(extractionDeadLetterRoutingKey);
+    }
+
     /**
      * Creates a durable queue for gap analysis requests.
      * Note: Queue configuration matches existing queue to avoid PRECONDITION_FAILED
@@ -275,11 +314,32 @@ public class RabbitMQConfig {
      */
     @Bean
     public SimpleRabbitListenerContainerFactory listenerFactory(ConnectionFactory cf) {
+        return newListenerFactory(cf, 3, 10);
+    }
+
+    /**
+     * Configures the listener container factory for extraction completed events.
+     * The listener hands each event to an ingest worker and acks it manually once the
+     * worker is done, so the prefetch bounds how many events wait for a worker.
+     *
+     * @param cf The connection factory for RabbitMQ.
+     * @return The configured SimpleRabbitListenerContainerFactory.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory extractionCompletedListenerFactory(ConnectionFactory cf) {
+        var factory = newListenerFactory(cf, extractionConsumerConcurrency, extractionConsumerMaxConcurrency);
+        factory.setPrefetchCount(extractionConsumerPrefetch);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
+
+    private SimpleRabbitListenerContainerFactory newListenerFactory(
+            ConnectionFactory cf, int concurrentConsumers, int maxConcurrentConsumers) {
         var factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(cf);
         factory.setMessageConverter(jsonMessageConverter());
-        factory.setConcurrentConsumers(3);
-        factory.setMaxConcurrentConsumers(10);
+        factory.setConcurrentConsumers(concurrentConsumers);
+        factory.setMaxConcurrentConsumers(maxConcurrentConsumers);
         factory.setDefaultRequeueRejected(false); // send bad messages to DLQ
         return factory;
     }
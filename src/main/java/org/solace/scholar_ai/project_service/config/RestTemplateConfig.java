@@ -1,21 +1,33 @@
 package org.solace.scholar_ai.project_service.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.solace.scholar_ai.project_service.client.http.DestinationRoutingRequestFactory;
+import org.solace.scholar_ai.project_service.client.http.OutboundRequestMetricsInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestTemplateConfig {
 
+    /**
+     * Pooled JDK HTTP clients, one per configured destination (scholarai.http.destinations)
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        // Set timeouts for external API calls (120 seconds for both connect and read)
-        factory.setConnectTimeout(120000); // 2 minutes
-        factory.setReadTimeout(120000); // 2 minutes
+    public DestinationRoutingRequestFactory destinationRoutingRequestFactory(OutboundHttpProperties properties) {
+        return new DestinationRoutingRequestFactory(properties);
+    }
 
-        RestTemplate restTemplate = new RestTemplate(factory);
+    @Bean
+    public RestTemplate restTemplate(
+            DestinationRoutingRequestFactory requestFactory, ObjectProvider<MeterRegistry> meterRegistry) {
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate
+                .getInterceptors()
+                .add(new OutboundRequestMetricsInterceptor(
+                        meterRegistry.getIfAvailable(SimpleMeterRegistry::new), requestFactory));
         return restTemplate;
     }
 }
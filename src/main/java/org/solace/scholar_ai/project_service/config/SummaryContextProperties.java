@@ -0,0 +1,36 @@
+package org.solace.scholar_ai.project_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Size of the extraction context packed into each summary prompt. Budgets are estimated
+ * tokens of paper content; the prompt's instructions, title and abstract come on top.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "scholarai.summary.context")
+@Data
+public class SummaryContextProperties {
+
+    private Budgets budgets = new Budgets();
+
+    @Data
+    public static class Budgets {
+
+        /** Introduction and conclusion */
+        private int quickTake = 2500;
+
+        /** Methods and experiment sections, tables, code and figures */
+        private int methods = 6000;
+
+        /** Code blocks, linked references and appendices */
+        private int reproducibility = 3000;
+
+        /** Ethics and limitations first, then discussion, methods and analysis */
+        private int ethics = 5000;
+
+        /** Introduction, related work, discussion and references */
+        private int contextImpact = 4000;
+    }
+}
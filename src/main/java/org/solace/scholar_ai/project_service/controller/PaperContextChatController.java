@@ -7,7 +7,10 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,11 +23,16 @@ import org.solace.scholar_ai.project_service.exception.ChatSessionNotFoundExcept
 import org.solace.scholar_ai.project_service.exception.PaperNotExtractedException;
 import org.solace.scholar_ai.project_service.exception.PaperNotFoundException;
 import org.solace.scholar_ai.project_service.service.chat.ChatSessionService;
-import org.solace.scholar_ai.project_service.service.chat.EnhancedPaperContextChatService;
+import org.solace.scholar_ai.project_service.service.chat.ChatStreamExecutor;
+import org.solace.scholar_ai.project_service.service.chat.PaperChatEngine;
+import org.solace.scholar_ai.project_service.service.chat.PaperChatEngine.PreparedChat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/papers")
@@ -34,8 +42,11 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Paper Context Chat", description = "AI-powered contextual Q&A for research papers with session management")
 public class PaperContextChatController {
 
-    private final EnhancedPaperContextChatService paperContextChatService;
+    private final PaperChatEngine paperChatEngine;
     private final ChatSessionService chatSessionService;
+    private final ChatStreamExecutor chatStreamExecutor;
+
+    private static final long STREAM_TIMEOUT_MS = 180_000L;
 
     @PostMapping("/{paperId}/chat")
     @Operation(
@@ -67,7 +78,7 @@ public class PaperContextChatController {
         log.info("📝 Chat request for paper {}: {}", paperId, request.getMessage());
 
         try {
-            PaperChatResponse response = paperContextChatService.chatWithPaper(paperId, request);
+            PaperChatResponse response = paperChatEngine.chatWithPaper(paperId, request);
 
             log.info("✅ Chat response generated for paper {} in session {}", paperId, response.getSessionId());
 
@@ -93,6 +104,87 @@ public class PaperContextChatController {
         }
     }
 
+    @PostMapping(value = "/{paperId}/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Chat with a paper using AI, streaming the answer",
+            description = "Same as the chat endpoint, but the answer is sent as server-sent events while it is "
+                    + "generated: a 'session' event with the session ID, 'token' events with answer fragments "
+                    + "and a final 'complete' event with the stored response.",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Answer stream started"),
+                @ApiResponse(responseCode = "404", description = "Paper not found"),
+                @ApiResponse(
+                        responseCode = "422",
+                        description = "Paper content not extracted yet - extraction in progress or failed"),
+                @ApiResponse(responseCode = "429", description = "Too many answers streaming, retry later")
+            })
+    public ResponseEntity<SseEmitter> streamChatWithPaper(
+            @Parameter(description = "ID of the paper to chat about", required = true) @PathVariable UUID paperId,
+            @Parameter(description = "Chat request containing the question and optional session ID", required = true)
+                    @Valid
+                    @RequestBody
+                    PaperChatRequest request) {
+
+        log.info("📝 Streaming chat request for paper {}: {}", paperId, truncateMessage(request.getMessage()));
+
+        // Claim a stream slot before the user message is stored, so a busy server stores nothing
+        if (!chatStreamExecutor.tryReserve()) {
+            log.warn("❌ Too many chat streams, turning away request for paper {}", paperId);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(chatStreamExecutor.getRetryAfter().toSeconds()))
+                    .build();
+        }
+        boolean submitted = false;
+        try {
+            PreparedChat prepared;
+            try {
+                prepared = paperChatEngine.prepareChat(paperId, request);
+            } catch (PaperNotFoundException e) {
+                log.warn("❌ Paper not found: {}", paperId);
+                return ResponseEntity.notFound().build();
+            } catch (PaperNotExtractedException e) {
+                log.warn("❌ Paper content not extracted: {}", e.getMessage());
+                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+            }
+
+            UUID sessionId = prepared.session().getId();
+            SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+            send(emitter, "session", Map.of("sessionId", sessionId));
+
+            chatStreamExecutor.submit(() -> {
+                try {
+                    PaperChatResponse response = paperChatEngine.streamChat(prepared, fragment -> {
+                        try {
+                            emitter.send(SseEmitter.event()
+                                    .name("message")
+                                    .data(Map.of("type", "token", "data", Map.of("text", fragment))));
+                        } catch (IOException e) {
+                            // Stops reading from Gemini; the partial answer is still stored
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    send(emitter, "complete", response);
+                    emitter.complete();
+                    log.info("✅ Streamed chat response for paper {} in session {}", paperId, sessionId);
+                } catch (Exception e) {
+                    log.error("❌ Error streaming chat response for paper {}: {}", paperId, e.getMessage(), e);
+                    send(emitter, "error", Map.of("message", "An error occurred while generating the response."));
+                    emitter.complete();
+                }
+            });
+            submitted = true;
+
+            return ResponseEntity.ok()
+                    .header("Cache-Control", "no-cache, no-transform")
+                    .header("X-Accel-Buffering", "no")
+                    .body(emitter);
+        } finally {
+            if (!submitted) {
+                chatStreamExecutor.release();
+            }
+        }
+    }
+
     @GetMapping("/{paperId}/chat/sessions/{sessionId}")
     @Operation(
             summary = "Get chat session history",
@@ -290,6 +382,17 @@ public class PaperContextChatController {
         }
     }
 
+    /**
+     * Send one SSE event in the {type, data} format used by the citation stream
+     */
+    private void send(SseEmitter emitter, String type, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name("message").data(Map.of("type", type, "data", data)));
+        } catch (Exception e) {
+            log.debug("Failed to send SSE event of type {}: {}", type, e.getMessage());
+        }
+    }
+
     /**
      * Helper method to truncate messages for logging
      */
@@ -13,8 +13,11 @@ import org.slf4j.LoggerFactory;
 import org.solace.scholar_ai.project_service.dto.citation.CitationCheckRequestDto;
 import org.solace.scholar_ai.project_service.dto.citation.CitationCheckResponseDto;
 import org.solace.scholar_ai.project_service.dto.citation.CitationSummaryDto;
+import org.solace.scholar_ai.project_service.exception.CitationCheckRejectedException;
 import org.solace.scholar_ai.project_service.service.citation.CitationCheckService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -38,6 +41,16 @@ public class CitationController {
             logger.info("Starting citation check for document {}", request.getDocumentId());
             CitationCheckResponseDto response = citationCheckService.startCitationCheck(request);
             return ResponseEntity.ok(response);
+        } catch (CitationCheckRejectedException e) {
+            logger.warn("Rejected citation check for document {}: {}", request.getDocumentId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                    .body(CitationCheckResponseDto.builder()
+                            .projectId(request.getProjectId())
+                            .documentId(request.getDocumentId())
+                            .status("REJECTED")
+                            .message(e.getMessage())
+                            .build());
         } catch (Exception e) {
             logger.error("Error starting citation check", e);
             return ResponseEntity.internalServerError().build();
@@ -138,6 +151,18 @@ public class CitationController {
                                     "progressPct", progressPct));
                 }
 
+                @Override
+                public void onQueued(UUID jobId, int queuePosition) {
+                    send(
+                            emitter,
+                            "status",
+                            Map.of(
+                                    "status", "QUEUED",
+                                    "step", "Waiting in queue (position " + queuePosition + ")",
+                                    "progressPct", 0,
+                                    "queuePosition", queuePosition));
+                }
+
                 @Override
                 public void onIssue(UUID jobId, CitationCheckResponseDto.CitationIssueDto issue) {
                     send(emitter, "issue", Map.of("issue", issue));
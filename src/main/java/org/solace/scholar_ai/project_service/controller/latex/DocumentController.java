@@ -8,11 +8,15 @@ import org.solace.scholar_ai.project_service.dto.latex.CompileLatexRequestDTO;
 import org.solace.scholar_ai.project_service.dto.latex.CreateDocumentRequestDTO;
 import org.solace.scholar_ai.project_service.dto.latex.DocumentResponseDTO;
 import org.solace.scholar_ai.project_service.dto.latex.DocumentVersionDTO;
+import org.solace.scholar_ai.project_service.dto.latex.LatexPreviewRequestDTO;
+import org.solace.scholar_ai.project_service.dto.latex.LatexPreviewResponseDTO;
 import org.solace.scholar_ai.project_service.dto.latex.UpdateDocumentRequestDTO;
 import org.solace.scholar_ai.project_service.dto.response.APIResponse;
+import org.solace.scholar_ai.project_service.exception.LatexCompileRejectedException;
 import org.solace.scholar_ai.project_service.service.latex.DocumentService;
 import org.solace.scholar_ai.project_service.service.latex.LaTeXCompilationService;
 import org.solace.scholar_ai.project_service.service.latex.PDFLatexService;
+import org.solace.scholar_ai.project_service.service.latex.preview.LatexPreviewService;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -28,6 +32,7 @@ public class DocumentController {
     private final DocumentService documentService;
     private final LaTeXCompilationService latexCompilationService;
     private final PDFLatexService pdfLatexService;
+    private final LatexPreviewService latexPreviewService;
 
     @PostMapping
     public ResponseEntity<APIResponse<DocumentResponseDTO>> createDocument(
@@ -89,7 +94,7 @@ public class DocumentController {
     @PostMapping("/{documentId}/compile")
     public ResponseEntity<APIResponse<String>> compileDocument(@PathVariable UUID documentId) {
         DocumentResponseDTO document = documentService.getDocumentById(documentId);
-        String compiledContent = documentService.compileLatex(document.getContent());
+        String compiledContent = documentService.compileLatex(document.getContent(), document.getProjectId());
         APIResponse<String> response = APIResponse.<String>builder()
                 .status(HttpStatus.OK.value())
                 .message("Document compiled successfully")
@@ -99,8 +104,11 @@ public class DocumentController {
     }
 
     @PostMapping("/compile")
-    public ResponseEntity<APIResponse<String>> compileLatex(@Valid @RequestBody CompileLatexRequestDTO request) {
-        String compiledContent = documentService.compileLatex(request.getLatexContent());
+    public ResponseEntity<APIResponse<String>> compileLatex(
+            @Valid @RequestBody CompileLatexRequestDTO request,
+            @RequestHeader(value = "X-User-ID", required = false) UUID userId) {
+        UUID queueKey = documentService.compileQueueKey(request.getDocumentId(), userId);
+        String compiledContent = documentService.compileLatex(request.getLatexContent(), queueKey);
         APIResponse<String> response = APIResponse.<String>builder()
                 .status(HttpStatus.OK.value())
                 .message("LaTeX compiled successfully")
@@ -109,10 +117,26 @@ public class DocumentController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/preview")
+    public ResponseEntity<APIResponse<LatexPreviewResponseDTO>> previewLatex(
+            @Valid @RequestBody LatexPreviewRequestDTO request) {
+        LatexPreviewResponseDTO preview =
+                latexPreviewService.preview(request.getLatexContent(), request.getKnownFragmentIds());
+        APIResponse<LatexPreviewResponseDTO> response = APIResponse.<LatexPreviewResponseDTO>builder()
+                .status(HttpStatus.OK.value())
+                .message("LaTeX preview rendered successfully")
+                .data(preview)
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/compile-pdf")
-    public ResponseEntity<Resource> compileToPdf(@Valid @RequestBody CompileLatexRequestDTO request) {
+    public ResponseEntity<Resource> compileToPdf(
+            @Valid @RequestBody CompileLatexRequestDTO request,
+            @RequestHeader(value = "X-User-ID", required = false) UUID userId) {
         try {
-            Resource pdfResource = pdfLatexService.compileLatexToPDF(request.getLatexContent());
+            UUID queueKey = documentService.compileQueueKey(request.getDocumentId(), userId);
+            Resource pdfResource = pdfLatexService.compileLatexToPDF(request.getLatexContent(), queueKey);
             return ResponseEntity.ok()
                     .header("Content-Disposition", "attachment; filename=\"document.pdf\"")
                     .header("Content-Type", "application/pdf")
@@ -120,15 +144,20 @@ public class DocumentController {
                     .header("Pragma", "no-cache")
                     .header("Expires", "0")
                     .body(pdfResource);
+        } catch (LatexCompileRejectedException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to compile LaTeX to PDF: " + e.getMessage(), e);
         }
     }
 
     @PostMapping("/preview-pdf")
-    public ResponseEntity<Resource> previewPdf(@Valid @RequestBody CompileLatexRequestDTO request) {
+    public ResponseEntity<Resource> previewPdf(
+            @Valid @RequestBody CompileLatexRequestDTO request,
+            @RequestHeader(value = "X-User-ID", required = false) UUID userId) {
         try {
-            Resource pdfResource = pdfLatexService.compileLatexToPDF(request.getLatexContent());
+            UUID queueKey = documentService.compileQueueKey(request.getDocumentId(), userId);
+            Resource pdfResource = pdfLatexService.compileLatexToPDF(request.getLatexContent(), queueKey);
             return ResponseEntity.ok()
                     .header("Content-Disposition", "inline; filename=\"preview.pdf\"")
                     .header("Content-Type", "application/pdf")
@@ -136,15 +165,20 @@ public class DocumentController {
                     .header("Pragma", "no-cache")
                     .header("Expires", "0")
                     .body(pdfResource);
+        } catch (LatexCompileRejectedException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to preview LaTeX PDF: " + e.getMessage(), e);
         }
     }
 
     @PostMapping("/generate-pdf")
-    public ResponseEntity<Resource> generatePDF(@RequestBody java.util.Map<String, String> request) {
+    public ResponseEntity<Resource> generatePDF(
+            @RequestBody java.util.Map<String, String> request,
+            @RequestHeader(value = "X-User-ID", required = false) UUID userId) {
         String latexContent = request.get("latexContent");
         String filename = request.get("filename");
+        String documentId = request.get("documentId");
 
         if (latexContent == null || latexContent.trim().isEmpty()) {
             throw new RuntimeException("LaTeX content is required");
@@ -154,7 +188,9 @@ public class DocumentController {
             filename = "document";
         }
 
-        return latexCompilationService.generatePDF(latexContent, filename);
+        UUID queueKey = documentService.compileQueueKey(
+                documentId != null && !documentId.isBlank() ? UUID.fromString(documentId) : null, userId);
+        return latexCompilationService.generatePDF(latexContent, filename, queueKey);
     }
 
     @PostMapping("/create-with-name")
@@ -5,14 +5,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.solace.scholar_ai.project_service.dto.summary.PaperSummaryResponseDto;
+import org.solace.scholar_ai.project_service.dto.summary.SummaryJobStatusDto;
 import org.solace.scholar_ai.project_service.model.paper.Paper;
 import org.solace.scholar_ai.project_service.model.summary.PaperSummary;
 import org.solace.scholar_ai.project_service.repository.paper.PaperRepository;
 import org.solace.scholar_ai.project_service.repository.summary.PaperSummaryRepository;
-import org.solace.scholar_ai.project_service.service.summary.PaperSummaryGenerationService;
+import org.solace.scholar_ai.project_service.service.summary.SummaryJobService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,38 +26,20 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Paper Summary", description = "API for generating and managing paper summaries")
 public class PaperSummaryController {
 
-    private final PaperSummaryGenerationService summaryGenerationService;
+    private final SummaryJobService summaryJobService;
     private final PaperSummaryRepository summaryRepository;
     private final PaperRepository paperRepository;
 
+    // The generate endpoints only wait for the job here; all database work happens on the job
+    // thread, so a waiting request never holds a connection for the length of a generation.
+
     @Operation(summary = "Generate summary for a paper")
     @PostMapping("/generate")
     public ResponseEntity<PaperSummaryResponseDto> generateSummary(@PathVariable UUID paperId) {
         log.info("Received request to generate summary for paper: {}", paperId);
 
-        // Check if summary already exists
-        if (summaryRepository.findByPaperId(paperId).isPresent()) {
-            log.info("Summary already exists for paper: {}, returning existing summary", paperId);
-            PaperSummary existingSummary =
-                    summaryRepository.findByPaperId(paperId).get();
-            return ResponseEntity.ok(PaperSummaryResponseDto.fromEntity(existingSummary));
-        }
-
-        try {
-            PaperSummary summary = summaryGenerationService.generateSummary(paperId);
-            return ResponseEntity.ok(PaperSummaryResponseDto.fromEntity(summary));
-        } catch (org.springframework.dao.DataIntegrityViolationException e) {
-            // Handle race condition: another process created the summary while we were
-            // generating
-            log.info("Race condition detected for paper: {}, another process created the summary", paperId);
-            if (summaryRepository.findByPaperId(paperId).isPresent()) {
-                PaperSummary existingSummary =
-                        summaryRepository.findByPaperId(paperId).get();
-                return ResponseEntity.ok(PaperSummaryResponseDto.fromEntity(existingSummary));
-            }
-            // If summary still doesn't exist, re-throw the exception
-            throw e;
-        }
+        PaperSummary summary = await(summaryJobService.submit(paperId, false));
+        return ResponseEntity.ok(PaperSummaryResponseDto.fromEntity(summary));
     }
 
     @Operation(summary = "Regenerate summary for a paper")
@@ -63,13 +47,38 @@ public class PaperSummaryController {
     public ResponseEntity<PaperSummaryResponseDto> regenerateSummary(@PathVariable UUID paperId) {
         log.info("Received request to regenerate summary for paper: {}", paperId);
 
-        // Delete existing summary if present
-        summaryRepository.findByPaperId(paperId).ifPresent(summaryRepository::delete);
-
-        PaperSummary summary = summaryGenerationService.generateSummary(paperId);
+        PaperSummary summary = await(summaryJobService.submit(paperId, true));
         return ResponseEntity.ok(PaperSummaryResponseDto.fromEntity(summary));
     }
 
+    @Operation(summary = "Start generating a summary in the background")
+    @PostMapping("/jobs")
+    public ResponseEntity<SummaryJobStatusDto> submitSummaryJob(
+            @PathVariable UUID paperId, @RequestParam(defaultValue = "false") boolean regenerate) {
+        log.info("Received request to queue summary job for paper: {} (regenerate: {})", paperId, regenerate);
+
+        SummaryJobService.SummaryJob job = summaryJobService.submit(paperId, regenerate);
+        return ResponseEntity.accepted().body(toStatus(job));
+    }
+
+    @Operation(summary = "Get the status of a paper's summary job")
+    @GetMapping("/jobs")
+    public ResponseEntity<SummaryJobStatusDto> getSummaryJob(@PathVariable UUID paperId) {
+        return summaryJobService
+                .findInFlight(paperId)
+                .map(job -> ResponseEntity.ok(toStatus(job)))
+                .orElseGet(() -> paperRepository
+                        .findById(paperId)
+                        .map(paper -> ResponseEntity.ok(SummaryJobStatusDto.builder()
+                                .paperId(paperId)
+                                .state(storedState(paper.getSummarizationStatus()))
+                                .startedAt(paper.getSummarizationStartedAt())
+                                .completedAt(paper.getSummarizationCompletedAt())
+                                .error(paper.getSummarizationError())
+                                .build()))
+                        .orElse(ResponseEntity.notFound().build()));
+    }
+
     @Operation(summary = "Get summary for a paper")
     @GetMapping
     public ResponseEntity<PaperSummaryResponseDto> getSummary(@PathVariable UUID paperId) {
@@ -164,4 +173,32 @@ public class PaperSummaryController {
             return ResponseEntity.ok(response);
         }
     }
+
+    private static PaperSummary await(SummaryJobService.SummaryJob job) {
+        try {
+            return job.getFuture().join();
+        } catch (CompletionException e) {
+            // Surface the generation failure itself, e.g. PaperNotExtractedException
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static SummaryJobStatusDto toStatus(SummaryJobService.SummaryJob job) {
+        return SummaryJobStatusDto.builder()
+                .paperId(job.getPaperId())
+                .state(job.getState().name())
+                .submittedAt(job.getSubmittedAt())
+                .startedAt(job.getStartedAt())
+                .build();
+    }
+
+    private static String storedState(String summarizationStatus) {
+        if (summarizationStatus == null) {
+            return "NONE";
+        }
+        return "PROCESSING".equals(summarizationStatus) ? "RUNNING" : summarizationStatus;
+    }
 }
@@ -0,0 +1,114 @@
+package org.solace.scholar_ai.project_service.controller.summary;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.dto.summary.BatchSummaryProgressDto;
+import org.solace.scholar_ai.project_service.service.summary.ProjectSummaryBatchService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/projects/{projectId}/summaries/batch")
+@RequiredArgsConstructor
+@Tag(name = "Project Summary Batch", description = "API for summarizing all papers of a project")
+public class ProjectSummaryBatchController {
+
+    private static final ScheduledExecutorService keepAliveExecutor = Executors.newScheduledThreadPool(2);
+
+    private final ProjectSummaryBatchService batchService;
+
+    @Operation(summary = "Summarize every extracted paper of the project that has no summary yet")
+    @PostMapping
+    public ResponseEntity<BatchSummaryProgressDto> startBatch(@PathVariable UUID projectId) {
+        log.info("Received request to summarize all papers of project: {}", projectId);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(batchService.start(projectId));
+    }
+
+    @Operation(summary = "Get progress of the project's batch summarization")
+    @GetMapping
+    public ResponseEntity<BatchSummaryProgressDto> getBatch(@PathVariable UUID projectId) {
+        return batchService
+                .getProgress(projectId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Stream progress of the project's batch summarization")
+    @GetMapping(path = "/events", produces = "text/event-stream")
+    public SseEmitter streamBatch(@PathVariable UUID projectId, HttpServletResponse response) {
+        response.setHeader("Cache-Control", "no-cache, no-transform");
+        response.setHeader("X-Accel-Buffering", "no");
+
+        SseEmitter emitter = new SseEmitter(0L); // No timeout
+        BatchSummaryProgressDto current = batchService.getProgress(projectId).orElse(null);
+        if (current == null) {
+            send(emitter, "error", Map.of("message", "No batch summarization for project " + projectId));
+            emitter.complete();
+            return emitter;
+        }
+        send(emitter, "progress", current);
+
+        // Setup keep-alive to prevent proxy timeouts
+        ScheduledFuture<?> keepAliveTask = keepAliveExecutor.scheduleWithFixedDelay(
+                () -> {
+                    try {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } catch (Exception e) {
+                        log.debug("Keep-alive failed for project {}, connection likely closed", projectId);
+                    }
+                },
+                20,
+                20,
+                TimeUnit.SECONDS);
+
+        ProjectSummaryBatchService.BatchListener listener = new ProjectSummaryBatchService.BatchListener() {
+            @Override
+            public void onProgress(BatchSummaryProgressDto progress) {
+                send(emitter, "progress", progress);
+            }
+
+            @Override
+            public void onComplete(BatchSummaryProgressDto progress) {
+                send(emitter, "complete", progress);
+                keepAliveTask.cancel(false);
+                emitter.complete();
+            }
+        };
+
+        Runnable cleanup = () -> {
+            keepAliveTask.cancel(false);
+            batchService.removeListener(projectId, listener);
+        };
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(throwable -> cleanup.run());
+
+        batchService.addListener(projectId, listener);
+        return emitter;
+    }
+
+    /**
+     * Send an SSE event in the {@code {type, data}} message format the frontend expects
+     */
+    private void send(SseEmitter emitter, String type, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name("message").data(Map.of("type", type, "data", data)));
+        } catch (Exception e) {
+            log.warn("Failed to send SSE event of type {}", type, e);
+            emitter.completeWithError(e);
+        }
+    }
+}
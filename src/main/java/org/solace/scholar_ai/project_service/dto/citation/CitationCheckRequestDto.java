@@ -52,5 +52,23 @@ public class CitationCheckRequestDto {
 
         @Builder.Default
         private Boolean strictMode = true; // More stringent checking
+
+        @Builder.Default
+        private Boolean plagiarismLsh = true; // Prune plagiarism comparisons with MinHash/LSH
+
+        @Builder.Default
+        private Integer lshBands = 16; // LSH bands, bands x rows must not exceed 64
+
+        @Builder.Default
+        private Integer lshRows = 4; // MinHash slots per LSH band
+
+        @Builder.Default
+        private Boolean batchVerification = true; // Verify several claim/evidence pairs per AI request
+
+        @Builder.Default
+        private Integer verificationBatchSize = 8; // Claim/evidence pairs per batched AI request
+
+        @Builder.Default
+        private Boolean incremental = false; // Re-analyze only sentences changed since the previous check
     }
 }
@@ -27,6 +27,8 @@ public class CitationCheckResponseDto {
 
     private Integer progressPercent; // 0-100
 
+    private Integer queuePosition; // 1-based position while QUEUED, null otherwise
+
     private String message; // Status message or error
 
     private LocalDateTime createdAt;
@@ -22,4 +22,6 @@ public class CitationSummaryDto {
     private Instant startedAt;
 
     private Instant finishedAt;
+
+    private Map<String, Object> analysis; // Analysis counters, e.g. plagiarism candidate pairs
 }
@@ -1,6 +1,7 @@
 package org.solace.scholar_ai.project_service.dto.latex;
 
 import jakarta.validation.constraints.NotBlank;
+import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,4 +15,7 @@ public class CompileLatexRequestDTO {
 
     @NotBlank(message = "LaTeX content is required")
     private String latexContent;
+
+    // Document being compiled, so the compilation queues behind its project's own; optional
+    private UUID documentId;
 }
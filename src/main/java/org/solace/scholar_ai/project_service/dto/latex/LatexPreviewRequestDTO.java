@@ -0,0 +1,21 @@
+package org.solace.scholar_ai.project_service.dto.latex;
+
+import jakarta.validation.constraints.NotBlank;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatexPreviewRequestDTO {
+
+    @NotBlank(message = "LaTeX content is required")
+    private String latexContent;
+
+    // Ids of the fragments the client shows, whose HTML is then not sent again; optional
+    private List<String> knownFragmentIds;
+}
@@ -0,0 +1,18 @@
+package org.solace.scholar_ai.project_service.dto.latex;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatexPreviewResponseDTO {
+    // The preview, in document order
+    private List<PreviewFragmentDTO> fragments;
+    // Fragments whose LaTeX was converted for this preview rather than reused
+    private Integer renderedFragments;
+}
@@ -0,0 +1,19 @@
+package org.solace.scholar_ai.project_service.dto.latex;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreviewFragmentDTO {
+    // Changes whenever the fragment's HTML does
+    private String id;
+    // front-matter, toc or section
+    private String kind;
+    // Null when the client already shows a fragment with this id
+    private String html;
+}
@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.solace.scholar_ai.project_service.model.chat.ChatRetrievalMode;
 
 @Data
 @Builder
@@ -44,6 +45,11 @@ public class PaperChatRequest {
     @Schema(description = "Selection context information")
     private SelectionContext selectionContext;
 
+    @Schema(
+            description = "How to select the paper content used to answer (optional, defaults to the configured one)",
+            example = "INTELLIGENT")
+    private ChatRetrievalMode retrievalStrategy;
+
     @Data
     @Builder
     @NoArgsConstructor
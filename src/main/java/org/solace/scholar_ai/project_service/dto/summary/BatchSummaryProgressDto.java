@@ -0,0 +1,34 @@
+package org.solace.scholar_ai.project_service.dto.summary;
+
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of a project-wide batch summarization run
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSummaryProgressDto {
+
+    private UUID projectId;
+    private String state; // RUNNING or COMPLETED
+    private int total;
+    private int completed;
+    private int failed;
+    private int inFlight;
+    private int remaining;
+    private boolean resumed; // Started from persisted PENDING papers after a restart
+    private Instant startedAt;
+    private Instant completedAt;
+
+    // The paper this update is about, if any
+    private UUID paperId;
+    private String paperStatus; // RUNNING, COMPLETED or FAILED
+    private String paperError;
+}
@@ -84,6 +84,8 @@ public class PaperSummaryResponseDto {
     private Double generationTimeSeconds;
     private Integer promptTokens;
     private Integer completionTokens;
+    private Integer contextTokensIncluded;
+    private Integer contextTokensDropped;
     private Double extractionCoverageUsed;
 
     // Validation
@@ -153,6 +155,8 @@ public class PaperSummaryResponseDto {
                 .generationTimeSeconds(summary.getGenerationTimeSeconds())
                 .promptTokens(summary.getPromptTokens())
                 .completionTokens(summary.getCompletionTokens())
+                .contextTokensIncluded(summary.getContextTokensIncluded())
+                .contextTokensDropped(summary.getContextTokensDropped())
                 .extractionCoverageUsed(summary.getExtractionCoverageUsed())
                 .validationStatus(
                         summary.getValidationStatus() != null
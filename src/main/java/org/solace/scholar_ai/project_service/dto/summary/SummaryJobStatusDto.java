@@ -0,0 +1,26 @@
+package org.solace.scholar_ai.project_service.dto.summary;
+
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Status of a paper's summary job. While a job is queued or running the job fields are set;
+ * afterwards the state reflects the paper's stored summarization status.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SummaryJobStatusDto {
+
+    private UUID paperId;
+    private String state; // QUEUED, RUNNING, COMPLETED, FAILED or NONE
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    private String error;
+}
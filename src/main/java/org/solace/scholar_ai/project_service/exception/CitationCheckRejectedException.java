@@ -0,0 +1,17 @@
+package org.solace.scholar_ai.project_service.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * Exception thrown when a citation check cannot be queued because the check queue is full
+ */
+@Getter
+public class CitationCheckRejectedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public CitationCheckRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,18 @@
+package org.solace.scholar_ai.project_service.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * Exception thrown when a LaTeX compilation cannot run because the compile queue is full or
+ * it waited too long for a free worker
+ */
+@Getter
+public class LatexCompileRejectedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public LatexCompileRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,17 @@
+package org.solace.scholar_ai.project_service.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * Exception thrown when a summary job cannot be queued because the summary job queue is full
+ */
+@Getter
+public class SummaryJobRejectedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public SummaryJobRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
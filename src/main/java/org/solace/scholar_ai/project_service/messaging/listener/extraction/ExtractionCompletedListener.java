@@ -1,39 +1,176 @@
 package org.solace.scholar_ai.project_service.messaging.listener.extraction;
 
-import lombok.RequiredArgsConstructor;
+import com.rabbitmq.client.Channel;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.config.RabbitMQConfig;
 import org.solace.scholar_ai.project_service.dto.event.extraction.ExtractionCompletedEvent;
-import org.solace.scholar_ai.project_service.service.extraction.ExtractionService;
+import org.solace.scholar_ai.project_service.service.extraction.ExtractionIngestProcessor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Component;
 
 /**
- * Listener for extraction completion events from the extractor service
+ * Listener for extraction completion events from the extractor service.
+ *
+ * <p>The AMQP consumer thread only decodes the event and hands it to a bounded pool of ingest
+ * workers, so one slow ingest does not hold up the deliveries behind it. Messages are acked
+ * manually once the worker is done: ingested and duplicate events are acked, events that
+ * still fail after their retries are republished to the dead-letter queue and then acked.
+ * The consumer prefetch caps how many unacked events can be waiting for a worker.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class ExtractionCompletedListener {
 
-    private final ExtractionService extractionService;
+    static final String ATTEMPTS_HEADER = "x-ingest-attempts";
+    static final String ERROR_HEADER = "x-ingest-error";
+
+    private final ExtractionIngestProcessor ingestProcessor;
+    private final Jackson2JsonMessageConverter messageConverter;
+    private final RabbitTemplate rabbitTemplate;
+    private final RabbitMQConfig rabbitMQConfig;
+    private final ThreadPoolExecutor ingestWorkers;
+
+    public ExtractionCompletedListener(
+            ExtractionIngestProcessor ingestProcessor,
+            Jackson2JsonMessageConverter messageConverter,
+            RabbitTemplate rabbitTemplate,
+            RabbitMQConfig rabbitMQConfig,
+            @Value("${scholarai.extraction.ingest.workers:2}") int workers,
+            @Value("${scholarai.rabbitmq.extraction.consumer.prefetch:4}") int prefetch,
+            @Value("${scholarai.rabbitmq.extraction.consumer.max-concurrency:2}") int maxConsumers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Extraction ingest workers must be at least 1");
+        }
+        this.ingestProcessor = ingestProcessor;
+        this.messageConverter = messageConverter;
+        this.rabbitTemplate = rabbitTemplate;
+        this.rabbitMQConfig = rabbitMQConfig;
+        // Every unacked delivery fits in the queue; running on the consumer thread is only a backstop
+        this.ingestWorkers = new ThreadPoolExecutor(
+                workers,
+                workers,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, prefetch * maxConsumers)),
+                workerThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        log.info("Extraction ingest: {} workers for up to {} unacked events", workers, prefetch * maxConsumers);
+    }
 
     /**
      * Handle extraction completion events
      *
-     * @param event The extraction completion event
+     * @param message The raw extraction completion message
+     * @param channel The channel the message must be acknowledged on
      */
-    @RabbitListener(queues = "${scholarai.rabbitmq.extraction.completed-queue}")
-    public void handleExtractionCompleted(ExtractionCompletedEvent event) {
+    @RabbitListener(
+            queues = "${scholarai.rabbitmq.extraction.completed-queue}",
+            containerFactory = "extractionCompletedListenerFactory")
+    public void handleExtractionCompleted(Message message, Channel channel) {
+        ExtractionCompletedEvent event;
+        try {
+            event = decode(message);
+        } catch (MessageConversionException e) {
+            log.error("Dead-lettering undecodable extraction completed message: {}", e.getMessage());
+            deadLetter(message, channel, 0, e);
+            return;
+        }
+
+        log.info("Received extraction completed event for job ID: {} (paper: {})", event.jobId(), event.paperId());
+        ingestWorkers.execute(() -> ingest(event, message, channel));
+    }
+
+    void ingest(ExtractionCompletedEvent event, Message message, Channel channel) {
+        ExtractionIngestProcessor.Result result;
+        try {
+            result = ingestProcessor.process(event);
+        } catch (RuntimeException e) {
+            // Could not even claim the job, most likely because the database is unavailable
+            log.error("Error claiming extraction job {}, requeueing: {}", event.jobId(), e.getMessage(), e);
+            nack(message, channel);
+            return;
+        }
+
+        switch (result.outcome()) {
+            case COMPLETED, DUPLICATE -> {
+                log.info("Successfully processed extraction completed event for job ID: {}", event.jobId());
+                ack(message, channel);
+            }
+            case FAILED -> deadLetter(message, channel, result.attempts(), result.failure());
+            case INTERRUPTED -> nack(message, channel);
+        }
+    }
+
+    private ExtractionCompletedEvent decode(Message message) {
+        Object converted = messageConverter.fromMessage(
+                message, ParameterizedTypeReference.forType(ExtractionCompletedEvent.class));
+        if (converted instanceof ExtractionCompletedEvent event) {
+            return event;
+        }
+        throw new MessageConversionException("Unsupported content type: "
+                + message.getMessageProperties().getContentType());
+    }
+
+    private void deadLetter(Message message, Channel channel, int attempts, Exception failure) {
+        Message deadLetter = MessageBuilder.fromMessage(message)
+                .setHeader(ATTEMPTS_HEADER, attempts)
+                .setHeader(ERROR_HEADER, failure.getClass().getSimpleName() + ": " + failure.getMessage())
+                .build();
         try {
-            log.info("Received extraction completed event for job ID: {} (paper: {})", event.jobId(), event.paperId());
+            rabbitTemplate.send(
+                    rabbitMQConfig.getExchangeName(), rabbitMQConfig.getExtractionDeadLetterRoutingKey(), deadLetter);
+        } catch (AmqpException e) {
+            log.error("Failed to dead-letter extraction completed message, requeueing: {}", e.getMessage());
+            nack(message, channel);
+            return;
+        }
+        ack(message, channel);
+    }
 
-            extractionService.handleExtractionCompleted(event);
+    private static void ack(Message message, Channel channel) {
+        try {
+            channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+        } catch (IOException e) {
+            // The broker redelivers it, and the ledger turns the redelivery into a no-op
+            log.warn("Failed to ack extraction completed message: {}", e.getMessage());
+        }
+    }
 
-            log.info("Successfully processed extraction completed event for job ID: {}", event.jobId());
-        } catch (Exception e) {
-            log.error(
-                    "Error processing extraction completed event for job ID {}: {}", event.jobId(), e.getMessage(), e);
-            throw e; // Re-throw to trigger message rejection
+    private static void nack(Message message, Channel channel) {
+        try {
+            channel.basicNack(message.getMessageProperties().getDeliveryTag(), false, true);
+        } catch (IOException e) {
+            log.warn("Failed to requeue extraction completed message: {}", e.getMessage());
         }
     }
+
+    @PreDestroy
+    public void shutdown() {
+        // Events whose ack no longer reaches the broker are redelivered and skipped by the ledger
+        ingestWorkers.shutdown();
+    }
+
+    private static ThreadFactory workerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "extraction-ingest-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
 }
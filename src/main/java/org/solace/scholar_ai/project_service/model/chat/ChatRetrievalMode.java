@@ -0,0 +1,13 @@
+package org.solace.scholar_ai.project_service.model.chat;
+
+/**
+ * How a chat turn selects the paper content handed to the model
+ */
+public enum ChatRetrievalMode {
+    /** Keyword matching of the question and selected text, plus explicitly referenced content */
+    KEYWORD,
+    /** Query type analysis weighting content categories, ranked with BM25 */
+    INTELLIGENT,
+    /** Data requirements detected in the question weighting content categories, ranked with BM25 */
+    REQUIREMENTS
+}
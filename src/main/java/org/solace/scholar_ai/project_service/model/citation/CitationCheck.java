@@ -40,6 +40,12 @@ public class CitationCheck {
     @Column(name = "content_hash", length = 64)
     private String contentHash; // SHA256 hash of LaTeX content
 
+    @Column(name = "content", columnDefinition = "TEXT")
+    private String content; // Checked LaTeX content, the baseline for incremental re-checks
+
+    @Column(name = "context_hash", length = 64)
+    private String contextHash; // SHA256 hash of the local corpus paper IDs
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
     private Status status;
@@ -0,0 +1,49 @@
+package org.solace.scholar_ai.project_service.model.citation;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+/**
+ * AI verification decision for one claim against one extracted paragraph, keyed by a
+ * hash of the normalized claim, the paragraph ID and the prompt version
+ */
+@Entity
+@Table(name = "citation_verification_cache")
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VerificationCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "cache_key", nullable = false, unique = true, length = 64)
+    private String cacheKey; // SHA-256 hex
+
+    @Column(name = "paragraph_id", nullable = false)
+    private UUID paragraphId;
+
+    @Column(name = "prompt_version", nullable = false)
+    private Integer promptVersion;
+
+    @Column(name = "decision", nullable = false, length = 32)
+    private String decision; // supports | contradicts | not_enough_info
+
+    @Column(name = "confidence", nullable = false)
+    private Double confidence;
+
+    @Column(name = "rationale", columnDefinition = "TEXT")
+    private String rationale;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,54 @@
+package org.solace.scholar_ai.project_service.model.extraction;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.*;
+
+/**
+ * Ledger entry for an extraction job whose completed event was claimed for ingest. A job is
+ * ingested by whoever claims it; redeliveries of a completed job are acknowledged and skipped.
+ * The owner of a claim keeps {@code claimedAt} fresh while it ingests, and only the owner can
+ * finish the job.
+ */
+@Entity
+@Table(name = "extraction_job_ledger")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExtractionJobRecord {
+
+    @Id
+    @Column(name = "job_id", length = 100)
+    private String jobId;
+
+    @Column(name = "paper_id", nullable = false)
+    private UUID paperId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "claimed_by", length = 36)
+    private String claimedBy;
+
+    @Column(name = "claimed_at", nullable = false)
+    private Instant claimedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    public enum Status {
+        PROCESSING,
+        COMPLETED,
+        FAILED
+    }
+}
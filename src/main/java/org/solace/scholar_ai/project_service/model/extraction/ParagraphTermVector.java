@@ -0,0 +1,45 @@
+package org.solace.scholar_ai.project_service.model.extraction;
+
+import jakarta.persistence.*;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Precomputed term vector and MinHash signature of an extracted paragraph.
+ * Kept in its own table so lexical matching can load it without the paragraph text.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "paragraph_term_vectors")
+public class ParagraphTermVector {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "paragraph_id", nullable = false, unique = true)
+    private UUID paragraphId;
+
+    @Column(name = "paper_extraction_id", nullable = false)
+    private UUID paperExtractionId;
+
+    @Column(name = "format_version", nullable = false)
+    private Integer formatVersion;
+
+    @Column(name = "token_count")
+    private Integer tokenCount;
+
+    @Column(name = "term_data", nullable = false)
+    private byte[] termData; // [n][term ids][counts] as big-endian ints
+
+    @Column(name = "minhash_signature")
+    private byte[] minhashSignature; // MinHash slots as big-endian ints
+}
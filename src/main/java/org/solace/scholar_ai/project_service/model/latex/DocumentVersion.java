@@ -9,8 +9,19 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
+/**
+ * A saved version of a document. Every few versions store their full content as a snapshot;
+ * the rest store a compressed delta from the version before them and are rebuilt from the
+ * snapshot they follow.
+ */
 @Entity
-@Table(name = "document_versions")
+@Table(
+        name = "document_versions",
+        indexes =
+                @Index(
+                        name = "idx_document_versions_document_version",
+                        columnList = "document_id, version_number",
+                        unique = true))
 @Data
 @Builder
 @NoArgsConstructor
@@ -28,7 +39,13 @@ public class DocumentVersion {
     private Integer versionNumber;
 
     @Column(name = "content", columnDefinition = "TEXT")
-    private String content;
+    private String content; // Full content of snapshots; null when stored as a delta
+
+    @Column(name = "delta")
+    private byte[] delta; // Delta from the previous version; null for snapshots
+
+    @Column(name = "snapshot_version")
+    private Integer snapshotVersion; // Version number of the snapshot a delta is rebuilt from
 
     @Column(name = "commit_message")
     private String commitMessage;
@@ -129,6 +129,11 @@ public class Paper {
     @Column(name = "summarization_error", columnDefinition = "TEXT")
     private String summarizationError;
 
+    // Selected by a project batch summarization run that has not summarized it yet
+    @Column(name = "summarization_batched", nullable = false)
+    @Builder.Default
+    private Boolean summarizationBatched = false;
+
     // One-to-one relationship with paper extraction details
     @OneToOne(mappedBy = "paper", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private PaperExtraction paperExtraction;
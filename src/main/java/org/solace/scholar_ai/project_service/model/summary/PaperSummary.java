@@ -162,6 +162,12 @@ public class PaperSummary {
     @Column(name = "completion_tokens")
     private Integer completionTokens;
 
+    @Column(name = "context_tokens_included")
+    private Integer contextTokensIncluded; // estimated extraction tokens packed into the prompts
+
+    @Column(name = "context_tokens_dropped")
+    private Integer contextTokensDropped; // estimated tokens left out to fit the prompt budgets
+
     @Column(name = "extraction_coverage_used")
     private Double extractionCoverageUsed; // % of extracted data utilized
 
@@ -1,10 +1,12 @@
 package org.solace.scholar_ai.project_service.repository.citation;
 
+import jakarta.persistence.LockModeType;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.solace.scholar_ai.project_service.model.citation.CitationCheck;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,6 +22,20 @@ public interface CitationCheckRepository extends JpaRepository<CitationCheck, UU
             "SELECT c FROM CitationCheck c WHERE c.documentId = :documentId AND c.status = 'DONE' ORDER BY c.createdAt DESC")
     Optional<CitationCheck> findLatestCompletedByDocumentId(@Param("documentId") UUID documentId);
 
+    /**
+     * Find a citation check and lock its row until the transaction ends, so a cancellation
+     * and the saves of the check's worker take turns
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CitationCheck c WHERE c.id = :id")
+    Optional<CitationCheck> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Find the most recent citation check for a document in a status
+     */
+    Optional<CitationCheck> findFirstByDocumentIdAndStatusOrderByCreatedAtDesc(
+            UUID documentId, CitationCheck.Status status);
+
     /**
      * Find citation check by document ID and status
      */
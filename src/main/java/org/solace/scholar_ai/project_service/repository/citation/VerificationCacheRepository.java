@@ -0,0 +1,23 @@
+package org.solace.scholar_ai.project_service.repository.citation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.solace.scholar_ai.project_service.model.citation.VerificationCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface VerificationCacheRepository extends JpaRepository<VerificationCacheEntry, UUID> {
+
+    /**
+     * Find cached decisions by cache key
+     *
+     * @param cacheKeys The cache keys to look up
+     * @return Entries for the keys that are cached
+     */
+    @Query("SELECT v FROM VerificationCacheEntry v WHERE v.cacheKey IN :cacheKeys")
+    List<VerificationCacheEntry> findByCacheKeys(@Param("cacheKeys") Collection<String> cacheKeys);
+}
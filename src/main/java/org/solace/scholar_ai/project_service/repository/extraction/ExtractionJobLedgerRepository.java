@@ -0,0 +1,82 @@
+package org.solace.scholar_ai.project_service.repository.extraction;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.solace.scholar_ai.project_service.model.extraction.ExtractionJobRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the extraction job dedupe ledger
+ */
+@Repository
+public interface ExtractionJobLedgerRepository extends JpaRepository<ExtractionJobRecord, String> {
+
+    /**
+     * Atomically claim a job for ingest. A job can be claimed when it has no ledger entry yet,
+     * when its last ingest failed, or when it is still marked as processing but its owner has
+     * not refreshed the claim since {@code staleBefore}. A live claim is never taken over, even
+     * by a redelivery of the event.
+     *
+     * @param jobId The extraction job ID
+     * @param paperId The paper the job belongs to
+     * @param owner The claim token of the consumer claiming the job
+     * @param now The claim time
+     * @param staleBefore Processing claims not refreshed since this are taken over
+     * @return 1 when the job was claimed, 0 when it is completed or claimed by someone else
+     */
+    @Modifying
+    @Query(
+            value = "INSERT INTO extraction_job_ledger (job_id, paper_id, status, attempts, claimed_by, claimed_at) "
+                    + "VALUES (:jobId, :paperId, 'PROCESSING', 1, :owner, :now) "
+                    + "ON CONFLICT (job_id) DO UPDATE SET status = 'PROCESSING', "
+                    + "attempts = extraction_job_ledger.attempts + 1, claimed_by = :owner, claimed_at = :now, "
+                    + "last_error = NULL "
+                    + "WHERE extraction_job_ledger.status = 'FAILED' "
+                    + "OR (extraction_job_ledger.status = 'PROCESSING' "
+                    + "AND extraction_job_ledger.claimed_at < :staleBefore)",
+            nativeQuery = true)
+    int claim(
+            @Param("jobId") String jobId,
+            @Param("paperId") UUID paperId,
+            @Param("owner") String owner,
+            @Param("now") Instant now,
+            @Param("staleBefore") Instant staleBefore);
+
+    /**
+     * Refresh a claim that is still being ingested, so it does not go stale
+     *
+     * @param jobId The extraction job ID
+     * @param owner The claim token of the consumer holding the claim
+     * @param now The refresh time
+     * @return 1 when the claim was refreshed, 0 when it is no longer held by {@code owner}
+     */
+    @Modifying
+    @Query("UPDATE ExtractionJobRecord r SET r.claimedAt = :now WHERE r.jobId = :jobId AND r.claimedBy = :owner "
+            + "AND r.status = 'PROCESSING'")
+    int heartbeat(@Param("jobId") String jobId, @Param("owner") String owner, @Param("now") Instant now);
+
+    /**
+     * Record the outcome of a claimed job, provided the claim is still held by {@code owner}
+     *
+     * @param jobId The extraction job ID
+     * @param owner The claim token of the consumer holding the claim
+     * @param status COMPLETED or FAILED
+     * @param completedAt When the ingest finished
+     * @param lastError The failure message, or null on success
+     * @return 1 when the outcome was recorded, 0 when the claim was taken over
+     */
+    @Modifying
+    @Query("UPDATE ExtractionJobRecord r SET r.status = :status, r.completedAt = :completedAt, "
+            + "r.lastError = :lastError WHERE r.jobId = :jobId AND r.claimedBy = :owner "
+            + "AND r.status = 'PROCESSING'")
+    int finish(
+            @Param("jobId") String jobId,
+            @Param("owner") String owner,
+            @Param("status") ExtractionJobRecord.Status status,
+            @Param("completedAt") Instant completedAt,
+            @Param("lastError") String lastError);
+}
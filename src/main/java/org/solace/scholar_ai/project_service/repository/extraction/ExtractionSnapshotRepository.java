@@ -0,0 +1,251 @@
+package org.solace.scholar_ai.project_service.repository.extraction;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.solace.scholar_ai.project_service.model.extraction.PaperExtraction;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Read-only projections of a paper's extraction. Each method reads one table of the
+ * extraction in a single query, into rows that are not managed by the persistence context.
+ */
+public interface ExtractionSnapshotRepository extends Repository<PaperExtraction, UUID> {
+
+    /**
+     * Find the extraction header of a paper
+     *
+     * @param paperId The paper ID
+     * @return The extraction's scalar fields, if the paper has an extraction
+     */
+    @Query("SELECT pe.id AS id, pe.paper.id AS paperId, pe.title AS title, pe.abstractText AS abstractText, "
+            + "pe.language AS language, pe.pageCount AS pageCount "
+            + "FROM PaperExtraction pe WHERE pe.paper.id = :paperId")
+    Optional<HeaderRow> findHeaderByPaperId(@Param("paperId") UUID paperId);
+
+    /**
+     * Find all sections and subsections of an extraction
+     *
+     * @param extractionId The extraction ID
+     * @return Sections in extraction order, each with its parent's ID
+     */
+    @Query("SELECT s.id AS id, parent.id AS parentId, s.sectionId AS sectionId, s.label AS label, s.title AS title, "
+            + "s.sectionType AS sectionType, s.level AS level, s.pageStart AS pageStart, s.pageEnd AS pageEnd, "
+            + "s.orderIndex AS orderIndex "
+            + "FROM ExtractedSection s LEFT JOIN s.parentSection parent "
+            + "WHERE s.paperExtraction.id = :extractionId ORDER BY s.orderIndex")
+    List<SectionRow> findSections(@Param("extractionId") UUID extractionId);
+
+    /**
+     * Find the paragraphs of every section of an extraction
+     *
+     * @param extractionId The extraction ID
+     * @return Paragraphs in order within their section, each with its section's ID
+     */
+    @Query("SELECT p.id AS id, s.id AS sectionId, p.text AS text, p.page AS page, p.orderIndex AS orderIndex "
+            + "FROM ExtractedParagraph p JOIN p.section s "
+            + "WHERE s.paperExtraction.id = :extractionId ORDER BY p.orderIndex")
+    List<ParagraphRow> findParagraphs(@Param("extractionId") UUID extractionId);
+
+    /**
+     * Find the figures of an extraction
+     *
+     * @param extractionId The extraction ID
+     * @return Figures in extraction order
+     */
+    @Query("SELECT f.id AS id, f.figureId AS figureId, f.label AS label, f.caption AS caption, f.page AS page, "
+            + "f.ocrText AS ocrText "
+            + "FROM ExtractedFigure f WHERE f.paperExtraction.id = :extractionId ORDER BY f.orderIndex")
+    List<FigureRow> findFigures(@Param("extractionId") UUID extractionId);
+
+    /**
+     * Find the tables of an extraction
+     *
+     * @param extractionId The extraction ID
+     * @return Tables in extraction order
+     */
+    @Query("SELECT t.id AS id, t.tableId AS tableId, t.label AS label, t.caption AS caption, t.page AS page, "
+            + "t.headers AS headers, t.rows AS tableRows, t.html AS html "
+            + "FROM ExtractedTable t WHERE t.paperExtraction.id = :extractionId ORDER BY t.orderIndex")
+    List<TableRow> findTables(@Param("extractionId") UUID extractionId);
+
+    /**
+     * Find the equations of an extraction
+     *
+     * @param extractionId The extraction ID
+     * @return Equations in extraction order
+     */
+    @Query("SELECT e.id AS id, e.equationId AS equationId, e.label AS label, e.latex AS latex, e.page AS page "
+            + "FROM ExtractedEquation e WHERE e.paperExtraction.id = :extractionId ORDER BY e.orderIndex")
+    List<EquationRow> findEquations(@Param("extractionId") UUID extractionId);
+
+    /**
+     * Find the code blocks of an extraction
+     *
+     * @param extractionId The extraction ID
+     * @return Code blocks in extraction order
+     */
+    @Query("SELECT c.id AS id, c.codeId AS codeId, c.language AS language, c.code AS code, c.page AS page "
+            + "FROM ExtractedCodeBlock c WHERE c.paperExtraction.id = :extractionId ORDER BY c.orderIndex")
+    List<CodeBlockRow> findCodeBlocks(@Param("extractionId") UUID extractionId);
+
+    /**
+     * Find the references of an extraction
+     *
+     * @param extractionId The extraction ID
+     * @return References in extraction order
+     */
+    @Query("SELECT r.id AS id, r.referenceId AS referenceId, r.title AS title, r.authors AS authors, "
+            + "r.year AS publicationYear, r.venue AS venue, r.doi AS doi, r.url AS url "
+            + "FROM ExtractedReference r WHERE r.paperExtraction.id = :extractionId ORDER BY r.orderIndex")
+    List<ReferenceRow> findReferences(@Param("extractionId") UUID extractionId);
+
+    /**
+     * Find the named entities of an extraction
+     *
+     * @param extractionId The extraction ID
+     * @return Entities in extraction order
+     */
+    @Query("SELECT e.id AS id, e.entityId AS entityId, e.entityType AS entityType, e.name AS name, "
+            + "e.context AS context, e.page AS page "
+            + "FROM ExtractedEntity e WHERE e.paperExtraction.id = :extractionId ORDER BY e.orderIndex")
+    List<EntityRow> findEntities(@Param("extractionId") UUID extractionId);
+
+    interface HeaderRow {
+        UUID getId();
+
+        UUID getPaperId();
+
+        String getTitle();
+
+        String getAbstractText();
+
+        String getLanguage();
+
+        Integer getPageCount();
+    }
+
+    interface SectionRow {
+        UUID getId();
+
+        UUID getParentId();
+
+        String getSectionId();
+
+        String getLabel();
+
+        String getTitle();
+
+        String getSectionType();
+
+        Integer getLevel();
+
+        Integer getPageStart();
+
+        Integer getPageEnd();
+
+        Integer getOrderIndex();
+    }
+
+    interface ParagraphRow {
+        UUID getId();
+
+        UUID getSectionId();
+
+        String getText();
+
+        Integer getPage();
+
+        Integer getOrderIndex();
+    }
+
+    interface FigureRow {
+        UUID getId();
+
+        String getFigureId();
+
+        String getLabel();
+
+        String getCaption();
+
+        Integer getPage();
+
+        String getOcrText();
+    }
+
+    interface TableRow {
+        UUID getId();
+
+        String getTableId();
+
+        String getLabel();
+
+        String getCaption();
+
+        Integer getPage();
+
+        String getHeaders();
+
+        String getTableRows();
+
+        String getHtml();
+    }
+
+    interface EquationRow {
+        UUID getId();
+
+        String getEquationId();
+
+        String getLabel();
+
+        String getLatex();
+
+        Integer getPage();
+    }
+
+    interface CodeBlockRow {
+        UUID getId();
+
+        String getCodeId();
+
+        String getLanguage();
+
+        String getCode();
+
+        Integer getPage();
+    }
+
+    interface ReferenceRow {
+        UUID getId();
+
+        String getReferenceId();
+
+        String getTitle();
+
+        String getAuthors();
+
+        Integer getPublicationYear();
+
+        String getVenue();
+
+        String getDoi();
+
+        String getUrl();
+    }
+
+    interface EntityRow {
+        UUID getId();
+
+        String getEntityId();
+
+        String getEntityType();
+
+        String getName();
+
+        String getContext();
+
+        Integer getPage();
+    }
+}
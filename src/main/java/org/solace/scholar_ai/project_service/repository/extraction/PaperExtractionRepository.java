@@ -1,5 +1,7 @@
 package org.solace.scholar_ai.project_service.repository.extraction;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.solace.scholar_ai.project_service.model.extraction.PaperExtraction;
@@ -74,4 +76,13 @@ public interface PaperExtractionRepository extends JpaRepository<PaperExtraction
      */
     @Query("SELECT COUNT(pe) > 0 FROM PaperExtraction pe WHERE pe.paper.id = :paperId")
     boolean existsByPaperId(@Param("paperId") UUID paperId);
+
+    /**
+     * Find the page count of the extractions of several papers
+     *
+     * @param paperIds The paper IDs
+     * @return Rows of [paper ID, page count]; papers without an extraction are left out
+     */
+    @Query("SELECT pe.paper.id, pe.pageCount FROM PaperExtraction pe WHERE pe.paper.id IN :paperIds")
+    List<Object[]> findPageCountsByPaperIds(@Param("paperIds") Collection<UUID> paperIds);
 }
@@ -0,0 +1,50 @@
+package org.solace.scholar_ai.project_service.repository.extraction;
+
+import java.util.List;
+import java.util.UUID;
+import org.solace.scholar_ai.project_service.model.extraction.ParagraphTermVector;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for precomputed paragraph term vectors
+ */
+@Repository
+public interface ParagraphTermVectorRepository extends JpaRepository<ParagraphTermVector, UUID> {
+
+    /**
+     * Find all term vectors of an extraction
+     *
+     * @param paperExtractionId The extraction ID
+     * @param formatVersion Only vectors written with this format are returned
+     * @return Term vectors without any paragraph text
+     */
+    @Query("SELECT v FROM ParagraphTermVector v "
+            + "WHERE v.paperExtractionId = :paperExtractionId AND v.formatVersion = :formatVersion")
+    List<ParagraphTermVector> findByPaperExtractionId(
+            @Param("paperExtractionId") UUID paperExtractionId, @Param("formatVersion") Integer formatVersion);
+
+    /**
+     * Find all term vectors of the extractions of several papers
+     *
+     * @param paperIds The paper IDs
+     * @param formatVersion Only vectors written with this format are returned
+     * @return Term vectors without any paragraph text
+     */
+    @Query("SELECT v FROM ParagraphTermVector v WHERE v.formatVersion = :formatVersion AND v.paperExtractionId IN "
+            + "(SELECT pe.id FROM PaperExtraction pe WHERE pe.paper.id IN :paperIds)")
+    List<ParagraphTermVector> findByPaperIds(
+            @Param("paperIds") List<UUID> paperIds, @Param("formatVersion") Integer formatVersion);
+
+    /**
+     * Delete all term vectors of an extraction
+     *
+     * @param paperExtractionId The extraction ID
+     */
+    @Modifying
+    @Query("DELETE FROM ParagraphTermVector v WHERE v.paperExtractionId = :paperExtractionId")
+    void deleteByPaperExtractionId(@Param("paperExtractionId") UUID paperExtractionId);
+}
@@ -1,11 +1,13 @@
 package org.solace.scholar_ai.project_service.repository.latex;
 
+import jakarta.persistence.LockModeType;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.solace.scholar_ai.project_service.model.latex.Document;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,6 +21,14 @@ public interface DocumentRepository extends JpaRepository<Document, UUID> {
 
     Optional<Document> findByProjectIdAndTitle(UUID projectId, String title);
 
+    /**
+     * Find a document and lock its row until the transaction ends, so saves of its versions
+     * take their version numbers one at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Document d WHERE d.id = :documentId")
+    Optional<Document> findByIdForUpdate(@Param("documentId") UUID documentId);
+
     @Modifying
     @Query("UPDATE Document d SET d.lastAccessed = :accessTime WHERE d.id = :documentId")
     void updateLastAccessed(@Param("documentId") UUID documentId, @Param("accessTime") Instant accessTime);
@@ -14,6 +14,22 @@ public interface DocumentVersionRepository extends JpaRepository<DocumentVersion
 
     List<DocumentVersion> findByDocumentIdOrderByVersionNumberDesc(UUID documentId);
 
+    List<DocumentVersion> findByDocumentIdOrderByVersionNumberAsc(UUID documentId);
+
+    /**
+     * Versions from a snapshot up to a version, to rebuild the version from the snapshot's deltas
+     */
+    List<DocumentVersion> findByDocumentIdAndVersionNumberBetweenOrderByVersionNumberAsc(
+            UUID documentId, Integer fromVersion, Integer toVersion);
+
+    Optional<DocumentVersion> findFirstByDocumentIdOrderByVersionNumberDesc(UUID documentId);
+
+    Optional<DocumentVersion> findFirstByDocumentIdAndVersionNumberLessThanOrderByVersionNumberDesc(
+            UUID documentId, Integer versionNumber);
+
+    Optional<DocumentVersion> findFirstByDocumentIdAndVersionNumberGreaterThanOrderByVersionNumberAsc(
+            UUID documentId, Integer versionNumber);
+
     Optional<DocumentVersion> findByDocumentIdAndVersionNumber(UUID documentId, Integer versionNumber);
 
     @Query("SELECT MAX(dv.versionNumber) FROM DocumentVersion dv WHERE dv.documentId = :documentId")
@@ -1,6 +1,8 @@
 package org.solace.scholar_ai.project_service.repository.paper;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -8,6 +10,7 @@ import org.solace.scholar_ai.project_service.model.paper.Paper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -61,6 +64,39 @@ public interface PaperRepository extends JpaRepository<Paper, UUID> {
             "SELECT p.id FROM Paper p WHERE p.correlationId IN (SELECT wso.correlationId FROM WebSearchOperation wso WHERE wso.projectId = :projectId)")
     List<UUID> findIdsByProjectId(@Param("projectId") UUID projectId);
 
+    /**
+     * Find papers whose summarization is in one of the given states
+     */
+    List<Paper> findBySummarizationStatusIn(Collection<String> summarizationStatuses);
+
+    /**
+     * Find papers of batch summarization runs whose summarization has been in the given state
+     * since before the given time
+     */
+    @Query("SELECT p FROM Paper p WHERE p.summarizationBatched = true AND p.summarizationStatus = :status "
+            + "AND p.summarizationStartedAt < :startedBefore")
+    List<Paper> findBatchedBySummarizationStatusStartedBefore(
+            @Param("status") String summarizationStatus, @Param("startedBefore") Instant startedBefore);
+
+    /**
+     * Mark summarizations outside batch runs that have been processing since before the given
+     * time as failed
+     *
+     * @return The number of papers marked failed
+     */
+    @Modifying
+    @Query("UPDATE Paper p SET p.summarizationStatus = 'FAILED', p.summarizationError = :error "
+            + "WHERE p.summarizationBatched = false AND p.summarizationStatus = 'PROCESSING' "
+            + "AND p.summarizationStartedAt < :startedBefore")
+    int failStaleSummarizations(@Param("startedBefore") Instant startedBefore, @Param("error") String error);
+
+    /**
+     * Take a paper out of its batch summarization run
+     */
+    @Modifying
+    @Query("UPDATE Paper p SET p.summarizationBatched = false WHERE p.id = :paperId")
+    void clearSummarizationBatched(@Param("paperId") UUID paperId);
+
     /**
      * Delete papers by IDs
      */
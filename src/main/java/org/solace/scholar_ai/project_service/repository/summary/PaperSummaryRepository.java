@@ -1,11 +1,13 @@
 package org.solace.scholar_ai.project_service.repository.summary;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.solace.scholar_ai.project_service.model.summary.PaperSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -25,6 +27,10 @@ public interface PaperSummaryRepository extends JpaRepository<PaperSummary, UUID
     // Count summaries by paper IDs
     long countByPaperIdIn(List<UUID> paperIds);
 
+    // IDs of the given papers that already have a summary
+    @Query("SELECT ps.paper.id FROM PaperSummary ps WHERE ps.paper.id IN :paperIds")
+    List<UUID> findSummarizedPaperIds(@Param("paperIds") Collection<UUID> paperIds);
+
     // Delete summaries by paper IDs
     void deleteByPaperIdIn(List<UUID> paperIds);
 }
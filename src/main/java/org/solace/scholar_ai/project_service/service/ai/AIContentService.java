@@ -19,7 +19,7 @@ import org.springframework.web.client.RestTemplate;
 public class AIContentService {
 
     private final GeminiConfig geminiConfig;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
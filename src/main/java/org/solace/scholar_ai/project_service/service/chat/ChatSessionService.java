@@ -38,7 +38,7 @@ public class ChatSessionService {
     private final ChatSessionRepository chatSessionRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final PaperRepository paperRepository;
-    private final PaperContextChatService paperContextChatService;
+    private final PaperChatEngine paperChatEngine;
     private final GeminiService geminiService;
     private final ObjectMapper objectMapper;
 
@@ -82,7 +82,7 @@ public class ChatSessionService {
 
         try {
             // Generate initial response
-            PaperChatResponse response = paperContextChatService.chatWithPaper(paperId, chatRequest);
+            PaperChatResponse response = paperChatEngine.chatWithPaper(paperId, chatRequest);
 
             // Generate session title if not provided
             if (request.getCustomTitle() == null) {
@@ -168,7 +168,7 @@ public class ChatSessionService {
         request.setSessionId(sessionId);
 
         // Process message using existing chat service
-        return paperContextChatService.chatWithPaper(session.getPaperId(), request);
+        return paperChatEngine.chatWithPaper(session.getPaperId(), request);
     }
 
     /**
@@ -414,7 +414,7 @@ public class ChatSessionService {
                                     : null)
                     .build();
 
-            PaperChatResponse response = paperContextChatService.chatWithPaper(paperUuid, chatRequest);
+            PaperChatResponse response = paperChatEngine.chatWithPaper(paperUuid, chatRequest);
 
             return org.solace.scholar_ai.project_service.dto.chat.ChatResponse.builder()
                     .sessionId(sessionId)
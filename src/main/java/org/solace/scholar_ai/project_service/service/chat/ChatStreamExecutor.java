@@ -0,0 +1,116 @@
+package org.solace.scholar_ai.project_service.service.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Threads that stream chat answers from Gemini to their SSE clients, one per answer. The number
+ * of answers streaming at once is bounded; a stream is admitted with {@link #tryReserve} before
+ * the chat turn is prepared, so a saturated pool turns the request away before anything is
+ * stored. Published as {@code executor.*} metrics tagged {@code name=chat.streams}.
+ */
+@Slf4j
+@Component
+public class ChatStreamExecutor {
+
+    private final ThreadPoolExecutor streams;
+    private final Semaphore slots;
+    private final Duration retryAfter;
+    private final Counter rejected;
+
+    public ChatStreamExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${scholarai.chat.streams.max-concurrent:16}") int maxConcurrent,
+            @Value("${scholarai.chat.streams.retry-after:PT5S}") Duration retryAfter) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Chat stream concurrency must be at least 1");
+        }
+        this.slots = new Semaphore(maxConcurrent);
+        this.retryAfter = retryAfter;
+        // The slots bound what is submitted, so the queue only holds a stream between its
+        // submission and a thread picking it up
+        this.streams = new ThreadPoolExecutor(
+                maxConcurrent,
+                maxConcurrent,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory("chat-stream-"));
+        new ExecutorServiceMetrics(streams, "chat.streams", Tags.empty()).bindTo(meterRegistry);
+        this.rejected = Counter.builder("chat.streams.rejected")
+                .description("Chat streams turned away because every stream slot was taken")
+                .register(meterRegistry);
+        log.info("Chat stream executor: {} concurrent streams", maxConcurrent);
+    }
+
+    /**
+     * Claim a stream slot; a claimed slot must be passed on with {@link #submit} or given back
+     * with {@link #release}
+     *
+     * @return Whether a slot was free
+     */
+    public boolean tryReserve() {
+        if (slots.tryAcquire()) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Stream an answer on a reserved slot, freeing the slot when it ends
+     *
+     * @throws java.util.concurrent.RejectedExecutionException When the executor is shutting down;
+     *     the slot is then still held by the caller
+     */
+    public void submit(Runnable stream) {
+        streams.execute(() -> {
+            try {
+                stream.run();
+            } finally {
+                slots.release();
+            }
+        });
+    }
+
+    /**
+     * Give back a slot that was not submitted
+     */
+    public void release() {
+        slots.release();
+    }
+
+    /**
+     * How long a turned-away client should wait before trying again
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streams.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
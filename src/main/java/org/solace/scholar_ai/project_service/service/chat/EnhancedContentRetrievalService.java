@@ -1,14 +1,17 @@
 package org.solace.scholar_ai.project_service.service.chat;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.solace.scholar_ai.project_service.dto.request.chat.PaperChatRequest;
 import org.solace.scholar_ai.project_service.model.author.Author;
 import org.solace.scholar_ai.project_service.model.chat.ContentChunk;
-import org.solace.scholar_ai.project_service.model.extraction.*;
 import org.solace.scholar_ai.project_service.service.chat.QueryRequirementAnalysisService.DataRequirement;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.ChunkStore;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.ChunkStoreCache;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
 import org.springframework.stereotype.Service;
 
 /**
@@ -21,12 +24,59 @@ import org.springframework.stereotype.Service;
 public class EnhancedContentRetrievalService {
 
     private final IntelligentQueryStrategy queryStrategy;
+    private final ChunkStoreCache chunkStoreCache;
 
     /**
-     * Retrieve optimally prioritized content for AI response generation
+     * Analyze a query to decide what content to retrieve for it
+     */
+    public IntelligentQueryStrategy.QueryAnalysis analyzeQuery(
+            String query, String selectedText, PaperChatRequest.SelectionContext selectionContext) {
+        return queryStrategy.analyzeQuery(query, selectedText, selectionContext != null);
+    }
+
+    /**
+     * Extraction content that retrieval reads for an analyzed query, so that only those
+     * categories need to be loaded. Mirrors the thresholds of retrieveOptimalContent.
+     */
+    public Set<ExtractionSnapshot.Content> requiredContent(IntelligentQueryStrategy.QueryAnalysis analysis) {
+        IntelligentQueryStrategy.ContextRequirements requirements = analysis.getContextRequirements();
+        IntelligentQueryStrategy.ContentPriority priorities = requirements.getContentPriority();
+        IntelligentQueryStrategy.SpecificReferences specificRefs = analysis.getSpecificReferences();
+        Set<ExtractionSnapshot.Content> contents = EnumSet.noneOf(ExtractionSnapshot.Content.class);
+
+        if (priorities.getAbstractWeight() > 0.5
+                || priorities.getIntroductionWeight() > 0.5
+                || priorities.getMethodologyWeight() > 0.5
+                || priorities.getTechnicalWeight() > 0.5
+                || priorities.getResultsWeight() > 0.5
+                || priorities.getExperimentsWeight() > 0.5
+                || priorities.getConclusionWeight() > 0.5
+                || (specificRefs != null && !specificRefs.pages.isEmpty())) {
+            contents.add(ExtractionSnapshot.Content.SECTIONS);
+        }
+        if (priorities.getFiguresWeight() > 0.3 || (specificRefs != null && !specificRefs.figures.isEmpty())) {
+            contents.add(ExtractionSnapshot.Content.FIGURES);
+        }
+        if (priorities.getTablesWeight() > 0.3 || (specificRefs != null && !specificRefs.tables.isEmpty())) {
+            contents.add(ExtractionSnapshot.Content.TABLES);
+        }
+        if (priorities.getEquationsWeight() > 0.3) {
+            contents.add(ExtractionSnapshot.Content.EQUATIONS);
+        }
+        if (requirements.isIncludeReferences() && priorities.getReferencesWeight() > 0.3) {
+            contents.add(ExtractionSnapshot.Content.REFERENCES);
+        }
+        return contents;
+    }
+
+    /**
+     * Retrieve optimally prioritized content for AI response generation. Candidates come from
+     * the paper's chunk store and are scored with BM25 on top of their priority weight; only
+     * the best maxChunks are kept.
      */
     public List<ContentChunk> retrieveOptimalContent(
-            PaperExtraction extraction,
+            ExtractionSnapshot extraction,
+            IntelligentQueryStrategy.QueryAnalysis analysis,
             String query,
             String selectedText,
             PaperChatRequest.SelectionContext selectionContext,
@@ -34,68 +84,111 @@ public class EnhancedContentRetrievalService {
 
         log.debug("Retrieving optimal content for query: {}", query);
 
-        // Analyze query to determine optimal strategy
-        IntelligentQueryStrategy.QueryAnalysis analysis =
-                queryStrategy.analyzeQuery(query, selectedText, selectionContext != null);
-
-        List<ContentChunk> allChunks = new ArrayList<>();
+        ChunkStore store = chunkStoreCache.get(extraction);
+        ChunkStore.Query terms = store.query(query);
+        IntelligentQueryStrategy.ContextRequirements requirements = analysis.getContextRequirements();
+        IntelligentQueryStrategy.ContentPriority priorities = requirements.getContentPriority();
+        int maxChunks = Math.max(0, requirements.getMaxChunks());
 
         // 1. PRIORITY: Selected text context (always highest priority)
-        if (selectedText != null && !selectedText.trim().isEmpty()) {
-            allChunks.add(createSelectedTextChunk(selectedText, selectionContext));
+        ContentChunk selectedChunk = null;
+        if (selectedText != null && !selectedText.trim().isEmpty() && maxChunks > 0) {
+            selectedChunk = createSelectedTextChunk(selectedText, selectionContext);
+        }
+        TopChunks top = new TopChunks(selectedChunk != null ? maxChunks - 1 : maxChunks);
+        if (selectedChunk != null) {
+            top.markSeen(ChunkStore.dedupKey(selectedChunk.getContent()));
         }
 
         // 2. Apply intelligent content selection based on query type
-        IntelligentQueryStrategy.ContextRequirements requirements = analysis.getContextRequirements();
-        IntelligentQueryStrategy.ContentPriority priorities = requirements.getContentPriority();
 
         // Abstract and introduction (high priority for summaries and conceptual questions)
         if (priorities.getAbstractWeight() > 0.5 || priorities.getIntroductionWeight() > 0.5) {
-            allChunks.addAll(getAbstractAndIntroduction(extraction, priorities));
+            addAbstractAndIntroduction(top, extraction, store, priorities);
         }
 
         // Methodology and technical content
         if (priorities.getMethodologyWeight() > 0.5 || priorities.getTechnicalWeight() > 0.5) {
-            allChunks.addAll(getMethodologyContent(extraction, priorities, query));
+            addScoredSections(
+                    top,
+                    store,
+                    terms,
+                    ChunkStore.METHODOLOGY | ChunkStore.TECHNICAL,
+                    "methodology",
+                    priorities.getMethodologyWeight());
         }
 
         // Results and experimental content
         if (priorities.getResultsWeight() > 0.5 || priorities.getExperimentsWeight() > 0.5) {
-            allChunks.addAll(getResultsContent(extraction, priorities, query));
+            addScoredSections(
+                    top,
+                    store,
+                    terms,
+                    ChunkStore.RESULTS | ChunkStore.EXPERIMENTAL,
+                    "results",
+                    priorities.getResultsWeight());
         }
 
         // Conclusion content
         if (priorities.getConclusionWeight() > 0.5) {
-            allChunks.addAll(getConclusionContent(extraction, priorities));
+            for (ChunkStore.Chunk chunk : store.getSections()) {
+                if (chunk.is(ChunkStore.CONCLUSION)) {
+                    top.offer(chunk, "conclusion", priorities.getConclusionWeight());
+                }
+            }
         }
 
         // Figures and tables (important for results and technical queries)
-        if (priorities.getFiguresWeight() > 0.3 || priorities.getTablesWeight() > 0.3) {
-            allChunks.addAll(getVisualContent(extraction, priorities, query));
+        if (priorities.getFiguresWeight() > 0.3) {
+            addScored(top, store, terms, store.getFigures(), "figure", priorities.getFiguresWeight(), 0.2, false);
+        }
+        if (priorities.getTablesWeight() > 0.3) {
+            addScored(top, store, terms, store.getTables(), "table", priorities.getTablesWeight(), 0.2, false);
         }
 
         // Equations (for technical queries)
         if (priorities.getEquationsWeight() > 0.3) {
-            allChunks.addAll(getEquationContent(extraction, priorities, query));
+            addScored(
+                    top,
+                    store,
+                    terms,
+                    store.getEquations(),
+                    "equation",
+                    priorities.getEquationsWeight(),
+                    0.1,
+                    containsMathKeywords(query));
         }
 
-        // References (for comparison queries)
+        // References (for comparison queries), limited for context efficiency
         if (requirements.isIncludeReferences() && priorities.getReferencesWeight() > 0.3) {
-            allChunks.addAll(getReferenceContent(extraction, priorities, query));
+            List<ChunkStore.Chunk> references = store.getReferences();
+            addScored(
+                    top,
+                    store,
+                    terms,
+                    references.subList(0, Math.min(10, references.size())),
+                    "reference",
+                    priorities.getReferencesWeight(),
+                    0.1,
+                    false);
         }
 
         // Author information (when specifically requested)
         if (requirements.isIncludeAuthorInfo() && authors != null && !authors.isEmpty()) {
-            allChunks.addAll(getAuthorContent(authors, priorities));
+            top.offer(createAuthorChunk(authors));
         }
 
         // Handle specific references (pages, figures, sections)
         if (analysis.getSpecificReferences() != null) {
-            allChunks.addAll(getSpecificReferencedContent(extraction, analysis.getSpecificReferences()));
+            addSpecificReferencedContent(top, extraction, store, analysis.getSpecificReferences());
         }
 
-        // 3. Apply intelligent ranking and filtering
-        List<ContentChunk> rankedChunks = rankAndFilterContent(allChunks, query, analysis, requirements.getMaxChunks());
+        // 3. Selected text first, then the best ranked chunks
+        List<ContentChunk> rankedChunks = new ArrayList<>(maxChunks);
+        if (selectedChunk != null) {
+            rankedChunks.add(selectedChunk);
+        }
+        rankedChunks.addAll(top.ranked());
 
         log.debug(
                 "Retrieved {} optimally ranked content chunks for query type: {}",
@@ -106,34 +199,10 @@ public class EnhancedContentRetrievalService {
     }
 
     /**
-     * AI-powered content retrieval based on determined data requirements
-     * This uses the existing content retrieval methods but with AI-driven selection
+     * Build a query analysis from the data requirements detected in a query, so retrieval
+     * weights the content categories those requirements ask for
      */
-    public List<ContentChunk> retrieveContentBasedOnRequirements(
-            PaperExtraction extraction,
-            String query,
-            String selectedText,
-            PaperChatRequest.SelectionContext selectionContext,
-            List<Author> authors,
-            Set<DataRequirement> dataRequirements) {
-
-        log.debug("Retrieving content based on AI-determined requirements: {}", dataRequirements);
-
-        // Use existing method but create a mock analysis based on AI requirements
-        IntelligentQueryStrategy.QueryAnalysis mockAnalysis = createMockAnalysisFromRequirements(dataRequirements);
-
-        // Call the existing retrieval method
-        return retrieveOptimalContent(extraction, query, selectedText, selectionContext, authors);
-    }
-
-    /**
-     * Create a mock query analysis based on AI-determined requirements
-     * This bridges the new AI system with the existing content retrieval logic
-     */
-    private IntelligentQueryStrategy.QueryAnalysis createMockAnalysisFromRequirements(
-            Set<DataRequirement> requirements) {
-        // For now, create a simple mock that triggers comprehensive content retrieval
-        // This ensures we get all needed content while the existing ranking system handles prioritization
+    public IntelligentQueryStrategy.QueryAnalysis analyzeRequirements(Set<DataRequirement> requirements) {
         return IntelligentQueryStrategy.QueryAnalysis.builder()
                 .primaryType(IntelligentQueryStrategy.QueryType.GENERAL)
                 .complexityScore(0.8)
@@ -205,16 +274,17 @@ public class EnhancedContentRetrievalService {
     }
 
     /**
-     * Get abstract and introduction content
+     * Add the abstract and introduction sections
      */
-    private List<ContentChunk> getAbstractAndIntroduction(
-            PaperExtraction extraction, IntelligentQueryStrategy.ContentPriority priorities) {
-        List<ContentChunk> chunks = new ArrayList<>();
-
+    private void addAbstractAndIntroduction(
+            TopChunks top,
+            ExtractionSnapshot extraction,
+            ChunkStore store,
+            IntelligentQueryStrategy.ContentPriority priorities) {
         // Abstract content
-        if (extraction.getAbstractText() != null && priorities.getAbstractWeight() > 0) {
-            chunks.add(ContentChunk.builder()
-                    .content("ABSTRACT: " + extraction.getAbstractText())
+        if (extraction.abstractText() != null && priorities.getAbstractWeight() > 0) {
+            top.offer(ContentChunk.builder()
+                    .content("ABSTRACT: " + extraction.abstractText())
                     .source("Paper Abstract")
                     .type("abstract")
                     .relevanceScore(priorities.getAbstractWeight())
@@ -222,420 +292,190 @@ public class EnhancedContentRetrievalService {
         }
 
         // Introduction sections
-        extraction.getSections().stream()
-                .filter(section -> isIntroductionSection(section))
-                .forEach(section -> {
-                    String content = extractSectionContent(section);
-                    if (content != null && !content.isEmpty()) {
-                        chunks.add(ContentChunk.builder()
-                                .content(content)
-                                .source("Section: " + section.getTitle())
-                                .type("introduction")
-                                .relevanceScore(priorities.getIntroductionWeight())
-                                .pageNumber(section.getPageStart())
-                                .build());
-                    }
-                });
-
-        return chunks;
-    }
-
-    /**
-     * Get methodology and technical content
-     */
-    private List<ContentChunk> getMethodologyContent(
-            PaperExtraction extraction, IntelligentQueryStrategy.ContentPriority priorities, String query) {
-        List<ContentChunk> chunks = new ArrayList<>();
-
-        extraction.getSections().stream()
-                .filter(section -> isMethodologySection(section) || isTechnicalSection(section, query))
-                .forEach(section -> {
-                    String content = extractSectionContent(section);
-                    if (content != null && !content.isEmpty()) {
-                        double relevance = calculateContentRelevance(content, query, priorities.getMethodologyWeight());
-                        chunks.add(ContentChunk.builder()
-                                .content(content)
-                                .source("Section: " + section.getTitle())
-                                .type("methodology")
-                                .relevanceScore(relevance)
-                                .pageNumber(section.getPageStart())
-                                .build());
-                    }
-                });
-
-        return chunks;
-    }
-
-    /**
-     * Get results and experimental content
-     */
-    private List<ContentChunk> getResultsContent(
-            PaperExtraction extraction, IntelligentQueryStrategy.ContentPriority priorities, String query) {
-        List<ContentChunk> chunks = new ArrayList<>();
-
-        extraction.getSections().stream()
-                .filter(section -> isResultsSection(section) || isExperimentalSection(section))
-                .forEach(section -> {
-                    String content = extractSectionContent(section);
-                    if (content != null && !content.isEmpty()) {
-                        double relevance = calculateContentRelevance(content, query, priorities.getResultsWeight());
-                        chunks.add(ContentChunk.builder()
-                                .content(content)
-                                .source("Section: " + section.getTitle())
-                                .type("results")
-                                .relevanceScore(relevance)
-                                .pageNumber(section.getPageStart())
-                                .build());
-                    }
-                });
-
-        return chunks;
-    }
-
-    /**
-     * Get conclusion content
-     */
-    private List<ContentChunk> getConclusionContent(
-            PaperExtraction extraction, IntelligentQueryStrategy.ContentPriority priorities) {
-        List<ContentChunk> chunks = new ArrayList<>();
-
-        extraction.getSections().stream().filter(this::isConclusionSection).forEach(section -> {
-            String content = extractSectionContent(section);
-            if (content != null && !content.isEmpty()) {
-                chunks.add(ContentChunk.builder()
-                        .content(content)
-                        .source("Section: " + section.getTitle())
-                        .type("conclusion")
-                        .relevanceScore(priorities.getConclusionWeight())
-                        .pageNumber(section.getPageStart())
-                        .build());
+        for (ChunkStore.Chunk chunk : store.getSections()) {
+            if (chunk.is(ChunkStore.INTRODUCTION)) {
+                top.offer(chunk, "introduction", priorities.getIntroductionWeight());
             }
-        });
-
-        return chunks;
-    }
-
-    /**
-     * Get visual content (figures and tables)
-     */
-    private List<ContentChunk> getVisualContent(
-            PaperExtraction extraction, IntelligentQueryStrategy.ContentPriority priorities, String query) {
-        List<ContentChunk> chunks = new ArrayList<>();
-
-        // Figures
-        if (priorities.getFiguresWeight() > 0.3) {
-            extraction.getFigures().forEach(figure -> {
-                String figureText = buildFigureText(figure);
-                double relevance = calculateContentRelevance(figureText, query, priorities.getFiguresWeight());
-                if (relevance > 0.2) {
-                    chunks.add(ContentChunk.builder()
-                            .content("Figure " + figure.getLabel() + ": " + figure.getCaption()
-                                    + (figure.getOcrText() != null ? "\nOCR Text: " + figure.getOcrText() : ""))
-                            .source("Figure " + figure.getLabel() + " (Page " + figure.getPage() + ")")
-                            .type("figure")
-                            .relevanceScore(relevance)
-                            .pageNumber(figure.getPage())
-                            .build());
-                }
-            });
-        }
-
-        // Tables
-        if (priorities.getTablesWeight() > 0.3) {
-            extraction.getTables().forEach(table -> {
-                String tableText = buildTableText(table);
-                double relevance = calculateContentRelevance(tableText, query, priorities.getTablesWeight());
-                if (relevance > 0.2) {
-                    chunks.add(ContentChunk.builder()
-                            .content("Table " + table.getLabel() + ": " + table.getCaption()
-                                    + (table.getHeaders() != null ? "\nHeaders: " + table.getHeaders() : "")
-                                    + (table.getRows() != null ? "\nData: " + truncateText(table.getRows(), 500) : ""))
-                            .source("Table " + table.getLabel() + " (Page " + table.getPage() + ")")
-                            .type("table")
-                            .relevanceScore(relevance)
-                            .pageNumber(table.getPage())
-                            .build());
-                }
-            });
         }
-
-        return chunks;
     }
 
     /**
-     * Get equation content
+     * Add the sections of the given categories, scored against the query
      */
-    private List<ContentChunk> getEquationContent(
-            PaperExtraction extraction, IntelligentQueryStrategy.ContentPriority priorities, String query) {
-        List<ContentChunk> chunks = new ArrayList<>();
-
-        extraction.getEquations().forEach(equation -> {
-            if (equation.getLatex() != null || equation.getLabel() != null) {
-                String equationText = (equation.getLabel() != null ? equation.getLabel() : "")
-                        + (equation.getLatex() != null ? " LaTeX: " + equation.getLatex() : "");
-                double relevance = calculateContentRelevance(equationText, query, priorities.getEquationsWeight());
-                if (relevance > 0.1 || containsMathKeywords(query)) {
-                    chunks.add(ContentChunk.builder()
-                            .content("Equation " + equation.getEquationId() + ": " + equationText)
-                            .source("Equation " + equation.getEquationId() + " (Page " + equation.getPage() + ")")
-                            .type("equation")
-                            .relevanceScore(relevance)
-                            .pageNumber(equation.getPage())
-                            .build());
-                }
+    private void addScoredSections(
+            TopChunks top, ChunkStore store, ChunkStore.Query terms, int categories, String type, double weight) {
+        for (ChunkStore.Chunk chunk : store.getSections()) {
+            if (chunk.is(categories)) {
+                top.offer(chunk, type, calculateRelevance(store, chunk, terms, weight));
             }
-        });
-
-        return chunks;
+        }
     }
 
     /**
-     * Get reference content
+     * Add the chunks scoring above a threshold against the query, or all of them when forced
      */
-    private List<ContentChunk> getReferenceContent(
-            PaperExtraction extraction, IntelligentQueryStrategy.ContentPriority priorities, String query) {
-        List<ContentChunk> chunks = new ArrayList<>();
-
-        extraction.getReferences().stream()
-                .limit(10) // Limit references for context efficiency
-                .forEach(reference -> {
-                    String refText = buildReferenceText(reference);
-                    double relevance = calculateContentRelevance(refText, query, priorities.getReferencesWeight());
-                    if (relevance > 0.1) {
-                        chunks.add(ContentChunk.builder()
-                                .content(refText)
-                                .source("Reference " + reference.getReferenceId())
-                                .type("reference")
-                                .relevanceScore(relevance)
-                                .build());
-                    }
-                });
-
-        return chunks;
+    private void addScored(
+            TopChunks top,
+            ChunkStore store,
+            ChunkStore.Query terms,
+            List<ChunkStore.Chunk> chunks,
+            String type,
+            double weight,
+            double threshold,
+            boolean includeAll) {
+        for (ChunkStore.Chunk chunk : chunks) {
+            double relevance = calculateRelevance(store, chunk, terms, weight);
+            if (relevance > threshold || includeAll) {
+                top.offer(chunk, type, relevance);
+            }
+        }
     }
 
     /**
-     * Get author content
+     * Create the author chunk
      */
-    private List<ContentChunk> getAuthorContent(
-            List<Author> authors, IntelligentQueryStrategy.ContentPriority priorities) {
-        List<ContentChunk> chunks = new ArrayList<>();
-
+    private ContentChunk createAuthorChunk(List<Author> authors) {
         String authorInfo = authors.stream()
                 .map(author -> author.getName()
                         + (author.getPrimaryAffiliation() != null ? " (" + author.getPrimaryAffiliation() + ")" : ""))
                 .collect(Collectors.joining(", "));
 
-        chunks.add(ContentChunk.builder()
+        return ContentChunk.builder()
                 .content("AUTHORS: " + authorInfo)
                 .source("Paper Authors")
                 .type("authors")
                 .relevanceScore(0.8)
-                .build());
-
-        return chunks;
+                .build();
     }
 
     /**
-     * Get content for specific references (pages, figures, etc.)
+     * Add content for specific references (pages, figures, etc.)
      */
-    private List<ContentChunk> getSpecificReferencedContent(
-            PaperExtraction extraction, IntelligentQueryStrategy.SpecificReferences specificRefs) {
-        List<ContentChunk> chunks = new ArrayList<>();
-
+    private void addSpecificReferencedContent(
+            TopChunks top,
+            ExtractionSnapshot extraction,
+            ChunkStore store,
+            IntelligentQueryStrategy.SpecificReferences specificRefs) {
         // Handle specific figure references
         specificRefs.figures.forEach(figNum -> {
-            extraction.getFigures().stream()
-                    .filter(fig -> fig.getLabel() != null && fig.getLabel().contains(figNum.toString()))
-                    .forEach(figure -> {
-                        chunks.add(ContentChunk.builder()
-                                .content("Figure " + figure.getLabel() + ": " + figure.getCaption()
-                                        + (figure.getOcrText() != null ? "\nOCR Text: " + figure.getOcrText() : ""))
-                                .source("Specific Figure " + figure.getLabel())
-                                .type("specific_figure")
-                                .relevanceScore(1.0)
-                                .pageNumber(figure.getPage())
-                                .build());
-                    });
+            for (ChunkStore.Chunk figure : store.getFigures()) {
+                if (figure.label() != null && figure.label().contains(figNum.toString())) {
+                    top.offer(1.0, figure.dedupKey(), () -> ContentChunk.builder()
+                            .content(figure.content())
+                            .source("Specific Figure " + figure.label())
+                            .type("specific_figure")
+                            .relevanceScore(1.0)
+                            .pageNumber(figure.page())
+                            .build());
+                }
+            }
         });
 
-        // Handle specific table references
+        // Handle specific table references, without the table data
         specificRefs.tables.forEach(tableNum -> {
-            extraction.getTables().stream()
+            extraction.tables().stream()
                     .filter(table ->
-                            table.getLabel() != null && table.getLabel().contains(tableNum.toString()))
-                    .forEach(table -> {
-                        chunks.add(ContentChunk.builder()
-                                .content("Table " + table.getLabel() + ": " + table.getCaption()
-                                        + (table.getHeaders() != null ? "\nHeaders: " + table.getHeaders() : ""))
-                                .source("Specific Table " + table.getLabel())
-                                .type("specific_table")
-                                .relevanceScore(1.0)
-                                .pageNumber(table.getPage())
-                                .build());
-                    });
+                            table.label() != null && table.label().contains(tableNum.toString()))
+                    .forEach(table -> top.offer(ContentChunk.builder()
+                            .content("Table " + table.label() + ": " + table.caption()
+                                    + (table.headers() != null ? "\nHeaders: " + table.headers() : ""))
+                            .source("Specific Table " + table.label())
+                            .type("specific_table")
+                            .relevanceScore(1.0)
+                            .pageNumber(table.page())
+                            .build()));
         });
 
         // Handle specific page references
         specificRefs.pages.forEach(pageNum -> {
-            extraction.getSections().stream()
-                    .filter(section -> section.getPageStart() != null
-                            && section.getPageStart().equals(pageNum))
-                    .forEach(section -> {
-                        String content = extractSectionContent(section);
-                        if (content != null && !content.isEmpty()) {
-                            chunks.add(ContentChunk.builder()
-                                    .content(content)
-                                    .source("Page " + pageNum + " - Section: " + section.getTitle())
-                                    .type("specific_page")
-                                    .relevanceScore(1.0)
-                                    .pageNumber(pageNum)
-                                    .build());
-                        }
-                    });
+            for (ChunkStore.Chunk section : store.getSections()) {
+                if (pageNum.equals(section.page())) {
+                    top.offer(1.0, section.dedupKey(), () -> ContentChunk.builder()
+                            .content(section.content())
+                            .source("Page " + pageNum + " - " + section.source())
+                            .type("specific_page")
+                            .relevanceScore(1.0)
+                            .pageNumber(pageNum)
+                            .build());
+                }
+            }
         });
-
-        return chunks;
     }
 
     /**
-     * Rank and filter content based on relevance and requirements
+     * Priority weight of a chunk, raised by up to 0.3 for how well it matches the query
      */
-    private List<ContentChunk> rankAndFilterContent(
-            List<ContentChunk> allChunks,
-            String query,
-            IntelligentQueryStrategy.QueryAnalysis analysis,
-            int maxChunks) {
-
-        // Remove duplicates based on content similarity
-        List<ContentChunk> uniqueChunks = removeDuplicateContent(allChunks);
-
-        // Sort by relevance score (selected text always first)
-        List<ContentChunk> sortedChunks = uniqueChunks.stream()
-                .sorted((a, b) -> {
-                    // Selected text always first
-                    if ("selected_text".equals(a.getType())) return -1;
-                    if ("selected_text".equals(b.getType())) return 1;
-
-                    // Then by relevance score
-                    return Double.compare(b.getRelevanceScore(), a.getRelevanceScore());
-                })
-                .limit(maxChunks)
-                .collect(Collectors.toList());
-
-        return sortedChunks;
-    }
-
-    // Helper methods
-    private String extractSectionContent(ExtractedSection section) {
-        if (section.getParagraphs() == null || section.getParagraphs().isEmpty()) {
-            return section.getTitle();
-        }
-        return section.getParagraphs().stream()
-                .map(ExtractedParagraph::getText)
-                .filter(Objects::nonNull)
-                .collect(Collectors.joining(" "));
-    }
-
-    private boolean isIntroductionSection(ExtractedSection section) {
-        return section.getSectionType() != null
-                && section.getSectionType().toLowerCase().contains("introduction");
-    }
-
-    private boolean isMethodologySection(ExtractedSection section) {
-        String title = section.getTitle() != null ? section.getTitle().toLowerCase() : "";
-        return title.contains("method")
-                || title.contains("approach")
-                || title.contains("implementation")
-                || title.contains("design");
-    }
-
-    private boolean isTechnicalSection(ExtractedSection section, String query) {
-        String title = section.getTitle() != null ? section.getTitle().toLowerCase() : "";
-        return title.contains("algorithm")
-                || title.contains("framework")
-                || title.contains("architecture")
-                || title.contains("system");
+    private double calculateRelevance(
+            ChunkStore store, ChunkStore.Chunk chunk, ChunkStore.Query terms, double baseWeight) {
+        return Math.min(1.0, baseWeight + store.relevance(chunk, terms) * 0.3);
     }
 
-    private boolean isResultsSection(ExtractedSection section) {
-        return section.getSectionType() != null
-                && section.getSectionType().toLowerCase().contains("results");
-    }
-
-    private boolean isExperimentalSection(ExtractedSection section) {
-        return section.getSectionType() != null
-                && (section.getSectionType().toLowerCase().contains("experiment")
-                        || section.getSectionType().toLowerCase().contains("evaluation"));
-    }
-
-    private boolean isConclusionSection(ExtractedSection section) {
-        return section.getSectionType() != null
-                && section.getSectionType().toLowerCase().contains("conclusion");
+    private boolean containsMathKeywords(String query) {
+        String lowerQuery = query.toLowerCase();
+        return lowerQuery.contains("equation")
+                || lowerQuery.contains("formula")
+                || lowerQuery.contains("math")
+                || lowerQuery.contains("calculation");
     }
 
-    private double calculateContentRelevance(String content, String query, double baseWeight) {
-        if (content == null || content.isEmpty()) return 0.0;
-
-        Set<String> queryWords = Arrays.stream(query.toLowerCase().split("\\W+"))
-                .filter(word -> word.length() > 2)
-                .collect(Collectors.toSet());
+    /**
+     * The highest scoring chunks offered, at most a limit of them. Content that was already
+     * offered is dropped, even if the first offer did not make the cut, and ties go to the
+     * chunk offered first. Chunks are only built once they are kept.
+     */
+    private static final class TopChunks {
 
-        Set<String> contentWords = Arrays.stream(content.toLowerCase().split("\\W+"))
-                .filter(word -> word.length() > 2)
-                .collect(Collectors.toSet());
+        private record Ranked(double score, int order, ContentChunk chunk) {}
 
-        long matchingWords = queryWords.stream()
-                .mapToLong(word -> contentWords.contains(word) ? 1 : 0)
-                .sum();
+        // The heap's head is the chunk to drop next: lowest score, latest offer
+        private static final Comparator<Ranked> WORST_FIRST =
+                Comparator.comparingDouble(Ranked::score).thenComparing(Ranked::order, Comparator.reverseOrder());
 
-        double textualRelevance = queryWords.isEmpty() ? 0.0 : (double) matchingWords / queryWords.size();
-        return Math.min(1.0, baseWeight + (textualRelevance * 0.3));
-    }
+        private final int limit;
+        private final PriorityQueue<Ranked> heap;
+        private final Set<String> seen = new HashSet<>();
+        private int offered;
 
-    private String buildFigureText(ExtractedFigure figure) {
-        StringBuilder text = new StringBuilder();
-        if (figure.getCaption() != null) text.append(figure.getCaption());
-        if (figure.getOcrText() != null) text.append(" ").append(figure.getOcrText());
-        return text.toString();
-    }
+        private TopChunks(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.max(1, limit), WORST_FIRST);
+        }
 
-    private String buildTableText(ExtractedTable table) {
-        StringBuilder text = new StringBuilder();
-        if (table.getCaption() != null) text.append(table.getCaption());
-        if (table.getHeaders() != null) text.append(" ").append(table.getHeaders());
-        if (table.getRows() != null) text.append(" ").append(truncateText(table.getRows(), 200));
-        return text.toString();
-    }
+        void markSeen(String dedupKey) {
+            seen.add(dedupKey);
+        }
 
-    private String buildReferenceText(ExtractedReference reference) {
-        StringBuilder text = new StringBuilder();
-        if (reference.getTitle() != null) text.append(reference.getTitle());
-        if (reference.getAuthors() != null) text.append(" by ").append(reference.getAuthors());
-        if (reference.getVenue() != null) text.append(" in ").append(reference.getVenue());
-        return text.toString();
-    }
+        void offer(ChunkStore.Chunk chunk, String type, double score) {
+            offer(score, chunk.dedupKey(), () -> ContentChunk.builder()
+                    .content(chunk.content())
+                    .source(chunk.source())
+                    .type(type)
+                    .relevanceScore(score)
+                    .pageNumber(chunk.page())
+                    .build());
+        }
 
-    private boolean containsMathKeywords(String query) {
-        String lowerQuery = query.toLowerCase();
-        return lowerQuery.contains("equation")
-                || lowerQuery.contains("formula")
-                || lowerQuery.contains("math")
-                || lowerQuery.contains("calculation");
-    }
+        void offer(ContentChunk chunk) {
+            offer(chunk.getRelevanceScore(), ChunkStore.dedupKey(chunk.getContent()), () -> chunk);
+        }
 
-    private String truncateText(String text, int maxLength) {
-        if (text == null || text.length() <= maxLength) return text;
-        return text.substring(0, maxLength) + "...";
-    }
+        void offer(double score, String dedupKey, Supplier<ContentChunk> chunk) {
+            if (!seen.add(dedupKey)) {
+                return;
+            }
+            int order = offered++;
+            if (heap.size() < limit) {
+                heap.add(new Ranked(score, order, chunk.get()));
+            } else if (limit > 0 && score > heap.peek().score()) {
+                heap.poll();
+                heap.add(new Ranked(score, order, chunk.get()));
+            }
+        }
 
-    private List<ContentChunk> removeDuplicateContent(List<ContentChunk> chunks) {
-        Set<String> seenContent = new HashSet<>();
-        return chunks.stream()
-                .filter(chunk -> {
-                    String normalizedContent = chunk.getContent().toLowerCase().replaceAll("\\s+", " ");
-                    return seenContent.add(normalizedContent);
-                })
-                .collect(Collectors.toList());
+        List<ContentChunk> ranked() {
+            List<Ranked> kept = new ArrayList<>(heap);
+            kept.sort(WORST_FIRST.reversed());
+            return kept.stream().map(Ranked::chunk).toList();
+        }
     }
 }
@@ -7,7 +7,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.solace.scholar_ai.project_service.model.author.Author;
 import org.solace.scholar_ai.project_service.model.chat.ChatMessage;
 import org.solace.scholar_ai.project_service.model.chat.ContentChunk;
-import org.solace.scholar_ai.project_service.model.extraction.PaperExtraction;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
 import org.springframework.stereotype.Service;
 
 /**
@@ -23,7 +23,7 @@ public class IntelligentPromptBuilder {
      * Build comprehensive prompt optimized for the specific query type and context
      */
     public String buildOptimizedPrompt(
-            PaperExtraction extraction,
+            ExtractionSnapshot extraction,
             List<ContentChunk> relevantChunks,
             List<ChatMessage> conversationHistory,
             String userQuery,
@@ -74,16 +74,14 @@ public class IntelligentPromptBuilder {
     }
 
     /**
-     * Build optimized prompt with AI-determined data requirements
-     * This method bridges the new AI requirement analysis with the existing prompt building
+     * Build the chat prompt from the retrieved content, whichever retrieval strategy chose it
      */
-    public String buildOptimizedPromptWithRequirements(
-            PaperExtraction extraction,
+    public String buildChatPrompt(
+            ExtractionSnapshot extraction,
             List<ContentChunk> relevantChunks,
             List<ChatMessage> conversationHistory,
             String userQuery,
             String selectedText,
-            QueryRequirementAnalysisService.DataRequirement[] dataRequirements,
             List<Author> authors) {
 
         StringBuilder prompt = new StringBuilder();
@@ -135,7 +133,7 @@ public class IntelligentPromptBuilder {
         prompt.append("Be accurate and detailed in your response.");
 
         String finalPrompt = prompt.toString();
-        log.debug("Built AI-requirements optimized prompt (length: {} chars)", finalPrompt.length());
+        log.debug("Built chat prompt (length: {} chars)", finalPrompt.length());
 
         return finalPrompt;
     }
@@ -143,13 +141,13 @@ public class IntelligentPromptBuilder {
     /**
      * Build paper context section including authors when available
      */
-    private String buildPaperContextWithAuthors(PaperExtraction extraction, List<Author> authors) {
+    private String buildPaperContextWithAuthors(ExtractionSnapshot extraction, List<Author> authors) {
         StringBuilder context = new StringBuilder();
 
         context.append("PAPER INFORMATION:\n");
 
-        if (extraction.getTitle() != null) {
-            context.append("Title: ").append(extraction.getTitle()).append("\n");
+        if (extraction.title() != null) {
+            context.append("Title: ").append(extraction.title()).append("\n");
         }
 
         if (authors != null && !authors.isEmpty()) {
@@ -158,8 +156,8 @@ public class IntelligentPromptBuilder {
             context.append(authorNames).append("\n");
         }
 
-        if (extraction.getAbstractText() != null) {
-            context.append("Abstract: ").append(extraction.getAbstractText()).append("\n");
+        if (extraction.abstractText() != null) {
+            context.append("Abstract: ").append(extraction.abstractText()).append("\n");
         }
 
         return context.toString();
@@ -231,12 +229,12 @@ public class IntelligentPromptBuilder {
     /**
      * Build paper context and metadata
      */
-    private String buildPaperContext(PaperExtraction extraction, List<Author> authors) {
+    private String buildPaperContext(ExtractionSnapshot extraction, List<Author> authors) {
         StringBuilder context = new StringBuilder();
         context.append("=== PAPER CONTEXT ===\n");
 
-        if (extraction.getTitle() != null) {
-            context.append("Title: ").append(extraction.getTitle()).append("\n");
+        if (extraction.title() != null) {
+            context.append("Title: ").append(extraction.title()).append("\n");
         }
 
         // Add author information if available
@@ -257,22 +255,22 @@ public class IntelligentPromptBuilder {
             }
         }
 
-        if (extraction.getAbstractText() != null) {
+        if (extraction.abstractText() != null) {
             context.append("Abstract: ")
-                    .append(truncateText(extraction.getAbstractText(), 500))
+                    .append(truncateText(extraction.abstractText(), 500))
                     .append("\n");
         }
 
         // Add structural information
         context.append("Paper Structure:\n");
         context.append("- Total Sections: ")
-                .append(extraction.getSections().size())
+                .append(extraction.sections().size())
                 .append("\n");
-        context.append("- Figures: ").append(extraction.getFigures().size()).append("\n");
-        context.append("- Tables: ").append(extraction.getTables().size()).append("\n");
-        context.append("- Equations: ").append(extraction.getEquations().size()).append("\n");
+        context.append("- Figures: ").append(extraction.figures().size()).append("\n");
+        context.append("- Tables: ").append(extraction.tables().size()).append("\n");
+        context.append("- Equations: ").append(extraction.equations().size()).append("\n");
         context.append("- References: ")
-                .append(extraction.getReferences().size())
+                .append(extraction.references().size())
                 .append("\n");
 
         return context.toString();
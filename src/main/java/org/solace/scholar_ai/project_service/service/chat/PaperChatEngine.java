@@ -2,6 +2,7 @@ package org.solace.scholar_ai.project_service.service.chat;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,9 +12,9 @@ import org.solace.scholar_ai.project_service.exception.PaperNotExtractedExceptio
 import org.solace.scholar_ai.project_service.exception.PaperNotFoundException;
 import org.solace.scholar_ai.project_service.model.author.Author;
 import org.solace.scholar_ai.project_service.model.chat.ChatMessage;
+import org.solace.scholar_ai.project_service.model.chat.ChatRetrievalMode;
 import org.solace.scholar_ai.project_service.model.chat.ChatSession;
 import org.solace.scholar_ai.project_service.model.chat.ContentChunk;
-import org.solace.scholar_ai.project_service.model.extraction.PaperExtraction;
 import org.solace.scholar_ai.project_service.model.paper.Paper;
 import org.solace.scholar_ai.project_service.model.paper.PaperAuthor;
 import org.solace.scholar_ai.project_service.repository.chat.ChatMessageRepository;
@@ -21,19 +22,26 @@ import org.solace.scholar_ai.project_service.repository.chat.ChatSessionReposito
 import org.solace.scholar_ai.project_service.repository.paper.PaperAuthorRepository;
 import org.solace.scholar_ai.project_service.repository.paper.PaperRepository;
 import org.solace.scholar_ai.project_service.service.chat.QueryRequirementAnalysisService.DataRequirement;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.ChatQuery;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.ChatRetrievalStrategies;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.ChatRetrievalStrategy;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.RetrievalPlan;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshotCache;
 import org.solace.scholar_ai.project_service.service.summary.GeminiService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
- * Enhanced Paper Context Chat Service with Intelligent Query Processing
- * Leverages advanced query analysis, optimized content retrieval, and intelligent prompting
- * for maximum AI response accuracy and relevance
+ * Chat with a paper's extracted content. Each turn retrieves context with the retrieval
+ * strategy the request asks for, or the configured default, and builds one prompt from it
+ * whichever strategy chose the content.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class EnhancedPaperContextChatService {
+public class PaperChatEngine {
 
     private final PaperRepository paperRepository;
     private final PaperAuthorRepository paperAuthorRepository;
@@ -41,112 +49,176 @@ public class EnhancedPaperContextChatService {
     private final ChatMessageRepository chatMessageRepository;
     private final GeminiService geminiService;
 
-    // Enhanced AI components
+    private final ChatRetrievalStrategies retrievalStrategies;
     private final QueryRequirementAnalysisService queryRequirementAnalysisService;
-    private final EnhancedContentRetrievalService contentRetrievalService;
     private final IntelligentPromptBuilder promptBuilder;
+    private final ExtractionSnapshotCache snapshotCache;
+    private final TransactionTemplate transactionTemplate;
 
     // Configuration constants
     private static final int MAX_CONVERSATION_HISTORY = 3;
 
+    // Chunk types each strategy produces, grouped for the response metadata
+    private static final Set<String> SECTION_TYPES = Set.of(
+            "section", "introduction", "methodology", "results", "conclusion", "specific_page");
+    private static final Set<String> FIGURE_TYPES = Set.of("figure", "specific_figure");
+    private static final Set<String> TABLE_TYPES = Set.of("table", "specific_table");
+    private static final Set<String> EQUATION_TYPES = Set.of("equation");
+
     /**
      * Main method for intelligent chat with papers using comprehensive AI optimization
      */
     @Transactional
     public PaperChatResponse chatWithPaper(UUID paperId, PaperChatRequest request) {
-        log.info("Processing intelligent chat request for paper: {} with query type analysis", paperId);
+        log.info("Processing chat request for paper: {}", paperId);
 
         try {
-            // 1. Validate paper and extraction
-            Paper paper = validatePaperAndExtraction(paperId);
-
-            // 2. Get or create chat session
-            ChatSession session = getOrCreateChatSession(paperId, request.getSessionId());
-
-            // 3. Store user message
-            storeUserMessage(session, request.getMessage());
-
-            // 4. AI-powered analysis of what data is needed for this query
-            Set<DataRequirement> dataRequirements =
-                    queryRequirementAnalysisService.analyzeQueryRequirements(request.getMessage());
-
-            log.debug("AI determined data requirements: {}", dataRequirements);
-
-            // 5. Get paper authors if AI determined they're needed
-            List<Author> authors = queryRequirementAnalysisService.shouldIncludeAuthors(dataRequirements)
-                    ? getAuthorsForPaper(paperId)
-                    : null;
-
-            // 6. Retrieve content based on AI-determined requirements
-            List<ContentChunk> relevantChunks = contentRetrievalService.retrieveContentBasedOnRequirements(
-                    paper.getPaperExtraction(),
-                    request.getMessage(),
-                    request.getSelectedText(),
-                    request.getSelectionContext(),
-                    authors,
-                    dataRequirements);
-
-            log.debug("Retrieved {} AI-prioritized content chunks based on requirements", relevantChunks.size());
-
-            // 7. Get recent conversation history
-            List<ChatMessage> recentHistory = getRecentChatHistory(session.getId());
-
-            // 8. Build intelligent prompt optimized for determined requirements
-            String optimizedPrompt = promptBuilder.buildOptimizedPromptWithRequirements(
-                    paper.getPaperExtraction(),
-                    relevantChunks,
-                    recentHistory,
-                    request.getMessage(),
-                    request.getSelectedText(),
-                    dataRequirements.toArray(new DataRequirement[0]),
-                    authors);
+            // 1-8. Validate, store the user message, retrieve content and build the prompt
+            PreparedChat prepared = prepareChat(paperId, request);
+            ChatSession session = prepared.session();
 
             // 9. Generate AI response with standard parameters
             String aiResponse;
             try {
-                aiResponse = geminiService.generate(
-                        optimizedPrompt,
-                        org.solace.scholar_ai.project_service.service.summary.GeminiService.GenerationConfig.builder()
-                                .temperature(0.3)
-                                .maxOutputTokens(2000)
-                                .build());
+                aiResponse = geminiService.generate(prepared.prompt(), chatGenerationConfig());
                 if (aiResponse == null || aiResponse.trim().isEmpty()) {
                     throw new RuntimeException("AI service returned empty response");
                 }
             } catch (Exception aiError) {
                 log.warn("AI service error, providing fallback response: {}", aiError.getMessage());
-                aiResponse = generateFallbackResponse(dataRequirements, authors, paper.getPaperExtraction());
+                aiResponse = generateFallbackResponse(prepared.message(), prepared.authors(), prepared.extraction());
             }
 
-            log.debug("Generated AI response using AI-powered query analysis system");
+            log.debug("Generated AI response with {} retrieval", prepared.strategy());
 
             // 10. Store assistant response
             ChatMessage assistantMessage = storeAssistantMessage(session, aiResponse);
 
             // 11. Build comprehensive response with metadata
-            return buildSimplifiedChatResponse(
-                    session, assistantMessage, relevantChunks, paper.getPaperExtraction(), dataRequirements);
+            return buildChatResponse(session, assistantMessage, prepared.relevantChunks());
 
         } catch (Exception e) {
-            log.error("Error in enhanced chat processing for paper: {}", paperId, e);
+            log.error("Error in chat processing for paper: {}", paperId, e);
             return handleChatError(paperId, request.getSessionId(), e);
         }
     }
 
     /**
-     * Validate paper exists and is fully extracted
+     * Validate the paper, store the user message and build the prompt for one chat turn.
+     * Used on its own by streaming chat, which generates outside of this transaction so no
+     * database connection is held while the model is writing.
+     *
+     * @throws PaperNotFoundException When the paper does not exist
+     * @throws PaperNotExtractedException When the paper has not been extracted yet
+     */
+    @Transactional
+    public PreparedChat prepareChat(UUID paperId, PaperChatRequest request) {
+        // 1. Validate paper and extraction
+        validatePaperAndExtraction(paperId);
+
+        // 2. Get or create chat session
+        ChatSession session = getOrCreateChatSession(paperId, request.getSessionId());
+
+        // 3. Store user message
+        storeUserMessage(session, request.getMessage());
+
+        // 4. Plan retrieval with the requested strategy, or the default one
+        ChatRetrievalStrategy strategy = retrievalStrategies.get(request.getRetrievalStrategy());
+        RetrievalPlan plan = strategy.plan(ChatQuery.of(request));
+
+        // 5. Get paper authors if the plan needs them
+        List<Author> authors = plan.needsAuthors() ? getAuthorsForPaper(paperId) : null;
+
+        // 6. Load only the extraction content this query reads, then retrieve from it
+        ExtractionSnapshot extraction = snapshotCache
+                .get(paperId, plan.requiredContent())
+                .orElseThrow(() -> new PaperNotExtractedException(
+                        "Paper has not been extracted yet. Please wait for extraction to complete."));
+        List<ContentChunk> relevantChunks = plan.retrieve(extraction, authors);
+
+        log.debug("Retrieved {} content chunks with {} retrieval", relevantChunks.size(), strategy.mode());
+
+        // 7. Get recent conversation history
+        List<ChatMessage> recentHistory = getRecentChatHistory(session.getId());
+
+        // 8. Build the prompt from the retrieved content
+        String prompt = promptBuilder.buildChatPrompt(
+                extraction, relevantChunks, recentHistory, request.getMessage(), request.getSelectedText(), authors);
+
+        return new PreparedChat(
+                session, strategy.mode(), request.getMessage(), extraction, authors, relevantChunks, prompt);
+    }
+
+    /**
+     * Generate the answer for a prepared chat turn with Gemini's streaming endpoint, passing
+     * each text fragment to {@code onToken} as it arrives, then store the assistant message.
+     * If generation fails before any text was sent, the fallback answer is sent instead; if
+     * it fails part-way, for example because the client went away, the partial answer is kept.
+     *
+     * @param prepared Result of {@link #prepareChat}
+     * @param onToken Receives answer fragments in order
+     * @return The stored answer
+     */
+    public PaperChatResponse streamChat(PreparedChat prepared, Consumer<String> onToken) {
+        StringBuilder streamed = new StringBuilder();
+        String error = null;
+        try {
+            geminiService.generateStream(prepared.prompt(), chatGenerationConfig(), fragment -> {
+                streamed.append(fragment);
+                onToken.accept(fragment);
+            });
+        } catch (Exception e) {
+            error = e.getMessage();
+            if (streamed.length() == 0) {
+                log.warn("Streaming AI service error, providing fallback response: {}", e.getMessage());
+                streamed.append(
+                        generateFallbackResponse(prepared.message(), prepared.authors(), prepared.extraction()));
+                try {
+                    onToken.accept(streamed.toString());
+                } catch (Exception sendError) {
+                    log.debug("Could not send fallback response: {}", sendError.getMessage());
+                }
+            } else {
+                log.warn("Chat stream for session {} ended early: {}", prepared.session().getId(), e.getMessage());
+            }
+        }
+
+        String answer = streamed.toString();
+        ChatMessage assistantMessage = transactionTemplate.execute(status -> {
+            ChatSession session = chatSessionRepository
+                    .findById(prepared.session().getId())
+                    .orElse(prepared.session());
+            return storeAssistantMessage(session, answer);
+        });
+
+        return PaperChatResponse.builder()
+                .sessionId(prepared.session().getId())
+                .response(assistantMessage.getContent())
+                .timestamp(assistantMessage.getTimestamp())
+                .success(error == null)
+                .error(error)
+                .build();
+    }
+
+    private GeminiService.GenerationConfig chatGenerationConfig() {
+        return GeminiService.GenerationConfig.builder()
+                .temperature(0.3)
+                .maxOutputTokens(2000)
+                .build();
+    }
+
+    /**
+     * Validate paper exists and is marked as extracted
      */
-    private Paper validatePaperAndExtraction(UUID paperId) {
+    private void validatePaperAndExtraction(UUID paperId) {
         Paper paper = paperRepository
                 .findById(paperId)
                 .orElseThrow(() -> new PaperNotFoundException("Paper not found with ID: " + paperId));
 
-        if (!Boolean.TRUE.equals(paper.getIsExtracted()) || paper.getPaperExtraction() == null) {
+        if (!Boolean.TRUE.equals(paper.getIsExtracted())) {
             throw new PaperNotExtractedException(
                     "Paper has not been extracted yet. Please wait for extraction to complete.");
         }
-
-        return paper;
     }
 
     /**
@@ -236,35 +308,6 @@ public class EnhancedPaperContextChatService {
         }
     }
 
-    /**
-     * Build enhanced chat response with comprehensive metadata
-     */
-    private PaperChatResponse buildEnhancedChatResponse(
-            ChatSession session,
-            ChatMessage assistantMessage,
-            List<ContentChunk> relevantChunks,
-            IntelligentQueryStrategy.QueryAnalysis queryAnalysis,
-            PaperExtraction extraction) {
-
-        // Build metadata about the AI processing
-        Map<String, Object> processingMetadata = new HashMap<>();
-        processingMetadata.put("queryType", queryAnalysis.getPrimaryType().toString());
-        processingMetadata.put("complexityScore", queryAnalysis.getComplexityScore());
-        processingMetadata.put("chunksUsed", relevantChunks.size());
-        processingMetadata.put("temperature", queryAnalysis.getPromptStrategy().getTemperature());
-        processingMetadata.put("maxTokens", queryAnalysis.getPromptStrategy().getMaxTokens());
-        processingMetadata.put(
-                "responseFormat",
-                queryAnalysis.getPromptStrategy().getResponseFormat().toString());
-
-        return PaperChatResponse.builder()
-                .sessionId(session.getId())
-                .response(assistantMessage.getContent())
-                .timestamp(assistantMessage.getTimestamp())
-                .success(true)
-                .build();
-    }
-
     /**
      * Handle chat errors gracefully
      */
@@ -296,35 +339,75 @@ public class EnhancedPaperContextChatService {
     }
 
     /**
-     * Build simplified chat response with AI-determined requirements metadata
+     * Build the chat response with metadata about the content the answer was based on
      */
-    private PaperChatResponse buildSimplifiedChatResponse(
-            ChatSession session,
-            ChatMessage assistantMessage,
-            List<ContentChunk> relevantChunks,
-            PaperExtraction extraction,
-            Set<DataRequirement> dataRequirements) {
-
-        // Build metadata about the AI processing
-        Map<String, Object> processingMetadata = new HashMap<>();
-        processingMetadata.put("aiQueryAnalysis", true);
-        processingMetadata.put("dataRequirements", dataRequirements.toString());
-        processingMetadata.put("chunksUsed", relevantChunks.size());
-        processingMetadata.put("processingMethod", "AI-powered requirement analysis");
+    private PaperChatResponse buildChatResponse(
+            ChatSession session, ChatMessage assistantMessage, List<ContentChunk> relevantChunks) {
+
+        // Selected text first, then the other content in ranked order
+        List<String> contentSources = new ArrayList<>();
+        relevantChunks.stream()
+                .filter(chunk -> "selected_text".equals(chunk.getType()))
+                .findFirst()
+                .ifPresent(chunk -> contentSources.add(chunk.getSource()));
+        relevantChunks.stream()
+                .filter(chunk -> !"selected_text".equals(chunk.getType()))
+                .forEach(chunk -> contentSources.add(chunk.getSource()));
+
+        PaperChatResponse.ContextMetadata contextMetadata = PaperChatResponse.ContextMetadata.builder()
+                .sectionsUsed(sourcesOfType(relevantChunks, SECTION_TYPES))
+                .figuresReferenced(sourcesOfType(relevantChunks, FIGURE_TYPES))
+                .tablesReferenced(sourcesOfType(relevantChunks, TABLE_TYPES))
+                .equationsUsed(sourcesOfType(relevantChunks, EQUATION_TYPES))
+                .pagesReferenced(relevantChunks.stream()
+                        .map(ContentChunk::getPageNumber)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .sorted()
+                        .collect(Collectors.toList()))
+                .contentSources(contentSources)
+                .chunksUsed(relevantChunks.size())
+                .confidenceScore(calculateConfidenceScore(relevantChunks))
+                .build();
 
         return PaperChatResponse.builder()
                 .sessionId(session.getId())
                 .response(assistantMessage.getContent())
+                .context(contextMetadata)
                 .timestamp(assistantMessage.getTimestamp())
                 .success(true)
                 .build();
     }
 
+    private List<String> sourcesOfType(List<ContentChunk> chunks, Set<String> types) {
+        return chunks.stream()
+                .filter(chunk -> types.contains(chunk.getType()))
+                .map(ContentChunk::getSource)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Calculate confidence score based on relevance of retrieved chunks
+     */
+    private Double calculateConfidenceScore(List<ContentChunk> chunks) {
+        if (chunks.isEmpty()) return 0.5;
+
+        double averageRelevance = chunks.stream()
+                .mapToDouble(ContentChunk::getRelevanceScore)
+                .average()
+                .orElse(0.5);
+
+        // Factor in number of chunks (more relevant content = higher confidence)
+        double chunkBonus = Math.min(chunks.size() * 0.1, 0.3);
+
+        return Math.min(averageRelevance + chunkBonus, 1.0);
+    }
+
     /**
      * Generate a fallback response when AI service fails
      */
-    private String generateFallbackResponse(
-            Set<DataRequirement> dataRequirements, List<Author> authors, PaperExtraction extraction) {
+    private String generateFallbackResponse(String message, List<Author> authors, ExtractionSnapshot extraction) {
+        Set<DataRequirement> dataRequirements = queryRequirementAnalysisService.analyzeQueryRequirements(message);
         StringBuilder response = new StringBuilder();
 
         // Handle author queries specifically
@@ -341,9 +424,9 @@ public class EnhancedPaperContextChatService {
 
         // Handle title queries
         if (dataRequirements.contains(DataRequirement.TITLE)) {
-            if (extraction.getTitle() != null) {
+            if (extraction.title() != null) {
                 response.append("The title of this paper is: \"")
-                        .append(extraction.getTitle())
+                        .append(extraction.title())
                         .append("\"");
                 if (authors != null && !authors.isEmpty()) {
                     response.append(" by ");
@@ -359,9 +442,9 @@ public class EnhancedPaperContextChatService {
 
         // Default fallback for other queries
         response.append("I apologize, but I'm experiencing difficulty processing your request at the moment. ");
-        if (extraction.getTitle() != null) {
+        if (extraction.title() != null) {
             response.append("This paper is titled \"")
-                    .append(extraction.getTitle())
+                    .append(extraction.title())
                     .append("\"");
             if (authors != null && !authors.isEmpty()) {
                 response.append(" by ");
@@ -374,4 +457,16 @@ public class EnhancedPaperContextChatService {
 
         return response.toString();
     }
+
+    /**
+     * Everything one chat turn needs once the user message is stored
+     */
+    public record PreparedChat(
+            ChatSession session,
+            ChatRetrievalMode strategy,
+            String message,
+            ExtractionSnapshot extraction,
+            List<Author> authors,
+            List<ContentChunk> relevantChunks,
+            String prompt) {}
 }
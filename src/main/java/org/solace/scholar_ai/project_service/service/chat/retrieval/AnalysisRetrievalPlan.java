@@ -0,0 +1,32 @@
+package org.solace.scholar_ai.project_service.service.chat.retrieval;
+
+import java.util.List;
+import java.util.Set;
+import org.solace.scholar_ai.project_service.model.author.Author;
+import org.solace.scholar_ai.project_service.model.chat.ContentChunk;
+import org.solace.scholar_ai.project_service.service.chat.EnhancedContentRetrievalService;
+import org.solace.scholar_ai.project_service.service.chat.IntelligentQueryStrategy;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
+
+/**
+ * Retrieval weighted by a query analysis and ranked over the paper's chunk store; the
+ * strategies differ in how they come to the analysis
+ */
+record AnalysisRetrievalPlan(
+        EnhancedContentRetrievalService contentRetrievalService,
+        IntelligentQueryStrategy.QueryAnalysis analysis,
+        ChatQuery query,
+        boolean needsAuthors)
+        implements RetrievalPlan {
+
+    @Override
+    public Set<ExtractionSnapshot.Content> requiredContent() {
+        return contentRetrievalService.requiredContent(analysis);
+    }
+
+    @Override
+    public List<ContentChunk> retrieve(ExtractionSnapshot extraction, List<Author> authors) {
+        return contentRetrievalService.retrieveOptimalContent(
+                extraction, analysis, query.message(), query.selectedText(), query.selectionContext(), authors);
+    }
+}
@@ -0,0 +1,21 @@
+package org.solace.scholar_ai.project_service.service.chat.retrieval;
+
+import org.solace.scholar_ai.project_service.dto.request.chat.PaperChatRequest;
+
+/**
+ * What the user asked in one chat turn
+ *
+ * @param message The question
+ * @param selectedText Text the user selected in the paper, if any
+ * @param selectionContext Where the selection was made, if known
+ */
+public record ChatQuery(String message, String selectedText, PaperChatRequest.SelectionContext selectionContext) {
+
+    public static ChatQuery of(PaperChatRequest request) {
+        return new ChatQuery(request.getMessage(), request.getSelectedText(), request.getSelectionContext());
+    }
+
+    public boolean hasSelectedText() {
+        return selectedText != null && !selectedText.trim().isEmpty();
+    }
+}
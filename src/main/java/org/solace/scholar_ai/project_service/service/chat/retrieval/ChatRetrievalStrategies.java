@@ -0,0 +1,54 @@
+package org.solace.scholar_ai.project_service.service.chat.retrieval;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.model.chat.ChatRetrievalMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The chat retrieval strategies, by mode, with the one used when a request does not ask for
+ * a mode
+ */
+@Slf4j
+@Component
+public class ChatRetrievalStrategies {
+
+    private final Map<ChatRetrievalMode, ChatRetrievalStrategy> strategies = new EnumMap<>(ChatRetrievalMode.class);
+    private final ChatRetrievalMode defaultMode;
+
+    public ChatRetrievalStrategies(
+            List<ChatRetrievalStrategy> strategies,
+            @Value("${scholarai.chat.retrieval.default-strategy:INTELLIGENT}") ChatRetrievalMode defaultMode) {
+        for (ChatRetrievalStrategy strategy : strategies) {
+            if (this.strategies.put(strategy.mode(), strategy) != null) {
+                throw new IllegalStateException("More than one chat retrieval strategy for " + strategy.mode());
+            }
+        }
+        if (!this.strategies.containsKey(defaultMode)) {
+            throw new IllegalStateException("No chat retrieval strategy for default mode " + defaultMode);
+        }
+        this.defaultMode = defaultMode;
+        log.info("Chat retrieval strategies {}, default {}", this.strategies.keySet(), defaultMode);
+    }
+
+    /**
+     * Get the strategy a request asked for, or the default one
+     *
+     * @param mode The requested mode, may be null
+     * @return The strategy
+     */
+    public ChatRetrievalStrategy get(ChatRetrievalMode mode) {
+        ChatRetrievalStrategy strategy = strategies.get(mode != null ? mode : defaultMode);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unsupported chat retrieval strategy: " + mode);
+        }
+        return strategy;
+    }
+
+    public ChatRetrievalMode getDefaultMode() {
+        return defaultMode;
+    }
+}
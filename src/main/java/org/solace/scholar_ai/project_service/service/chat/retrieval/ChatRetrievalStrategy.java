@@ -0,0 +1,17 @@
+package org.solace.scholar_ai.project_service.service.chat.retrieval;
+
+import org.solace.scholar_ai.project_service.model.chat.ChatRetrievalMode;
+
+/**
+ * A way of selecting the paper content a chat answer is based on. Strategies are Spring
+ * beans picked up by {@link ChatRetrievalStrategies}, one per {@link ChatRetrievalMode}.
+ */
+public interface ChatRetrievalStrategy {
+
+    ChatRetrievalMode mode();
+
+    /**
+     * Analyze a query before anything is loaded for it
+     */
+    RetrievalPlan plan(ChatQuery query);
+}
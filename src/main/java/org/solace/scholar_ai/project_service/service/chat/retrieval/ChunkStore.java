@@ -0,0 +1,353 @@
+package org.solace.scholar_ai.project_service.service.chat.retrieval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.solace.scholar_ai.project_service.service.extraction.index.TermVector;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
+
+/**
+ * Retrieval chunks of one extraction snapshot, built once and then ranked for every chat
+ * query about the paper. Each chunk keeps the content handed to the prompt, its page and
+ * section metadata, and the term counts of the text it is scored on, so a query only hashes
+ * its own words and looks them up.
+ *
+ * <p>Chunks are ranked with BM25 over the whole store. Words are tokenized like paragraph
+ * term vectors: lower-cased, split on non-word characters and kept when longer than two
+ * characters.
+ */
+public final class ChunkStore {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    public enum Kind {
+        SECTION,
+        FIGURE,
+        TABLE,
+        EQUATION,
+        REFERENCE
+    }
+
+    // Section categories, as bits of Chunk.categories()
+    public static final int INTRODUCTION = 1;
+    public static final int METHODOLOGY = 1 << 1;
+    public static final int TECHNICAL = 1 << 2;
+    public static final int RESULTS = 1 << 3;
+    public static final int EXPERIMENTAL = 1 << 4;
+    public static final int CONCLUSION = 1 << 5;
+
+    /**
+     * One retrievable piece of the paper
+     *
+     * @param content Text handed to the prompt
+     * @param source Where the content comes from, as shown to the model
+     * @param page First page of the content, if known
+     * @param label Figure or table label, used to resolve references like "Figure 2"
+     * @param dedupKey Lower-cased content with collapsed whitespace, equal for duplicate content
+     * @param categories Section category bits; zero for other kinds
+     */
+    public record Chunk(
+            Kind kind,
+            String content,
+            String source,
+            Integer page,
+            String label,
+            String dedupKey,
+            int categories,
+            int[] termIds,
+            int[] termCounts,
+            int length) {
+
+        public boolean is(int category) {
+            return (categories & category) != 0;
+        }
+
+        int count(int termId) {
+            int index = Arrays.binarySearch(termIds, termId);
+            return index >= 0 ? termCounts[index] : 0;
+        }
+    }
+
+    /**
+     * A tokenized query, with the inverse document frequency of each of its terms in the store
+     */
+    public static final class Query {
+        private final int[] termIds;
+        private final double[] idf;
+        // The score of a chunk that repeats every query term endlessly
+        private final double maxScore;
+
+        private Query(int[] termIds, double[] idf) {
+            this.termIds = termIds;
+            this.idf = idf;
+            double max = 0;
+            for (double value : idf) {
+                max += value * (K1 + 1);
+            }
+            this.maxScore = max;
+        }
+    }
+
+    private final UUID extractionId;
+    private final List<Chunk> sections;
+    private final List<Chunk> figures;
+    private final List<Chunk> tables;
+    private final List<Chunk> equations;
+    private final List<Chunk> references;
+    private final Map<Integer, Integer> documentFrequency;
+    private final int chunkCount;
+    private final double averageLength;
+    private final long residentBytes;
+
+    private ChunkStore(UUID extractionId, Builder builder) {
+        this.extractionId = extractionId;
+        this.sections = List.copyOf(builder.sections);
+        this.figures = List.copyOf(builder.figures);
+        this.tables = List.copyOf(builder.tables);
+        this.equations = List.copyOf(builder.equations);
+        this.references = List.copyOf(builder.references);
+        this.documentFrequency = Map.copyOf(builder.documentFrequency);
+        this.chunkCount = builder.index;
+        this.averageLength = builder.index == 0 ? 0 : (double) builder.totalLength / builder.index;
+        this.residentBytes = builder.residentBytes;
+    }
+
+    /**
+     * Build the chunks of every content category the snapshot was loaded with
+     */
+    public static ChunkStore build(ExtractionSnapshot snapshot) {
+        Builder builder = new Builder();
+
+        for (ExtractionSnapshot.Section section : snapshot.sections()) {
+            String content = section.text();
+            if (content == null || content.isEmpty()) continue;
+            builder.sections.add(builder.chunk(
+                    Kind.SECTION,
+                    content,
+                    "Section: " + section.title(),
+                    section.pageStart(),
+                    null,
+                    categories(section),
+                    content));
+        }
+
+        for (ExtractionSnapshot.Figure figure : snapshot.figures()) {
+            String content = "Figure " + figure.label() + ": " + figure.caption()
+                    + (figure.ocrText() != null ? "\nOCR Text: " + figure.ocrText() : "");
+            builder.figures.add(builder.chunk(
+                    Kind.FIGURE,
+                    content,
+                    "Figure " + figure.label() + " (Page " + figure.page() + ")",
+                    figure.page(),
+                    figure.label(),
+                    0,
+                    join(figure.caption(), figure.ocrText())));
+        }
+
+        for (ExtractionSnapshot.Table table : snapshot.tables()) {
+            String content = "Table " + table.label() + ": " + table.caption()
+                    + (table.headers() != null ? "\nHeaders: " + table.headers() : "")
+                    + (table.rows() != null ? "\nData: " + truncate(table.rows(), 500) : "");
+            builder.tables.add(builder.chunk(
+                    Kind.TABLE,
+                    content,
+                    "Table " + table.label() + " (Page " + table.page() + ")",
+                    table.page(),
+                    table.label(),
+                    0,
+                    join(table.caption(), table.headers(), truncate(table.rows(), 200))));
+        }
+
+        for (ExtractionSnapshot.Equation equation : snapshot.equations()) {
+            if (equation.latex() == null && equation.label() == null) continue;
+            String text = (equation.label() != null ? equation.label() : "")
+                    + (equation.latex() != null ? " LaTeX: " + equation.latex() : "");
+            builder.equations.add(builder.chunk(
+                    Kind.EQUATION,
+                    "Equation " + equation.equationId() + ": " + text,
+                    "Equation " + equation.equationId() + " (Page " + equation.page() + ")",
+                    equation.page(),
+                    equation.label(),
+                    0,
+                    text));
+        }
+
+        for (ExtractionSnapshot.Reference reference : snapshot.references()) {
+            StringBuilder text = new StringBuilder();
+            if (reference.title() != null) text.append(reference.title());
+            if (reference.authors() != null) text.append(" by ").append(reference.authors());
+            if (reference.venue() != null) text.append(" in ").append(reference.venue());
+            String content = text.toString();
+            builder.references.add(builder.chunk(
+                    Kind.REFERENCE, content, "Reference " + reference.referenceId(), null, null, 0, content));
+        }
+
+        return new ChunkStore(snapshot.id(), builder);
+    }
+
+    /**
+     * Tokenize a query against this store
+     */
+    public Query query(String text) {
+        TreeMap<Integer, Integer> terms = tokenize(text);
+        int[] termIds = new int[terms.size()];
+        double[] idf = new double[terms.size()];
+        int i = 0;
+        for (int termId : terms.keySet()) {
+            int frequency = documentFrequency.getOrDefault(termId, 0);
+            termIds[i] = termId;
+            idf[i] = Math.log(1 + (chunkCount - frequency + 0.5) / (frequency + 0.5));
+            i++;
+        }
+        return new Query(termIds, idf);
+    }
+
+    /**
+     * BM25 score of a chunk for a query, divided by the score no chunk can reach, so it falls
+     * in {@code [0, 1)}
+     */
+    public double relevance(Chunk chunk, Query query) {
+        if (query.maxScore == 0) {
+            return 0.0;
+        }
+        double lengthNorm = K1 * (1 - B + B * (averageLength == 0 ? 0 : chunk.length() / averageLength));
+        double score = 0;
+        for (int i = 0; i < query.termIds.length; i++) {
+            int count = chunk.count(query.termIds[i]);
+            if (count > 0) {
+                score += query.idf[i] * count * (K1 + 1) / (count + lengthNorm);
+            }
+        }
+        return score / query.maxScore;
+    }
+
+    public UUID getExtractionId() {
+        return extractionId;
+    }
+
+    public List<Chunk> getSections() {
+        return sections;
+    }
+
+    public List<Chunk> getFigures() {
+        return figures;
+    }
+
+    public List<Chunk> getTables() {
+        return tables;
+    }
+
+    public List<Chunk> getEquations() {
+        return equations;
+    }
+
+    public List<Chunk> getReferences() {
+        return references;
+    }
+
+    public int size() {
+        return chunkCount;
+    }
+
+    /**
+     * Approximate heap held by the chunks: their content, dedup keys and term counts
+     */
+    public long residentBytes() {
+        return residentBytes;
+    }
+
+    /**
+     * Content with the case and whitespace differences of duplicate content removed
+     */
+    public static String dedupKey(String content) {
+        return content.toLowerCase().replaceAll("\\s+", " ");
+    }
+
+    private static int categories(ExtractionSnapshot.Section section) {
+        String type = section.type() != null ? section.type().toLowerCase() : "";
+        String title = section.title() != null ? section.title().toLowerCase() : "";
+        int categories = 0;
+        if (type.contains("introduction")) categories |= INTRODUCTION;
+        if (title.contains("method")
+                || title.contains("approach")
+                || title.contains("implementation")
+                || title.contains("design")) {
+            categories |= METHODOLOGY;
+        }
+        if (title.contains("algorithm")
+                || title.contains("framework")
+                || title.contains("architecture")
+                || title.contains("system")) {
+            categories |= TECHNICAL;
+        }
+        if (type.contains("results")) categories |= RESULTS;
+        if (type.contains("experiment") || type.contains("evaluation")) categories |= EXPERIMENTAL;
+        if (type.contains("conclusion")) categories |= CONCLUSION;
+        return categories;
+    }
+
+    private static TreeMap<Integer, Integer> tokenize(String text) {
+        TreeMap<Integer, Integer> terms = new TreeMap<>();
+        if (text != null) {
+            for (String word : text.toLowerCase().split("\\W+")) {
+                if (word.length() > 2) {
+                    terms.merge(TermVector.termId(word), 1, Integer::sum);
+                }
+            }
+        }
+        return terms;
+    }
+
+    private static String join(String... parts) {
+        StringBuilder text = new StringBuilder();
+        for (String part : parts) {
+            if (part == null) continue;
+            if (!text.isEmpty()) text.append(' ');
+            text.append(part);
+        }
+        return text.toString();
+    }
+
+    private static String truncate(String text, int maxLength) {
+        if (text == null || text.length() <= maxLength) return text;
+        return text.substring(0, maxLength) + "...";
+    }
+
+    private static final class Builder {
+        private final List<Chunk> sections = new ArrayList<>();
+        private final List<Chunk> figures = new ArrayList<>();
+        private final List<Chunk> tables = new ArrayList<>();
+        private final List<Chunk> equations = new ArrayList<>();
+        private final List<Chunk> references = new ArrayList<>();
+        private final Map<Integer, Integer> documentFrequency = new HashMap<>();
+        private int index;
+        private long totalLength;
+        private long residentBytes;
+
+        private Chunk chunk(
+                Kind kind, String content, String source, Integer page, String label, int categories, String text) {
+            TreeMap<Integer, Integer> terms = tokenize(text);
+            int[] termIds = new int[terms.size()];
+            int[] termCounts = new int[terms.size()];
+            int length = 0;
+            int i = 0;
+            for (var entry : terms.entrySet()) {
+                termIds[i] = entry.getKey();
+                termCounts[i] = entry.getValue();
+                length += entry.getValue();
+                documentFrequency.merge(entry.getKey(), 1, Integer::sum);
+                i++;
+            }
+            totalLength += length;
+            String dedupKey = dedupKey(content);
+            residentBytes += content.length() + dedupKey.length() + source.length() + 2L * Integer.BYTES * i;
+            index++;
+            return new Chunk(kind, content, source, page, label, dedupKey, categories, termIds, termCounts, length);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.solace.scholar_ai.project_service.service.chat.retrieval;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Chunk stores of recently chatted papers, so a paper's chunks are built once rather than on
+ * every chat turn. A store is reused for as long as retrieval is handed the very snapshot it
+ * was built from; the snapshot cache hands out a new snapshot when a paper is re-extracted or
+ * loaded with more content, and the store is rebuilt from it. Stores are evicted least
+ * recently used first once they hold more than the configured size.
+ *
+ * <p>Published as {@code cache.*} metrics tagged {@code cache=chunk-stores}.
+ */
+@Slf4j
+@Component
+public class ChunkStoreCache {
+
+    static final String CACHE_NAME = "chunk-stores";
+
+    private final long maxBytes;
+
+    // Access order, so the eldest entry is the least recently used; all guarded by this
+    private final LinkedHashMap<UUID, Entry> stores = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // The snapshot is only referenced weakly, so a store does not keep an evicted snapshot alive
+    private record Entry(WeakReference<ExtractionSnapshot> snapshot, ChunkStore store) {}
+
+    public ChunkStoreCache(
+            MeterRegistry meterRegistry,
+            @Value("${scholarai.chat.chunk-store-cache.max-size:32MB}") DataSize maxSize) {
+        this.maxBytes = maxSize.toBytes();
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .description("Retrievals that reused a paper's chunk store")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .description("Retrievals that built a paper's chunk store")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, ChunkStoreCache::size)
+                .tags("cache", CACHE_NAME)
+                .description("Papers with a cached chunk store")
+                .register(meterRegistry);
+        Gauge.builder("cache.resident", this, ChunkStoreCache::residentBytes)
+                .tags("cache", CACHE_NAME)
+                .description("Approximate heap held by cached chunk stores")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the chunk store of a snapshot, building it if the cached one was built from another
+     * snapshot of the paper
+     *
+     * @param snapshot The extraction snapshot retrieval reads
+     * @return The snapshot's chunk store
+     */
+    public ChunkStore get(ExtractionSnapshot snapshot) {
+        synchronized (this) {
+            Entry cached = stores.get(snapshot.paperId());
+            if (cached != null && cached.snapshot().get() == snapshot) {
+                hits.increment();
+                return cached.store();
+            }
+        }
+        misses.increment();
+
+        long start = System.nanoTime();
+        ChunkStore store = ChunkStore.build(snapshot);
+        log.debug(
+                "Built chunk store of extraction {} with {} chunks in {} us",
+                snapshot.id(),
+                store.size(),
+                (System.nanoTime() - start) / 1_000);
+        put(snapshot, store);
+        return store;
+    }
+
+    private synchronized void put(ExtractionSnapshot snapshot, ChunkStore store) {
+        if (store.residentBytes() > maxBytes) {
+            return;
+        }
+        Entry previous = stores.put(snapshot.paperId(), new Entry(new WeakReference<>(snapshot), store));
+        if (previous != null) {
+            residentBytes -= previous.store().residentBytes();
+        }
+        residentBytes += store.residentBytes();
+
+        Iterator<Map.Entry<UUID, Entry>> eldest = stores.entrySet().iterator();
+        while (residentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<UUID, Entry> entry = eldest.next();
+            if (entry.getKey().equals(snapshot.paperId())) {
+                continue;
+            }
+            residentBytes -= entry.getValue().store().residentBytes();
+            eldest.remove();
+        }
+    }
+
+    synchronized int size() {
+        return stores.size();
+    }
+
+    synchronized long residentBytes() {
+        return residentBytes;
+    }
+}
@@ -0,0 +1,34 @@
+package org.solace.scholar_ai.project_service.service.chat.retrieval;
+
+import lombok.RequiredArgsConstructor;
+import org.solace.scholar_ai.project_service.model.chat.ChatRetrievalMode;
+import org.solace.scholar_ai.project_service.service.chat.EnhancedContentRetrievalService;
+import org.solace.scholar_ai.project_service.service.chat.IntelligentQueryStrategy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Classifies the query with {@link IntelligentQueryStrategy} and retrieves the content
+ * categories its query type weights highest
+ */
+@Component
+@RequiredArgsConstructor
+public class IntelligentRetrievalStrategy implements ChatRetrievalStrategy {
+
+    private final EnhancedContentRetrievalService contentRetrievalService;
+
+    @Override
+    public ChatRetrievalMode mode() {
+        return ChatRetrievalMode.INTELLIGENT;
+    }
+
+    @Override
+    public RetrievalPlan plan(ChatQuery query) {
+        IntelligentQueryStrategy.QueryAnalysis analysis =
+                contentRetrievalService.analyzeQuery(query.message(), query.selectedText(), query.selectionContext());
+        return new AnalysisRetrievalPlan(
+                contentRetrievalService,
+                analysis,
+                query,
+                analysis.getContextRequirements().isIncludeAuthorInfo());
+    }
+}
@@ -0,0 +1,350 @@
+package org.solace.scholar_ai.project_service.service.chat.retrieval;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.model.author.Author;
+import org.solace.scholar_ai.project_service.model.chat.ChatRetrievalMode;
+import org.solace.scholar_ai.project_service.model.chat.ContentChunk;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scores every section, figure, table and equation by the question and selected text
+ * keywords it contains, and adds the figures, tables, pages and sections the question
+ * names explicitly
+ */
+@Slf4j
+@Component
+public class KeywordRetrievalStrategy implements ChatRetrievalStrategy {
+
+    // Extraction content read to answer a question
+    private static final Set<ExtractionSnapshot.Content> CHAT_CONTENTS = EnumSet.of(
+            ExtractionSnapshot.Content.SECTIONS,
+            ExtractionSnapshot.Content.FIGURES,
+            ExtractionSnapshot.Content.TABLES,
+            ExtractionSnapshot.Content.EQUATIONS);
+
+    private static final int MAX_CONTEXT_CHUNKS = 8;
+    private static final double RELEVANCE_THRESHOLD = 0.1;
+
+    // Simple keyword extraction - can be enhanced with NLP libraries
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "a", "an", "and", "or", "but", "in", "on", "at", "to", "for", "of", "with", "by", "is", "are", "was",
+            "were", "what", "how", "why", "when", "where", "who", "which", "can", "could", "would", "should", "this",
+            "that", "these", "those");
+
+    private static final Pattern FIGURE_PATTERN = Pattern.compile("(?i)figure\\s+(\\d+)");
+    private static final Pattern TABLE_PATTERN = Pattern.compile("(?i)table\\s+(\\d+)");
+    private static final Pattern PAGE_PATTERN = Pattern.compile("(?i)page\\s+(\\d+)");
+    private static final String[] SECTION_KEYWORDS = {
+        "introduction", "conclusion", "abstract", "methodology", "results", "discussion", "references"
+    };
+
+    @Override
+    public ChatRetrievalMode mode() {
+        return ChatRetrievalMode.KEYWORD;
+    }
+
+    @Override
+    public RetrievalPlan plan(ChatQuery query) {
+        return new KeywordPlan(query);
+    }
+
+    private static final class KeywordPlan implements RetrievalPlan {
+
+        private final ChatQuery query;
+        private final String question;
+        private final Set<String> questionKeywords;
+        // Question and selection keywords, matched against content
+        private final Set<String> allKeywords;
+        private final Set<String> selectionKeywords;
+        private final List<String> selectionPhrases;
+        private final SpecificReferences specificRefs;
+        private final boolean mathQuestion;
+
+        private KeywordPlan(ChatQuery query) {
+            this.query = query;
+            this.question = query.message().toLowerCase();
+            this.questionKeywords = extractKeywords(question);
+            this.selectionKeywords =
+                    query.hasSelectedText() ? extractKeywords(query.selectedText().toLowerCase()) : Set.of();
+            this.allKeywords = new HashSet<>(questionKeywords);
+            allKeywords.addAll(selectionKeywords);
+            this.selectionPhrases = query.hasSelectedText()
+                    ? Arrays.stream(query.selectedText().toLowerCase().split("[.!?]"))
+                            .map(String::trim)
+                            .filter(phrase -> phrase.length() > 10)
+                            .toList()
+                    : List.of();
+            this.specificRefs = extractSpecificReferences(query.message());
+            // If we have selection context, add it to specific references
+            if (query.selectionContext() != null && query.selectionContext().getPageNumber() != null) {
+                specificRefs.pages.add(query.selectionContext().getPageNumber());
+            }
+            this.mathQuestion = question.contains("equation") || question.contains("formula") || question.contains("math");
+        }
+
+        @Override
+        public Set<ExtractionSnapshot.Content> requiredContent() {
+            return CHAT_CONTENTS;
+        }
+
+        @Override
+        public boolean needsAuthors() {
+            return false;
+        }
+
+        @Override
+        public List<ContentChunk> retrieve(ExtractionSnapshot extraction, List<Author> authors) {
+            List<ContentChunk> allChunks = new ArrayList<>();
+
+            // 1. HIGHEST PRIORITY: Selected text context if provided
+            if (query.hasSelectedText()) {
+                Integer selectionPage =
+                        query.selectionContext() != null ? query.selectionContext().getPageNumber() : null;
+                allChunks.add(ContentChunk.builder()
+                        .content("SELECTED TEXT CONTEXT: " + query.selectedText())
+                        .source("User-selected text" + (selectionPage != null ? " (Page " + selectionPage + ")" : ""))
+                        .type("selected_text")
+                        .relevanceScore(1.0) // Highest priority
+                        .pageNumber(selectionPage)
+                        .build());
+            }
+
+            // 2. Add specific references (high priority)
+            allChunks.addAll(getSpecificReferences(extraction));
+
+            // 3. Retrieve relevant sections based on keyword matching
+            for (ExtractionSnapshot.Section section : extraction.sections()) {
+                String sectionContent = section.text();
+                if (sectionContent == null || sectionContent.isEmpty()) continue;
+                double relevance = calculateRelevanceScore(sectionContent);
+                if (relevance > RELEVANCE_THRESHOLD) {
+                    allChunks.add(ContentChunk.builder()
+                            .content(sectionContent)
+                            .source("Section: " + section.title())
+                            .type("section")
+                            .relevanceScore(relevance)
+                            .pageNumber(section.pageStart())
+                            .build());
+                }
+            }
+
+            // 4. Figures
+            for (ExtractionSnapshot.Figure figure : extraction.figures()) {
+                double relevance = calculateRelevanceScore(join(figure.caption(), figure.ocrText()));
+                if (relevance > RELEVANCE_THRESHOLD || hasSpecificReference("figure", figure.label(), figure.caption())) {
+                    allChunks.add(ContentChunk.builder()
+                            .content("Figure " + figure.label() + ": " + figure.caption()
+                                    + (figure.ocrText() != null ? "\nOCR Text: " + figure.ocrText() : ""))
+                            .source("Figure " + figure.label() + " (Page " + figure.page() + ")")
+                            .type("figure")
+                            .relevanceScore(relevance)
+                            .pageNumber(figure.page())
+                            .build());
+                }
+            }
+
+            // 5. Tables
+            for (ExtractionSnapshot.Table table : extraction.tables()) {
+                double relevance = calculateRelevanceScore(
+                        join(table.caption(), table.headers(), table.rows() != null ? truncate(table.rows(), 200) : null));
+                if (relevance > RELEVANCE_THRESHOLD || hasSpecificReference("table", table.label(), table.caption())) {
+                    allChunks.add(ContentChunk.builder()
+                            .content("Table " + table.label() + ": " + table.caption()
+                                    + (table.headers() != null ? "\nHeaders: " + table.headers() : "")
+                                    + (table.rows() != null ? "\nData: " + truncate(table.rows(), 500) : ""))
+                            .source("Table " + table.label() + " (Page " + table.page() + ")")
+                            .type("table")
+                            .relevanceScore(relevance)
+                            .pageNumber(table.page())
+                            .build());
+                }
+            }
+
+            // 6. Equations if relevant
+            for (ExtractionSnapshot.Equation equation : extraction.equations()) {
+                if (equation.latex() == null && equation.label() == null) continue;
+                String equationText = (equation.label() != null ? equation.label() : "")
+                        + (equation.latex() != null ? " LaTeX: " + equation.latex() : "");
+                double relevance = calculateRelevanceScore(equationText);
+                if (relevance > RELEVANCE_THRESHOLD || mathQuestion) {
+                    allChunks.add(ContentChunk.builder()
+                            .content("Equation " + equation.equationId() + ": " + equationText)
+                            .source("Equation " + equation.equationId() + " (Page " + equation.page() + ")")
+                            .type("equation")
+                            .relevanceScore(relevance)
+                            .pageNumber(equation.page())
+                            .build());
+                }
+            }
+
+            // 7. Sort by relevance and limit results
+            List<ContentChunk> topChunks = allChunks.stream()
+                    .sorted((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()))
+                    .limit(MAX_CONTEXT_CHUNKS)
+                    .collect(Collectors.toList());
+
+            log.debug(
+                    "Selected {} relevant content chunks (including {} with selected text)",
+                    topChunks.size(),
+                    query.hasSelectedText() ? 1 : 0);
+            return topChunks;
+        }
+
+        /**
+         * Score content by the keywords it contains, boosted by its similarity to the selected text
+         */
+        private double calculateRelevanceScore(String content) {
+            if (content == null || content.isEmpty()) return 0.0;
+
+            String contentLower = content.toLowerCase();
+            double score = 0.0;
+
+            // Basic keyword matching
+            for (String keyword : allKeywords) {
+                if (contentLower.contains(keyword)) {
+                    score += 1.0;
+                }
+            }
+
+            // Boost score if content is similar to selected text
+            if (query.hasSelectedText()) {
+                if (!selectionKeywords.isEmpty()) {
+                    Set<String> contentWords = extractKeywords(contentLower);
+                    long commonWords =
+                            selectionKeywords.stream().filter(contentWords::contains).count();
+                    score += (double) commonWords / selectionKeywords.size() * 3.0;
+                }
+
+                // Additional boost for exact phrase matches
+                for (String phrase : selectionPhrases) {
+                    if (contentLower.contains(phrase)) {
+                        score += 2.0;
+                    }
+                }
+            }
+
+            // Normalize score
+            return Math.min(score / Math.max(allKeywords.size(), 1), 10.0);
+        }
+
+        /**
+         * Whether the question names a figure or table, or shares a keyword with its caption
+         */
+        private boolean hasSpecificReference(String kind, String label, String caption) {
+            if (question.contains(kind + " " + label)
+                    || question.contains(kind + label)
+                    || ("figure".equals(kind) && question.contains("fig " + label))) {
+                return true;
+            }
+            if (caption == null) return false;
+            String captionLower = caption.toLowerCase();
+            return questionKeywords.stream().anyMatch(captionLower::contains);
+        }
+
+        /**
+         * Get content for specific references mentioned in the question
+         */
+        private List<ContentChunk> getSpecificReferences(ExtractionSnapshot extraction) {
+            List<ContentChunk> chunks = new ArrayList<>();
+
+            specificRefs.figures.forEach(figNum -> extraction.figures().stream()
+                    .filter(fig -> fig.label() != null && fig.label().contains(figNum.toString()))
+                    .forEach(fig -> chunks.add(ContentChunk.builder()
+                            .content("Figure " + fig.label() + ": " + fig.caption())
+                            .source("Figure " + fig.label() + " (Page " + fig.page() + ")")
+                            .type("figure")
+                            .relevanceScore(1.0) // Highest relevance for specific references
+                            .pageNumber(fig.page())
+                            .build())));
+
+            specificRefs.tables.forEach(tableNum -> extraction.tables().stream()
+                    .filter(table -> table.label() != null && table.label().contains(tableNum.toString()))
+                    .forEach(table -> chunks.add(ContentChunk.builder()
+                            .content("Table " + table.label() + ": " + table.caption()
+                                    + (table.headers() != null ? "\nHeaders: " + table.headers() : "")
+                                    + (table.rows() != null ? "\nData: " + truncate(table.rows(), 300) : ""))
+                            .source("Table " + table.label() + " (Page " + table.page() + ")")
+                            .type("table")
+                            .relevanceScore(1.0)
+                            .pageNumber(table.page())
+                            .build())));
+
+            specificRefs.sections.forEach(sectionKeyword -> extraction.sections().stream()
+                    .filter(section -> section.title() != null
+                            && section.title().toLowerCase().contains(sectionKeyword))
+                    .forEach(section -> {
+                        String content = section.text();
+                        if (content != null && !content.isEmpty()) {
+                            chunks.add(ContentChunk.builder()
+                                    .content(content)
+                                    .source("Section: " + section.title())
+                                    .type("section")
+                                    .relevanceScore(1.0)
+                                    .pageNumber(section.pageStart())
+                                    .build());
+                        }
+                    }));
+
+            return chunks;
+        }
+    }
+
+    private static Set<String> extractKeywords(String text) {
+        return Arrays.stream(text.split("\\W+"))
+                .filter(word -> word.length() > 2)
+                .filter(word -> !STOP_WORDS.contains(word))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Extract specific references from question (figures, tables, pages, sections)
+     */
+    private static SpecificReferences extractSpecificReferences(String question) {
+        SpecificReferences refs = new SpecificReferences();
+        Matcher figureMatcher = FIGURE_PATTERN.matcher(question);
+        while (figureMatcher.find()) {
+            refs.figures.add(Integer.parseInt(figureMatcher.group(1)));
+        }
+        Matcher tableMatcher = TABLE_PATTERN.matcher(question);
+        while (tableMatcher.find()) {
+            refs.tables.add(Integer.parseInt(tableMatcher.group(1)));
+        }
+        Matcher pageMatcher = PAGE_PATTERN.matcher(question);
+        while (pageMatcher.find()) {
+            refs.pages.add(Integer.parseInt(pageMatcher.group(1)));
+        }
+        String questionLower = question.toLowerCase();
+        for (String keyword : SECTION_KEYWORDS) {
+            if (questionLower.contains(keyword)) {
+                refs.sections.add(keyword);
+            }
+        }
+        return refs;
+    }
+
+    private static String join(String... parts) {
+        StringBuilder text = new StringBuilder();
+        for (String part : parts) {
+            if (part == null) continue;
+            if (!text.isEmpty()) text.append(' ');
+            text.append(part);
+        }
+        return text.toString();
+    }
+
+    private static String truncate(String text, int maxLength) {
+        return text.length() <= maxLength ? text : text.substring(0, maxLength) + "...";
+    }
+
+    private static class SpecificReferences {
+        private final List<Integer> figures = new ArrayList<>();
+        private final List<Integer> tables = new ArrayList<>();
+        private final List<Integer> pages = new ArrayList<>();
+        private final List<String> sections = new ArrayList<>();
+    }
+}
@@ -0,0 +1,36 @@
+package org.solace.scholar_ai.project_service.service.chat.retrieval;
+
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.solace.scholar_ai.project_service.model.chat.ChatRetrievalMode;
+import org.solace.scholar_ai.project_service.service.chat.EnhancedContentRetrievalService;
+import org.solace.scholar_ai.project_service.service.chat.QueryRequirementAnalysisService;
+import org.solace.scholar_ai.project_service.service.chat.QueryRequirementAnalysisService.DataRequirement;
+import org.springframework.stereotype.Component;
+
+/**
+ * Detects the data a query needs with {@link QueryRequirementAnalysisService} and weights
+ * the content categories by those requirements
+ */
+@Component
+@RequiredArgsConstructor
+public class RequirementsRetrievalStrategy implements ChatRetrievalStrategy {
+
+    private final QueryRequirementAnalysisService queryRequirementAnalysisService;
+    private final EnhancedContentRetrievalService contentRetrievalService;
+
+    @Override
+    public ChatRetrievalMode mode() {
+        return ChatRetrievalMode.REQUIREMENTS;
+    }
+
+    @Override
+    public RetrievalPlan plan(ChatQuery query) {
+        Set<DataRequirement> requirements = queryRequirementAnalysisService.analyzeQueryRequirements(query.message());
+        return new AnalysisRetrievalPlan(
+                contentRetrievalService,
+                contentRetrievalService.analyzeRequirements(requirements),
+                query,
+                queryRequirementAnalysisService.shouldIncludeAuthors(requirements));
+    }
+}
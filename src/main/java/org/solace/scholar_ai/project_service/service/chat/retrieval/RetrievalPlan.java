@@ -0,0 +1,33 @@
+package org.solace.scholar_ai.project_service.service.chat.retrieval;
+
+import java.util.List;
+import java.util.Set;
+import org.solace.scholar_ai.project_service.model.author.Author;
+import org.solace.scholar_ai.project_service.model.chat.ContentChunk;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
+
+/**
+ * A retrieval strategy's analysis of one chat query: what the engine has to load for it, and
+ * how to select content once it is loaded
+ */
+public interface RetrievalPlan {
+
+    /**
+     * Extraction content categories the retrieval reads
+     */
+    Set<ExtractionSnapshot.Content> requiredContent();
+
+    /**
+     * Whether the paper's authors should be loaded and handed to {@link #retrieve}
+     */
+    boolean needsAuthors();
+
+    /**
+     * Select the content for the prompt, best first
+     *
+     * @param extraction Snapshot with at least the required content
+     * @param authors The paper's authors, or null when they were not needed
+     * @return The selected chunks
+     */
+    List<ContentChunk> retrieve(ExtractionSnapshot extraction, List<Author> authors);
+}
@@ -0,0 +1,154 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters collected while analyzing one document, reported in the check summary
+ */
+public class CitationAnalysisMetrics {
+
+    private volatile String plagiarismStrategy = "inverted-index";
+    private volatile String lshParameters;
+    private final AtomicLong plagiarismSentences = new AtomicLong();
+    private final AtomicLong plagiarismTotalPairs = new AtomicLong();
+    private final AtomicLong plagiarismCandidatePairs = new AtomicLong();
+    private volatile int verificationBatchSize = 1;
+    private final AtomicLong verificationPairs = new AtomicLong();
+    private final AtomicLong verificationRequests = new AtomicLong();
+    private final AtomicLong verificationPromptTokens = new AtomicLong();
+    private final AtomicLong singlePromptTokens = new AtomicLong();
+    private final AtomicLong verificationCacheHits = new AtomicLong();
+    private volatile UUID incrementalBaselineId;
+    private volatile int unchangedSentences;
+    private volatile int reanalyzedSentences;
+    private volatile int carriedIssues;
+
+    public void usePlagiarismLsh(int bands, int rows) {
+        this.plagiarismStrategy = "minhash-lsh";
+        this.lshParameters = bands + "x" + rows;
+    }
+
+    /**
+     * Record one sentence of the plagiarism pass
+     *
+     * @param totalPairs Paragraphs the sentence would be compared against by a full scan
+     * @param candidatePairs Paragraphs it was actually compared against
+     */
+    public void recordPlagiarismSentence(long totalPairs, long candidatePairs) {
+        plagiarismSentences.incrementAndGet();
+        plagiarismTotalPairs.addAndGet(totalPairs);
+        plagiarismCandidatePairs.addAndGet(candidatePairs);
+    }
+
+    public void useBatchedVerification(int batchSize) {
+        this.verificationBatchSize = batchSize;
+    }
+
+    /**
+     * Record one claim/evidence pair submitted for AI verification
+     *
+     * @param singlePromptTokens Estimated prompt tokens had the pair been sent on its own
+     */
+    public void recordVerificationPair(long singlePromptTokens) {
+        verificationPairs.incrementAndGet();
+        this.singlePromptTokens.addAndGet(singlePromptTokens);
+    }
+
+    /**
+     * Record one AI verification request actually sent
+     *
+     * @param promptTokens Estimated prompt tokens of the request
+     */
+    public void recordVerificationRequest(long promptTokens) {
+        verificationRequests.incrementAndGet();
+        verificationPromptTokens.addAndGet(promptTokens);
+    }
+
+    /**
+     * Record one claim/evidence pair answered from the verification cache
+     */
+    public void recordVerificationCacheHit() {
+        verificationCacheHits.incrementAndGet();
+    }
+
+    /**
+     * Record the outcome of diffing the document against the previous check
+     *
+     * @param baselineCheckId The previous check the issues were carried over from
+     * @param unchangedSentences Claim sentences whose issues were carried over
+     * @param reanalyzedSentences Claim sentences that changed and were analyzed again
+     * @param carriedIssues Issues carried over from the previous check
+     */
+    public void recordIncremental(
+            UUID baselineCheckId, int unchangedSentences, int reanalyzedSentences, int carriedIssues) {
+        this.incrementalBaselineId = baselineCheckId;
+        this.unchangedSentences = unchangedSentences;
+        this.reanalyzedSentences = reanalyzedSentences;
+        this.carriedIssues = carriedIssues;
+    }
+
+    public long getVerificationPairs() {
+        return verificationPairs.get();
+    }
+
+    public long getVerificationRequests() {
+        return verificationRequests.get();
+    }
+
+    public long getVerificationCacheHits() {
+        return verificationCacheHits.get();
+    }
+
+    public long getPlagiarismCandidatePairs() {
+        return plagiarismCandidatePairs.get();
+    }
+
+    public long getPlagiarismTotalPairs() {
+        return plagiarismTotalPairs.get();
+    }
+
+    /**
+     * Summary entries for the check summary JSON
+     */
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+
+        Map<String, Object> verification = new LinkedHashMap<>();
+        verification.put("mode", verificationBatchSize > 1 ? "batched" : "single");
+        verification.put("batchSize", verificationBatchSize);
+        verification.put("pairs", verificationPairs.get());
+        verification.put("cacheHits", verificationCacheHits.get());
+        verification.put("aiCalls", verificationRequests.get());
+        verification.put("requestsSaved", verificationPairs.get() - verificationRequests.get());
+        verification.put("estimatedPromptTokens", verificationPromptTokens.get());
+        verification.put("estimatedTokensSaved", singlePromptTokens.get() - verificationPromptTokens.get());
+        summary.put("verification", verification);
+
+        Map<String, Object> plagiarism = new LinkedHashMap<>();
+        plagiarism.put("strategy", plagiarismStrategy);
+        if (lshParameters != null) {
+            plagiarism.put("lshBandsRows", lshParameters);
+        }
+        plagiarism.put("sentences", plagiarismSentences.get());
+        plagiarism.put("totalPairs", plagiarismTotalPairs.get());
+        plagiarism.put("candidatePairs", plagiarismCandidatePairs.get());
+        long total = plagiarismTotalPairs.get();
+        plagiarism.put(
+                "pruningRatio", total == 0 ? 0.0 : 1.0 - (double) plagiarismCandidatePairs.get() / total);
+        summary.put("plagiarism", plagiarism);
+
+        if (incrementalBaselineId != null) {
+            Map<String, Object> incremental = new LinkedHashMap<>();
+            incremental.put("baselineCheckId", incrementalBaselineId.toString());
+            incremental.put("unchangedSentences", unchangedSentences);
+            incremental.put("reanalyzedSentences", reanalyzedSentences);
+            incremental.put("carriedIssues", carriedIssues);
+            summary.put("incremental", incremental);
+        }
+
+        return summary;
+    }
+}
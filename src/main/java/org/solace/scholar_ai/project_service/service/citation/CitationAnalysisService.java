@@ -1,9 +1,12 @@
 package org.solace.scholar_ai.project_service.service.citation;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -13,6 +16,7 @@ import org.solace.scholar_ai.project_service.dto.citation.CitationCheckRequestDt
 import org.solace.scholar_ai.project_service.model.citation.CitationCheck;
 import org.solace.scholar_ai.project_service.model.citation.CitationEvidence;
 import org.solace.scholar_ai.project_service.model.citation.CitationIssue;
+import org.solace.scholar_ai.project_service.model.citation.VerificationCacheEntry;
 import org.solace.scholar_ai.project_service.model.extraction.ExtractedParagraph;
 import org.solace.scholar_ai.project_service.model.extraction.ExtractedReference;
 import org.solace.scholar_ai.project_service.model.extraction.PaperExtraction;
@@ -22,7 +26,10 @@ import org.solace.scholar_ai.project_service.repository.extraction.PaperExtracti
 import org.solace.scholar_ai.project_service.repository.paper.PaperAuthorRepository;
 import org.solace.scholar_ai.project_service.repository.paper.PaperRepository;
 import org.solace.scholar_ai.project_service.service.ai.GeminiGeneralService;
+import org.solace.scholar_ai.project_service.service.extraction.index.ParagraphTermVectorService;
+import org.solace.scholar_ai.project_service.service.extraction.index.TermVector;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service for performing real AI-powered citation analysis on LaTeX content
@@ -38,6 +45,10 @@ public class CitationAnalysisService {
     private final PaperRepository paperRepository;
     private final PaperAuthorRepository paperAuthorRepository;
     private final ObjectMapper objectMapper;
+    private final ParagraphTermVectorService paragraphTermVectorService;
+    private final CitationVerificationScheduler verificationScheduler;
+    private final VerificationDecisionCache verificationDecisionCache;
+    private final TransactionTemplate transactionTemplate;
 
     // Patterns for LaTeX parsing
     private static final Pattern CITE_PATTERN = Pattern.compile("\\\\cite\\{([^}]+)\\}");
@@ -63,6 +74,47 @@ public class CitationAnalysisService {
             List<String> selectedPaperIds,
             boolean runWebCheck,
             CitationCheckRequestDto.Options options) {
+        return analyzeDocument(
+                check,
+                latexContent,
+                selectedPaperIds,
+                runWebCheck,
+                options,
+                new CitationAnalysisMetrics(),
+                issue -> {});
+    }
+
+    /**
+     * Analyze LaTeX content for citation issues, recording analysis counters into {@code metrics}.
+     * Claim sentence issues are handed to {@code issueListener} on the calling thread as soon as
+     * their AI verification finishes; all issues are also returned in document order.
+     */
+    public List<CitationIssue> analyzeDocument(
+            CitationCheck check,
+            String latexContent,
+            List<String> selectedPaperIds,
+            boolean runWebCheck,
+            CitationCheckRequestDto.Options options,
+            CitationAnalysisMetrics metrics,
+            Consumer<CitationIssue> issueListener) {
+        return analyzeDocument(
+                check, latexContent, selectedPaperIds, runWebCheck, options, metrics, issueListener, null);
+    }
+
+    /**
+     * Analyze LaTeX content for citation issues. With a {@code baseline}, claim sentences whose
+     * text and cited keys are unchanged since that check keep their issues, moved to their new
+     * positions, and only changed claim sentences are verified again.
+     */
+    public List<CitationIssue> analyzeDocument(
+            CitationCheck check,
+            String latexContent,
+            List<String> selectedPaperIds,
+            boolean runWebCheck,
+            CitationCheckRequestDto.Options options,
+            CitationAnalysisMetrics metrics,
+            Consumer<CitationIssue> issueListener,
+            CitationCheckBaseline baseline) {
         log.info(
                 "Starting citation analysis for document {} with {} selected papers",
                 check.getDocumentId(),
@@ -101,12 +153,25 @@ public class CitationAnalysisService {
                     localCorpus.values().stream().mapToInt(List::size).sum(),
                     localReferences.values().stream().mapToInt(List::size).sum());
 
-            // Step 3: Analyze each sentence for citation issues
-            for (LatexSentence sentence : sentences) {
-                if (shouldAnalyzeSentence(sentence)) {
-                    issues.addAll(analyzeSentence(check, sentence, localCorpus, localReferences, runWebCheck));
-                }
+            // Index the corpus once so each sentence only scores paragraphs sharing its tokens
+            CorpusTextIndex corpusIndex = CorpusTextIndex.build(localCorpus, loadTermVectors(selectedPaperIds));
+
+            // Step 3: Analyze claim sentences, verifying their evidence candidates concurrently
+            List<LatexSentence> claimSentences =
+                    sentences.stream().filter(this::shouldAnalyzeSentence).toList();
+            List<CitationIssue> claimIssues = new ArrayList<>();
+            if (baseline != null && baseline.getContent() != null) {
+                claimSentences = carryOverUnchangedSentences(check, baseline, claimSentences, claimIssues, metrics);
+                claimIssues.forEach(issue -> notifyIssueListener(issueListener, issue));
+                log.info(
+                        "Carried over {} issues, re-analyzing {} changed claim sentences",
+                        claimIssues.size(),
+                        claimSentences.size());
             }
+            ClaimVerifier claimVerifier = createClaimVerifier(options, metrics);
+            claimIssues.addAll(analyzeClaimSentences(check, claimSentences, corpusIndex, claimVerifier, issueListener));
+            claimIssues.sort(Comparator.comparing(CitationIssue::getFromPos));
+            issues.addAll(claimIssues);
 
             // Step 4: Comprehensive citation validation
             log.info("Starting comprehensive citation validation...");
@@ -122,13 +187,17 @@ public class CitationAnalysisService {
             log.info("Found {} metadata validation issues", metadataIssues.size());
             issues.addAll(metadataIssues);
 
-            List<CitationIssue> plagiarismIssues = detectPotentialPlagiarism(check, sentences, localCorpus);
+            List<CitationIssue> plagiarismIssues =
+                    detectPotentialPlagiarism(check, sentences, corpusIndex, options, metrics);
             log.info("Found {} potential plagiarism issues", plagiarismIssues.size());
             issues.addAll(plagiarismIssues);
 
             log.info("Citation analysis completed with {} issues found", issues.size());
 
         } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             log.error("Error during citation analysis", e);
             // Create error issue
             CitationIssue errorIssue = CitationIssue.builder()
@@ -252,6 +321,11 @@ public class CitationAnalysisService {
      * Load local corpus from selected papers
      */
     private Map<String, List<ExtractedParagraph>> loadLocalCorpus(List<String> selectedPaperIds) {
+        // Checks run with no transaction open; paragraphs are lazy, so load them in one
+        return transactionTemplate.execute(status -> readLocalCorpus(selectedPaperIds));
+    }
+
+    private Map<String, List<ExtractedParagraph>> readLocalCorpus(List<String> selectedPaperIds) {
         Map<String, List<ExtractedParagraph>> corpus = new HashMap<>();
 
         for (String paperId : selectedPaperIds) {
@@ -277,10 +351,32 @@ public class CitationAnalysisService {
         return corpus;
     }
 
+    /**
+     * Load precomputed paragraph term vectors for the selected papers
+     */
+    private Map<UUID, TermVector> loadTermVectors(List<String> selectedPaperIds) {
+        try {
+            List<UUID> paperUuids = new ArrayList<>();
+            for (String paperId : selectedPaperIds) {
+                paperUuids.add(UUID.fromString(paperId));
+            }
+            Map<UUID, TermVector> vectors = paragraphTermVectorService.loadForPapers(paperUuids);
+            log.debug("Loaded {} precomputed paragraph term vectors", vectors.size());
+            return vectors;
+        } catch (Exception e) {
+            log.warn("Failed to load paragraph term vectors, tokenizing corpus instead: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
     /**
      * Load local references from selected papers
      */
     private Map<String, List<ExtractedReference>> loadLocalReferences(List<String> selectedPaperIds) {
+        return transactionTemplate.execute(status -> readLocalReferences(selectedPaperIds));
+    }
+
+    private Map<String, List<ExtractedReference>> readLocalReferences(List<String> selectedPaperIds) {
         Map<String, List<ExtractedReference>> references = new HashMap<>();
 
         for (String paperId : selectedPaperIds) {
@@ -330,20 +426,170 @@ public class CitationAnalysisService {
     }
 
     /**
-     * Analyze a single sentence for citation issues
+     * Start AI verification for every claim sentence at once, then build the issues of each
+     * sentence as its verification completes. Only the AI calls leave the calling thread, so
+     * repository access while building issues stays in the caller's persistence context.
      */
-    private List<CitationIssue> analyzeSentence(
+    private List<CitationIssue> analyzeClaimSentences(
+            CitationCheck check,
+            List<LatexSentence> claimSentences,
+            CorpusTextIndex corpusIndex,
+            ClaimVerifier claimVerifier,
+            Consumer<CitationIssue> issueListener)
+            throws InterruptedException {
+        int sentenceCount = claimSentences.size();
+        List<List<EvidenceCandidate>> candidatesBySentence = new ArrayList<>(sentenceCount);
+        for (LatexSentence sentence : claimSentences) {
+            candidatesBySentence.add(findTopCandidates(sentence, corpusIndex));
+        }
+        preloadCachedDecisions(claimSentences, candidatesBySentence);
+
+        BlockingQueue<Integer> completed = new LinkedBlockingQueue<>();
+        List<CompletableFuture<LocalVerificationResult>> verifications = new ArrayList<>(sentenceCount);
+        for (int i = 0; i < sentenceCount; i++) {
+            int index = i;
+            CompletableFuture<LocalVerificationResult> verification =
+                    performLocalVerification(claimSentences.get(i), candidatesBySentence.get(i), claimVerifier);
+            verifications.add(verification);
+            verification.whenComplete((result, error) -> completed.add(index));
+        }
+        claimVerifier.flush();
+        log.info(
+                "Verifying {} claim sentences with up to {} concurrent AI calls",
+                sentenceCount,
+                verificationScheduler.getMaxConcurrency());
+
+        List<List<CitationIssue>> issuesBySentence = new ArrayList<>(Collections.nCopies(sentenceCount, List.of()));
+        for (int remaining = sentenceCount; remaining > 0; remaining--) {
+            int index = completed.take();
+            List<CitationIssue> sentenceIssues =
+                    analyzeSentence(check, claimSentences.get(index), verifications.get(index));
+            sentenceIssues.forEach(issue -> notifyIssueListener(issueListener, issue));
+            issuesBySentence.set(index, sentenceIssues);
+        }
+        persistCachedDecisions(claimVerifier);
+
+        List<CitationIssue> issues = new ArrayList<>();
+        issuesBySentence.forEach(issues::addAll);
+        return issues;
+    }
+
+    private void notifyIssueListener(Consumer<CitationIssue> issueListener, CitationIssue issue) {
+        try {
+            issueListener.accept(issue);
+        } catch (Exception e) {
+            log.warn("Issue listener failed for line {}: {}", issue.getLineStart(), e.getMessage());
+        }
+    }
+
+    /**
+     * Carry over the issues of claim sentences unchanged since the baseline check, moved to
+     * the sentences' new positions and lines
+     *
+     * @param carriedIssues Receives the carried-over issues
+     * @return Claim sentences that changed and still need analysis
+     */
+    private List<LatexSentence> carryOverUnchangedSentences(
             CitationCheck check,
-            LatexSentence sentence,
-            Map<String, List<ExtractedParagraph>> localCorpus,
-            Map<String, List<ExtractedReference>> localReferences,
-            boolean runWebCheck) {
+            CitationCheckBaseline baseline,
+            List<LatexSentence> claimSentences,
+            List<CitationIssue> carriedIssues,
+            CitationAnalysisMetrics metrics) {
+        List<LatexSentence> previousSentences = parseLatexIntoSentences(baseline.getContent()).stream()
+                .filter(this::shouldAnalyzeSentence)
+                .toList();
+
+        // Claim issues cover exactly their sentence, anything else is recomputed
+        Map<String, List<CitationIssue>> previousIssues = new HashMap<>();
+        for (CitationIssue issue : baseline.getIssues()) {
+            previousIssues
+                    .computeIfAbsent(issue.getFromPos() + ":" + issue.getSnippet(), key -> new ArrayList<>())
+                    .add(issue);
+        }
+
+        int[] matches = SentenceDiff.match(previousSentences, claimSentences);
+        List<LatexSentence> changed = new ArrayList<>();
+        for (int i = 0; i < claimSentences.size(); i++) {
+            LatexSentence sentence = claimSentences.get(i);
+            if (matches[i] < 0) {
+                changed.add(sentence);
+                continue;
+            }
+            LatexSentence previous = previousSentences.get(matches[i]);
+            int posShift = sentence.getStartPos() - previous.getStartPos();
+            int lineShift = sentence.getLineStart() - previous.getLineStart();
+            for (CitationIssue issue : previousIssues.getOrDefault(
+                    previous.getStartPos() + ":" + previous.getText(), List.of())) {
+                if (issue.getType() != CitationIssue.IssueType.MISSING_CITATION
+                        && issue.getType() != CitationIssue.IssueType.WEAK_CITATION) {
+                    continue;
+                }
+                issue.setCitationCheck(check);
+                issue.setFromPos(issue.getFromPos() + posShift);
+                issue.setToPos(issue.getToPos() + posShift);
+                issue.setLineStart(issue.getLineStart() + lineShift);
+                issue.setLineEnd(issue.getLineEnd() + lineShift);
+                carriedIssues.add(issue);
+            }
+        }
+
+        metrics.recordIncremental(
+                baseline.getCheckId(), claimSentences.size() - changed.size(), changed.size(), carriedIssues.size());
+        return changed;
+    }
+
+    /**
+     * Load stored decisions for every claim/candidate pair of the check with one batched
+     * lookup, so cache hits do not cost a query each
+     */
+    private void preloadCachedDecisions(
+            List<LatexSentence> claimSentences, List<List<EvidenceCandidate>> candidatesBySentence) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < claimSentences.size(); i++) {
+            for (EvidenceCandidate candidate : candidatesBySentence.get(i)) {
+                UUID paragraphId = candidate.getParagraph().getId();
+                if (paragraphId != null) {
+                    keys.add(ClaimVerifier.cacheKey(claimSentences.get(i).getText(), paragraphId));
+                }
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            int loaded = verificationDecisionCache.preload(keys);
+            log.debug("Preloaded {} cached verification decisions for {} pairs", loaded, keys.size());
+        } catch (Exception e) {
+            log.warn("Could not preload cached verification decisions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Store the decisions the model made during this check for later checks
+     */
+    private void persistCachedDecisions(ClaimVerifier claimVerifier) {
+        List<VerificationCacheEntry> entries = claimVerifier.drainNewCacheEntries();
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            verificationDecisionCache.persist(entries);
+        } catch (Exception e) {
+            log.warn("Could not store {} verification decisions: {}", entries.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Analyze a single sentence for citation issues once its local verification is done
+     */
+    private List<CitationIssue> analyzeSentence(
+            CitationCheck check, LatexSentence sentence, CompletableFuture<LocalVerificationResult> verification) {
 
         List<CitationIssue> issues = new ArrayList<>();
 
         try {
             // Step 1: Local verification against selected papers
-            LocalVerificationResult localResult = performLocalVerification(sentence, localCorpus);
+            LocalVerificationResult localResult = verification.join();
 
             // Step 2: Determine if citation is needed and if current citations are adequate
             boolean needsCitation = needsCitation(sentence, localResult);
@@ -390,121 +636,68 @@ public class CitationAnalysisService {
     }
 
     /**
-     * Perform local verification against selected papers using AI
+     * Create the claim verifier for one check, batching pairs into shared prompts unless
+     * the check turns batching off
      */
-    private LocalVerificationResult performLocalVerification(
-            LatexSentence sentence, Map<String, List<ExtractedParagraph>> localCorpus) {
-
-        List<EvidenceCandidate> candidates = new ArrayList<>();
-
-        // Find top matching paragraphs from local corpus
-        for (Map.Entry<String, List<ExtractedParagraph>> entry : localCorpus.entrySet()) {
-            String paperId = entry.getKey();
-            List<ExtractedParagraph> paragraphs = entry.getValue();
-
-            for (ExtractedParagraph paragraph : paragraphs) {
-                if (paragraph.getText() != null && paragraph.getText().length() > 50) {
-                    double similarity = calculateTextSimilarity(sentence.getText(), paragraph.getText());
-                    if (similarity > 0.3) { // Threshold for considering as candidate
-                        candidates.add(new EvidenceCandidate(paperId, paragraph, similarity));
-                    }
-                }
-            }
-        }
-
-        // Sort by similarity and take top candidates
-        candidates.sort((a, b) -> Double.compare(b.getSimilarity(), a.getSimilarity()));
-        List<EvidenceCandidate> topCandidates = candidates.stream().limit(5).collect(Collectors.toList());
-
-        // Use AI to verify each candidate
-        List<VerifiedEvidence> verifiedEvidence = new ArrayList<>();
-        for (EvidenceCandidate candidate : topCandidates) {
-            VerificationDecision decision =
-                    verifyWithAI(sentence.getText(), candidate.getParagraph().getText());
-            if (decision.getDecision().equals("supports") && decision.getConfidence() > 0.6) {
-                verifiedEvidence.add(new VerifiedEvidence(candidate, decision));
+    private ClaimVerifier createClaimVerifier(
+            CitationCheckRequestDto.Options options, CitationAnalysisMetrics metrics) {
+        int batchSize = ClaimVerifier.DEFAULT_BATCH_SIZE;
+        if (options != null) {
+            if (Boolean.FALSE.equals(options.getBatchVerification())) {
+                batchSize = 1;
+            } else if (options.getVerificationBatchSize() != null) {
+                batchSize = Math.min(Math.max(options.getVerificationBatchSize(), 1), ClaimVerifier.MAX_BATCH_SIZE);
             }
         }
-
-        return new LocalVerificationResult(topCandidates, verifiedEvidence);
-    }
-
-    /**
-     * Use Gemini AI to verify if evidence supports the claim
-     */
-    private VerificationDecision verifyWithAI(String claim, String evidence) {
-        try {
-            String prompt = buildVerificationPrompt(claim, evidence);
-            String response = geminiGeneralService.generateContent(prompt);
-            return parseVerificationResponse(response);
-        } catch (Exception e) {
-            log.error("Error in AI verification", e);
-            return new VerificationDecision("not_enough_info", 0.0, "Error in AI verification");
-        }
+        return new ClaimVerifier(
+                verificationScheduler,
+                geminiGeneralService::generateContent,
+                objectMapper,
+                batchSize,
+                metrics,
+                verificationDecisionCache);
     }
 
     /**
-     * Build prompt for AI verification
+     * Find the best matching paragraphs from the local corpus for a sentence
      */
-    private String buildVerificationPrompt(String claim, String evidence) {
-        return String.format(
-                """
-            You are a scientific fact-checker. Analyze if the evidence supports the claim.
-
-            CLAIM: "%s"
-
-            EVIDENCE: "%s"
+    private List<EvidenceCandidate> findTopCandidates(LatexSentence sentence, CorpusTextIndex corpusIndex) {
+        List<EvidenceCandidate> candidates = new ArrayList<>();
 
-            Respond in JSON format:
-            {
-              "decision": "supports|contradicts|not_enough_info",
-              "confidence": 0.85,
-              "rationale": "Brief explanation"
-            }
+        // Find top matching paragraphs from local corpus (0.3 threshold for considering as candidate)
+        for (CorpusTextIndex.Match match : corpusIndex.search(sentence.getText(), 50, 0.3)) {
+            candidates.add(new EvidenceCandidate(match.paperId(), match.paragraph(), match.similarity()));
+        }
 
-            Rules:
-            - Only use "supports" if evidence clearly backs the claim with confidence ≥ 0.66
-            - Use "contradicts" if evidence clearly disputes the claim
-            - Use "not_enough_info" if evidence is unclear or insufficient
-            - Be conservative - prefer "not_enough_info" over weak "supports"
-            """,
-                claim, evidence);
+        // Sort by similarity and take top candidates
+        candidates.sort((a, b) -> Double.compare(b.getSimilarity(), a.getSimilarity()));
+        return candidates.stream().limit(5).collect(Collectors.toList());
     }
 
     /**
-     * Parse AI verification response
+     * Perform local verification against selected papers using AI. Candidates are verified
+     * concurrently through the verification scheduler.
      */
-    private VerificationDecision parseVerificationResponse(String response) {
-        try {
-            // Extract JSON from response if wrapped in markdown
-            String jsonContent = response;
-            if (response.contains("```json")) {
-                int startIdx = response.indexOf("```json") + 7;
-                int endIdx = response.indexOf("```", startIdx);
-                if (endIdx > startIdx) {
-                    jsonContent = response.substring(startIdx, endIdx).trim();
-                }
-            } else if (response.contains("```")) {
-                int startIdx = response.indexOf("```") + 3;
-                int endIdx = response.indexOf("```", startIdx);
-                if (endIdx > startIdx) {
-                    jsonContent = response.substring(startIdx, endIdx).trim();
-                }
-            }
-
-            Map<String, Object> parsed =
-                    objectMapper.readValue(jsonContent, new TypeReference<Map<String, Object>>() {});
-
-            String decision = (String) parsed.get("decision");
-            Double confidence = ((Number) parsed.get("confidence")).doubleValue();
-            String rationale = (String) parsed.get("rationale");
-
-            return new VerificationDecision(decision, confidence, rationale);
-
-        } catch (Exception e) {
-            log.error("Failed to parse verification response: {}", response, e);
-            return new VerificationDecision("not_enough_info", 0.0, "Failed to parse AI response");
+    private CompletableFuture<LocalVerificationResult> performLocalVerification(
+            LatexSentence sentence, List<EvidenceCandidate> topCandidates, ClaimVerifier claimVerifier) {
+        // Use AI to verify each candidate
+        List<CompletableFuture<VerificationDecision>> decisions = new ArrayList<>();
+        for (EvidenceCandidate candidate : topCandidates) {
+            ExtractedParagraph paragraph = candidate.getParagraph();
+            decisions.add(claimVerifier.verify(sentence.getText(), paragraph.getId(), paragraph.getText()));
         }
+
+        return CompletableFuture.allOf(decisions.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<VerifiedEvidence> verifiedEvidence = new ArrayList<>();
+                    for (int i = 0; i < topCandidates.size(); i++) {
+                        VerificationDecision decision = decisions.get(i).join();
+                        if ("supports".equals(decision.getDecision()) && decision.getConfidence() > 0.6) {
+                            verifiedEvidence.add(new VerifiedEvidence(topCandidates.get(i), decision));
+                        }
+                    }
+                    return new LocalVerificationResult(topCandidates, verifiedEvidence);
+                });
     }
 
     /**
@@ -512,20 +705,7 @@ public class CitationAnalysisService {
      */
     private double calculateTextSimilarity(String text1, String text2) {
         // Simple word overlap similarity
-        Set<String> words1 = Arrays.stream(text1.toLowerCase().split("\\W+"))
-                .filter(w -> w.length() > 3)
-                .collect(Collectors.toSet());
-        Set<String> words2 = Arrays.stream(text2.toLowerCase().split("\\W+"))
-                .filter(w -> w.length() > 3)
-                .collect(Collectors.toSet());
-
-        Set<String> intersection = new HashSet<>(words1);
-        intersection.retainAll(words2);
-
-        Set<String> union = new HashSet<>(words1);
-        union.addAll(words2);
-
-        return union.isEmpty() ? 0.0 : (double) intersection.size() / union.size();
+        return CorpusTextIndex.jaccard(CorpusTextIndex.tokenize(text1), CorpusTextIndex.tokenize(text2));
     }
 
     /**
@@ -577,6 +757,11 @@ public class CitationAnalysisService {
      * Create suggestions for citation issues with rich metadata
      */
     private List<Map<String, Object>> createSuggestions(LocalVerificationResult localResult) {
+        // Authors are lazy, so papers are read in a short transaction of their own
+        return transactionTemplate.execute(status -> buildSuggestions(localResult));
+    }
+
+    private List<Map<String, Object>> buildSuggestions(LocalVerificationResult localResult) {
         List<Map<String, Object>> suggestions = new ArrayList<>();
 
         for (VerifiedEvidence evidence : localResult.getVerifiedEvidence()) {
@@ -943,60 +1128,74 @@ public class CitationAnalysisService {
      * Detect potential plagiarism - high similarity spans without proper citation
      */
     private List<CitationIssue> detectPotentialPlagiarism(
-            CitationCheck check, List<LatexSentence> sentences, Map<String, List<ExtractedParagraph>> localCorpus) {
+            CitationCheck check,
+            List<LatexSentence> sentences,
+            CorpusTextIndex corpusIndex,
+            CitationCheckRequestDto.Options options,
+            CitationAnalysisMetrics metrics) {
         List<CitationIssue> issues = new ArrayList<>();
 
         try {
+            MinHashLshIndex lshIndex = buildLshIndex(corpusIndex, options, metrics);
+
             for (LatexSentence sentence : sentences) {
-                for (Map.Entry<String, List<ExtractedParagraph>> entry : localCorpus.entrySet()) {
-                    String paperId = entry.getKey();
+                // Cited sentences are never reported, so skip the lookup entirely
+                if (!sentence.getCitedKeys().isEmpty()) {
+                    continue;
+                }
 
-                    for (ExtractedParagraph paragraph : entry.getValue()) {
-                        if (paragraph.getText() != null && paragraph.getText().length() > 30) {
-                            double similarity = calculateTextSimilarity(sentence.getText(), paragraph.getText());
+                // High similarity threshold for plagiarism detection
+                List<CorpusTextIndex.Match> matches;
+                if (lshIndex != null) {
+                    MinHashLshIndex.SearchResult result = lshIndex.search(sentence.getText(), 0.85);
+                    metrics.recordPlagiarismSentence(lshIndex.getEligibleParagraphs(), result.candidateCount());
+                    matches = result.matches();
+                } else {
+                    matches = corpusIndex.search(sentence.getText(), 30, 0.85);
+                }
 
-                            // High similarity threshold for plagiarism detection
-                            if (similarity > 0.85 && sentence.getCitedKeys().isEmpty()) {
-                                CitationIssue issue = CitationIssue.builder()
-                                        .citationCheck(check)
-                                        .projectId(check.getProjectId())
-                                        .documentId(check.getDocumentId())
-                                        .type(
-                                                CitationIssue.IssueType
-                                                        .MISSING_CITATION) // Could add POSSIBLE_PLAGIARISM type
-                                        .severity(CitationIssue.Severity.HIGH)
-                                        .fromPos(sentence.getStartPos())
-                                        .toPos(sentence.getEndPos())
-                                        .lineStart(sentence.getLineStart())
-                                        .lineEnd(sentence.getLineEnd())
-                                        .snippet("High similarity to source material without citation (similarity: "
-                                                + String.format("%.2f", similarity) + ")")
-                                        .citedKeys(new String[] {})
-                                        .suggestions(createPlagiarismSuggestions(paperId, paragraph))
-                                        .build();
+                Set<String> reportedPapers = new HashSet<>();
+                for (CorpusTextIndex.Match match : matches) {
+                    String paperId = match.paperId();
+                    if (!reportedPapers.add(paperId)) {
+                        continue; // Only report once per sentence and paper
+                    }
+                    ExtractedParagraph paragraph = match.paragraph();
+                    double similarity = match.similarity();
 
-                                // Add evidence
-                                Map<String, Object> sourceData = new HashMap<>();
-                                sourceData.put("kind", "local");
-                                sourceData.put("paperId", paperId);
-                                sourceData.put("page", paragraph.getPage());
-
-                                CitationEvidence evidence = CitationEvidence.builder()
-                                        .citationIssue(issue)
-                                        .source(sourceData)
-                                        .matchedText(paragraph.getText())
-                                        .similarity(similarity)
-                                        .supportScore(similarity)
-                                        .build();
+                    CitationIssue issue = CitationIssue.builder()
+                            .citationCheck(check)
+                            .projectId(check.getProjectId())
+                            .documentId(check.getDocumentId())
+                            .type(CitationIssue.IssueType.MISSING_CITATION) // Could add POSSIBLE_PLAGIARISM type
+                            .severity(CitationIssue.Severity.HIGH)
+                            .fromPos(sentence.getStartPos())
+                            .toPos(sentence.getEndPos())
+                            .lineStart(sentence.getLineStart())
+                            .lineEnd(sentence.getLineEnd())
+                            .snippet("High similarity to source material without citation (similarity: "
+                                    + String.format("%.2f", similarity) + ")")
+                            .citedKeys(new String[] {})
+                            .suggestions(createPlagiarismSuggestions(paperId, paragraph))
+                            .build();
 
-                                issue.setEvidence(Arrays.asList(evidence));
-                                issues.add(issue);
-                                log.debug(
-                                        "Found potential plagiarism: similarity {} with paper {}", similarity, paperId);
-                                break; // Only report once per sentence
-                            }
-                        }
-                    }
+                    // Add evidence
+                    Map<String, Object> sourceData = new HashMap<>();
+                    sourceData.put("kind", "local");
+                    sourceData.put("paperId", paperId);
+                    sourceData.put("page", paragraph.getPage());
+
+                    CitationEvidence evidence = CitationEvidence.builder()
+                            .citationIssue(issue)
+                            .source(sourceData)
+                            .matchedText(paragraph.getText())
+                            .similarity(similarity)
+                            .supportScore(similarity)
+                            .build();
+
+                    issue.setEvidence(Arrays.asList(evidence));
+                    issues.add(issue);
+                    log.debug("Found potential plagiarism: similarity {} with paper {}", similarity, paperId);
                 }
             }
 
@@ -1007,6 +1206,42 @@ public class CitationAnalysisService {
         return issues;
     }
 
+    /**
+     * Build the MinHash/LSH candidate stage for plagiarism detection, or return null
+     * to compare every sentence through the inverted index instead
+     */
+    private MinHashLshIndex buildLshIndex(
+            CorpusTextIndex corpusIndex, CitationCheckRequestDto.Options options, CitationAnalysisMetrics metrics) {
+        if (options != null && Boolean.FALSE.equals(options.getPlagiarismLsh())) {
+            return null;
+        }
+
+        int bands = MinHashLshIndex.DEFAULT_BANDS;
+        int rows = MinHashLshIndex.DEFAULT_ROWS;
+        if (options != null && options.getLshBands() != null && options.getLshRows() != null) {
+            bands = options.getLshBands();
+            rows = options.getLshRows();
+        }
+
+        MinHashLshIndex lshIndex;
+        try {
+            lshIndex = MinHashLshIndex.build(corpusIndex, bands, rows, 30);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid LSH parameters, using defaults: {}", e.getMessage());
+            bands = MinHashLshIndex.DEFAULT_BANDS;
+            rows = MinHashLshIndex.DEFAULT_ROWS;
+            lshIndex = MinHashLshIndex.build(corpusIndex, bands, rows, 30);
+        }
+
+        metrics.usePlagiarismLsh(bands, rows);
+        log.info(
+                "Built plagiarism LSH index with {} bands x {} rows over {} paragraphs",
+                bands,
+                rows,
+                lshIndex.getEligibleParagraphs());
+        return lshIndex;
+    }
+
     // Helper methods for the new detection algorithms
 
     private Set<String> extractBibliographyKeys(String latexContent) {
@@ -0,0 +1,75 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import lombok.Getter;
+import org.solace.scholar_ai.project_service.model.citation.CitationCheck;
+import org.solace.scholar_ai.project_service.model.citation.CitationEvidence;
+import org.solace.scholar_ai.project_service.model.citation.CitationIssue;
+
+/**
+ * The previous completed check of a document, which an incremental re-check diffs against.
+ * Issues are held as unsaved copies so the baseline stays usable after the previous check
+ * is deleted, and carried-over issues can be saved for the new check as they are.
+ */
+@Getter
+public class CitationCheckBaseline {
+
+    private final UUID checkId;
+    private final String content;
+    private final String contextHash;
+    private final List<CitationIssue> issues;
+
+    public CitationCheckBaseline(UUID checkId, String content, String contextHash, List<CitationIssue> issues) {
+        this.checkId = checkId;
+        this.content = content;
+        this.contextHash = contextHash;
+        this.issues = issues;
+    }
+
+    /**
+     * Snapshot a completed check and its issues, including their evidence
+     */
+    public static CitationCheckBaseline of(CitationCheck check, List<CitationIssue> issues) {
+        List<CitationIssue> copies = new ArrayList<>(issues.size());
+        for (CitationIssue issue : issues) {
+            copies.add(copyIssue(issue));
+        }
+        return new CitationCheckBaseline(check.getId(), check.getContent(), check.getContextHash(), copies);
+    }
+
+    private static CitationIssue copyIssue(CitationIssue issue) {
+        CitationIssue copy = CitationIssue.builder()
+                .projectId(issue.getProjectId())
+                .documentId(issue.getDocumentId())
+                .type(issue.getType())
+                .severity(issue.getSeverity())
+                .fromPos(issue.getFromPos())
+                .toPos(issue.getToPos())
+                .lineStart(issue.getLineStart())
+                .lineEnd(issue.getLineEnd())
+                .snippet(issue.getSnippet())
+                .citedKeys(issue.getCitedKeys() != null ? issue.getCitedKeys().clone() : null)
+                .suggestions(issue.getSuggestions() != null ? new ArrayList<>(issue.getSuggestions()) : null)
+                .resolved(issue.getResolved())
+                .build();
+
+        List<CitationEvidence> evidence = new ArrayList<>();
+        if (issue.getEvidence() != null) {
+            for (CitationEvidence item : issue.getEvidence()) {
+                evidence.add(CitationEvidence.builder()
+                        .citationIssue(copy)
+                        .source(item.getSource() != null ? new HashMap<>(item.getSource()) : null)
+                        .matchedText(item.getMatchedText())
+                        .similarity(item.getSimilarity())
+                        .supportScore(item.getSupportScore())
+                        .extra(item.getExtra() != null ? new HashMap<>(item.getExtra()) : null)
+                        .build());
+            }
+        }
+        copy.setEvidence(evidence);
+        return copy;
+    }
+}
@@ -0,0 +1,324 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.exception.CitationCheckRejectedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs citation checks on a fixed number of worker threads. Waiting checks sit in a bounded
+ * queue that is drained round-robin across projects, so one project submitting many checks
+ * cannot starve the others. A running check only holds a database connection for each of its
+ * short per-step transactions; its pace is set by its AI verification calls, which all running
+ * checks share through {@link CitationVerificationScheduler}. More workers than those calls can
+ * serve only split them thinner, so the number of workers is sized against the verification
+ * concurrency rather than the connection pool.
+ *
+ * <p>Admission is two-phase: {@link #reserve} claims a queue slot, or rejects the check with
+ * a retry-after when the queue is full, and {@link #submit} turns the reservation into a
+ * queued check once the check row is committed.
+ *
+ * <p>A waiting check is cancelled by removing it from the queue. A running check cannot be
+ * taken off its worker, so it is flagged instead, and the check polls {@link #isCancelled}
+ * between its steps and stops itself.
+ */
+@Slf4j
+@Component
+public class CitationCheckExecutor {
+
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final int maxQueuedPerProject;
+    private final Duration retryAfter;
+    private final ExecutorService workers;
+
+    private final Map<UUID, Deque<QueuedCheck>> queuesByProject = new HashMap<>();
+    private final Deque<UUID> projectRotation = new ArrayDeque<>();
+    private final Map<UUID, Integer> reservedByProject = new HashMap<>();
+    private final Set<UUID> runningChecks = new HashSet<>();
+    private final Set<UUID> cancelledChecks = new HashSet<>();
+    private int queued;
+    private int reserved;
+    private int running;
+
+    public CitationCheckExecutor(
+            @Value("${scholarai.citation.checks.max-concurrent:2}") int maxConcurrent,
+            @Value("${scholarai.citation.checks.queue-capacity:50}") int queueCapacity,
+            @Value("${scholarai.citation.checks.max-queued-per-project:10}") int maxQueuedPerProject,
+            @Value("${scholarai.citation.checks.retry-after:PT30S}") Duration retryAfter) {
+        if (maxConcurrent < 1 || queueCapacity < 1 || maxQueuedPerProject < 1) {
+            throw new IllegalArgumentException("Citation check concurrency and queue limits must be at least 1");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.queueCapacity = queueCapacity;
+        this.maxQueuedPerProject = maxQueuedPerProject;
+        this.retryAfter = retryAfter;
+        this.workers = Executors.newFixedThreadPool(maxConcurrent, workerThreadFactory());
+        log.info(
+                "Citation check executor: {} workers, queue capacity {} ({} per project)",
+                maxConcurrent,
+                queueCapacity,
+                maxQueuedPerProject);
+    }
+
+    /**
+     * Claim a queue slot for a project's check
+     *
+     * @throws CitationCheckRejectedException When the queue, or the project's share of it, is full
+     */
+    public synchronized Reservation reserve(UUID projectId) {
+        if (queued + reserved >= queueCapacity) {
+            throw new CitationCheckRejectedException(
+                    "Citation check queue is full (" + queueCapacity + " waiting checks)", retryAfter);
+        }
+        if (queuedFor(projectId) + reservedByProject.getOrDefault(projectId, 0) >= maxQueuedPerProject) {
+            throw new CitationCheckRejectedException(
+                    "Project already has " + maxQueuedPerProject + " citation checks waiting", retryAfter);
+        }
+        reserved++;
+        reservedByProject.merge(projectId, 1, Integer::sum);
+        return new Reservation(projectId);
+    }
+
+    /**
+     * Queue a reserved check. The check starts as soon as a worker is free and it is the
+     * project's turn; until then {@code queuePositionListener} receives its 1-based position
+     * in the queue whenever that changes.
+     */
+    public void submit(Reservation reservation, UUID checkId, Runnable task, IntConsumer queuePositionListener) {
+        synchronized (this) {
+            if (!releaseReservation(reservation)) {
+                throw new IllegalStateException("Reservation was already used or released");
+            }
+            queuesByProject
+                    .computeIfAbsent(reservation.projectId(), id -> {
+                        projectRotation.add(id);
+                        return new ArrayDeque<>();
+                    })
+                    .add(new QueuedCheck(reservation.projectId(), checkId, task, queuePositionListener));
+            queued++;
+        }
+        dispatch();
+    }
+
+    /**
+     * Give back a slot reserved for a check that will not be submitted
+     */
+    public synchronized void release(Reservation reservation) {
+        releaseReservation(reservation);
+    }
+
+    /**
+     * Cancel a check: remove it from the queue when it has not started yet, or flag it for
+     * its worker when it is running
+     *
+     * @return True when the check was waiting and will now never run
+     */
+    public boolean cancel(UUID checkId) {
+        synchronized (this) {
+            if (runningChecks.contains(checkId)) {
+                cancelledChecks.add(checkId);
+                return false;
+            }
+            UUID projectId = null;
+            for (Map.Entry<UUID, Deque<QueuedCheck>> entry : queuesByProject.entrySet()) {
+                if (entry.getValue().removeIf(check -> check.checkId().equals(checkId))) {
+                    projectId = entry.getKey();
+                    break;
+                }
+            }
+            if (projectId == null) {
+                return false;
+            }
+            if (queuesByProject.get(projectId).isEmpty()) {
+                queuesByProject.remove(projectId);
+                projectRotation.remove(projectId);
+            }
+            queued--;
+        }
+        reportQueuePositions();
+        return true;
+    }
+
+    /**
+     * Whether a running check was cancelled and should stop at its next step
+     */
+    public synchronized boolean isCancelled(UUID checkId) {
+        return cancelledChecks.contains(checkId);
+    }
+
+    /**
+     * Current 1-based queue position of a waiting check
+     */
+    public synchronized OptionalInt getQueuePosition(UUID checkId) {
+        List<QueuedCheck> order = dispatchOrder();
+        for (int i = 0; i < order.size(); i++) {
+            if (order.get(i).checkId().equals(checkId)) {
+                return OptionalInt.of(i + 1);
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    public synchronized int getQueuedCount() {
+        return queued;
+    }
+
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void dispatch() {
+        synchronized (this) {
+            while (running < maxConcurrent && queued > 0) {
+                QueuedCheck next = pollNextFair();
+                running++;
+                runningChecks.add(next.checkId());
+                workers.execute(() -> run(next));
+            }
+        }
+        reportQueuePositions();
+    }
+
+    private void run(QueuedCheck check) {
+        try {
+            check.task().run();
+        } catch (Exception e) {
+            log.error("Citation check {} failed on its worker", check.checkId(), e);
+        } finally {
+            synchronized (this) {
+                running--;
+                runningChecks.remove(check.checkId());
+                cancelledChecks.remove(check.checkId());
+            }
+            dispatch();
+        }
+    }
+
+    /**
+     * Take the head of the next project in the rotation and move that project to the back
+     */
+    private QueuedCheck pollNextFair() {
+        UUID projectId = projectRotation.poll();
+        Deque<QueuedCheck> projectQueue = queuesByProject.get(projectId);
+        QueuedCheck next = projectQueue.poll();
+        if (projectQueue.isEmpty()) {
+            queuesByProject.remove(projectId);
+        } else {
+            projectRotation.add(projectId);
+        }
+        queued--;
+        return next;
+    }
+
+    /**
+     * Waiting checks in the order the rotation will start them
+     */
+    private List<QueuedCheck> dispatchOrder() {
+        List<QueuedCheck> order = new ArrayList<>(queued);
+        List<Iterator<QueuedCheck>> rotation = new ArrayList<>();
+        for (UUID projectId : projectRotation) {
+            rotation.add(queuesByProject.get(projectId).iterator());
+        }
+        while (!rotation.isEmpty()) {
+            for (Iterator<Iterator<QueuedCheck>> it = rotation.iterator(); it.hasNext(); ) {
+                Iterator<QueuedCheck> projectChecks = it.next();
+                order.add(projectChecks.next());
+                if (!projectChecks.hasNext()) {
+                    it.remove();
+                }
+            }
+        }
+        return order;
+    }
+
+    private void reportQueuePositions() {
+        Map<QueuedCheck, Integer> changed = new LinkedHashMap<>();
+        synchronized (this) {
+            List<QueuedCheck> order = dispatchOrder();
+            for (int i = 0; i < order.size(); i++) {
+                QueuedCheck check = order.get(i);
+                if (check.reportedPosition().getAndSet(i + 1) != i + 1) {
+                    changed.put(check, i + 1);
+                }
+            }
+        }
+        // Listeners write to SSE streams, so call them outside the lock
+        changed.forEach((check, position) -> {
+            try {
+                check.queuePositionListener().accept(position);
+            } catch (Exception e) {
+                log.warn("Queue position listener failed for check {}: {}", check.checkId(), e.getMessage());
+            }
+        });
+    }
+
+    private boolean releaseReservation(Reservation reservation) {
+        if (reservation.released) {
+            return false;
+        }
+        reservation.released = true;
+        reserved--;
+        reservedByProject.computeIfPresent(reservation.projectId(), (id, count) -> count > 1 ? count - 1 : null);
+        return true;
+    }
+
+    private int queuedFor(UUID projectId) {
+        Deque<QueuedCheck> projectQueue = queuesByProject.get(projectId);
+        return projectQueue != null ? projectQueue.size() : 0;
+    }
+
+    private static ThreadFactory workerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "citation-check-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A claimed queue slot, used at most once
+     */
+    public static final class Reservation {
+        private final UUID projectId;
+        private boolean released;
+
+        private Reservation(UUID projectId) {
+            this.projectId = projectId;
+        }
+
+        public UUID projectId() {
+            return projectId;
+        }
+    }
+
+    private record QueuedCheck(
+            UUID projectId,
+            UUID checkId,
+            Runnable task,
+            IntConsumer queuePositionListener,
+            AtomicInteger reportedPosition) {
+
+        QueuedCheck(UUID projectId, UUID checkId, Runnable task, IntConsumer queuePositionListener) {
+            this(projectId, checkId, task, queuePositionListener, new AtomicInteger());
+        }
+    }
+}
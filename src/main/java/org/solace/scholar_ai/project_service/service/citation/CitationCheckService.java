@@ -8,9 +8,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +28,9 @@ import org.solace.scholar_ai.project_service.service.paper.PaperPersistenceServi
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Transactional
@@ -35,10 +38,19 @@ public class CitationCheckService {
 
     private static final Logger logger = LoggerFactory.getLogger(CitationCheckService.class);
 
+    private static final String CANCELLED_MESSAGE = "Citation check cancelled by user";
+
     // Listener interface for SSE streaming
     public interface CitationJobListener {
         void onStatus(UUID jobId, String status, String step, int progressPct);
 
+        /**
+         * Status of a check waiting in the citation check queue, reported as a QUEUED status
+         */
+        default void onQueued(UUID jobId, int queuePosition) {
+            onStatus(jobId, "QUEUED", "Waiting in queue (position " + queuePosition + ")", 0);
+        }
+
         void onIssue(UUID jobId, CitationCheckResponseDto.CitationIssueDto issue);
 
         void onSummary(UUID jobId, CitationSummaryDto summary);
@@ -66,12 +78,21 @@ public class CitationCheckService {
     @Autowired
     private PaperPersistenceService paperPersistenceService;
 
+    @Autowired
+    private CitationCheckExecutor citationCheckExecutor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     /**
      * Register a job listener for SSE streaming
      */
     public void registerJobListener(UUID jobId, CitationJobListener listener) {
         jobListeners.put(jobId, listener);
         logger.debug("Registered listener for job {}", jobId);
+
+        // A queued job only reports its position when it changes, so send the current one now
+        citationCheckExecutor.getQueuePosition(jobId).ifPresent(position -> notifyQueued(jobId, position));
     }
 
     /**
@@ -96,6 +117,20 @@ public class CitationCheckService {
         }
     }
 
+    /**
+     * Notify listeners about the queue position of a waiting job
+     */
+    private void notifyQueued(UUID jobId, int queuePosition) {
+        CitationJobListener listener = jobListeners.get(jobId);
+        if (listener != null) {
+            try {
+                listener.onQueued(jobId, queuePosition);
+            } catch (Exception e) {
+                logger.warn("Error notifying listener for job {}: {}", jobId, e.getMessage());
+            }
+        }
+    }
+
     /**
      * Notify listeners about new issues
      */
@@ -166,6 +201,8 @@ public class CitationCheckService {
         // Calculate content hash for reuse detection
         String contentHash = calculateContentHash(request.getContent());
         logger.info("Content hash for citation check: {}", contentHash);
+        boolean incremental = request.getOptions() != null
+                && Boolean.TRUE.equals(request.getOptions().getIncremental());
 
         // Check if recent check exists with same content hash (unless force recheck)
         if (!Boolean.TRUE.equals(request.getForceRecheck())) {
@@ -180,9 +217,11 @@ public class CitationCheckService {
                 return convertToResponseDto(existingCheck);
             }
 
-            // Also check for recent checks without content hash (legacy)
-            Optional<CitationCheck> recentCheck =
-                    citationCheckRepository.findLatestCompletedByDocumentId(request.getDocumentId());
+            // Also check for recent checks without content hash (legacy); incremental checks
+            // diff against them instead
+            Optional<CitationCheck> recentCheck = incremental
+                    ? Optional.empty()
+                    : citationCheckRepository.findLatestCompletedByDocumentId(request.getDocumentId());
             if (recentCheck.isPresent()) {
                 CitationCheck existingCheck = recentCheck.get();
                 // If completed within last hour, return existing result
@@ -196,6 +235,24 @@ public class CitationCheckService {
             }
         }
 
+        // Claim a queue slot first; a full queue rejects the check before anything is written
+        CitationCheckExecutor.Reservation reservation = citationCheckExecutor.reserve(request.getProjectId());
+        try {
+            return createAndScheduleCheck(request, contentHash, incremental, reservation);
+        } catch (RuntimeException e) {
+            citationCheckExecutor.release(reservation);
+            throw e;
+        }
+    }
+
+    private CitationCheckResponseDto createAndScheduleCheck(
+            CitationCheckRequestDto request,
+            String contentHash,
+            boolean incremental,
+            CitationCheckExecutor.Reservation reservation) {
+        // Snapshot the previous check before it is deleted so an incremental check can diff against it
+        CitationCheckBaseline baseline = incremental ? loadBaseline(request.getDocumentId()) : null;
+
         // If force recheck or no cached check, delete any existing DONE checks for this document
         // to avoid unique constraint violation
         citationCheckRepository.deleteCompletedByDocumentId(request.getDocumentId());
@@ -206,6 +263,7 @@ public class CitationCheckService {
                 .documentId(request.getDocumentId())
                 .texFileName(request.getFilename() != null ? request.getFilename() : "document.tex")
                 .contentHash(contentHash) // Store content hash
+                .content(request.getContent()) // Baseline for the next incremental check
                 .status(CitationCheck.Status.QUEUED)
                 .step(CitationCheck.Step.PARSING)
                 .progressPct(0)
@@ -213,12 +271,75 @@ public class CitationCheckService {
 
         citationCheck = citationCheckRepository.save(citationCheck);
 
-        // Start async processing
-        processCitationCheckAsync(citationCheck.getId(), request);
+        // Queue the check once the row is committed, so the worker can load it
+        scheduleCheck(reservation, citationCheck.getId(), request, baseline);
 
         return convertToResponseDto(citationCheck);
     }
 
+    private void scheduleCheck(
+            CitationCheckExecutor.Reservation reservation,
+            UUID citationCheckId,
+            CitationCheckRequestDto request,
+            CitationCheckBaseline baseline) {
+        Runnable submit = () -> citationCheckExecutor.submit(
+                reservation,
+                citationCheckId,
+                () -> runCitationCheck(citationCheckId, request, baseline),
+                position -> notifyQueued(citationCheckId, position));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    submit.run();
+                } else {
+                    citationCheckExecutor.release(reservation);
+                }
+            }
+        });
+    }
+
+    /**
+     * Run a check on a citation check worker. No transaction is held across the check: each
+     * progress update, streamed issue and the final result commit in a short one of their own,
+     * so pollers see them as they happen and the AI calls hold no connection.
+     */
+    private void runCitationCheck(
+            UUID citationCheckId, CitationCheckRequestDto request, CitationCheckBaseline baseline) {
+        try {
+            processCitationCheck(citationCheckId, request, baseline);
+        } catch (RuntimeException e) {
+            logger.error("Citation check {} could not be saved", citationCheckId, e);
+            markCheckFailed(citationCheckId, e.getMessage());
+        }
+    }
+
+    /**
+     * Load the latest completed check of a document with its issues and evidence, or null
+     * when there is none or it predates stored content
+     */
+    private CitationCheckBaseline loadBaseline(UUID documentId) {
+        Optional<CitationCheck> previous = citationCheckRepository.findFirstByDocumentIdAndStatusOrderByCreatedAtDesc(
+                documentId, CitationCheck.Status.DONE);
+        if (previous.isEmpty() || previous.get().getContent() == null) {
+            logger.info("No previous check with stored content for document {}, running a full check", documentId);
+            return null;
+        }
+
+        CitationCheck previousCheck = previous.get();
+        List<CitationIssue> issues = citationIssueRepository.findByCitationCheckIdWithEvidence(previousCheck.getId());
+        logger.info(
+                "Using citation check {} with {} issues as baseline for an incremental check",
+                previousCheck.getId(),
+                issues.size());
+        return CitationCheckBaseline.of(previousCheck, issues);
+    }
+
     /**
      * Get citation check by ID
      */
@@ -261,36 +382,44 @@ public class CitationCheckService {
     }
 
     /**
-     * Cancel a running citation check
+     * Cancel a queued or running citation check. A running check stops at its next step; the
+     * row lock keeps its worker from saving over the cancellation in the meantime.
      */
     public void cancelCitationCheck(UUID id) {
-        Optional<CitationCheck> checkOpt = citationCheckRepository.findById(id);
+        if (citationCheckExecutor.cancel(id)) {
+            logger.info("Removed citation check {} from the queue", id);
+        }
+        Optional<CitationCheck> checkOpt = citationCheckRepository.findByIdForUpdate(id);
         if (checkOpt.isPresent()) {
             CitationCheck check = checkOpt.get();
             if (check.getStatus() == CitationCheck.Status.QUEUED || check.getStatus() == CitationCheck.Status.RUNNING) {
                 check.setStatus(CitationCheck.Status.ERROR);
-                check.setErrorMessage("Citation check cancelled by user");
+                check.setErrorMessage(CANCELLED_MESSAGE);
                 citationCheckRepository.save(check);
                 logger.info("Cancelled citation check {}", id);
+                notifyError(id, CANCELLED_MESSAGE);
             }
         }
     }
 
     /**
-     * Process citation check asynchronously
+     * Process a citation check on the calling citation check worker
      */
-    @org.springframework.scheduling.annotation.Async
-    public CompletableFuture<Void> processCitationCheckAsync(UUID citationCheckId, CitationCheckRequestDto request) {
+    private void processCitationCheck(
+            UUID citationCheckId, CitationCheckRequestDto request, CitationCheckBaseline baseline) {
         try {
-            logger.info("Starting async processing for citation check {}", citationCheckId);
+            logger.info("Starting processing for citation check {}", citationCheckId);
 
-            Optional<CitationCheck> checkOpt = citationCheckRepository.findById(citationCheckId);
-            if (checkOpt.isEmpty()) {
+            CitationCheck check = transactionTemplate.execute(
+                    status -> citationCheckRepository.findById(citationCheckId).orElse(null));
+            if (check == null) {
                 logger.error("Citation check {} not found", citationCheckId);
-                return CompletableFuture.completedFuture(null);
+                return;
+            }
+            if (check.isCompleted()) {
+                logger.info("Citation check {} was cancelled while queued", citationCheckId);
+                return;
             }
-
-            CitationCheck check = checkOpt.get();
 
             // Update status to running
             updateCheckProgress(check, CitationCheck.Status.RUNNING, CitationCheck.Step.PARSING, 10);
@@ -323,17 +452,30 @@ public class CitationCheckService {
                         citationCheckId);
             }
 
+            // Issues can only be carried over when the same papers form the local corpus
+            check.setContextHash(calculateContentHash(
+                    String.join(",", selectedPaperIds.stream().sorted().toList())));
+            if (baseline != null && !Objects.equals(baseline.getContextHash(), check.getContextHash())) {
+                logger.info(
+                        "Local corpus changed since citation check {}, running a full check", baseline.getCheckId());
+                baseline = null;
+            }
+
             boolean enableWebSearch = request.getOptions() != null
                     && Boolean.TRUE.equals(request.getOptions().getCheckWeb());
 
-            // Pass the configurable options to the analysis service
+            // Pass the configurable options to the analysis service; claim issues are saved
+            // and streamed to listeners as soon as their verification finishes
+            CitationAnalysisMetrics metrics = new CitationAnalysisMetrics();
             List<CitationIssue> issues = citationAnalysisService.analyzeDocument(
                     check,
                     request.getContent(),
                     selectedPaperIds,
                     enableWebSearch,
-                    request.getOptions() // Pass options for configurable thresholds
-                    );
+                    request.getOptions(), // Pass options for configurable thresholds
+                    metrics,
+                    issue -> saveAndNotifyIssue(check, issue),
+                    baseline);
 
             updateCheckProgress(check, CitationCheck.Status.RUNNING, CitationCheck.Step.WEB_RETRIEVAL, 60);
 
@@ -347,49 +489,69 @@ public class CitationCheckService {
             updateCheckProgress(check, CitationCheck.Status.RUNNING, CitationCheck.Step.SAVING, 80);
 
             // Finalize results
-            finalizeCheck(check, issues);
+            finalizeCheck(check, issues, metrics);
 
             logger.info("Completed citation check {} with {} issues", citationCheckId, issues.size());
 
+        } catch (CheckCancelledException e) {
+            logger.info("Citation check {} was cancelled while running", citationCheckId);
         } catch (Exception e) {
             logger.error("Error processing citation check " + citationCheckId, e);
-            Optional<CitationCheck> checkOpt = citationCheckRepository.findById(citationCheckId);
-            if (checkOpt.isPresent()) {
-                CitationCheck check = checkOpt.get();
-                check.setStatus(CitationCheck.Status.ERROR);
-                check.setErrorMessage("Error: " + e.getMessage());
-                citationCheckRepository.save(check);
+            markCheckFailed(citationCheckId, e.getMessage());
+        }
+    }
 
-                // Notify listeners about error
-                notifyError(citationCheckId, e.getMessage());
+    private void markCheckFailed(UUID citationCheckId, String message) {
+        Boolean marked = transactionTemplate.execute(status -> {
+            Optional<CitationCheck> checkOpt = citationCheckRepository.findById(citationCheckId);
+            if (checkOpt.isEmpty()) {
+                return false;
             }
+            CitationCheck check = checkOpt.get();
+            check.setStatus(CitationCheck.Status.ERROR);
+            check.setErrorMessage("Error: " + message);
+            citationCheckRepository.save(check);
+            return true;
+        });
+
+        // Notify listeners about error
+        if (Boolean.TRUE.equals(marked)) {
+            notifyError(citationCheckId, message);
         }
-
-        return CompletableFuture.completedFuture(null);
     }
 
     private void updateCheckProgress(
             CitationCheck check, CitationCheck.Status status, CitationCheck.Step step, int progressPercent) {
+        stopIfCancelled(check.getId());
         check.setStatus(status);
         check.setStep(step);
         check.setProgressPct(progressPercent);
-        citationCheckRepository.save(check);
+        transactionTemplate.executeWithoutResult(txStatus -> saveUnlessCancelled(check));
 
         // Notify listeners about progress
         notifyStatus(check.getId(), status.toString(), step.toString(), progressPercent);
     }
 
-    private void finalizeCheck(CitationCheck check, List<CitationIssue> issues) {
-        // Save all issues
-        for (CitationIssue issue : issues) {
-            issue.setCitationCheck(check);
+    /**
+     * Save a single issue and stream it to listeners while the check is still running
+     */
+    private void saveAndNotifyIssue(CitationCheck check, CitationIssue issue) {
+        if (citationCheckExecutor.isCancelled(check.getId())) {
+            return;
         }
-        citationIssueRepository.saveAll(issues);
+        issue.setCitationCheck(check);
+        transactionTemplate.executeWithoutResult(status -> citationIssueRepository.save(issue));
+        notifyIssue(check.getId(), convertIssueToDto(issue));
+    }
 
-        // Notify listeners about each issue
-        for (CitationIssue issue : issues) {
-            CitationCheckResponseDto.CitationIssueDto issueDto = convertIssueToDto(issue);
-            notifyIssue(check.getId(), issueDto);
+    private void finalizeCheck(CitationCheck check, List<CitationIssue> issues, CitationAnalysisMetrics metrics) {
+        stopIfCancelled(check.getId());
+
+        // Save the issues that were not already streamed during analysis
+        List<CitationIssue> pendingIssues =
+                issues.stream().filter(issue -> issue.getId() == null).toList();
+        for (CitationIssue issue : pendingIssues) {
+            issue.setCitationCheck(check);
         }
 
         // Update check status
@@ -416,9 +578,19 @@ public class CitationCheckService {
                         .mapToInt(i -> i.getSeverity() == CitationIssue.Severity.LOW ? 1 : 0)
                         .sum());
         summaryMap.put("completedAt", LocalDateTime.now().toString());
+        summaryMap.put("analysis", metrics.toSummary());
 
         check.setSummary(summaryMap);
-        citationCheckRepository.save(check);
+        transactionTemplate.executeWithoutResult(status -> {
+            saveUnlessCancelled(check);
+            citationIssueRepository.saveAll(pendingIssues);
+        });
+
+        // Notify listeners about each remaining issue
+        for (CitationIssue issue : pendingIssues) {
+            CitationCheckResponseDto.CitationIssueDto issueDto = convertIssueToDto(issue);
+            notifyIssue(check.getId(), issueDto);
+        }
 
         // Notify listeners about summary and completion
         CitationSummaryDto summaryDto = convertSummaryToDto(summaryMap, check);
@@ -426,6 +598,29 @@ public class CitationCheckService {
         notifyComplete(check.getId());
     }
 
+    /**
+     * Stop the running check when it was cancelled since its last step
+     */
+    private void stopIfCancelled(UUID citationCheckId) {
+        if (citationCheckExecutor.isCancelled(citationCheckId)) {
+            throw new CheckCancelledException();
+        }
+    }
+
+    /**
+     * Save the worker's copy of a check, unless a cancellation was saved since it was loaded.
+     * Must run in a transaction, which holds the row lock until it commits.
+     */
+    private void saveUnlessCancelled(CitationCheck check) {
+        CitationCheck stored = citationCheckRepository
+                .findByIdForUpdate(check.getId())
+                .orElseThrow(() -> new IllegalStateException("Citation check " + check.getId() + " was deleted"));
+        if (stored.isCompleted()) {
+            throw new CheckCancelledException();
+        }
+        citationCheckRepository.save(check);
+    }
+
     private List<String> extractCitations(String content) {
         // Simple regex-based citation extraction
         // In a real implementation, this would use a proper LaTeX parser
@@ -498,6 +693,10 @@ public class CitationCheckService {
                 .updatedAt(check.getUpdatedAt())
                 .completedAt(check.isCompleted() ? check.getUpdatedAt() : null);
 
+        if (check.getStatus() == CitationCheck.Status.QUEUED) {
+            citationCheckExecutor.getQueuePosition(check.getId()).ifPresent(builder::queuePosition);
+        }
+
         // Parse summary JSON
         if (check.getSummary() != null) {
             CitationSummaryDto summaryDto = convertSummaryToDto(check.getSummary(), check);
@@ -599,9 +798,15 @@ public class CitationCheckService {
                                         .atZone(java.time.ZoneId.systemDefault())
                                         .toInstant()
                                 : null)
+                .analysis(toAnalysisMap(summaryMap.get("analysis")))
                 .build();
     }
 
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> toAnalysisMap(Object analysis) {
+        return analysis instanceof Map ? (Map<String, Object>) analysis : null;
+    }
+
     /**
      * Calculate SHA-256 hash of content for caching
      */
@@ -627,4 +832,11 @@ public class CitationCheckService {
             return null;
         }
     }
+
+    /** The check was cancelled while running, so its worker stops without saving */
+    private static class CheckCancelledException extends RuntimeException {
+        CheckCancelledException() {
+            super(null, null, false, false);
+        }
+    }
 }
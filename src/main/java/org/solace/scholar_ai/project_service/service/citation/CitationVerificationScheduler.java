@@ -0,0 +1,137 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs AI verification calls for citation checks on virtual threads. A single
+ * semaphore caps the number of calls in flight across all running checks, and every
+ * call also takes a permit from the shared {@code gemini-api} rate limiter so the
+ * fan-out cannot exceed the configured Gemini request rate.
+ */
+@Slf4j
+@Component
+public class CitationVerificationScheduler {
+
+    static final String RATE_LIMITER_NAME = "gemini-api";
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final Duration permitTimeout;
+    private final RateLimiter rateLimiter;
+
+    @Autowired
+    public CitationVerificationScheduler(
+            @Value("${scholarai.citation.verification.max-concurrency:8}") int maxConcurrency,
+            @Value("${scholarai.citation.verification.permit-timeout:PT2M}") Duration permitTimeout,
+            ObjectProvider<RateLimiterRegistry> rateLimiterRegistry) {
+        this(maxConcurrency, permitTimeout, resolveRateLimiter(rateLimiterRegistry));
+    }
+
+    CitationVerificationScheduler(int maxConcurrency, Duration permitTimeout, RateLimiter rateLimiter) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Verification concurrency must be at least 1, got " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.permitTimeout = permitTimeout;
+        this.rateLimiter = rateLimiter;
+        log.info(
+                "Citation verification scheduler: max {} concurrent AI calls, rate limiter {}",
+                maxConcurrency,
+                rateLimiter != null ? rateLimiter.getName() : "none");
+    }
+
+    /**
+     * Run an AI call on a virtual thread once a concurrency permit and a rate-limiter
+     * permit are held. The future completes exceptionally with a {@link TimeoutException}
+     * when no permit could be obtained within the permit timeout.
+     *
+     * @param call The blocking AI call
+     * @return Future result of the call
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> runWithPermits(call), executor);
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Calls currently holding a concurrency permit
+     */
+    public int getActiveCalls() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T runWithPermits(Supplier<T> call) {
+        long deadline = System.nanoTime() + permitTimeout.toNanos();
+        try {
+            if (!permits.tryAcquire(permitTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new CompletionException(
+                        new TimeoutException("No verification slot available within " + permitTimeout));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+
+        try {
+            awaitRatePermission(deadline);
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void awaitRatePermission(long deadline) {
+        if (rateLimiter == null) {
+            return;
+        }
+        // acquirePermission() blocks for at most the limiter's own timeout; keep
+        // waiting across refresh periods, which is cheap on a virtual thread
+        boolean nonBlocking = rateLimiter.getRateLimiterConfig().getTimeoutDuration().isZero();
+        long refreshNanos = rateLimiter.getRateLimiterConfig().getLimitRefreshPeriod().toNanos();
+        while (!rateLimiter.acquirePermission()) {
+            if (System.nanoTime() > deadline || Thread.currentThread().isInterrupted()) {
+                throw new CompletionException(
+                        new TimeoutException("Rate limiter '" + rateLimiter.getName() + "' did not grant a permit"));
+            }
+            if (nonBlocking) {
+                LockSupport.parkNanos(refreshNanos);
+            }
+        }
+    }
+
+    private static RateLimiter resolveRateLimiter(ObjectProvider<RateLimiterRegistry> rateLimiterRegistry) {
+        RateLimiterRegistry registry = rateLimiterRegistry.getIfAvailable();
+        if (registry == null) {
+            log.warn("No rate limiter registry available, AI verification is only bounded by concurrency");
+            return null;
+        }
+        return registry.rateLimiter(RATE_LIMITER_NAME);
+    }
+}
@@ -0,0 +1,413 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.model.citation.VerificationCacheEntry;
+import org.solace.scholar_ai.project_service.service.citation.CitationAnalysisService.VerificationDecision;
+
+/**
+ * Verifies claim/evidence pairs with the AI model for one citation check. In single mode
+ * every pair is its own request. In batched mode pairs are queued and packed
+ * {@code batchSize} at a time into one prompt that asks for an indexed JSON array; pairs
+ * whose entry is missing or malformed are retried as single requests. All requests go
+ * through the {@link CitationVerificationScheduler}. Decisions are looked up in and added
+ * to the {@link VerificationDecisionCache}, and each pair is asked at most once per check.
+ *
+ * <p>Not thread-safe: {@link #verify} and {@link #flush} must be called from one thread.
+ */
+@Slf4j
+class ClaimVerifier {
+
+    /** Bumped whenever the verification prompts change meaning, invalidating cached decisions */
+    static final int PROMPT_VERSION = 1;
+
+    static final int DEFAULT_BATCH_SIZE = 8;
+    static final int MAX_BATCH_SIZE = 20;
+
+    private static final Set<String> DECISIONS = Set.of("supports", "contradicts", "not_enough_info");
+
+    private final CitationVerificationScheduler scheduler;
+    private final Function<String, String> generate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final CitationAnalysisMetrics metrics;
+    private final VerificationDecisionCache cache;
+    private final List<PendingVerification> pending = new ArrayList<>();
+    private final Map<String, CompletableFuture<VerificationDecision>> requested = new HashMap<>();
+    private final Queue<VerificationCacheEntry> newCacheEntries = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param generate Sends a prompt to the AI model and returns the response text
+     * @param batchSize Pairs per request; 1 disables batching
+     * @param cache Decision cache, or null to always ask the model
+     */
+    ClaimVerifier(
+            CitationVerificationScheduler scheduler,
+            Function<String, String> generate,
+            ObjectMapper objectMapper,
+            int batchSize,
+            CitationAnalysisMetrics metrics,
+            VerificationDecisionCache cache) {
+        this.scheduler = scheduler;
+        this.generate = generate;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+        this.metrics = metrics;
+        this.cache = cache;
+        if (this.batchSize > 1) {
+            metrics.useBatchedVerification(this.batchSize);
+        }
+    }
+
+    /**
+     * Cache key of a claim verified against a paragraph with the current prompts
+     */
+    static String cacheKey(String claim, UUID paragraphId) {
+        return VerificationDecisionCache.key(claim, paragraphId, PROMPT_VERSION);
+    }
+
+    /**
+     * Queue a pair for verification. Cached decisions, and pairs already requested by
+     * this check, are answered without a request. In batched mode the request is only
+     * sent once a batch is full or {@link #flush} is called.
+     *
+     * @param paragraphId ID of the evidence paragraph, or null when it cannot be cached
+     */
+    CompletableFuture<VerificationDecision> verify(String claim, UUID paragraphId, String evidence) {
+        String cacheKey = paragraphId != null ? cacheKey(claim, paragraphId) : null;
+        if (cacheKey != null) {
+            CompletableFuture<VerificationDecision> earlier = requested.get(cacheKey);
+            if (earlier != null) {
+                return earlier;
+            }
+            VerificationDecision cached = cache != null ? cache.getIfPresent(cacheKey) : null;
+            if (cached != null) {
+                metrics.recordVerificationCacheHit();
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+
+        metrics.recordVerificationPair(estimateTokens(buildVerificationPrompt(claim, evidence)));
+        PendingVerification verification =
+                new PendingVerification(claim, evidence, paragraphId, cacheKey, new CompletableFuture<>());
+        if (cacheKey != null) {
+            requested.put(cacheKey, verification.result());
+        }
+        if (batchSize == 1) {
+            submitSingle(verification);
+            return verification.result();
+        }
+
+        pending.add(verification);
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+        return verification.result();
+    }
+
+    /**
+     * Send any partially filled batch
+     */
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<PendingVerification> batch = List.copyOf(pending);
+        pending.clear();
+
+        if (batch.size() == 1) {
+            submitSingle(batch.get(0));
+            return;
+        }
+        scheduler.submit(() -> verifyBatch(batch)).whenComplete((unparsed, error) -> {
+            if (error != null) {
+                log.warn("Batched AI verification was not scheduled: {}", error.getMessage());
+                batch.forEach(verification -> verification.result().complete(unavailable()));
+                return;
+            }
+            unparsed.forEach(this::submitSingle);
+        });
+    }
+
+    /**
+     * Decisions answered by the model since the last call, to be stored in the database
+     */
+    List<VerificationCacheEntry> drainNewCacheEntries() {
+        List<VerificationCacheEntry> entries = new ArrayList<>();
+        for (VerificationCacheEntry entry; (entry = newCacheEntries.poll()) != null; ) {
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Send one batch and complete the pairs it answered
+     *
+     * @return Pairs that need a single retry
+     */
+    private List<PendingVerification> verifyBatch(List<PendingVerification> batch) {
+        String prompt = buildBatchVerificationPrompt(batch);
+        metrics.recordVerificationRequest(estimateTokens(prompt));
+
+        Map<Integer, VerificationDecision> decisions;
+        try {
+            decisions = parseBatchVerificationResponse(generate.apply(prompt), batch.size());
+        } catch (Exception e) {
+            log.error("Error in batched AI verification", e);
+            decisions = Collections.emptyMap();
+        }
+
+        List<PendingVerification> unparsed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            VerificationDecision decision = decisions.get(i);
+            if (decision != null) {
+                answer(batch.get(i), decision);
+            } else {
+                unparsed.add(batch.get(i));
+            }
+        }
+        if (!unparsed.isEmpty()) {
+            log.warn(
+                    "Batched AI verification answered {} of {} pairs, retrying the rest singly",
+                    batch.size() - unparsed.size(),
+                    batch.size());
+        }
+        return unparsed;
+    }
+
+    private void submitSingle(PendingVerification verification) {
+        scheduler.submit(() -> verifySingle(verification)).whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.warn("AI verification was not scheduled: {}", error.getMessage());
+                verification.result().complete(unavailable());
+            }
+        });
+    }
+
+    private Void verifySingle(PendingVerification verification) {
+        VerificationDecision decision;
+        try {
+            String prompt = buildVerificationPrompt(verification.claim(), verification.evidence());
+            metrics.recordVerificationRequest(estimateTokens(prompt));
+            decision = parseVerificationResponse(generate.apply(prompt));
+        } catch (Exception e) {
+            log.error("Error in AI verification", e);
+            verification
+                    .result()
+                    .complete(new VerificationDecision("not_enough_info", 0.0, "Error in AI verification"));
+            return null;
+        }
+
+        if (decision == null) {
+            verification
+                    .result()
+                    .complete(new VerificationDecision("not_enough_info", 0.0, "Failed to parse AI response"));
+        } else {
+            answer(verification, decision);
+        }
+        return null;
+    }
+
+    /**
+     * Complete a pair with a decision from the model, caching well-formed decisions
+     */
+    private void answer(PendingVerification verification, VerificationDecision decision) {
+        if (verification.cacheKey() != null && cache != null && DECISIONS.contains(decision.getDecision())) {
+            cache.put(verification.cacheKey(), decision);
+            newCacheEntries.add(VerificationCacheEntry.builder()
+                    .cacheKey(verification.cacheKey())
+                    .paragraphId(verification.paragraphId())
+                    .promptVersion(PROMPT_VERSION)
+                    .decision(decision.getDecision())
+                    .confidence(decision.getConfidence())
+                    .rationale(decision.getRationale())
+                    .build());
+        }
+        verification.result().complete(decision);
+    }
+
+    /**
+     * Build prompt for AI verification
+     */
+    String buildVerificationPrompt(String claim, String evidence) {
+        return String.format(
+                """
+            You are a scientific fact-checker. Analyze if the evidence supports the claim.
+
+            CLAIM: "%s"
+
+            EVIDENCE: "%s"
+
+            Respond in JSON format:
+            {
+              "decision": "supports|contradicts|not_enough_info",
+              "confidence": 0.85,
+              "rationale": "Brief explanation"
+            }
+
+            Rules:
+            - Only use "supports" if evidence clearly backs the claim with confidence ≥ 0.66
+            - Use "contradicts" if evidence clearly disputes the claim
+            - Use "not_enough_info" if evidence is unclear or insufficient
+            - Be conservative - prefer "not_enough_info" over weak "supports"
+            """,
+                claim, evidence);
+    }
+
+    /**
+     * Build one prompt for several pairs, numbered from 0
+     */
+    String buildBatchVerificationPrompt(List<PendingVerification> batch) {
+        StringBuilder pairs = new StringBuilder();
+        for (int i = 0; i < batch.size(); i++) {
+            pairs.append("PAIR ").append(i).append('\n');
+            pairs.append("CLAIM: \"").append(batch.get(i).claim()).append("\"\n");
+            pairs.append("EVIDENCE: \"").append(batch.get(i).evidence()).append("\"\n\n");
+        }
+
+        return String.format(
+                """
+            You are a scientific fact-checker. For each numbered pair below, analyze if the evidence
+            supports the claim. Judge every pair independently.
+
+            %s\
+            Respond with a JSON array containing exactly one object per pair, in any order:
+            [
+              {
+                "index": 0,
+                "decision": "supports|contradicts|not_enough_info",
+                "confidence": 0.85,
+                "rationale": "Brief explanation"
+              }
+            ]
+
+            Rules:
+            - "index" is the number of the PAIR the object answers
+            - Only use "supports" if evidence clearly backs the claim with confidence ≥ 0.66
+            - Use "contradicts" if evidence clearly disputes the claim
+            - Use "not_enough_info" if evidence is unclear or insufficient
+            - Be conservative - prefer "not_enough_info" over weak "supports"
+            """,
+                pairs);
+    }
+
+    /**
+     * Parse AI verification response
+     *
+     * @return The decision, or null when the response cannot be parsed
+     */
+    VerificationDecision parseVerificationResponse(String response) {
+        try {
+            Map<String, Object> parsed =
+                    objectMapper.readValue(stripCodeFence(response), new TypeReference<Map<String, Object>>() {});
+
+            String decision = (String) parsed.get("decision");
+            Double confidence = ((Number) parsed.get("confidence")).doubleValue();
+            String rationale = (String) parsed.get("rationale");
+
+            return new VerificationDecision(decision, confidence, rationale);
+
+        } catch (Exception e) {
+            log.error("Failed to parse verification response: {}", response, e);
+            return null;
+        }
+    }
+
+    /**
+     * Parse the JSON array of a batched response
+     *
+     * @return Well-formed decisions keyed by pair index; malformed and out-of-range entries
+     *     are left out, as are indexes answered more than once, whose pairs are then retried
+     *     singly
+     */
+    Map<Integer, VerificationDecision> parseBatchVerificationResponse(String response, int batchSize) {
+        Map<Integer, VerificationDecision> decisions = new HashMap<>();
+        if (response == null) {
+            return decisions;
+        }
+
+        String jsonContent = stripCodeFence(response);
+        int start = jsonContent.indexOf('[');
+        int end = jsonContent.lastIndexOf(']');
+        if (start < 0 || end <= start) {
+            log.warn("Batched verification response contains no JSON array");
+            return decisions;
+        }
+
+        List<Object> entries;
+        try {
+            entries = objectMapper.readValue(
+                    jsonContent.substring(start, end + 1), new TypeReference<List<Object>>() {});
+        } catch (Exception e) {
+            log.warn("Failed to parse batched verification response: {}", e.getMessage());
+            return decisions;
+        }
+
+        Set<Integer> answeredTwice = new HashSet<>();
+        for (Object entry : entries) {
+            if (!(entry instanceof Map<?, ?> fields)
+                    || !(fields.get("index") instanceof Number index)
+                    || !(fields.get("decision") instanceof String decision)
+                    || !(fields.get("confidence") instanceof Number confidence)) {
+                continue;
+            }
+            int position = index.intValue();
+            if (position < 0 || position >= batchSize || !DECISIONS.contains(decision)) {
+                continue;
+            }
+            Object rationale = fields.get("rationale");
+            VerificationDecision previous = decisions.putIfAbsent(
+                    position,
+                    new VerificationDecision(
+                            decision, confidence.doubleValue(), rationale != null ? rationale.toString() : null));
+            if (previous != null) {
+                answeredTwice.add(position);
+            }
+        }
+        // Neither answer can be trusted to belong to the pair
+        answeredTwice.forEach(decisions::remove);
+        return decisions;
+    }
+
+    /**
+     * Rough token count of a prompt, about four characters per token
+     */
+    static long estimateTokens(String text) {
+        return (text.length() + 3) / 4;
+    }
+
+    private static String stripCodeFence(String response) {
+        // Extract JSON from response if wrapped in markdown
+        String jsonContent = response;
+        if (response.contains("```json")) {
+            int startIdx = response.indexOf("```json") + 7;
+            int endIdx = response.indexOf("```", startIdx);
+            if (endIdx > startIdx) {
+                jsonContent = response.substring(startIdx, endIdx).trim();
+            }
+        } else if (response.contains("```")) {
+            int startIdx = response.indexOf("```") + 3;
+            int endIdx = response.indexOf("```", startIdx);
+            if (endIdx > startIdx) {
+                jsonContent = response.substring(startIdx, endIdx).trim();
+            }
+        }
+        return jsonContent;
+    }
+
+    private static VerificationDecision unavailable() {
+        return new VerificationDecision("not_enough_info", 0.0, "AI verification unavailable");
+    }
+
+    record PendingVerification(
+            String claim,
+            String evidence,
+            UUID paragraphId,
+            String cacheKey,
+            CompletableFuture<VerificationDecision> result) {}
+}
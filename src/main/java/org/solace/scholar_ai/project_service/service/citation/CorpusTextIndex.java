@@ -0,0 +1,220 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import java.util.*;
+import org.solace.scholar_ai.project_service.model.extraction.ExtractedParagraph;
+import org.solace.scholar_ai.project_service.service.extraction.index.TermVector;
+
+/**
+ * In-memory inverted index over the local corpus of a single citation check.
+ * Maps every token to the paragraphs containing it so that a sentence is only
+ * scored against paragraphs sharing at least one token with it. Scores are the
+ * same word-set Jaccard similarity the analysis has always used, so any
+ * positive threshold selects exactly the same paragraphs as a full scan.
+ * Tokens are the hashed long-word term ids of {@link TermVector}, which lets the
+ * index reuse the vectors precomputed at extraction time. Two words can hash to the
+ * same term id, so the postings only narrow down the candidates: every paragraph
+ * sharing a word with the query is among them, and each one is scored on its exact
+ * word set, tokenized from its text the first time it is a candidate.
+ */
+public class CorpusTextIndex {
+
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private final String[] paperIds;
+    private final ExtractedParagraph[] paragraphs;
+    private final int[] textLengths;
+    private final int[][] termSets;
+    private final int[][] signatures;
+    private final Set<String>[] words;
+    private final Map<Integer, int[]> postings;
+
+    private CorpusTextIndex(
+            String[] paperIds,
+            ExtractedParagraph[] paragraphs,
+            int[] textLengths,
+            int[][] termSets,
+            int[][] signatures,
+            Map<Integer, int[]> postings) {
+        this.paperIds = paperIds;
+        this.paragraphs = paragraphs;
+        this.textLengths = textLengths;
+        this.termSets = termSets;
+        this.signatures = signatures;
+        this.postings = postings;
+        @SuppressWarnings("unchecked")
+        Set<String>[] words = new Set[paragraphs.length];
+        this.words = words;
+    }
+
+    /**
+     * Build the index once per check. Paragraph ordinals follow the iteration order
+     * of the corpus map so results come back in the same order as a nested scan.
+     */
+    public static CorpusTextIndex build(Map<String, List<ExtractedParagraph>> corpus) {
+        return build(corpus, Collections.emptyMap());
+    }
+
+    /**
+     * Build the index, taking paragraph tokens from precomputed term vectors where
+     * available and tokenizing the paragraph text otherwise.
+     */
+    public static CorpusTextIndex build(
+            Map<String, List<ExtractedParagraph>> corpus, Map<UUID, TermVector> precomputed) {
+        List<String> paperIdList = new ArrayList<>();
+        List<ExtractedParagraph> paragraphList = new ArrayList<>();
+        List<int[]> tokenSets = new ArrayList<>();
+        List<int[]> signatureList = new ArrayList<>();
+
+        for (Map.Entry<String, List<ExtractedParagraph>> entry : corpus.entrySet()) {
+            for (ExtractedParagraph paragraph : entry.getValue()) {
+                if (paragraph.getText() == null) {
+                    continue;
+                }
+                paperIdList.add(entry.getKey());
+                paragraphList.add(paragraph);
+                TermVector termVector = paragraph.getId() != null ? precomputed.get(paragraph.getId()) : null;
+                tokenSets.add(
+                        termVector != null
+                                ? termVector.getLongTermIds()
+                                : TermVector.longTermIds(paragraph.getText()));
+                signatureList.add(termVector != null ? termVector.getMinHash() : null);
+            }
+        }
+
+        int size = paragraphList.size();
+        int[] textLengths = new int[size];
+        Map<Integer, List<Integer>> postingLists = new HashMap<>();
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            textLengths[ordinal] = paragraphList.get(ordinal).getText().length();
+            for (int token : tokenSets.get(ordinal)) {
+                postingLists.computeIfAbsent(token, t -> new ArrayList<>()).add(ordinal);
+            }
+        }
+
+        Map<Integer, int[]> postings = new HashMap<>(postingLists.size() * 2);
+        postingLists.forEach((token, ordinals) -> postings.put(
+                token, ordinals.stream().mapToInt(Integer::intValue).toArray()));
+
+        return new CorpusTextIndex(
+                paperIdList.toArray(new String[0]),
+                paragraphList.toArray(new ExtractedParagraph[0]),
+                textLengths,
+                tokenSets.toArray(new int[0][]),
+                signatureList.toArray(new int[0][]),
+                postings);
+    }
+
+    /**
+     * Find paragraphs whose text is longer than {@code minTextLength} and whose
+     * similarity to {@code text} is strictly greater than {@code threshold}.
+     * Matches are returned in corpus order.
+     */
+    public List<Match> search(String text, int minTextLength, double threshold) {
+        int[] queryTokens = TermVector.longTermIds(text);
+        if (queryTokens.length == 0 || paragraphs.length == 0) {
+            return Collections.emptyList();
+        }
+
+        boolean[] candidate = new boolean[paragraphs.length];
+        int[] touched = new int[paragraphs.length];
+        int touchedCount = 0;
+        for (int token : queryTokens) {
+            for (int ordinal : postings.getOrDefault(token, NO_POSTINGS)) {
+                if (!candidate[ordinal]) {
+                    candidate[ordinal] = true;
+                    touched[touchedCount++] = ordinal;
+                }
+            }
+        }
+        Arrays.sort(touched, 0, touchedCount);
+
+        Set<String> queryWords = tokenize(text);
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < touchedCount; i++) {
+            Match match = score(touched[i], queryWords, minTextLength, threshold);
+            if (match != null) {
+                matches.add(match);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Score a single paragraph against a query on their exact word sets, for callers
+     * that select candidate paragraphs themselves. Uses the same length filter and
+     * threshold rule as {@link #search}; returns {@code null} when the paragraph does
+     * not qualify.
+     *
+     * @param queryWords The query tokenized with {@link #tokenize}
+     */
+    public Match score(int ordinal, Set<String> queryWords, int minTextLength, double threshold) {
+        if (textLengths[ordinal] <= minTextLength || queryWords.isEmpty()) {
+            return null;
+        }
+        double similarity = jaccard(queryWords, words(ordinal));
+        return similarity > threshold ? new Match(paperIds[ordinal], paragraphs[ordinal], similarity) : null;
+    }
+
+    private Set<String> words(int ordinal) {
+        // Immutable, so a set cached by another thread is safely published
+        Set<String> paragraphWords = words[ordinal];
+        if (paragraphWords == null) {
+            paragraphWords = Set.copyOf(tokenize(paragraphs[ordinal].getText()));
+            words[ordinal] = paragraphWords;
+        }
+        return paragraphWords;
+    }
+
+    /**
+     * MinHash signature of a paragraph, taken from its precomputed term vector when
+     * available and computed from its terms otherwise
+     */
+    public int[] signature(int ordinal) {
+        int[] signature = signatures[ordinal];
+        if (signature == null) {
+            signature = TermVector.minHash(termSets[ordinal]);
+            signatures[ordinal] = signature;
+        }
+        return signature;
+    }
+
+    public int textLength(int ordinal) {
+        return textLengths[ordinal];
+    }
+
+    public int size() {
+        return paragraphs.length;
+    }
+
+    /**
+     * Tokenize text the way citation analysis compares it: lower-cased words
+     * longer than three characters, de-duplicated.
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new HashSet<>();
+        for (String word : text.toLowerCase().split("\\W+")) {
+            if (word.length() > 3) {
+                tokens.add(word);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Word-set Jaccard similarity of two token sets
+     */
+    public static double jaccard(Set<String> tokens1, Set<String> tokens2) {
+        if (tokens1.isEmpty() && tokens2.isEmpty()) {
+            return 0.0;
+        }
+        int intersection = 0;
+        for (String token : tokens1) {
+            if (tokens2.contains(token)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (tokens1.size() + tokens2.size() - intersection);
+    }
+
+    public record Match(String paperId, ExtractedParagraph paragraph, double similarity) {}
+}
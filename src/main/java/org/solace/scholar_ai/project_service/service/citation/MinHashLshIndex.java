@@ -0,0 +1,122 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import java.util.*;
+import org.solace.scholar_ai.project_service.service.extraction.index.TermVector;
+
+/**
+ * Locality-sensitive hashing stage for plagiarism detection. Paragraph MinHash
+ * signatures are cut into {@code bands} bands of {@code rows} slots; a sentence is
+ * only compared exactly against paragraphs that share at least one whole band with
+ * it. Shingles are the long-word terms of {@link TermVector}; the check on colliding
+ * pairs is the exact word-set Jaccard similarity of the full scan. The probability
+ * that a pair with similarity {@code s} collides is {@code 1 - (1 - s^rows)^bands}.
+ */
+public class MinHashLshIndex {
+
+    public static final int DEFAULT_BANDS = 16;
+    public static final int DEFAULT_ROWS = 4;
+
+    private final CorpusTextIndex corpusIndex;
+    private final int bands;
+    private final int rows;
+    private final int minTextLength;
+    private final int eligibleParagraphs;
+    private final Map<Long, int[]> buckets;
+
+    private MinHashLshIndex(
+            CorpusTextIndex corpusIndex,
+            int bands,
+            int rows,
+            int minTextLength,
+            int eligibleParagraphs,
+            Map<Long, int[]> buckets) {
+        this.corpusIndex = corpusIndex;
+        this.bands = bands;
+        this.rows = rows;
+        this.minTextLength = minTextLength;
+        this.eligibleParagraphs = eligibleParagraphs;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Bucket every paragraph longer than {@code minTextLength} by its signature bands
+     *
+     * @throws IllegalArgumentException when the bands do not fit in a signature
+     */
+    public static MinHashLshIndex build(CorpusTextIndex corpusIndex, int bands, int rows, int minTextLength) {
+        if (bands < 1 || rows < 1 || bands * rows > TermVector.MINHASH_SIZE) {
+            throw new IllegalArgumentException("LSH bands x rows must be between 1 and " + TermVector.MINHASH_SIZE
+                    + ", got " + bands + " x " + rows);
+        }
+
+        Map<Long, List<Integer>> bucketLists = new HashMap<>();
+        int eligible = 0;
+        for (int ordinal = 0; ordinal < corpusIndex.size(); ordinal++) {
+            if (corpusIndex.textLength(ordinal) <= minTextLength) {
+                continue;
+            }
+            eligible++;
+            int[] signature = corpusIndex.signature(ordinal);
+            for (int band = 0; band < bands; band++) {
+                bucketLists
+                        .computeIfAbsent(bucketKey(signature, band, rows), k -> new ArrayList<>())
+                        .add(ordinal);
+            }
+        }
+
+        Map<Long, int[]> buckets = new HashMap<>(bucketLists.size() * 2);
+        bucketLists.forEach((key, ordinals) -> buckets.put(
+                key, ordinals.stream().mapToInt(Integer::intValue).toArray()));
+
+        return new MinHashLshIndex(corpusIndex, bands, rows, minTextLength, eligible, buckets);
+    }
+
+    /**
+     * Find paragraphs whose similarity to {@code text} is strictly greater than
+     * {@code threshold}, checking only LSH candidates. Matches are returned in corpus order.
+     */
+    public SearchResult search(String text, double threshold) {
+        int[] queryTokens = TermVector.longTermIds(text);
+        if (queryTokens.length == 0) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+
+        int[] signature = TermVector.minHash(queryTokens);
+        BitSet candidates = new BitSet(corpusIndex.size());
+        for (int band = 0; band < bands; band++) {
+            int[] bucket = buckets.get(bucketKey(signature, band, rows));
+            if (bucket != null) {
+                for (int ordinal : bucket) {
+                    candidates.set(ordinal);
+                }
+            }
+        }
+
+        Set<String> queryWords = CorpusTextIndex.tokenize(text);
+        List<CorpusTextIndex.Match> matches = new ArrayList<>();
+        for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+            CorpusTextIndex.Match match = corpusIndex.score(ordinal, queryWords, minTextLength, threshold);
+            if (match != null) {
+                matches.add(match);
+            }
+        }
+        return new SearchResult(matches, candidates.cardinality());
+    }
+
+    /**
+     * Number of paragraphs a sentence would be compared against without LSH
+     */
+    public int getEligibleParagraphs() {
+        return eligibleParagraphs;
+    }
+
+    private static long bucketKey(int[] signature, int band, int rows) {
+        int hash = 1;
+        for (int row = band * rows; row < (band + 1) * rows; row++) {
+            hash = 31 * hash + signature[row];
+        }
+        return ((long) band << 32) | (hash & 0xFFFFFFFFL);
+    }
+
+    public record SearchResult(List<CorpusTextIndex.Match> matches, int candidateCount) {}
+}
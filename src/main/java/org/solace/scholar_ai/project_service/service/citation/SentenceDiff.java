@@ -0,0 +1,47 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.solace.scholar_ai.project_service.service.citation.CitationAnalysisService.LatexSentence;
+
+/**
+ * Matches the sentences of two versions of a LaTeX document. A sentence is unchanged when
+ * the previous version has a sentence with the same text and the same cited keys; its
+ * position and line may differ. Repeated sentences are paired in document order.
+ */
+final class SentenceDiff {
+
+    private SentenceDiff() {}
+
+    /**
+     * @return For each current sentence, the index of its unchanged previous sentence, or -1
+     */
+    static int[] match(List<LatexSentence> previous, List<LatexSentence> current) {
+        Map<String, Deque<Integer>> previousByKey = new HashMap<>();
+        for (int i = 0; i < previous.size(); i++) {
+            previousByKey
+                    .computeIfAbsent(key(previous.get(i)), k -> new ArrayDeque<>())
+                    .add(i);
+        }
+
+        int[] matches = new int[current.size()];
+        Arrays.fill(matches, -1);
+        for (int i = 0; i < current.size(); i++) {
+            Deque<Integer> candidates = previousByKey.get(key(current.get(i)));
+            if (candidates != null && !candidates.isEmpty()) {
+                matches[i] = candidates.poll();
+            }
+        }
+        return matches;
+    }
+
+    private static String key(LatexSentence sentence) {
+        // Sorted so reordering keys inside \cite{} does not count as a change
+        return String.join(",", new TreeSet<>(sentence.getCitedKeys())) + '\0' + sentence.getText();
+    }
+}
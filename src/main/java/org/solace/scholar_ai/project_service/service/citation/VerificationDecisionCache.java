@@ -0,0 +1,166 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Statement;
+import java.util.*;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.model.citation.VerificationCacheEntry;
+import org.solace.scholar_ai.project_service.repository.citation.VerificationCacheRepository;
+import org.solace.scholar_ai.project_service.service.citation.CitationAnalysisService.VerificationDecision;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Cache of AI verification decisions shared by all citation checks. Keys are a hash of
+ * the normalized claim sentence, the evidence paragraph ID and the prompt version, so an
+ * unchanged sentence re-checked against the same paragraph never goes back to the model.
+ * Entries live in a bounded in-memory LRU in front of the
+ * {@code citation_verification_cache} table.
+ */
+@Slf4j
+@Service
+public class VerificationDecisionCache {
+
+    private static final int QUERY_CHUNK_SIZE = 500;
+
+    // Keys another check stored first are left as they are
+    private static final String INSERT_SQL = "INSERT INTO citation_verification_cache "
+            + "(cache_key, paragraph_id, prompt_version, decision, confidence, rationale) "
+            + "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (cache_key) DO NOTHING";
+
+    private final VerificationCacheRepository verificationCacheRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, VerificationDecision> memory;
+
+    public VerificationDecisionCache(
+            VerificationCacheRepository verificationCacheRepository,
+            JdbcTemplate jdbcTemplate,
+            @Value("${scholarai.citation.verification.cache-size:10000}") int maxEntries) {
+        this.verificationCacheRepository = verificationCacheRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.memory = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerificationDecision> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Cache key of a claim verified against a paragraph
+     *
+     * @param claim The claim sentence
+     * @param paragraphId The evidence paragraph ID
+     * @param promptVersion Version of the verification prompt
+     * @return SHA-256 hex digest
+     */
+    public static String key(String claim, UUID paragraphId, int promptVersion) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(normalizeClaim(claim).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(paragraphId.toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Integer.toString(promptVersion).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    /**
+     * Lower-case a claim and collapse its whitespace so formatting-only edits still hit
+     */
+    static String normalizeClaim(String claim) {
+        return claim.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
+    }
+
+    /**
+     * Load the stored decisions for {@code keys} that are not yet in memory
+     *
+     * @param keys Cache keys a check is about to look up
+     * @return Number of decisions loaded from the database
+     */
+    public int preload(Collection<String> keys) {
+        List<String> missing = new ArrayList<>();
+        for (String key : new LinkedHashSet<>(keys)) {
+            if (!memory.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+
+        int loaded = 0;
+        for (int from = 0; from < missing.size(); from += QUERY_CHUNK_SIZE) {
+            List<String> chunk = missing.subList(from, Math.min(from + QUERY_CHUNK_SIZE, missing.size()));
+            for (VerificationCacheEntry entry : verificationCacheRepository.findByCacheKeys(chunk)) {
+                memory.put(
+                        entry.getCacheKey(),
+                        new VerificationDecision(entry.getDecision(), entry.getConfidence(), entry.getRationale()));
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Decision cached in memory for a key, or null
+     */
+    public VerificationDecision getIfPresent(String key) {
+        return memory.get(key);
+    }
+
+    /**
+     * Cache a decision in memory. Call {@link #persist} to store it in the database.
+     */
+    public void put(String key, VerificationDecision decision) {
+        memory.put(key, decision);
+    }
+
+    /**
+     * Store new decisions in the database, skipping keys another check stored first. The
+     * inserts skip existing keys in the database itself, so checks storing the same decision
+     * at once do not fail each other. Runs in its own transaction so a failed insert cannot
+     * roll back the check.
+     *
+     * @param entries New cache entries
+     * @return Number of entries written, or submitted when the driver does not report counts
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int persist(List<VerificationCacheEntry> entries) {
+        Map<String, VerificationCacheEntry> byKey = new LinkedHashMap<>();
+        for (VerificationCacheEntry entry : entries) {
+            byKey.putIfAbsent(entry.getCacheKey(), entry);
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>(byKey.size());
+        for (VerificationCacheEntry entry : byKey.values()) {
+            batchArgs.add(new Object[] {
+                entry.getCacheKey(),
+                entry.getParagraphId(),
+                entry.getPromptVersion(),
+                entry.getDecision(),
+                entry.getConfidence(),
+                entry.getRationale()
+            });
+        }
+        int written = 0;
+        for (int from = 0; from < batchArgs.size(); from += QUERY_CHUNK_SIZE) {
+            int[] counts = jdbcTemplate.batchUpdate(
+                    INSERT_SQL, batchArgs.subList(from, Math.min(from + QUERY_CHUNK_SIZE, batchArgs.size())));
+            for (int count : counts) {
+                written += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        log.debug("Stored {} of {} new verification decisions", written, byKey.size());
+        return written;
+    }
+
+    public int size() {
+        return memory.size();
+    }
+}
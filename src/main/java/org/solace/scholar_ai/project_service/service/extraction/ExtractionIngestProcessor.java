@@ -0,0 +1,215 @@
+package org.solace.scholar_ai.project_service.service.extraction;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.dto.event.extraction.ExtractionCompletedEvent;
+import org.solace.scholar_ai.project_service.exception.CustomException;
+import org.solace.scholar_ai.project_service.model.extraction.ExtractionJobRecord;
+import org.solace.scholar_ai.project_service.repository.extraction.ExtractionJobLedgerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Ingests extraction completed events at most once per job. Each event first claims its job
+ * in the extraction job ledger; events for jobs that are already completed, or claimed by a
+ * live consumer, are skipped. The ingest and the ledger's COMPLETED mark commit in the same
+ * transaction, so a crash after the ingest can never lead to the graph being written twice.
+ *
+ * <p>While it ingests, the claim's owner refreshes the claim every third of
+ * {@code scholarai.extraction.ingest.claim-timeout}, so only the claims of consumers that went
+ * away go stale and get taken over. The COMPLETED mark only applies while the claim is still
+ * held by its owner; an ingest whose claim was taken over is rolled back.
+ *
+ * <p>Failed ingests are retried in place with exponential backoff up to
+ * {@code scholarai.extraction.ingest.max-attempts} times before the job is marked FAILED.
+ */
+@Slf4j
+@Service
+public class ExtractionIngestProcessor {
+
+    private final ExtractionService extractionService;
+    private final ExtractionJobLedgerRepository ledgerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration claimTimeout;
+    private final ScheduledExecutorService heartbeats;
+
+    public ExtractionIngestProcessor(
+            ExtractionService extractionService,
+            ExtractionJobLedgerRepository ledgerRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${scholarai.extraction.ingest.max-attempts:3}") int maxAttempts,
+            @Value("${scholarai.extraction.ingest.retry-backoff:PT2S}") Duration retryBackoff,
+            @Value("${scholarai.extraction.ingest.claim-timeout:PT15M}") Duration claimTimeout) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Extraction ingest max attempts must be at least 1");
+        }
+        this.extractionService = extractionService;
+        this.ledgerRepository = ledgerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.claimTimeout = claimTimeout;
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "extraction-claim-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Claim and ingest an extraction completed event
+     *
+     * @param event The extraction completion event
+     * @return What happened to the event; the caller decides how to acknowledge it
+     */
+    public Result process(ExtractionCompletedEvent event) {
+        UUID paperId;
+        try {
+            if (event.jobId() == null || event.jobId().isBlank()) {
+                throw new IllegalArgumentException("Extraction completed event has no job ID");
+            }
+            paperId = UUID.fromString(event.paperId());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            log.error("Rejecting malformed extraction completed event for job {}: {}", event.jobId(), e.getMessage());
+            return new Result(Outcome.FAILED, 0, e);
+        }
+
+        String owner = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        Integer claimed = transactionTemplate.execute(status ->
+                ledgerRepository.claim(event.jobId(), paperId, owner, now, now.minus(claimTimeout)));
+        if (claimed == null || claimed == 0) {
+            log.info("Skipping extraction completed event for job {}: already ingested or in progress", event.jobId());
+            return new Result(Outcome.DUPLICATE, 0, null);
+        }
+
+        long heartbeatMillis = Math.max(1_000L, claimTimeout.toMillis() / 3);
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(
+                () -> refreshClaim(event.jobId(), owner), heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        try {
+            return ingest(event, owner);
+        } finally {
+            heartbeat.cancel(false);
+        }
+    }
+
+    private Result ingest(ExtractionCompletedEvent event, String owner) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    extractionService.handleExtractionCompleted(event);
+                    int finished = ledgerRepository.finish(
+                            event.jobId(), owner, ExtractionJobRecord.Status.COMPLETED, Instant.now(), null);
+                    if (finished == 0) {
+                        throw new ClaimLostException();
+                    }
+                });
+                return new Result(Outcome.COMPLETED, attempt, null);
+            } catch (ClaimLostException e) {
+                log.warn("Claim on extraction job {} was taken over, discarding this ingest", event.jobId());
+                return new Result(Outcome.DUPLICATE, attempt, null);
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isRetryable(e)) {
+                    log.error(
+                            "Ingest of extraction job {} failed after {} attempt(s): {}",
+                            event.jobId(),
+                            attempt,
+                            e.getMessage(),
+                            e);
+                    markFailed(event.jobId(), owner, e);
+                    return new Result(Outcome.FAILED, attempt, e);
+                }
+                Duration backoff = retryBackoff.multipliedBy(1L << (attempt - 1));
+                log.warn(
+                        "Ingest of extraction job {} failed (attempt {}/{}), retrying in {}: {}",
+                        event.jobId(),
+                        attempt,
+                        maxAttempts,
+                        backoff,
+                        e.getMessage());
+                try {
+                    Thread.sleep(backoff.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return new Result(Outcome.INTERRUPTED, attempt, e);
+                }
+            }
+        }
+    }
+
+    private static boolean isRetryable(RuntimeException e) {
+        // Missing papers and malformed events fail the same way every time
+        return !(e instanceof CustomException)
+                && !(e instanceof IllegalArgumentException)
+                && !(e instanceof NullPointerException);
+    }
+
+    private void refreshClaim(String jobId, String owner) {
+        try {
+            Integer refreshed =
+                    transactionTemplate.execute(status -> ledgerRepository.heartbeat(jobId, owner, Instant.now()));
+            if (refreshed == null || refreshed == 0) {
+                log.warn("Lost the claim on extraction job {} while ingesting it", jobId);
+            }
+        } catch (RuntimeException e) {
+            // The next heartbeat tries again before the claim goes stale
+            log.warn("Failed to refresh the claim on extraction job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private void markFailed(String jobId, String owner, Exception failure) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> ledgerRepository.finish(
+                    jobId,
+                    owner,
+                    ExtractionJobRecord.Status.FAILED,
+                    Instant.now(),
+                    String.valueOf(failure.getMessage())));
+        } catch (RuntimeException e) {
+            // The claim stays PROCESSING and is taken over once it goes stale
+            log.error("Failed to record ingest failure of extraction job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    /** The job's claim was taken over before the ingest could be marked completed */
+    private static class ClaimLostException extends RuntimeException {
+        ClaimLostException() {
+            super(null, null, false, false);
+        }
+    }
+
+    public enum Outcome {
+        /** Ingested and marked completed in the ledger */
+        COMPLETED,
+        /** Already ingested, being ingested elsewhere, or taken over while ingesting */
+        DUPLICATE,
+        /** Malformed, or still failing after the last attempt */
+        FAILED,
+        /** The worker was interrupted between attempts; the claim is left for a redelivery */
+        INTERRUPTED
+    }
+
+    /**
+     * Outcome of processing one event
+     *
+     * @param outcome What happened to the event
+     * @param attempts How many ingest attempts were made
+     * @param failure The last failure, for FAILED and INTERRUPTED outcomes
+     */
+    public record Result(Outcome outcome, int attempts, Exception failure) {}
+}
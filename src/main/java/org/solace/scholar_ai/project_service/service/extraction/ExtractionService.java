@@ -19,6 +19,7 @@ import org.solace.scholar_ai.project_service.model.paper.Paper;
 import org.solace.scholar_ai.project_service.repository.extraction.PaperExtractionRepository;
 import org.solace.scholar_ai.project_service.repository.paper.PaperRepository;
 import org.solace.scholar_ai.project_service.service.extraction.persistence.ExtractionPersistenceService;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshotCache;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,6 +36,7 @@ public class ExtractionService {
     private final PaperExtractionRepository paperExtractionRepository;
     private final ExtractionRequestSender extractionRequestSender;
     private final ExtractionPersistenceService extractionPersistenceService;
+    private final ExtractionSnapshotCache snapshotCache;
 
     /**
      * Trigger extraction for a paper
@@ -199,6 +201,7 @@ public class ExtractionService {
             if (event.extractionResult() != null
                     && !event.extractionResult().trim().isEmpty()) {
                 try {
+                    snapshotCache.invalidate(paper.getId());
                     extractionPersistenceService.persistExtractionResult(paper, event);
                     log.info("Successfully persisted extraction results for paper: {}", event.paperId());
                 } catch (Exception e) {
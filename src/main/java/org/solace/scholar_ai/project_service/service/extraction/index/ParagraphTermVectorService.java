@@ -0,0 +1,102 @@
+package org.solace.scholar_ai.project_service.service.extraction.index;
+
+import java.util.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.model.extraction.ExtractedParagraph;
+import org.solace.scholar_ai.project_service.model.extraction.ExtractedSection;
+import org.solace.scholar_ai.project_service.model.extraction.PaperExtraction;
+import org.solace.scholar_ai.project_service.model.extraction.ParagraphTermVector;
+import org.solace.scholar_ai.project_service.repository.extraction.ParagraphTermVectorRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Builds and loads the precomputed per-paragraph term vectors used for lexical matching
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ParagraphTermVectorService {
+
+    private final ParagraphTermVectorRepository paragraphTermVectorRepository;
+
+    /**
+     * Compute term vectors for every paragraph of an extraction without storing them.
+     * Paragraphs must already have their IDs assigned.
+     *
+     * @param paperExtraction The extraction, with its ID assigned
+     * @return Unsaved term vector rows
+     */
+    public List<ParagraphTermVector> buildVectors(PaperExtraction paperExtraction) {
+        List<ParagraphTermVector> vectors = new ArrayList<>();
+        for (ExtractedSection section : paperExtraction.getSections()) {
+            vectors.addAll(buildVectors(paperExtraction.getId(), section.getParagraphs()));
+        }
+        return vectors;
+    }
+
+    /**
+     * Compute term vectors for paragraphs without storing them
+     *
+     * @param paperExtractionId The extraction the paragraphs belong to
+     * @param paragraphs Paragraphs with their IDs assigned; paragraphs without ID or text are skipped
+     * @return Unsaved term vector rows
+     */
+    public List<ParagraphTermVector> buildVectors(UUID paperExtractionId, Collection<ExtractedParagraph> paragraphs) {
+        List<ParagraphTermVector> vectors = new ArrayList<>(paragraphs.size());
+        for (ExtractedParagraph paragraph : paragraphs) {
+            if (paragraph.getId() == null || paragraph.getText() == null) {
+                continue;
+            }
+            TermVector termVector = TermVector.of(paragraph.getText());
+            vectors.add(ParagraphTermVector.builder()
+                    .paragraphId(paragraph.getId())
+                    .paperExtractionId(paperExtractionId)
+                    .formatVersion(TermVector.FORMAT_VERSION)
+                    .tokenCount(termVector.tokenCount())
+                    .termData(termVector.encodeTerms())
+                    .minhashSignature(termVector.encodeMinHash())
+                    .build());
+        }
+        return vectors;
+    }
+
+    /**
+     * Load the term vectors of an extraction keyed by paragraph ID
+     *
+     * @param paperExtractionId The extraction ID
+     * @return Term vectors, empty when the extraction was never indexed
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, TermVector> loadForExtraction(UUID paperExtractionId) {
+        return decode(
+                paragraphTermVectorRepository.findByPaperExtractionId(paperExtractionId, TermVector.FORMAT_VERSION));
+    }
+
+    /**
+     * Load the term vectors of several papers keyed by paragraph ID
+     *
+     * @param paperIds The paper IDs
+     * @return Term vectors, missing for papers that were never indexed
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, TermVector> loadForPapers(List<UUID> paperIds) {
+        if (paperIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return decode(paragraphTermVectorRepository.findByPaperIds(paperIds, TermVector.FORMAT_VERSION));
+    }
+
+    private Map<UUID, TermVector> decode(List<ParagraphTermVector> rows) {
+        Map<UUID, TermVector> vectors = new HashMap<>(rows.size() * 2);
+        for (ParagraphTermVector row : rows) {
+            try {
+                vectors.put(row.getParagraphId(), TermVector.decode(row.getTermData(), row.getMinhashSignature()));
+            } catch (RuntimeException e) {
+                log.warn("Skipping unreadable term vector for paragraph {}: {}", row.getParagraphId(), e.getMessage());
+            }
+        }
+        return vectors;
+    }
+}
@@ -0,0 +1,230 @@
+package org.solace.scholar_ai.project_service.service.extraction.index;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Compact, precomputed lexical fingerprint of a piece of extracted text.
+ *
+ * <p>Words are lower-cased, split on non-word characters and kept when longer than two
+ * characters (the chat retrieval rule). Each word is hashed to a 32-bit term id whose
+ * lowest bit marks words longer than three characters (the citation analysis rule), so
+ * both consumers can work from the same vector. The MinHash signature is computed over
+ * the long words only and estimates the word-set Jaccard similarity used by citation
+ * checks.
+ */
+public final class TermVector {
+
+    /** Bumped whenever tokenization, hashing or encoding changes */
+    public static final int FORMAT_VERSION = 1;
+
+    public static final int MINHASH_SIZE = 64;
+
+    private static final int[] MINHASH_SEEDS = new int[MINHASH_SIZE];
+
+    static {
+        Random random = new Random(0x5C401A1L);
+        for (int i = 0; i < MINHASH_SIZE; i++) {
+            MINHASH_SEEDS[i] = random.nextInt();
+        }
+    }
+
+    private final int[] termIds;
+    private final int[] counts;
+    private final int[] minHash;
+
+    private TermVector(int[] termIds, int[] counts, int[] minHash) {
+        this.termIds = termIds;
+        this.counts = counts;
+        this.minHash = minHash;
+    }
+
+    /**
+     * Build the vector for a text
+     */
+    public static TermVector of(String text) {
+        TreeMap<Integer, Integer> termCounts = new TreeMap<>();
+        if (text != null) {
+            for (String word : text.toLowerCase().split("\\W+")) {
+                if (word.length() > 2) {
+                    termCounts.merge(termId(word), 1, Integer::sum);
+                }
+            }
+        }
+
+        int[] termIds = new int[termCounts.size()];
+        int[] counts = new int[termCounts.size()];
+        int i = 0;
+        for (var entry : termCounts.entrySet()) {
+            termIds[i] = entry.getKey();
+            counts[i] = entry.getValue();
+            i++;
+        }
+        return new TermVector(termIds, counts, minHash(longTermIds(termIds)));
+    }
+
+    /**
+     * Hash an already lower-cased word to its term id
+     */
+    public static int termId(String word) {
+        // FNV-1a followed by the murmur3 finalizer for good low-bit dispersion
+        int hash = 0x811C9DC5;
+        for (byte b : word.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x01000193;
+        }
+        hash = mix(hash);
+        return word.length() > 3 ? hash | 1 : hash & ~1;
+    }
+
+    /**
+     * Distinct term ids of words longer than three characters, ascending
+     */
+    public static int[] longTermIds(String text) {
+        return longTermIds(of(text).termIds);
+    }
+
+    /**
+     * Distinct term ids of words longer than two characters, ascending
+     */
+    public static int[] termIds(String text) {
+        return of(text).termIds;
+    }
+
+    public static boolean isLongTerm(int termId) {
+        return (termId & 1) == 1;
+    }
+
+    /**
+     * MinHash signature of a set of term ids
+     */
+    public static int[] minHash(int[] termIds) {
+        int[] signature = new int[MINHASH_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int termId : termIds) {
+            for (int i = 0; i < MINHASH_SIZE; i++) {
+                int value = mix(termId ^ MINHASH_SEEDS[i]);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Fraction of equal MinHash slots, an estimate of the long-word Jaccard similarity
+     */
+    public static double estimateJaccard(int[] signature1, int[] signature2) {
+        int equal = 0;
+        for (int i = 0; i < MINHASH_SIZE; i++) {
+            if (signature1[i] == signature2[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / MINHASH_SIZE;
+    }
+
+    public boolean contains(int termId) {
+        return Arrays.binarySearch(termIds, termId) >= 0;
+    }
+
+    public int count(int termId) {
+        int index = Arrays.binarySearch(termIds, termId);
+        return index >= 0 ? counts[index] : 0;
+    }
+
+    /**
+     * Distinct term ids, ascending
+     */
+    public int[] getTermIds() {
+        return termIds.clone();
+    }
+
+    /**
+     * Distinct term ids of words longer than three characters, ascending
+     */
+    public int[] getLongTermIds() {
+        return longTermIds(termIds);
+    }
+
+    public int[] getMinHash() {
+        return minHash.clone();
+    }
+
+    public int size() {
+        return termIds.length;
+    }
+
+    /**
+     * Total number of counted words
+     */
+    public int tokenCount() {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Encode term ids and counts as {@code [n][ids...][counts...]}
+     */
+    public byte[] encodeTerms() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * (1 + 2 * termIds.length));
+        buffer.putInt(termIds.length);
+        for (int termId : termIds) {
+            buffer.putInt(termId);
+        }
+        for (int count : counts) {
+            buffer.putInt(count);
+        }
+        return buffer.array();
+    }
+
+    public byte[] encodeMinHash() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * MINHASH_SIZE);
+        for (int value : minHash) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+
+    public static TermVector decode(byte[] terms, byte[] signature) {
+        ByteBuffer termBuffer = ByteBuffer.wrap(terms);
+        int size = termBuffer.getInt();
+        int[] termIds = new int[size];
+        int[] counts = new int[size];
+        for (int i = 0; i < size; i++) {
+            termIds[i] = termBuffer.getInt();
+        }
+        for (int i = 0; i < size; i++) {
+            counts[i] = termBuffer.getInt();
+        }
+
+        int[] minHash;
+        if (signature != null && signature.length == Integer.BYTES * MINHASH_SIZE) {
+            minHash = new int[MINHASH_SIZE];
+            ByteBuffer.wrap(signature).asIntBuffer().get(minHash);
+        } else {
+            minHash = minHash(longTermIds(termIds));
+        }
+        return new TermVector(termIds, counts, minHash);
+    }
+
+    private static int[] longTermIds(int[] termIds) {
+        return Arrays.stream(termIds).filter(TermVector::isLongTerm).toArray();
+    }
+
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,616 @@
+package org.solace.scholar_ai.project_service.service.extraction.persistence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.model.extraction.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes a freshly built {@link PaperExtraction} graph with batched JDBC inserts instead of
+ * cascading it through the entity manager, which issues one INSERT per row. IDs are assigned
+ * up front so child rows can reference their parents without reading generated keys.
+ *
+ * <p>Each content category is inserted under its own savepoint, so a category that fails is
+ * rolled back and dropped from the graph while the others are kept. Must be called inside a
+ * transaction.
+ */
+@Slf4j
+@Component
+public class ExtractionBulkWriter {
+
+    static final String INGEST_TIMER = "scholarai.extraction.ingest";
+    static final String INGEST_ROWS = "scholarai.extraction.ingest.rows";
+    static final String INGEST_THROUGHPUT = "scholarai.extraction.ingest.throughput";
+
+    static final Table<PaperExtraction> PAPER_EXTRACTIONS = new Table<>(
+            "paper_extractions",
+            List.of(
+                    "id",
+                    "paper_id",
+                    "extraction_id",
+                    "pdf_hash",
+                    "extraction_timestamp",
+                    "title",
+                    "abstract_text",
+                    "language",
+                    "page_count",
+                    "extraction_methods",
+                    "processing_time",
+                    "errors",
+                    "warnings",
+                    "extraction_coverage",
+                    "confidence_scores",
+                    "created_at",
+                    "updated_at"),
+            e -> new Object[] {
+                e.getId(),
+                e.getPaper().getId(),
+                e.getExtractionId(),
+                e.getPdfHash(),
+                timestamp(e.getExtractionTimestamp()),
+                e.getTitle(),
+                e.getAbstractText(),
+                e.getLanguage(),
+                e.getPageCount(),
+                e.getExtractionMethods(),
+                e.getProcessingTime(),
+                e.getErrors(),
+                e.getWarnings(),
+                e.getExtractionCoverage(),
+                e.getConfidenceScores(),
+                timestamp(e.getCreatedAt()),
+                timestamp(e.getUpdatedAt())
+            },
+            PaperExtraction::getId,
+            PaperExtraction::setId);
+
+    static final Table<ExtractedSection> SECTIONS = new Table<>(
+            "extracted_sections",
+            List.of(
+                    "id",
+                    "paper_extraction_id",
+                    "section_id",
+                    "label",
+                    "title",
+                    "section_type",
+                    "level",
+                    "page_start",
+                    "page_end",
+                    "order_index",
+                    "parent_section_id"),
+            s -> new Object[] {
+                s.getId(),
+                s.getPaperExtraction().getId(),
+                s.getSectionId(),
+                s.getLabel(),
+                s.getTitle(),
+                s.getSectionType(),
+                s.getLevel(),
+                s.getPageStart(),
+                s.getPageEnd(),
+                s.getOrderIndex(),
+                s.getParentSection() != null ? s.getParentSection().getId() : null
+            },
+            ExtractedSection::getId,
+            ExtractedSection::setId);
+
+    static final Table<ExtractedParagraph> PARAGRAPHS = new Table<>(
+            "extracted_paragraphs",
+            List.of(
+                    "id",
+                    "section_id",
+                    "text",
+                    "page",
+                    "order_index",
+                    "bbox_x1",
+                    "bbox_y1",
+                    "bbox_x2",
+                    "bbox_y2",
+                    "style"),
+            p -> new Object[] {
+                p.getId(),
+                p.getSection().getId(),
+                p.getText(),
+                p.getPage(),
+                p.getOrderIndex(),
+                p.getBboxX1(),
+                p.getBboxY1(),
+                p.getBboxX2(),
+                p.getBboxY2(),
+                p.getStyle()
+            },
+            ExtractedParagraph::getId,
+            ExtractedParagraph::setId);
+
+    static final Table<ExtractedFigure> FIGURES = new Table<>(
+            "extracted_figures",
+            List.of(
+                    "id",
+                    "paper_extraction_id",
+                    "figure_id",
+                    "label",
+                    "caption",
+                    "page",
+                    "figure_type",
+                    "bbox_x1",
+                    "bbox_y1",
+                    "bbox_x2",
+                    "bbox_y2",
+                    "bbox_confidence",
+                    "image_path",
+                    "thumbnail_path",
+                    "figure_references",
+                    "ocr_text",
+                    "ocr_confidence",
+                    "order_index"),
+            f -> new Object[] {
+                f.getId(),
+                f.getPaperExtraction().getId(),
+                f.getFigureId(),
+                f.getLabel(),
+                f.getCaption(),
+                f.getPage(),
+                f.getFigureType(),
+                f.getBboxX1(),
+                f.getBboxY1(),
+                f.getBboxX2(),
+                f.getBboxY2(),
+                f.getBboxConfidence(),
+                f.getImagePath(),
+                f.getThumbnailPath(),
+                f.getReferences(),
+                f.getOcrText(),
+                f.getOcrConfidence(),
+                f.getOrderIndex()
+            },
+            ExtractedFigure::getId,
+            ExtractedFigure::setId);
+
+    static final Table<ExtractedTable> TABLES = new Table<>(
+            "extracted_tables",
+            List.of(
+                    "id",
+                    "paper_extraction_id",
+                    "table_id",
+                    "label",
+                    "caption",
+                    "page",
+                    "bbox_x1",
+                    "bbox_y1",
+                    "bbox_x2",
+                    "bbox_y2",
+                    "bbox_confidence",
+                    "headers",
+                    "rows",
+                    "structure",
+                    "csv_path",
+                    "html",
+                    "table_references",
+                    "order_index"),
+            t -> new Object[] {
+                t.getId(),
+                t.getPaperExtraction().getId(),
+                t.getTableId(),
+                t.getLabel(),
+                t.getCaption(),
+                t.getPage(),
+                t.getBboxX1(),
+                t.getBboxY1(),
+                t.getBboxX2(),
+                t.getBboxY2(),
+                t.getBboxConfidence(),
+                t.getHeaders(),
+                t.getRows(),
+                t.getStructure(),
+                t.getCsvPath(),
+                t.getHtml(),
+                t.getReferences(),
+                t.getOrderIndex()
+            },
+            ExtractedTable::getId,
+            ExtractedTable::setId);
+
+    static final Table<ExtractedEquation> EQUATIONS = new Table<>(
+            "extracted_equations",
+            List.of(
+                    "id",
+                    "paper_extraction_id",
+                    "equation_id",
+                    "label",
+                    "latex",
+                    "mathml",
+                    "page",
+                    "is_inline",
+                    "bbox_x1",
+                    "bbox_y1",
+                    "bbox_x2",
+                    "bbox_y2",
+                    "order_index"),
+            e -> new Object[] {
+                e.getId(),
+                e.getPaperExtraction().getId(),
+                e.getEquationId(),
+                e.getLabel(),
+                e.getLatex(),
+                e.getMathml(),
+                e.getPage(),
+                e.getIsInline(),
+                e.getBboxX1(),
+                e.getBboxY1(),
+                e.getBboxX2(),
+                e.getBboxY2(),
+                e.getOrderIndex()
+            },
+            ExtractedEquation::getId,
+            ExtractedEquation::setId);
+
+    static final Table<ExtractedCodeBlock> CODE_BLOCKS = new Table<>(
+            "extracted_code_blocks",
+            List.of(
+                    "id",
+                    "paper_extraction_id",
+                    "code_id",
+                    "language",
+                    "code",
+                    "page",
+                    "context",
+                    "has_line_numbers",
+                    "bbox_x1",
+                    "bbox_y1",
+                    "bbox_x2",
+                    "bbox_y2",
+                    "order_index"),
+            c -> new Object[] {
+                c.getId(),
+                c.getPaperExtraction().getId(),
+                c.getCodeId(),
+                c.getLanguage(),
+                c.getCode(),
+                c.getPage(),
+                c.getContext(),
+                c.getHasLineNumbers(),
+                c.getBboxX1(),
+                c.getBboxY1(),
+                c.getBboxX2(),
+                c.getBboxY2(),
+                c.getOrderIndex()
+            },
+            ExtractedCodeBlock::getId,
+            ExtractedCodeBlock::setId);
+
+    static final Table<ExtractedReference> REFERENCES = new Table<>(
+            "extracted_references",
+            List.of(
+                    "id",
+                    "paper_extraction_id",
+                    "reference_id",
+                    "raw_text",
+                    "title",
+                    "authors",
+                    "year",
+                    "venue",
+                    "doi",
+                    "url",
+                    "arxiv_id",
+                    "crossref_data",
+                    "openalex_data",
+                    "unpaywall_data",
+                    "cited_by_sections",
+                    "citation_count",
+                    "order_index"),
+            r -> new Object[] {
+                r.getId(),
+                r.getPaperExtraction().getId(),
+                r.getReferenceId(),
+                r.getRawText(),
+                r.getTitle(),
+                r.getAuthors(),
+                r.getYear(),
+                r.getVenue(),
+                r.getDoi(),
+                r.getUrl(),
+                r.getArxivId(),
+                r.getCrossrefData(),
+                r.getOpenalexData(),
+                r.getUnpaywallData(),
+                r.getCitedBySections(),
+                r.getCitationCount(),
+                r.getOrderIndex()
+            },
+            ExtractedReference::getId,
+            ExtractedReference::setId);
+
+    static final Table<ExtractedEntity> ENTITIES = new Table<>(
+            "extracted_entities",
+            List.of(
+                    "id",
+                    "paper_extraction_id",
+                    "entity_id",
+                    "entity_type",
+                    "name",
+                    "uri",
+                    "page",
+                    "context",
+                    "confidence",
+                    "order_index"),
+            e -> new Object[] {
+                e.getId(),
+                e.getPaperExtraction().getId(),
+                e.getEntityId(),
+                e.getEntityType(),
+                e.getName(),
+                e.getUri(),
+                e.getPage(),
+                e.getContext(),
+                e.getConfidence(),
+                e.getOrderIndex()
+            },
+            ExtractedEntity::getId,
+            ExtractedEntity::setId);
+
+    static final Table<ParagraphTermVector> TERM_VECTORS = new Table<>(
+            "paragraph_term_vectors",
+            List.of(
+                    "id",
+                    "paragraph_id",
+                    "paper_extraction_id",
+                    "format_version",
+                    "token_count",
+                    "term_data",
+                    "minhash_signature"),
+            v -> new Object[] {
+                v.getId(),
+                v.getParagraphId(),
+                v.getPaperExtractionId(),
+                v.getFormatVersion(),
+                v.getTokenCount(),
+                v.getTermData(),
+                v.getMinhashSignature()
+            },
+            ParagraphTermVector::getId,
+            ParagraphTermVector::setId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate savepointTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final Timer ingestTimer;
+    private final DistributionSummary throughput;
+
+    public ExtractionBulkWriter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${scholarai.extraction.ingest.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.savepointTemplate = new TransactionTemplate(transactionManager);
+        this.savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.ingestTimer = Timer.builder(INGEST_TIMER)
+                .description("Time to insert one paper's extraction graph")
+                .register(meterRegistry);
+        this.throughput = DistributionSummary.builder(INGEST_THROUGHPUT)
+                .description("Rows inserted per second while ingesting one paper's extraction")
+                .baseUnit("rows/s")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Insert an extraction and all of its content. The extraction row itself must succeed;
+     * content categories that fail are logged, rolled back to their savepoint and removed
+     * from the graph so the graph matches what was stored.
+     *
+     * @param extraction A new extraction whose children are attached but not yet saved
+     * @return Rows inserted per table
+     */
+    public Map<String, Integer> write(PaperExtraction extraction) {
+        long start = System.nanoTime();
+        assignIds(extraction);
+
+        Map<String, Integer> rows = new LinkedHashMap<>();
+        rows.put(PAPER_EXTRACTIONS.name(), insert(PAPER_EXTRACTIONS, List.of(extraction)));
+
+        List<ExtractedParagraph> paragraphs = extraction.getSections().stream()
+                .flatMap(section -> section.getParagraphs().stream())
+                .toList();
+        writeCategory(extraction, "sections", extraction.getSections(), rows, inserted -> {
+            inserted.put(SECTIONS.name(), insert(SECTIONS, extraction.getSections()));
+            inserted.put(PARAGRAPHS.name(), insert(PARAGRAPHS, paragraphs));
+        });
+        writeCategory(extraction, "figures", FIGURES, extraction.getFigures(), rows);
+        writeCategory(extraction, "tables", TABLES, extraction.getTables(), rows);
+        writeCategory(extraction, "equations", EQUATIONS, extraction.getEquations(), rows);
+        writeCategory(extraction, "code blocks", CODE_BLOCKS, extraction.getCodeBlocks(), rows);
+        writeCategory(extraction, "references", REFERENCES, extraction.getReferences(), rows);
+        writeCategory(extraction, "entities", ENTITIES, extraction.getEntities(), rows);
+
+        recordIngest(extraction.getId(), rows, System.nanoTime() - start);
+        return rows;
+    }
+
+    /**
+     * Insert just the extraction row, assigning its ID and audit timestamps
+     */
+    void insertExtraction(PaperExtraction extraction) {
+        Instant now = Instant.now();
+        if (extraction.getId() == null) {
+            extraction.setId(UUID.randomUUID());
+        }
+        extraction.setCreatedAt(now);
+        extraction.setUpdatedAt(now);
+        insert(PAPER_EXTRACTIONS, List.of(extraction));
+    }
+
+    /**
+     * Rewrite the extraction row, for metadata that arrived after it was inserted
+     */
+    void updateExtraction(PaperExtraction extraction) {
+        extraction.setUpdatedAt(Instant.now());
+        jdbcTemplate.update(PAPER_EXTRACTIONS.updateSql(), PAPER_EXTRACTIONS.updateArgs(extraction));
+    }
+
+    /**
+     * Assign IDs to rows that have none and insert them in batches
+     *
+     * @return Number of rows inserted
+     */
+    <T> int insertBatch(Table<T> table, List<T> items) {
+        items.forEach(item -> assignId(item, table));
+        return insert(table, items);
+    }
+
+    /**
+     * Run {@code work} under a savepoint that is rolled back if it throws
+     */
+    void inSavepoint(Runnable work) {
+        savepointTemplate.executeWithoutResult(status -> work.run());
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Record the ingest metrics for one paper
+     */
+    void recordIngest(UUID extractionId, Map<String, Integer> rows, long elapsedNanos) {
+        int totalRows = rows.values().stream().mapToInt(Integer::intValue).sum();
+        ingestTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        throughput.record(totalRows / Math.max(elapsedNanos / 1e9, 1e-6));
+        rows.forEach((table, count) -> Counter.builder(INGEST_ROWS)
+                .tag("table", table)
+                .register(meterRegistry)
+                .increment(count));
+
+        log.info(
+                "Inserted {} extraction rows for extraction {} in {} ms: {}",
+                totalRows,
+                extractionId,
+                elapsedNanos / 1_000_000,
+                rows);
+    }
+
+    private <T> void writeCategory(
+            PaperExtraction extraction, String category, Table<T> table, List<T> items, Map<String, Integer> rows) {
+        writeCategory(extraction, category, items, rows, inserted -> inserted.put(table.name(), insert(table, items)));
+    }
+
+    /**
+     * Run one category's inserts under a savepoint. On failure the category is rolled back
+     * and its items are removed from the graph.
+     */
+    private void writeCategory(
+            PaperExtraction extraction,
+            String category,
+            List<?> items,
+            Map<String, Integer> rows,
+            Consumer<Map<String, Integer>> insert) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> inserted = new LinkedHashMap<>();
+        try {
+            savepointTemplate.executeWithoutResult(status -> insert.accept(inserted));
+            rows.putAll(inserted);
+        } catch (Exception e) {
+            log.error("Failed to insert {} for extraction {}: {}", category, extraction.getId(), e.getMessage(), e);
+            items.clear();
+        }
+    }
+
+    private <T> int insert(Table<T> table, List<T> items) {
+        if (items.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> batchArgs = new ArrayList<>(Math.min(items.size(), batchSize));
+        for (T item : items) {
+            batchArgs.add(table.row().apply(item));
+            if (batchArgs.size() == batchSize) {
+                jdbcTemplate.batchUpdate(table.insertSql(), batchArgs);
+                batchArgs.clear();
+            }
+        }
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(table.insertSql(), batchArgs);
+        }
+        return items.size();
+    }
+
+    /**
+     * Give every row its ID and audit timestamps before insert, as Hibernate would on persist
+     */
+    private static void assignIds(PaperExtraction extraction) {
+        Instant now = Instant.now();
+        assignId(extraction, PAPER_EXTRACTIONS);
+        extraction.setCreatedAt(now);
+        extraction.setUpdatedAt(now);
+        for (ExtractedSection section : extraction.getSections()) {
+            assignId(section, SECTIONS);
+            section.getParagraphs().forEach(paragraph -> assignId(paragraph, PARAGRAPHS));
+        }
+        extraction.getFigures().forEach(figure -> assignId(figure, FIGURES));
+        extraction.getTables().forEach(table -> assignId(table, TABLES));
+        extraction.getEquations().forEach(equation -> assignId(equation, EQUATIONS));
+        extraction.getCodeBlocks().forEach(codeBlock -> assignId(codeBlock, CODE_BLOCKS));
+        extraction.getReferences().forEach(reference -> assignId(reference, REFERENCES));
+        extraction.getEntities().forEach(entity -> assignId(entity, ENTITIES));
+    }
+
+    private static <T> void assignId(T item, Table<T> table) {
+        if (table.id().apply(item) == null) {
+            table.idSetter().accept(item, UUID.randomUUID());
+        }
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+
+    /**
+     * Insert statement for one table and how to turn an entity into its parameters
+     */
+    record Table<T>(
+            String name,
+            List<String> columns,
+            Function<T, Object[]> row,
+            Function<T, UUID> id,
+            BiConsumer<T, UUID> idSetter) {
+
+        String insertSql() {
+            return "INSERT INTO " + name + " (" + String.join(", ", columns) + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        }
+
+        /**
+         * Update of every column except the ID, which is bound last
+         */
+        String updateSql() {
+            return "UPDATE " + name + " SET " + String.join(" = ?, ", columns.subList(1, columns.size()))
+                    + " = ? WHERE id = ?";
+        }
+
+        Object[] updateArgs(T item) {
+            Object[] values = row.apply(item);
+            Object[] args = new Object[values.length];
+            System.arraycopy(values, 1, args, 0, values.length - 1);
+            args[values.length - 1] = values[0];
+            return args;
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package org.solace.scholar_ai.project_service.service.extraction.persistence;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.solace.scholar_ai.project_service.dto.event.extraction.ExtractionCompletedEvent;
 import org.solace.scholar_ai.project_service.model.extraction.*;
 import org.solace.scholar_ai.project_service.model.paper.Paper;
-import org.solace.scholar_ai.project_service.repository.extraction.PaperExtractionRepository;
+import org.solace.scholar_ai.project_service.service.extraction.index.ParagraphTermVectorService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,8 +31,19 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class ExtractionPersistenceService {
 
-    private final PaperExtractionRepository paperExtractionRepository;
+    private final ExtractionBulkWriter extractionBulkWriter;
     private final ObjectMapper objectMapper;
+    private final ParagraphTermVectorService paragraphTermVectorService;
+
+    /**
+     * Results at least this many characters long are ingested in streaming mode
+     */
+    @Setter(AccessLevel.PACKAGE)
+    @Value("${scholarai.extraction.ingest.streaming-threshold:1000000}")
+    private int streamingThreshold = 1_000_000;
+
+    private static final Set<String> STREAMED_FIELDS =
+            Set.of("sections", "figures", "tables", "equations", "code_blocks", "references", "entities");
 
     /**
      * Persist extraction results to database
@@ -31,6 +53,10 @@ public class ExtractionPersistenceService {
      */
     @Transactional
     public void persistExtractionResult(Paper paper, ExtractionCompletedEvent event) {
+        if (event.extractionResult().length() >= streamingThreshold) {
+            persistExtractionResultStreaming(paper, event);
+            return;
+        }
         try {
             log.info("Persisting extraction results for paper: {}", paper.getId());
 
@@ -42,10 +68,6 @@ public class ExtractionPersistenceService {
             PaperExtraction paperExtraction = createPaperExtraction(paper, event, resultJson);
             log.info("Created PaperExtraction entity for paper: {}", paper.getId());
 
-            // Save the main extraction entity
-            paperExtraction = paperExtractionRepository.save(paperExtraction);
-            log.info("Saved PaperExtraction entity with ID: {}", paperExtraction.getId());
-
             // Process and save all extracted content with individual error handling
             try {
                 log.info("Starting to process sections for paper: {}", paper.getId());
@@ -91,9 +113,9 @@ public class ExtractionPersistenceService {
                 log.error("Failed to process entities for paper {}: {}", paper.getId(), e.getMessage());
             }
 
-            // Save the final entity with all relationships
-            log.info("Saving final PaperExtraction with all relationships for paper: {}", paper.getId());
-            paperExtraction = paperExtractionRepository.save(paperExtraction);
+            // Insert the whole graph with batched JDBC inserts; categories that fail are dropped
+            log.info("Bulk inserting PaperExtraction with all relationships for paper: {}", paper.getId());
+            extractionBulkWriter.write(paperExtraction);
 
             // Log final counts
             int totalSections = paperExtraction.getSections().size();
@@ -106,6 +128,17 @@ public class ExtractionPersistenceService {
                     totalSections,
                     totalParagraphs);
 
+            // Precompute paragraph term vectors so lexical matching can skip tokenization. They
+            // go in under their own savepoint, so a failure leaves the rest of the graph to commit
+            try {
+                List<ParagraphTermVector> vectors = paragraphTermVectorService.buildVectors(paperExtraction);
+                extractionBulkWriter.inSavepoint(
+                        () -> extractionBulkWriter.insertBatch(ExtractionBulkWriter.TERM_VECTORS, vectors));
+                log.info("Indexed {} paragraph term vectors for paper {}", vectors.size(), paper.getId());
+            } catch (Exception e) {
+                log.error("Failed to index paragraph term vectors for paper {}: {}", paper.getId(), e.getMessage());
+            }
+
             log.info("Successfully persisted extraction results for paper: {}", paper.getId());
 
         } catch (Exception e) {
@@ -114,15 +147,266 @@ public class ExtractionPersistenceService {
         }
     }
 
+    /**
+     * Streaming ingest for large results. The JSON is walked token by token and each content
+     * array is read one element at a time and inserted in batches, so neither a tree of the
+     * whole document nor the whole entity graph is ever held in memory. Each content category
+     * still runs under its own savepoint, as in {@link ExtractionBulkWriter#write}.
+     */
+    private void persistExtractionResultStreaming(Paper paper, ExtractionCompletedEvent event) {
+        log.info(
+                "Persisting extraction results for paper {} in streaming mode ({} chars)",
+                paper.getId(),
+                event.extractionResult().length());
+        long start = System.nanoTime();
+
+        PaperExtraction extraction = PaperExtraction.builder()
+                .paper(paper)
+                .processingTime(event.processingTime())
+                .extractionCoverage(event.extractionCoverage())
+                .build();
+        ObjectNode header = objectMapper.createObjectNode();
+        Map<String, Integer> rows = new LinkedHashMap<>();
+        int headerFieldsInserted = -1;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(event.extractionResult())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Extraction result is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value != JsonToken.START_ARRAY || !STREAMED_FIELDS.contains(field)) {
+                    header.set(field, parser.readValueAsTree());
+                    continue;
+                }
+
+                // Children reference the extraction row, so insert it before the first batch
+                if (headerFieldsInserted < 0) {
+                    applyExtractionMetadata(extraction, header);
+                    extractionBulkWriter.insertExtraction(extraction);
+                    rows.put(ExtractionBulkWriter.PAPER_EXTRACTIONS.name(), 1);
+                    headerFieldsInserted = header.size();
+                }
+                streamContentArray(parser, extraction, field, rows);
+            }
+
+            applyExtractionMetadata(extraction, header);
+            if (headerFieldsInserted < 0) {
+                extractionBulkWriter.insertExtraction(extraction);
+                rows.put(ExtractionBulkWriter.PAPER_EXTRACTIONS.name(), 1);
+            } else if (header.size() > headerFieldsInserted) {
+                extractionBulkWriter.updateExtraction(extraction);
+            }
+        } catch (Exception e) {
+            log.error("Failed to persist extraction results for paper {}: {}", paper.getId(), e.getMessage(), e);
+            throw new RuntimeException("Failed to persist extraction results", e);
+        }
+
+        extractionBulkWriter.recordIngest(extraction.getId(), rows, System.nanoTime() - start);
+        log.info(
+                "Final counts for paper {}: {} sections, {} paragraphs",
+                paper.getId(),
+                rows.getOrDefault(ExtractionBulkWriter.SECTIONS.name(), 0),
+                rows.getOrDefault(ExtractionBulkWriter.PARAGRAPHS.name(), 0));
+        log.info("Successfully persisted extraction results for paper: {}", paper.getId());
+    }
+
+    private void streamContentArray(
+            JsonParser parser, PaperExtraction extraction, String field, Map<String, Integer> rows)
+            throws IOException {
+        switch (field) {
+            case "sections" -> streamCategory(
+                    parser,
+                    extraction,
+                    field,
+                    (node, index) -> createSectionWithParagraphs(extraction, node, index),
+                    section -> 1 + section.getParagraphs().size(),
+                    sections -> insertSectionBatch(extraction, sections),
+                    rows);
+            case "figures" -> streamCategory(
+                    parser,
+                    extraction,
+                    field,
+                    (node, index) -> createExtractedFigure(extraction, node, index),
+                    ExtractionBulkWriter.FIGURES,
+                    rows);
+            case "tables" -> streamCategory(
+                    parser,
+                    extraction,
+                    field,
+                    (node, index) -> createExtractedTable(extraction, node, index),
+                    ExtractionBulkWriter.TABLES,
+                    rows);
+            case "equations" -> streamCategory(
+                    parser,
+                    extraction,
+                    field,
+                    (node, index) -> createExtractedEquation(extraction, node, index),
+                    ExtractionBulkWriter.EQUATIONS,
+                    rows);
+            case "code_blocks" -> streamCategory(
+                    parser,
+                    extraction,
+                    field,
+                    (node, index) -> createExtractedCodeBlock(extraction, node, index),
+                    ExtractionBulkWriter.CODE_BLOCKS,
+                    rows);
+            case "references" -> streamCategory(
+                    parser,
+                    extraction,
+                    field,
+                    (node, index) -> createExtractedReference(extraction, node, index),
+                    ExtractionBulkWriter.REFERENCES,
+                    rows);
+            case "entities" -> streamCategory(
+                    parser,
+                    extraction,
+                    field,
+                    (node, index) -> createExtractedEntity(extraction, node, index),
+                    ExtractionBulkWriter.ENTITIES,
+                    rows);
+            default -> parser.skipChildren();
+        }
+    }
+
+    private <T> void streamCategory(
+            JsonParser parser,
+            PaperExtraction extraction,
+            String category,
+            ElementMapper<T> mapper,
+            ExtractionBulkWriter.Table<T> table,
+            Map<String, Integer> rows)
+            throws IOException {
+        streamCategory(
+                parser,
+                extraction,
+                category,
+                mapper,
+                item -> 1,
+                batch -> Map.of(table.name(), extractionBulkWriter.insertBatch(table, batch)),
+                rows);
+    }
+
+    /**
+     * Read one content array element by element, inserting a batch whenever the weight of
+     * the pending elements reaches the writer's batch size. The whole array runs under one
+     * savepoint: if any batch fails the category is rolled back and the rest of the array
+     * is skipped. Malformed JSON still fails the whole ingest.
+     */
+    private <T> void streamCategory(
+            JsonParser parser,
+            PaperExtraction extraction,
+            String category,
+            ElementMapper<T> mapper,
+            ToIntFunction<T> weight,
+            Function<List<T>, Map<String, Integer>> insertBatch,
+            Map<String, Integer> rows)
+            throws IOException {
+        Map<String, Integer> inserted = new LinkedHashMap<>();
+        boolean[] arrayEnded = {false};
+        try {
+            extractionBulkWriter.inSavepoint(() -> {
+                List<T> batch = new ArrayList<>();
+                int pendingWeight = 0;
+                int orderIndex = 0;
+                try {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        T item = mapper.map(parser.readValueAsTree(), orderIndex++);
+                        batch.add(item);
+                        pendingWeight += weight.applyAsInt(item);
+                        if (pendingWeight >= extractionBulkWriter.getBatchSize()) {
+                            mergeCounts(inserted, insertBatch.apply(batch));
+                            batch.clear();
+                            pendingWeight = 0;
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                arrayEnded[0] = true;
+                if (!batch.isEmpty()) {
+                    mergeCounts(inserted, insertBatch.apply(batch));
+                }
+            });
+            mergeCounts(rows, inserted);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (Exception e) {
+            log.error(
+                    "Failed to process {} for paper {}: {}",
+                    category,
+                    extraction.getPaper().getId(),
+                    e.getMessage());
+            if (!arrayEnded[0]) {
+                skipRestOfArray(parser);
+            }
+        }
+    }
+
+    private Map<String, Integer> insertSectionBatch(PaperExtraction extraction, List<ExtractedSection> sections) {
+        List<ExtractedParagraph> paragraphs = sections.stream()
+                .flatMap(section -> section.getParagraphs().stream())
+                .toList();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put(
+                ExtractionBulkWriter.SECTIONS.name(),
+                extractionBulkWriter.insertBatch(ExtractionBulkWriter.SECTIONS, sections));
+        counts.put(
+                ExtractionBulkWriter.PARAGRAPHS.name(),
+                extractionBulkWriter.insertBatch(ExtractionBulkWriter.PARAGRAPHS, paragraphs));
+
+        // Term vectors are best effort, as in the tree path
+        try {
+            List<ParagraphTermVector> vectors = paragraphTermVectorService.buildVectors(extraction.getId(), paragraphs);
+            extractionBulkWriter.inSavepoint(
+                    () -> extractionBulkWriter.insertBatch(ExtractionBulkWriter.TERM_VECTORS, vectors));
+            counts.put(ExtractionBulkWriter.TERM_VECTORS.name(), vectors.size());
+        } catch (Exception e) {
+            log.error(
+                    "Failed to index paragraph term vectors for extraction {}: {}", extraction.getId(), e.getMessage());
+        }
+        return counts;
+    }
+
+    private static void mergeCounts(Map<String, Integer> into, Map<String, Integer> counts) {
+        counts.forEach((table, count) -> into.merge(table, count, Integer::sum));
+    }
+
+    /**
+     * Skip to the end of the content array the parser is currently inside
+     */
+    private static void skipRestOfArray(JsonParser parser) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ElementMapper<T> {
+        T map(JsonNode node, int orderIndex);
+    }
+
     private PaperExtraction createPaperExtraction(Paper paper, ExtractionCompletedEvent event, JsonNode resultJson) {
         PaperExtraction extraction = PaperExtraction.builder()
                 .paper(paper)
-                .extractionId(getTextValue(resultJson, "id"))
-                .pdfHash(getTextValue(resultJson, "pdf_hash"))
-                .extractionTimestamp(parseTimestamp(getTextValue(resultJson, "extraction_timestamp")))
                 .processingTime(event.processingTime())
                 .extractionCoverage(event.extractionCoverage())
                 .build();
+        applyExtractionMetadata(extraction, resultJson);
+        return extraction;
+    }
+
+    /**
+     * Copy the top-level, non-content fields of an extraction result onto the entity
+     */
+    private void applyExtractionMetadata(PaperExtraction extraction, JsonNode resultJson) {
+        extraction.setExtractionId(getTextValue(resultJson, "id"));
+        extraction.setPdfHash(getTextValue(resultJson, "pdf_hash"));
+        extraction.setExtractionTimestamp(parseTimestamp(getTextValue(resultJson, "extraction_timestamp")));
 
         // Extract metadata
         JsonNode metadata = resultJson.get("metadata");
@@ -170,8 +454,6 @@ public class ExtractionPersistenceService {
             }
             extraction.setWarnings(warnings.toString());
         }
-
-        return extraction;
     }
 
     private void processExtractedSections(PaperExtraction paperExtraction, JsonNode sectionsNode) {
@@ -179,19 +461,24 @@ public class ExtractionPersistenceService {
 
         int orderIndex = 0;
         for (JsonNode sectionNode : sectionsNode) {
-            ExtractedSection section = createExtractedSection(paperExtraction, sectionNode, orderIndex++);
-            paperExtraction.addSection(section);
-
-            // Process paragraphs
-            JsonNode paragraphsNode = sectionNode.get("paragraphs");
-            if (paragraphsNode != null && paragraphsNode.isArray()) {
-                int paragraphIndex = 0;
-                for (JsonNode paragraphNode : paragraphsNode) {
-                    ExtractedParagraph paragraph = createExtractedParagraph(section, paragraphNode, paragraphIndex++);
-                    section.addParagraph(paragraph);
-                }
+            paperExtraction.addSection(createSectionWithParagraphs(paperExtraction, sectionNode, orderIndex++));
+        }
+    }
+
+    private ExtractedSection createSectionWithParagraphs(
+            PaperExtraction paperExtraction, JsonNode sectionNode, int orderIndex) {
+        ExtractedSection section = createExtractedSection(paperExtraction, sectionNode, orderIndex);
+
+        // Process paragraphs
+        JsonNode paragraphsNode = sectionNode.get("paragraphs");
+        if (paragraphsNode != null && paragraphsNode.isArray()) {
+            int paragraphIndex = 0;
+            for (JsonNode paragraphNode : paragraphsNode) {
+                ExtractedParagraph paragraph = createExtractedParagraph(section, paragraphNode, paragraphIndex++);
+                section.addParagraph(paragraph);
             }
         }
+        return section;
     }
 
     private ExtractedSection createExtractedSection(
@@ -0,0 +1,188 @@
+package org.solace.scholar_ai.project_service.service.extraction.snapshot;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only copy of a paper's extraction, flattened out of the entity graph. Only the
+ * content categories it was loaded with are filled; the others are empty. Sections are
+ * listed flat in extraction order, each with its own paragraphs, and can be walked as a
+ * tree through their parent IDs.
+ */
+public record ExtractionSnapshot(
+        UUID id,
+        UUID paperId,
+        String title,
+        String abstractText,
+        String language,
+        Integer pageCount,
+        Set<Content> contents,
+        List<Section> sections,
+        List<Figure> figures,
+        List<Table> tables,
+        List<Equation> equations,
+        List<CodeBlock> codeBlocks,
+        List<Reference> references,
+        List<Entity> entities) {
+
+    private static final Comparator<Section> SECTION_ORDER =
+            Comparator.comparing(Section::orderIndex, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    public ExtractionSnapshot {
+        contents = Set.copyOf(contents);
+        sections = List.copyOf(sections);
+        figures = List.copyOf(figures);
+        tables = List.copyOf(tables);
+        equations = List.copyOf(equations);
+        codeBlocks = List.copyOf(codeBlocks);
+        references = List.copyOf(references);
+        entities = List.copyOf(entities);
+    }
+
+    /**
+     * Characters of text held by the snapshot, which is about its size in bytes since
+     * extracted text is mostly Latin-1 and stored a byte per character
+     */
+    public long textBytes() {
+        long bytes = length(title) + length(abstractText);
+        for (Section section : sections) {
+            bytes += length(section.title());
+            for (Paragraph paragraph : section.paragraphs()) {
+                bytes += length(paragraph.text());
+            }
+        }
+        for (Figure figure : figures) {
+            bytes += length(figure.caption()) + length(figure.ocrText());
+        }
+        for (Table table : tables) {
+            bytes += length(table.caption()) + length(table.headers()) + length(table.rows()) + length(table.html());
+        }
+        for (Equation equation : equations) {
+            bytes += length(equation.latex());
+        }
+        for (CodeBlock codeBlock : codeBlocks) {
+            bytes += length(codeBlock.code());
+        }
+        for (Reference reference : references) {
+            bytes += length(reference.title()) + length(reference.authors()) + length(reference.venue());
+        }
+        for (Entity entity : entities) {
+            bytes += length(entity.name()) + length(entity.context());
+        }
+        return bytes;
+    }
+
+    private static int length(String text) {
+        return text == null ? 0 : text.length();
+    }
+
+    /**
+     * Sections without a parent, in extraction order
+     */
+    public List<Section> topLevelSections() {
+        return sections.stream()
+                .filter(section -> section.parentId() == null)
+                .sorted(SECTION_ORDER)
+                .toList();
+    }
+
+    /**
+     * Paragraphs of a section followed by those of its subsections, depth first
+     */
+    public List<Paragraph> subtreeParagraphs(Section section) {
+        Map<UUID, List<Section>> children = sections.stream()
+                .filter(child -> child.parentId() != null)
+                .collect(Collectors.groupingBy(Section::parentId));
+        List<Paragraph> paragraphs = new ArrayList<>();
+        collectParagraphs(section, children, paragraphs);
+        return paragraphs;
+    }
+
+    private static void collectParagraphs(
+            Section section, Map<UUID, List<Section>> children, List<Paragraph> paragraphs) {
+        paragraphs.addAll(section.paragraphs());
+        children.getOrDefault(section.id(), List.of()).stream()
+                .sorted(SECTION_ORDER)
+                .forEach(child -> collectParagraphs(child, children, paragraphs));
+    }
+
+    /**
+     * Content categories that can be loaded into a snapshot besides its header
+     */
+    public enum Content {
+        SECTIONS,
+        FIGURES,
+        TABLES,
+        EQUATIONS,
+        CODE_BLOCKS,
+        REFERENCES,
+        ENTITIES
+    }
+
+    public record Section(
+            UUID id,
+            UUID parentId,
+            String sectionId,
+            String label,
+            String title,
+            String type,
+            Integer level,
+            Integer pageStart,
+            Integer pageEnd,
+            Integer orderIndex,
+            List<Paragraph> paragraphs) {
+
+        public Section {
+            paragraphs = List.copyOf(paragraphs);
+        }
+
+        /**
+         * Text of the section's own paragraphs, or its title when it has none
+         */
+        public String text() {
+            if (paragraphs.isEmpty()) {
+                return title;
+            }
+            return paragraphs.stream()
+                    .map(Paragraph::text)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.joining(" "));
+        }
+    }
+
+    public record Paragraph(UUID id, String text, Integer page, Integer orderIndex) {}
+
+    public record Figure(UUID id, String figureId, String label, String caption, Integer page, String ocrText) {}
+
+    public record Table(
+            UUID id,
+            String tableId,
+            String label,
+            String caption,
+            Integer page,
+            String headers,
+            String rows,
+            String html) {}
+
+    public record Equation(UUID id, String equationId, String label, String latex, Integer page) {}
+
+    public record CodeBlock(UUID id, String codeId, String language, String code, Integer page) {}
+
+    public record Reference(
+            UUID id,
+            String referenceId,
+            String title,
+            String authors,
+            Integer year,
+            String venue,
+            String doi,
+            String url) {}
+
+    public record Entity(UUID id, String entityId, String entityType, String name, String context, Integer page) {}
+}
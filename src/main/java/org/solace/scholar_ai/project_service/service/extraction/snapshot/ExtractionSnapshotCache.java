@@ -0,0 +1,184 @@
+package org.solace.scholar_ai.project_service.service.extraction.snapshot;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot.Content;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Extraction snapshots of recently chatted papers, so follow-up chat turns read a paper's
+ * content from memory. Snapshots are held by paper, least recently used first, and evicted
+ * once their text adds up to more than the configured size. A cached snapshot that lacks a
+ * content category a caller asks for is reloaded with both, so a paper's entry only grows.
+ *
+ * <p>An extraction does not change once it is stored, so entries are only dropped when a new
+ * extraction of the paper is persisted. Published as {@code cache.*} metrics tagged
+ * {@code cache=extraction-snapshots}, with the hit ratio and resident bytes as gauges.
+ */
+@Slf4j
+@Component
+public class ExtractionSnapshotCache {
+
+    static final String CACHE_NAME = "extraction-snapshots";
+
+    private final ExtractionSnapshotLoader loader;
+    private final long maxBytes;
+
+    // Access order, so the eldest entry is the least recently used; all guarded by this
+    private final LinkedHashMap<UUID, ExtractionSnapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+    // Bumped by every invalidation, so a load that raced one is not cached
+    private long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExtractionSnapshotCache(
+            ExtractionSnapshotLoader loader,
+            MeterRegistry meterRegistry,
+            @Value("${scholarai.extraction.snapshot-cache.max-size:64MB}") DataSize maxSize) {
+        this.loader = loader;
+        this.maxBytes = maxSize.toBytes();
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .description("Snapshot lookups answered from memory")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .description("Snapshot lookups that read the database")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tags("cache", CACHE_NAME)
+                .description("Snapshots evicted to stay within the cache size")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, ExtractionSnapshotCache::size)
+                .tags("cache", CACHE_NAME)
+                .description("Papers with a cached snapshot")
+                .register(meterRegistry);
+        Gauge.builder("cache.resident", this, ExtractionSnapshotCache::residentBytes)
+                .tags("cache", CACHE_NAME)
+                .description("Text held by cached snapshots")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, ExtractionSnapshotCache::hitRatio)
+                .tags("cache", CACHE_NAME)
+                .description("Share of snapshot lookups answered from memory")
+                .register(meterRegistry);
+        log.info("Extraction snapshot cache holds up to {} of text", maxSize);
+    }
+
+    /**
+     * Get the extraction of a paper with at least the given content categories, from memory
+     * when a cached snapshot has them all
+     *
+     * @param paperId The paper ID
+     * @param contents The content categories the caller reads
+     * @return The snapshot, if the paper has an extraction
+     */
+    public Optional<ExtractionSnapshot> get(UUID paperId, Set<Content> contents) {
+        ExtractionSnapshot cached;
+        long generation;
+        synchronized (this) {
+            cached = snapshots.get(paperId);
+            if (cached != null && cached.contents().containsAll(contents)) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+            generation = invalidations;
+        }
+        misses.increment();
+
+        Set<Content> toLoad = EnumSet.noneOf(Content.class);
+        toLoad.addAll(contents);
+        if (cached != null) {
+            toLoad.addAll(cached.contents());
+        }
+        Optional<ExtractionSnapshot> loaded = loader.loadByPaperId(paperId, toLoad);
+        loaded.ifPresent(snapshot -> put(paperId, snapshot, generation));
+        return loaded;
+    }
+
+    /**
+     * Drop the cached snapshot of a paper whose extraction is being replaced. Inside a
+     * transaction it is dropped again once the transaction ends, so a chat turn that reads
+     * the old extraction before the new one is committed cannot cache it.
+     *
+     * @param paperId The paper ID
+     */
+    public void invalidate(UUID paperId) {
+        remove(paperId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(paperId);
+                }
+            });
+        }
+    }
+
+    private synchronized void put(UUID paperId, ExtractionSnapshot snapshot, long generation) {
+        if (generation != invalidations) {
+            return;
+        }
+        long bytes = snapshot.textBytes();
+        if (bytes > maxBytes) {
+            log.debug("Not caching extraction snapshot of paper {}: {} bytes of text", paperId, bytes);
+            return;
+        }
+        ExtractionSnapshot previous = snapshots.put(paperId, snapshot);
+        if (previous != null) {
+            residentBytes -= previous.textBytes();
+        }
+        residentBytes += bytes;
+
+        Iterator<Map.Entry<UUID, ExtractionSnapshot>> eldest = snapshots.entrySet().iterator();
+        while (residentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<UUID, ExtractionSnapshot> entry = eldest.next();
+            if (entry.getKey().equals(paperId)) {
+                continue;
+            }
+            residentBytes -= entry.getValue().textBytes();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private synchronized void remove(UUID paperId) {
+        invalidations++;
+        ExtractionSnapshot removed = snapshots.remove(paperId);
+        if (removed != null) {
+            residentBytes -= removed.textBytes();
+            log.debug("Invalidated cached extraction snapshot {} of paper {}", removed.id(), paperId);
+        }
+    }
+
+    synchronized int size() {
+        return snapshots.size();
+    }
+
+    synchronized long residentBytes() {
+        return residentBytes;
+    }
+
+    double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,166 @@
+package org.solace.scholar_ai.project_service.service.extraction.snapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.repository.extraction.ExtractionSnapshotRepository;
+import org.solace.scholar_ai.project_service.repository.extraction.ExtractionSnapshotRepository.HeaderRow;
+import org.solace.scholar_ai.project_service.repository.extraction.ExtractionSnapshotRepository.ParagraphRow;
+import org.solace.scholar_ai.project_service.repository.extraction.ExtractionSnapshotRepository.SectionRow;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot.Content;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Loads read-only snapshots of a paper's extraction. A snapshot takes one query for the
+ * header, two for sections and their paragraphs and one for every other content category
+ * asked for, however many sections, paragraphs or figures the paper has. Nothing is left
+ * in the persistence context, so snapshots can be used after the transaction ends.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExtractionSnapshotLoader {
+
+    private final ExtractionSnapshotRepository snapshotRepository;
+
+    /**
+     * Load the extraction of a paper with the given content categories
+     *
+     * @param paperId The paper ID
+     * @param contents The content categories to load; the others are left empty
+     * @return The snapshot, if the paper has an extraction
+     */
+    @Transactional(readOnly = true)
+    public Optional<ExtractionSnapshot> loadByPaperId(UUID paperId, Set<Content> contents) {
+        return snapshotRepository.findHeaderByPaperId(paperId).map(header -> load(header, contents));
+    }
+
+    private ExtractionSnapshot load(HeaderRow header, Set<Content> contents) {
+        UUID extractionId = header.getId();
+        List<ExtractionSnapshot.Section> sections =
+                contents.contains(Content.SECTIONS) ? loadSections(extractionId) : List.of();
+
+        List<ExtractionSnapshot.Figure> figures = !contents.contains(Content.FIGURES)
+                ? List.of()
+                : snapshotRepository.findFigures(extractionId).stream()
+                        .map(row -> new ExtractionSnapshot.Figure(
+                                row.getId(),
+                                row.getFigureId(),
+                                row.getLabel(),
+                                row.getCaption(),
+                                row.getPage(),
+                                row.getOcrText()))
+                        .toList();
+
+        List<ExtractionSnapshot.Table> tables = !contents.contains(Content.TABLES)
+                ? List.of()
+                : snapshotRepository.findTables(extractionId).stream()
+                        .map(row -> new ExtractionSnapshot.Table(
+                                row.getId(),
+                                row.getTableId(),
+                                row.getLabel(),
+                                row.getCaption(),
+                                row.getPage(),
+                                row.getHeaders(),
+                                row.getTableRows(),
+                                row.getHtml()))
+                        .toList();
+
+        List<ExtractionSnapshot.Equation> equations = !contents.contains(Content.EQUATIONS)
+                ? List.of()
+                : snapshotRepository.findEquations(extractionId).stream()
+                        .map(row -> new ExtractionSnapshot.Equation(
+                                row.getId(), row.getEquationId(), row.getLabel(), row.getLatex(), row.getPage()))
+                        .toList();
+
+        List<ExtractionSnapshot.CodeBlock> codeBlocks = !contents.contains(Content.CODE_BLOCKS)
+                ? List.of()
+                : snapshotRepository.findCodeBlocks(extractionId).stream()
+                        .map(row -> new ExtractionSnapshot.CodeBlock(
+                                row.getId(), row.getCodeId(), row.getLanguage(), row.getCode(), row.getPage()))
+                        .toList();
+
+        List<ExtractionSnapshot.Reference> references = !contents.contains(Content.REFERENCES)
+                ? List.of()
+                : snapshotRepository.findReferences(extractionId).stream()
+                        .map(row -> new ExtractionSnapshot.Reference(
+                                row.getId(),
+                                row.getReferenceId(),
+                                row.getTitle(),
+                                row.getAuthors(),
+                                row.getPublicationYear(),
+                                row.getVenue(),
+                                row.getDoi(),
+                                row.getUrl()))
+                        .toList();
+
+        List<ExtractionSnapshot.Entity> entities = !contents.contains(Content.ENTITIES)
+                ? List.of()
+                : snapshotRepository.findEntities(extractionId).stream()
+                        .map(row -> new ExtractionSnapshot.Entity(
+                                row.getId(),
+                                row.getEntityId(),
+                                row.getEntityType(),
+                                row.getName(),
+                                row.getContext(),
+                                row.getPage()))
+                        .toList();
+
+        log.debug(
+                "Loaded extraction snapshot {} of paper {} with {} ({} sections)",
+                extractionId,
+                header.getPaperId(),
+                contents,
+                sections.size());
+        return new ExtractionSnapshot(
+                extractionId,
+                header.getPaperId(),
+                header.getTitle(),
+                header.getAbstractText(),
+                header.getLanguage(),
+                header.getPageCount(),
+                contents,
+                sections,
+                figures,
+                tables,
+                equations,
+                codeBlocks,
+                references,
+                entities);
+    }
+
+    private List<ExtractionSnapshot.Section> loadSections(UUID extractionId) {
+        Map<UUID, List<ExtractionSnapshot.Paragraph>> paragraphsBySection = new HashMap<>();
+        for (ParagraphRow row : snapshotRepository.findParagraphs(extractionId)) {
+            ExtractionSnapshot.Paragraph paragraph =
+                    new ExtractionSnapshot.Paragraph(row.getId(), row.getText(), row.getPage(), row.getOrderIndex());
+            paragraphsBySection
+                    .computeIfAbsent(row.getSectionId(), id -> new ArrayList<>())
+                    .add(paragraph);
+        }
+
+        List<ExtractionSnapshot.Section> sections = new ArrayList<>();
+        for (SectionRow row : snapshotRepository.findSections(extractionId)) {
+            sections.add(new ExtractionSnapshot.Section(
+                    row.getId(),
+                    row.getParentId(),
+                    row.getSectionId(),
+                    row.getLabel(),
+                    row.getTitle(),
+                    row.getSectionType(),
+                    row.getLevel(),
+                    row.getPageStart(),
+                    row.getPageEnd(),
+                    row.getOrderIndex(),
+                    paragraphsBySection.getOrDefault(row.getId(), List.of())));
+        }
+        return sections;
+    }
+}
@@ -1,6 +1,7 @@
 package org.solace.scholar_ai.project_service.service.latex;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -171,15 +172,33 @@ public class DocumentService {
         documentRepository.deleteById(documentId);
     }
 
-    public String compileLatex(String latexContent) {
+    /**
+     * Work out whose turn in the compile queue a compilation takes: the project of the document
+     * being compiled when it is known, or else the user compiling
+     *
+     * @param documentId The document being compiled, may be null
+     * @param userId The user compiling, may be null
+     * @return The project or user to queue the compilation behind, null when neither is known
+     */
+    public UUID compileQueueKey(UUID documentId, UUID userId) {
+        if (documentId != null) {
+            Optional<UUID> projectId = documentRepository.findById(documentId).map(Document::getProjectId);
+            if (projectId.isPresent()) {
+                return projectId.get();
+            }
+        }
+        return userId;
+    }
+
+    public String compileLatex(String latexContent, UUID queueKey) {
         try {
             // Use the new professional LaTeX service
-            return professionalLaTeXService.compileLatex(latexContent);
+            return professionalLaTeXService.compileLatex(latexContent, queueKey);
         } catch (Exception e) {
             log.error("Professional LaTeX compilation failed", e);
             // Fallback to old service
             try {
-                return latexCompilationService.compileLatexToHtml(latexContent);
+                return latexCompilationService.compileLatexToHtml(latexContent, queueKey);
             } catch (Exception fallbackException) {
                 log.error("Fallback compilation also failed", fallbackException);
                 return latexCompilationService.compileLatexFallback(latexContent);
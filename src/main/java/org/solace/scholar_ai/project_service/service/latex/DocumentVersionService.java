@@ -1,5 +1,7 @@
 package org.solace.scholar_ai.project_service.service.latex;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -8,7 +10,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.solace.scholar_ai.project_service.dto.latex.DocumentVersionDTO;
 import org.solace.scholar_ai.project_service.model.latex.DocumentVersion;
+import org.solace.scholar_ai.project_service.repository.latex.DocumentRepository;
 import org.solace.scholar_ai.project_service.repository.latex.DocumentVersionRepository;
+import org.solace.scholar_ai.project_service.service.latex.version.TextDelta;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,57 +21,42 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class DocumentVersionService {
 
+    // Versions from one snapshot to the next, so rebuilding a version applies fewer deltas than this
+    private static final int SNAPSHOT_INTERVAL = 20;
+
     private final DocumentVersionRepository documentVersionRepository;
+    private final DocumentRepository documentRepository;
 
     @Transactional
     public DocumentVersionDTO createVersion(UUID documentId, String content, String commitMessage, UUID createdBy) {
-        // Get the next version number
-        Integer nextVersionNumber = getNextVersionNumber(documentId);
-
-        DocumentVersion version = DocumentVersion.builder()
-                .documentId(documentId)
-                .versionNumber(nextVersionNumber)
-                .content(content)
-                .commitMessage(commitMessage)
-                .createdBy(createdBy)
-                .isAutoSave(false)
-                .build();
-
-        DocumentVersion savedVersion = documentVersionRepository.save(version);
-        log.info("Created version {} for document {}", nextVersionNumber, documentId);
+        DocumentVersion savedVersion =
+                documentVersionRepository.save(newVersion(documentId, content, commitMessage, createdBy, false));
+        log.info("Created version {} for document {}", savedVersion.getVersionNumber(), documentId);
 
-        return convertToDTO(savedVersion);
+        return convertToDTO(savedVersion, content);
     }
 
     @Transactional
     public DocumentVersionDTO createAutoSaveVersion(UUID documentId, String content) {
-        // Get the next version number
-        Integer nextVersionNumber = getNextVersionNumber(documentId);
+        DocumentVersion savedVersion =
+                documentVersionRepository.save(newVersion(documentId, content, "Auto-save", null, true));
+        log.info("Created auto-save version {} for document {}", savedVersion.getVersionNumber(), documentId);
 
-        DocumentVersion version = DocumentVersion.builder()
-                .documentId(documentId)
-                .versionNumber(nextVersionNumber)
-                .content(content)
-                .commitMessage("Auto-save")
-                .createdBy(null)
-                .isAutoSave(true)
-                .build();
-
-        DocumentVersion savedVersion = documentVersionRepository.save(version);
-        log.info("Created auto-save version {} for document {}", nextVersionNumber, documentId);
-
-        return convertToDTO(savedVersion);
+        return convertToDTO(savedVersion, content);
     }
 
     public List<DocumentVersionDTO> getVersionHistory(UUID documentId) {
-        List<DocumentVersion> versions = documentVersionRepository.findByDocumentIdOrderByVersionNumberDesc(documentId);
-        return versions.stream().map(this::convertToDTO).collect(Collectors.toList());
+        List<DocumentVersionDTO> versions = replay(documentId);
+        Collections.reverse(versions);
+        return versions;
     }
 
     public List<DocumentVersionDTO> getManualVersions(UUID documentId) {
-        List<DocumentVersion> versions =
-                documentVersionRepository.findByDocumentIdAndIsAutoSaveFalseOrderByVersionNumberDesc(documentId);
-        return versions.stream().map(this::convertToDTO).collect(Collectors.toList());
+        List<DocumentVersionDTO> versions = replay(documentId).stream()
+                .filter(v -> !Boolean.TRUE.equals(v.getIsAutoSave()))
+                .collect(Collectors.toList());
+        Collections.reverse(versions);
+        return versions;
     }
 
     public Optional<DocumentVersionDTO> getVersion(UUID documentId, Integer versionNumber) {
@@ -77,23 +66,20 @@ public class DocumentVersionService {
     }
 
     public Optional<DocumentVersionDTO> getLatestVersion(UUID documentId) {
-        return documentVersionRepository.findByDocumentIdOrderByVersionNumberDesc(documentId).stream()
-                .findFirst()
+        return documentVersionRepository
+                .findFirstByDocumentIdOrderByVersionNumberDesc(documentId)
                 .map(this::convertToDTO);
     }
 
     public Optional<DocumentVersionDTO> getPreviousVersion(UUID documentId, Integer currentVersion) {
-        return documentVersionRepository.findByDocumentIdOrderByVersionNumberDesc(documentId).stream()
-                .filter(v -> v.getVersionNumber() < currentVersion)
-                .findFirst()
+        return documentVersionRepository
+                .findFirstByDocumentIdAndVersionNumberLessThanOrderByVersionNumberDesc(documentId, currentVersion)
                 .map(this::convertToDTO);
     }
 
     public Optional<DocumentVersionDTO> getNextVersion(UUID documentId, Integer currentVersion) {
-        return documentVersionRepository.findByDocumentIdOrderByVersionNumberDesc(documentId).stream()
-                .filter(v -> v.getVersionNumber() > currentVersion)
-                .sorted((v1, v2) -> Integer.compare(v1.getVersionNumber(), v2.getVersionNumber()))
-                .findFirst()
+        return documentVersionRepository
+                .findFirstByDocumentIdAndVersionNumberGreaterThanOrderByVersionNumberAsc(documentId, currentVersion)
                 .map(this::convertToDTO);
     }
 
@@ -101,17 +87,96 @@ public class DocumentVersionService {
         return documentVersionRepository.countByDocumentId(documentId);
     }
 
-    private Integer getNextVersionNumber(UUID documentId) {
-        Optional<Integer> maxVersion = documentVersionRepository.findMaxVersionNumberByDocumentId(documentId);
-        return maxVersion.map(v -> v + 1).orElse(1);
+    /**
+     * Build the next version of a document, as a delta from the latest one unless it is time for
+     * a snapshot or the delta would not be much smaller than the content
+     */
+    private DocumentVersion newVersion(
+            UUID documentId, String content, String commitMessage, UUID createdBy, boolean autoSave) {
+        // Concurrent saves would take the same number and one's delta would be rebuilt from the other
+        documentRepository.findByIdForUpdate(documentId);
+        Optional<DocumentVersion> latest =
+                documentVersionRepository.findFirstByDocumentIdOrderByVersionNumberDesc(documentId);
+        int versionNumber = latest.map(v -> v.getVersionNumber() + 1).orElse(1);
+
+        DocumentVersion version = DocumentVersion.builder()
+                .documentId(documentId)
+                .versionNumber(versionNumber)
+                .content(content)
+                .snapshotVersion(versionNumber)
+                .commitMessage(commitMessage)
+                .createdBy(createdBy)
+                .isAutoSave(autoSave)
+                .build();
+        if (content == null || latest.isEmpty() || versionNumber - snapshotOf(latest.get()) >= SNAPSHOT_INTERVAL) {
+            return version;
+        }
+        String previous = contentOf(latest.get());
+        if (previous == null) {
+            return version;
+        }
+        byte[] delta = TextDelta.encode(previous, content);
+        if (delta.length >= content.length() / 2) {
+            return version;
+        }
+        version.setContent(null);
+        version.setDelta(delta);
+        version.setSnapshotVersion(snapshotOf(latest.get()));
+        return version;
+    }
+
+    // Versions stored before deltas have no snapshot version and are all snapshots
+    private static int snapshotOf(DocumentVersion version) {
+        return version.getDelta() == null ? version.getVersionNumber() : version.getSnapshotVersion();
+    }
+
+    /** Rebuild a version's content from its snapshot and the deltas after it */
+    private String contentOf(DocumentVersion version) {
+        if (version.getDelta() == null) {
+            return version.getContent();
+        }
+        List<DocumentVersion> chain =
+                documentVersionRepository.findByDocumentIdAndVersionNumberBetweenOrderByVersionNumberAsc(
+                        version.getDocumentId(), version.getSnapshotVersion(), version.getVersionNumber());
+        String content = null;
+        for (DocumentVersion link : chain) {
+            content = apply(content, link);
+        }
+        return content;
+    }
+
+    /** All versions of a document, oldest first, rebuilding each from the one before it */
+    private List<DocumentVersionDTO> replay(UUID documentId) {
+        List<DocumentVersionDTO> versions = new ArrayList<>();
+        String content = null;
+        for (DocumentVersion version : documentVersionRepository.findByDocumentIdOrderByVersionNumberAsc(documentId)) {
+            content = apply(content, version);
+            versions.add(convertToDTO(version, content));
+        }
+        return versions;
+    }
+
+    private static String apply(String previous, DocumentVersion version) {
+        if (version.getDelta() == null) {
+            return version.getContent();
+        }
+        if (previous == null) {
+            throw new IllegalStateException("Version " + version.getVersionNumber() + " of document "
+                    + version.getDocumentId() + " has no version to apply its delta to");
+        }
+        return TextDelta.apply(previous, version.getDelta());
     }
 
     private DocumentVersionDTO convertToDTO(DocumentVersion version) {
+        return convertToDTO(version, contentOf(version));
+    }
+
+    private DocumentVersionDTO convertToDTO(DocumentVersion version, String content) {
         return DocumentVersionDTO.builder()
                 .id(version.getId())
                 .documentId(version.getDocumentId())
                 .versionNumber(version.getVersionNumber())
-                .content(version.getContent())
+                .content(content)
                 .commitMessage(version.getCommitMessage())
                 .createdBy(version.getCreatedBy())
                 .createdAt(version.getCreatedAt())
@@ -1,14 +1,25 @@
 package org.solace.scholar_ai.project_service.service.latex;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
-import org.springframework.core.io.ByteArrayResource;
+import lombok.RequiredArgsConstructor;
+import org.solace.scholar_ai.project_service.exception.LatexCompileRejectedException;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompileJob;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompileKey;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompileScheduler;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompiledArtifact;
+import org.solace.scholar_ai.project_service.service.latex.compile.LatexCompileCache;
+import org.solace.scholar_ai.project_service.service.latex.compile.ProcessResult;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -16,55 +27,82 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 @Service
+@RequiredArgsConstructor
 public class LaTeXCompilationService {
 
     private static final String PANDOC_PATH = System.getProperty("pandoc.path", "pandoc");
-    private static final int PROCESS_TIMEOUT = 30; // seconds
+    private static final Duration PROCESS_TIMEOUT = Duration.ofSeconds(30);
+
+    // Version of the package preamble, MathJax header and HTML styling added around pandoc
+    private static final int TEMPLATE_VERSION = 1;
+
+    private static final List<String> HTML_OPTIONS = List.of(
+            "-f",
+            "latex+raw_tex+tex_math_dollars+latex_macros",
+            "-t",
+            "html5",
+            "--standalone",
+            "--mathjax",
+            "--highlight-style=tango",
+            "--table-of-contents",
+            "--number-sections",
+            "--css=https://cdn.jsdelivr.net/npm/katex@0.16.0/dist/katex.min.css");
+
+    private static final List<String> PDF_OPTIONS = List.of(
+            "-f",
+            "latex+raw_tex+tex_math_dollars+latex_macros",
+            "-t",
+            "pdf",
+            "--pdf-engine=xelatex",
+            "--template=eisvogel",
+            "--listings");
+
+    private final LatexCompileCache compileCache;
+    private final CompileScheduler compileScheduler;
 
     /**
      * Enhanced LaTeX to HTML compilation with comprehensive package support
+     *
+     * @param latexContent The LaTeX source
+     * @param queueKey The project, or else the user, compiling, for its turn in the compile queue; may be null
      */
-    public String compileLatexToHtml(String latexContent) {
+    public String compileLatexToHtml(String latexContent, UUID queueKey) {
         try {
+            // Enhance LaTeX content with required packages
+            String enhancedLatex = enhanceLatexContent(latexContent);
+
+            // Serve an unchanged source without running pandoc
+            CompileKey key = CompileKey.of("pandoc-html", TEMPLATE_VERSION, HTML_OPTIONS, enhancedLatex);
+            Optional<CompiledArtifact> cached = compileCache.get(key);
+            if (cached.isPresent()) {
+                return cached.get().asString();
+            }
+
             // Create temporary directory
             String tempDir = System.getProperty("java.io.tmpdir");
             String uniqueId = UUID.randomUUID().toString();
             Path workDir = Paths.get(tempDir, "latex_compile_" + uniqueId);
             Files.createDirectories(workDir);
 
-            // Enhance LaTeX content with required packages
-            String enhancedLatex = enhanceLatexContent(latexContent);
-
             // Write LaTeX content to file
             Path texFile = workDir.resolve("document.tex");
             Files.write(texFile, enhancedLatex.getBytes());
 
             // Try advanced pandoc compilation with enhanced options
             try {
-                ProcessBuilder pb = new ProcessBuilder(
-                        PANDOC_PATH,
-                        texFile.toString(),
-                        "-f",
-                        "latex+raw_tex+tex_math_dollars+latex_macros",
-                        "-t",
-                        "html5",
-                        "--standalone",
-                        "--mathjax",
-                        "--highlight-style=tango",
-                        "--table-of-contents",
-                        "--number-sections",
-                        "--css=https://cdn.jsdelivr.net/npm/katex@0.16.0/dist/katex.min.css",
-                        "--include-in-header=" + createMathJaxHeader(workDir));
-                pb.directory(workDir.toFile());
-                pb.redirectErrorStream(true);
-
-                Process process = pb.start();
-                String output = readProcessOutput(process);
-                boolean finished = process.waitFor(PROCESS_TIMEOUT, TimeUnit.SECONDS);
-
-                if (finished && process.exitValue() == 0) {
+                List<String> command = new ArrayList<>();
+                command.add(PANDOC_PATH);
+                command.add(texFile.toString());
+                command.addAll(HTML_OPTIONS);
+                command.add("--include-in-header=" + createMathJaxHeader(workDir));
+                ProcessResult result = compileScheduler.run(
+                        queueKey, new CompileJob("pandoc-html", command, workDir, PROCESS_TIMEOUT));
+
+                if (result.succeeded()) {
                     cleanupDirectory(workDir);
-                    return enhanceHtmlOutput(output);
+                    String html = enhanceHtmlOutput(result.output());
+                    compileCache.put(key, html.getBytes(StandardCharsets.UTF_8));
+                    return html;
                 }
             } catch (Exception pandocError) {
                 System.out.println("Advanced Pandoc compilation failed, trying fallback: " + pandocError.getMessage());
@@ -221,149 +259,19 @@ public class LaTeXCompilationService {
             // Start HTML document with enhanced styling
             html.append(createEnhancedHtmlHeader());
 
-            String[] lines = latexContent.split("\\n");
+            // Skip preamble before \begin{document}
+            StringBuilder body = new StringBuilder();
             boolean inDocument = false;
-            boolean inMathDisplay = false;
-            boolean inTable = false;
-
-            for (String line : lines) {
-                line = line.trim();
-
-                // Skip preamble before \begin{document}
-                if (line.equals("\\begin{document}")) {
+            for (String line : latexContent.split("\\n")) {
+                if (line.trim().equals("\\begin{document}")) {
                     inDocument = true;
-                    continue;
-                }
-                if (line.equals("\\end{document}")) {
+                } else if (line.trim().equals("\\end{document}")) {
                     break;
-                }
-                if (!inDocument) {
-                    continue;
-                }
-
-                // Handle different LaTeX constructs
-                if (line.startsWith("\\title{")) {
-                    String title = extractBraceContent(line, "\\title{");
-                    html.append("<h1 class='title'>").append(escapeHtml(title)).append("</h1>\n");
-                } else if (line.startsWith("\\author{")) {
-                    String author = extractBraceContent(line, "\\author{");
-                    html.append("<p class='author'>").append(escapeHtml(author)).append("</p>\n");
-                } else if (line.equals("\\maketitle")) {
-                    html.append("<hr class='title-separator'>\n");
-                } else if (line.startsWith("\\section{")) {
-                    String section = extractBraceContent(line, "\\section{");
-                    html.append("<h2>").append(escapeHtml(section)).append("</h2>\n");
-                } else if (line.startsWith("\\subsection{")) {
-                    String subsection = extractBraceContent(line, "\\subsection{");
-                    html.append("<h3>").append(escapeHtml(subsection)).append("</h3>\n");
-                } else if (line.startsWith("\\subsubsection{")) {
-                    String subsubsection = extractBraceContent(line, "\\subsubsection{");
-                    html.append("<h4>").append(escapeHtml(subsubsection)).append("</h4>\n");
-
-                    // Math environments
-                } else if (line.equals("\\begin{equation}")
-                        || line.equals("\\begin{align}")
-                        || line.equals("\\begin{align*}")
-                        || line.equals("\\[")) {
-                    html.append("<div class='math-display'>$$\n");
-                    inMathDisplay = true;
-                } else if (line.equals("\\end{equation}")
-                        || line.equals("\\end{align}")
-                        || line.equals("\\end{align*}")
-                        || line.equals("\\]")) {
-                    html.append("$$</div>\n");
-                    inMathDisplay = false;
-
-                    // Algorithm environments
-                } else if (line.startsWith("\\begin{algorithm")) {
-                    html.append("<div class='algorithm'>\n<div class='algorithm-header'>Algorithm</div>\n");
-                } else if (line.equals("\\end{algorithm}")) {
-                    html.append("</div>\n");
-                } else if (line.startsWith("\\State ")) {
-                    String state = line.substring(7);
-                    html.append("<div class='algorithm-line'>")
-                            .append(processInlineMath(escapeHtml(state)))
-                            .append("</div>\n");
-                } else if (line.startsWith("\\If{")) {
-                    String condition = extractBraceContent(line, "\\If{");
-                    html.append("<div class='algorithm-line'><strong>if</strong> ")
-                            .append(processInlineMath(escapeHtml(condition)))
-                            .append(" <strong>then</strong></div>\n");
-                } else if (line.equals("\\EndIf")) {
-                    html.append("<div class='algorithm-line'><strong>end if</strong></div>\n");
-
-                    // Table environments
-                } else if (line.startsWith("\\begin{table")) {
-                    html.append("<div class='table-container'>\n");
-                    inTable = true;
-                } else if (line.equals("\\end{table}")) {
-                    html.append("</div>\n");
-                    inTable = false;
-                } else if (line.startsWith("\\begin{tabular")) {
-                    html.append("<table class='latex-table'>\n");
-                } else if (line.equals("\\end{tabular}")) {
-                    html.append("</table>\n");
-                } else if (line.contains("&") && inTable) {
-                    // Process table row
-                    String[] cells = line.split("&");
-                    html.append("<tr>");
-                    for (String cell : cells) {
-                        String cleanCell = cell.replace("\\\\", "").trim();
-                        html.append("<td>")
-                                .append(processInlineMath(escapeHtml(cleanCell)))
-                                .append("</td>");
-                    }
-                    html.append("</tr>\n");
-
-                    // Lists
-                } else if (line.equals("\\begin{itemize}")) {
-                    html.append("<ul>\n");
-                } else if (line.equals("\\end{itemize}")) {
-                    html.append("</ul>\n");
-                } else if (line.equals("\\begin{enumerate}")) {
-                    html.append("<ol>\n");
-                } else if (line.equals("\\end{enumerate}")) {
-                    html.append("</ol>\n");
-                } else if (line.startsWith("\\item")) {
-                    String item = line.length() > 5 ? line.substring(5).trim() : "";
-                    html.append("<li>")
-                            .append(processInlineMath(escapeHtml(item)))
-                            .append("</li>\n");
-
-                    // Figures
-                } else if (line.startsWith("\\begin{figure")) {
-                    html.append("<div class='figure'>\n");
-                } else if (line.equals("\\end{figure}")) {
-                    html.append("</div>\n");
-                } else if (line.startsWith("\\caption{")) {
-                    String caption = extractBraceContent(line, "\\caption{");
-                    html.append("<div class='caption'>")
-                            .append(escapeHtml(caption))
-                            .append("</div>\n");
-
-                    // Special commands
-                } else if (line.startsWith("\\textbf{")) {
-                    String bold = extractBraceContent(line, "\\textbf{");
-                    html.append("<strong>").append(escapeHtml(bold)).append("</strong>\n");
-                } else if (line.startsWith("\\emph{")) {
-                    String emph = extractBraceContent(line, "\\emph{");
-                    html.append("<em>").append(escapeHtml(emph)).append("</em>\n");
-
-                    // Handle inline display math \[...\]
-                } else if (line.contains("\\[") && line.contains("\\]")) {
-                    // Process line with inline display math
-                    String processedLine = processInlineDisplayMath(escapeHtml(line));
-                    html.append("<p>").append(processedLine).append("</p>\n");
-
-                    // Regular content
-                } else if (!line.isEmpty() && !line.startsWith("\\") && !inMathDisplay) {
-                    html.append("<p>")
-                            .append(processInlineMath(escapeHtml(line)))
-                            .append("</p>\n");
-                } else if (inMathDisplay) {
-                    html.append(line).append("\n");
+                } else if (inDocument) {
+                    body.append(line).append('\n');
                 }
             }
+            html.append(renderHtmlFragment(body.toString()));
 
             html.append("</body></html>");
             return html.toString();
@@ -373,6 +281,147 @@ public class LaTeXCompilationService {
         }
     }
 
+    /**
+     * Convert part of a document body to HTML with the built-in converter, without the page
+     * around it. Math is left for MathJax to typeset.
+     *
+     * @param latexBody LaTeX from between {@code \begin{document}} and {@code \end{document}}
+     * @return The HTML of the part
+     */
+    public String renderHtmlFragment(String latexBody) {
+        StringBuilder html = new StringBuilder();
+        boolean inMathDisplay = false;
+        boolean inTable = false;
+
+        for (String line : latexBody.split("\\n")) {
+            line = line.trim();
+
+            // Handle different LaTeX constructs
+            if (line.startsWith("\\title{")) {
+                String title = extractBraceContent(line, "\\title{");
+                html.append("<h1 class='title'>").append(escapeHtml(title)).append("</h1>\n");
+            } else if (line.startsWith("\\author{")) {
+                String author = extractBraceContent(line, "\\author{");
+                html.append("<p class='author'>").append(escapeHtml(author)).append("</p>\n");
+            } else if (line.equals("\\maketitle")) {
+                html.append("<hr class='title-separator'>\n");
+            } else if (line.startsWith("\\section{")) {
+                String section = extractBraceContent(line, "\\section{");
+                html.append("<h2>").append(escapeHtml(section)).append("</h2>\n");
+            } else if (line.startsWith("\\subsection{")) {
+                String subsection = extractBraceContent(line, "\\subsection{");
+                html.append("<h3>").append(escapeHtml(subsection)).append("</h3>\n");
+            } else if (line.startsWith("\\subsubsection{")) {
+                String subsubsection = extractBraceContent(line, "\\subsubsection{");
+                html.append("<h4>").append(escapeHtml(subsubsection)).append("</h4>\n");
+
+                // Math environments
+            } else if (line.equals("\\begin{equation}")
+                    || line.equals("\\begin{align}")
+                    || line.equals("\\begin{align*}")
+                    || line.equals("\\[")) {
+                html.append("<div class='math-display'>$$\n");
+                inMathDisplay = true;
+            } else if (line.equals("\\end{equation}")
+                    || line.equals("\\end{align}")
+                    || line.equals("\\end{align*}")
+                    || line.equals("\\]")) {
+                html.append("$$</div>\n");
+                inMathDisplay = false;
+
+                // Algorithm environments
+            } else if (line.startsWith("\\begin{algorithm")) {
+                html.append("<div class='algorithm'>\n<div class='algorithm-header'>Algorithm</div>\n");
+            } else if (line.equals("\\end{algorithm}")) {
+                html.append("</div>\n");
+            } else if (line.startsWith("\\State ")) {
+                String state = line.substring(7);
+                html.append("<div class='algorithm-line'>")
+                        .append(processInlineMath(escapeHtml(state)))
+                        .append("</div>\n");
+            } else if (line.startsWith("\\If{")) {
+                String condition = extractBraceContent(line, "\\If{");
+                html.append("<div class='algorithm-line'><strong>if</strong> ")
+                        .append(processInlineMath(escapeHtml(condition)))
+                        .append(" <strong>then</strong></div>\n");
+            } else if (line.equals("\\EndIf")) {
+                html.append("<div class='algorithm-line'><strong>end if</strong></div>\n");
+
+                // Table environments
+            } else if (line.startsWith("\\begin{table")) {
+                html.append("<div class='table-container'>\n");
+                inTable = true;
+            } else if (line.equals("\\end{table}")) {
+                html.append("</div>\n");
+                inTable = false;
+            } else if (line.startsWith("\\begin{tabular")) {
+                html.append("<table class='latex-table'>\n");
+            } else if (line.equals("\\end{tabular}")) {
+                html.append("</table>\n");
+            } else if (line.contains("&") && inTable) {
+                // Process table row
+                String[] cells = line.split("&");
+                html.append("<tr>");
+                for (String cell : cells) {
+                    String cleanCell = cell.replace("\\\\", "").trim();
+                    html.append("<td>")
+                            .append(processInlineMath(escapeHtml(cleanCell)))
+                            .append("</td>");
+                }
+                html.append("</tr>\n");
+
+                // Lists
+            } else if (line.equals("\\begin{itemize}")) {
+                html.append("<ul>\n");
+            } else if (line.equals("\\end{itemize}")) {
+                html.append("</ul>\n");
+            } else if (line.equals("\\begin{enumerate}")) {
+                html.append("<ol>\n");
+            } else if (line.equals("\\end{enumerate}")) {
+                html.append("</ol>\n");
+            } else if (line.startsWith("\\item")) {
+                String item = line.length() > 5 ? line.substring(5).trim() : "";
+                html.append("<li>")
+                        .append(processInlineMath(escapeHtml(item)))
+                        .append("</li>\n");
+
+                // Figures
+            } else if (line.startsWith("\\begin{figure")) {
+                html.append("<div class='figure'>\n");
+            } else if (line.equals("\\end{figure}")) {
+                html.append("</div>\n");
+            } else if (line.startsWith("\\caption{")) {
+                String caption = extractBraceContent(line, "\\caption{");
+                html.append("<div class='caption'>")
+                        .append(escapeHtml(caption))
+                        .append("</div>\n");
+
+                // Special commands
+            } else if (line.startsWith("\\textbf{")) {
+                String bold = extractBraceContent(line, "\\textbf{");
+                html.append("<strong>").append(escapeHtml(bold)).append("</strong>\n");
+            } else if (line.startsWith("\\emph{")) {
+                String emph = extractBraceContent(line, "\\emph{");
+                html.append("<em>").append(escapeHtml(emph)).append("</em>\n");
+
+                // Handle inline display math \[...\]
+            } else if (line.contains("\\[") && line.contains("\\]")) {
+                // Process line with inline display math
+                String processedLine = processInlineDisplayMath(escapeHtml(line));
+                html.append("<p>").append(processedLine).append("</p>\n");
+
+                // Regular content
+            } else if (!line.isEmpty() && !line.startsWith("\\") && !inMathDisplay) {
+                html.append("<p>")
+                        .append(processInlineMath(escapeHtml(line)))
+                        .append("</p>\n");
+            } else if (inMathDisplay) {
+                html.append(line).append("\n");
+            }
+        }
+        return html.toString();
+    }
+
     /**
      * Process inline math expressions - SAFE VERSION WITHOUT REGEX GROUP REFERENCES
      */
@@ -633,72 +682,76 @@ public class LaTeXCompilationService {
 
     /**
      * Generate PDF from LaTeX using pandoc with enhanced support
+     *
+     * @param latexContent The LaTeX source
+     * @param filename The PDF's name without extension
+     * @param queueKey The project, or else the user, compiling, for its turn in the compile queue; may be null
      */
-    public ResponseEntity<Resource> generatePDF(String latexContent, String filename) {
+    public ResponseEntity<Resource> generatePDF(String latexContent, String filename, UUID queueKey) {
         try {
+            // Enhance LaTeX content with packages
+            String enhancedLatex = enhanceLatexContent(latexContent);
+
+            // Serve an unchanged source without running pandoc
+            CompileKey key = CompileKey.of("pandoc-pdf", TEMPLATE_VERSION, PDF_OPTIONS, enhancedLatex);
+            Optional<CompiledArtifact> cached = compileCache.get(key);
+            if (cached.isPresent()) {
+                return pdfResponse(cached.get(), filename);
+            }
+
             // Create temporary directory
             String tempDir = System.getProperty("java.io.tmpdir");
             String uniqueId = UUID.randomUUID().toString();
             Path workDir = Paths.get(tempDir, "latex_pdf_" + uniqueId);
             Files.createDirectories(workDir);
 
-            // Enhance LaTeX content with packages
-            String enhancedLatex = enhanceLatexContent(latexContent);
-
             // Write LaTeX content to file
             Path texFile = workDir.resolve("document.tex");
             Files.write(texFile, enhancedLatex.getBytes());
 
             // Generate PDF using pandoc with enhanced options
-            ProcessBuilder pb = new ProcessBuilder(
-                    PANDOC_PATH,
-                    texFile.toString(),
-                    "-f",
-                    "latex+raw_tex+tex_math_dollars+latex_macros",
-                    "-t",
-                    "pdf",
-                    "--pdf-engine=xelatex",
-                    "--template=eisvogel",
-                    "--listings",
-                    "-o",
-                    workDir.resolve("document.pdf").toString());
-            pb.directory(workDir.toFile());
-            pb.redirectErrorStream(true);
-
-            Process process = pb.start();
-            String output = readProcessOutput(process);
-            boolean finished = process.waitFor(PROCESS_TIMEOUT, TimeUnit.SECONDS);
-
-            if (finished && process.exitValue() == 0) {
+            List<String> command = new ArrayList<>();
+            command.add(PANDOC_PATH);
+            command.add(texFile.toString());
+            command.addAll(PDF_OPTIONS);
+            command.add("-o");
+            command.add(workDir.resolve("document.pdf").toString());
+            ProcessResult result =
+                    compileScheduler.run(queueKey, new CompileJob("pandoc-pdf", command, workDir, PROCESS_TIMEOUT));
+
+            if (result.succeeded()) {
                 Path pdfFile = workDir.resolve("document.pdf");
                 if (Files.exists(pdfFile)) {
                     byte[] pdfBytes = Files.readAllBytes(pdfFile);
-                    ByteArrayResource resource = new ByteArrayResource(pdfBytes) {
-                        @Override
-                        public String getFilename() {
-                            return filename + ".pdf";
-                        }
-                    };
+                    CompiledArtifact artifact = compileCache.put(key, pdfBytes);
 
                     // Clean up
                     cleanupDirectory(workDir);
 
-                    return ResponseEntity.ok()
-                            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + ".pdf\"")
-                            .contentType(MediaType.APPLICATION_PDF)
-                            .body(resource);
+                    return pdfResponse(artifact, filename);
                 }
             }
 
             // Clean up
             cleanupDirectory(workDir);
-            throw new RuntimeException("PDF generation failed: " + output);
+            throw new RuntimeException(result.killed()
+                    ? "PDF generation timed out after " + PROCESS_TIMEOUT.toSeconds() + " seconds"
+                    : "PDF generation failed: " + result.output());
 
+        } catch (LatexCompileRejectedException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("PDF generation error: " + e.getMessage());
         }
     }
 
+    private ResponseEntity<Resource> pdfResponse(CompiledArtifact artifact, String filename) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + ".pdf\"")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(artifact.asResource(filename + ".pdf"));
+    }
+
     /**
      * Fallback LaTeX to HTML conversion (legacy support)
      */
@@ -997,20 +1050,6 @@ public class LaTeXCompilationService {
         return result;
     }
 
-    /**
-     * Read process output with timeout handling
-     */
-    private String readProcessOutput(Process process) throws IOException {
-        StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
-        }
-        return output.toString();
-    }
-
     /**
      * Clean up temporary directories
      */
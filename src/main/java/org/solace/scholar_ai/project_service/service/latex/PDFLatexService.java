@@ -4,23 +4,53 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
-import org.springframework.core.io.ByteArrayResource;
+import lombok.RequiredArgsConstructor;
+import org.solace.scholar_ai.project_service.exception.LatexCompileRejectedException;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompileJob;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompileKey;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompileScheduler;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompiledArtifact;
+import org.solace.scholar_ai.project_service.service.latex.compile.LatexCompileCache;
+import org.solace.scholar_ai.project_service.service.latex.compile.PreambleFormatCache;
+import org.solace.scholar_ai.project_service.service.latex.compile.ProcessResult;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 @Service
+@RequiredArgsConstructor
 public class PDFLatexService {
 
     private static final String PDFLATEX_PATH = System.getProperty("pdflatex.path", "pdflatex");
-    private static final int PROCESS_TIMEOUT = 60; // seconds
+    private static final Duration PROCESS_TIMEOUT = Duration.ofSeconds(60);
+
+    // The source is compiled as given, with no preamble added
+    private static final int TEMPLATE_VERSION = 1;
+    private static final List<String> OPTIONS = List.of("-interaction=nonstopmode");
+
+    private final LatexCompileCache compileCache;
+    private final CompileScheduler compileScheduler;
+    private final PreambleFormatCache formatCache;
 
     /**
      * Compile LaTeX content to PDF using pdflatex
+     *
+     * @param latexContent The LaTeX source
+     * @param queueKey The project, or else the user, compiling, for its turn in the compile queue; may be null
      */
-    public Resource compileLatexToPDF(String latexContent) {
+    public Resource compileLatexToPDF(String latexContent, UUID queueKey) {
         try {
+            // Serve an unchanged source without running pdflatex
+            CompileKey key = CompileKey.of("pdflatex", TEMPLATE_VERSION, OPTIONS, latexContent);
+            Optional<CompiledArtifact> cached = compileCache.get(key);
+            if (cached.isPresent()) {
+                return cached.get().asResource("document.pdf");
+            }
+
             // Create temporary directory
             String tempDir = System.getProperty("java.io.tmpdir");
             String uniqueId = UUID.randomUUID().toString();
@@ -31,29 +61,25 @@ public class PDFLatexService {
             Path texFile = workDir.resolve("document.tex");
             Files.write(texFile, latexContent.getBytes());
 
-            // Run pdflatex compilation
-            ProcessBuilder pb = new ProcessBuilder(
-                    PDFLATEX_PATH,
-                    "-interaction=nonstopmode",
-                    "-output-directory=" + workDir.toString(),
-                    texFile.toString());
-            pb.directory(workDir.toFile());
-            pb.redirectErrorStream(true);
-
-            Process process = pb.start();
-            String output = readProcessOutput(process);
-            boolean finished = process.waitFor(PROCESS_TIMEOUT, TimeUnit.SECONDS);
-
-            if (!finished) {
-                process.destroyForcibly();
+            // Run pdflatex compilation, with the preamble loaded from a format when there is one
+            Optional<Path> format = formatCache.formatFor(latexContent, queueKey);
+            ProcessResult result = runPdflatex(texFile, workDir, format, queueKey);
+            if (format.isPresent() && !result.succeeded() && result.output().contains("format file")) {
+                formatCache.evict(format.get());
+                result = runPdflatex(texFile, workDir, Optional.empty(), queueKey);
+            }
+            String output = result.output();
+
+            if (result.killed()) {
                 cleanupDirectory(workDir);
-                throw new RuntimeException("PDF compilation timed out after " + PROCESS_TIMEOUT + " seconds");
+                throw new RuntimeException(
+                        "PDF compilation timed out after " + PROCESS_TIMEOUT.toSeconds() + " seconds");
             }
 
-            if (process.exitValue() != 0) {
+            if (result.exitCode() != 0) {
                 cleanupDirectory(workDir);
                 throw new RuntimeException(
-                        "PDF compilation failed with exit code " + process.exitValue() + "\nOutput: " + output);
+                        "PDF compilation failed with exit code " + result.exitCode() + "\nOutput: " + output);
             }
 
             // Check if PDF was generated
@@ -70,30 +96,25 @@ public class PDFLatexService {
             cleanupDirectory(workDir);
 
             // Return PDF as resource
-            return new ByteArrayResource(pdfBytes) {
-                @Override
-                public String getFilename() {
-                    return "document.pdf";
-                }
-            };
+            return compileCache.put(key, pdfBytes).asResource("document.pdf");
 
+        } catch (LatexCompileRejectedException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to compile LaTeX to PDF: " + e.getMessage(), e);
         }
     }
 
-    /**
-     * Read process output
-     */
-    private String readProcessOutput(Process process) throws IOException {
-        StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
-        }
-        return output.toString();
+    private ProcessResult runPdflatex(Path texFile, Path workDir, Optional<Path> format, UUID queueKey)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(PDFLATEX_PATH);
+        command.addAll(OPTIONS);
+        format.ifPresent(path -> command.add("-fmt=" + path));
+        command.add("-output-directory=" + workDir.toString());
+        command.add(texFile.toString());
+        String engine = format.isPresent() ? "pdflatex-fmt" : "pdflatex";
+        return compileScheduler.run(queueKey, new CompileJob(engine, command, workDir, PROCESS_TIMEOUT));
     }
 
     /**
@@ -1,11 +1,19 @@
 package org.solace.scholar_ai.project_service.service.latex;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.text.StringEscapeUtils;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompileJob;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompileKey;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompileScheduler;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompiledArtifact;
+import org.solace.scholar_ai.project_service.service.latex.compile.LatexCompileCache;
+import org.solace.scholar_ai.project_service.service.latex.compile.ProcessResult;
 import org.springframework.stereotype.Service;
 
 /**
@@ -14,11 +22,32 @@ import org.springframework.stereotype.Service;
  */
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class ProfessionalLaTeXService {
 
-    private static final int COMPILATION_TIMEOUT_SECONDS = 30;
+    private static final Duration COMPILATION_TIMEOUT = Duration.ofSeconds(30);
     private static final String TEMP_DIR_PREFIX = "latex_compilation_";
 
+    // Version of the package preamble and HTML wrapper added around pandoc
+    private static final int TEMPLATE_VERSION = 1;
+
+    private static final List<String> PANDOC_OPTIONS = List.of(
+            "-f",
+            "latex+raw_tex+tex_math_dollars+latex_macros",
+            "-t",
+            "html5",
+            "--mathjax",
+            "--standalone",
+            "--metadata",
+            "title=Professional LaTeX Document",
+            "--template=html5",
+            "--highlight-style=tango",
+            "--toc",
+            "--number-sections");
+
+    private final LatexCompileCache compileCache;
+    private final CompileScheduler compileScheduler;
+
     // Comprehensive LaTeX packages for research papers
     private static final String COMPREHENSIVE_PACKAGES =
             """
@@ -107,16 +136,30 @@ public class ProfessionalLaTeXService {
 
     /**
      * Main compilation method - attempts multiple professional approaches
+     *
+     * @param latexContent The LaTeX source
+     * @param queueKey The project, or else the user, compiling, for its turn in the compile queue; may be null
      */
-    public String compileLatex(String latexContent) {
+    public String compileLatex(String latexContent, UUID queueKey) {
         log.info("Starting professional LaTeX compilation");
 
         try {
+            // Serve an unchanged source without running pandoc
+            String enhancedLatex = enhanceLatexContent(latexContent);
+            CompileKey key = CompileKey.of("pandoc-html-professional", TEMPLATE_VERSION, PANDOC_OPTIONS, enhancedLatex);
+            Optional<CompiledArtifact> cached = compileCache.get(key);
+            if (cached.isPresent()) {
+                log.info("Served LaTeX compilation from cache");
+                return cached.get().asString();
+            }
+
             // Method 1: Try Pandoc compilation (most professional)
-            String result = compilePandoc(latexContent);
+            String result = compilePandoc(enhancedLatex, queueKey);
             if (result != null && !result.contains("error")) {
                 log.info("Pandoc compilation successful");
-                return wrapInHtmlDocument(result, "Professional LaTeX Document");
+                String html = wrapInHtmlDocument(result, "Professional LaTeX Document");
+                compileCache.put(key, html.getBytes(StandardCharsets.UTF_8));
+                return html;
             }
 
             // Method 2: Try direct LaTeX to HTML with proper math
@@ -143,41 +186,25 @@ public class ProfessionalLaTeXService {
     /**
      * Method 1: Professional Pandoc compilation
      */
-    private String compilePandoc(String latexContent) {
+    private String compilePandoc(String enhancedLatex, UUID queueKey) {
         try {
             Path workDir = createTempDirectory();
-            String enhancedLatex = enhanceLatexContent(latexContent);
 
             // Write LaTeX file
             Path texFile = workDir.resolve("document.tex");
             Files.write(texFile, enhancedLatex.getBytes("UTF-8"));
 
             // Execute Pandoc with professional options
-            ProcessBuilder pb = new ProcessBuilder(
-                    "pandoc",
-                    texFile.toString(),
-                    "-f",
-                    "latex+raw_tex+tex_math_dollars+latex_macros",
-                    "-t",
-                    "html5",
-                    "--mathjax",
-                    "--standalone",
-                    "--metadata",
-                    "title=Professional LaTeX Document",
-                    "--template=html5",
-                    "--highlight-style=tango",
-                    "--toc",
-                    "--number-sections");
-
-            pb.directory(workDir.toFile());
-            Process process = pb.start();
-
-            String output = readProcessOutput(process);
-            boolean finished = process.waitFor(COMPILATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-
-            if (finished && process.exitValue() == 0) {
+            List<String> command = new ArrayList<>();
+            command.add("pandoc");
+            command.add(texFile.toString());
+            command.addAll(PANDOC_OPTIONS);
+            ProcessResult result = compileScheduler.run(
+                    queueKey, new CompileJob("pandoc-html-professional", command, workDir, COMPILATION_TIMEOUT, false));
+
+            if (result.succeeded()) {
                 cleanupDirectory(workDir);
-                return output;
+                return result.output();
             }
 
             cleanupDirectory(workDir);
@@ -589,17 +616,6 @@ public class ProfessionalLaTeXService {
         return Files.createTempDirectory(TEMP_DIR_PREFIX);
     }
 
-    private String readProcessOutput(Process process) throws IOException {
-        StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
-        }
-        return output.toString();
-    }
-
     private void cleanupDirectory(Path directory) {
         try {
             Files.walk(directory)
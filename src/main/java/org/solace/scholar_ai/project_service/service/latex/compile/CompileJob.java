@@ -0,0 +1,24 @@
+package org.solace.scholar_ai.project_service.service.latex.compile;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * One pandoc or pdflatex run
+ *
+ * @param engine The tool and output format, used to tag metrics, e.g. {@code pdflatex}
+ * @param command The command line
+ * @param workDir The directory to run in
+ * @param timeout Wall-clock limit of the run, after which the process tree is killed
+ * @param includeErrors Whether standard error is part of the output, or else discarded
+ */
+public record CompileJob(String engine, List<String> command, Path workDir, Duration timeout, boolean includeErrors) {
+
+    /**
+     * A run whose output interleaves standard output and error
+     */
+    public CompileJob(String engine, List<String> command, Path workDir, Duration timeout) {
+        this(engine, command, workDir, timeout, true);
+    }
+}
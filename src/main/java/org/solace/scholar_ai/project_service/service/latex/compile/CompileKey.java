@@ -0,0 +1,44 @@
+package org.solace.scholar_ai.project_service.service.latex.compile;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Identity of one compilation: the same key means the same output
+ *
+ * @param engine The tool and output format, e.g. {@code pdflatex}
+ * @param hash SHA-256 hex digest of the engine, template version, options and source
+ */
+public record CompileKey(String engine, String hash) {
+
+    /**
+     * Key of compiling a source
+     *
+     * @param engine The tool and output format
+     * @param templateVersion Version of the preamble and post-processing the service adds around
+     *     the tool; bumped when they change so earlier output is not served
+     * @param options Tool options that affect the output
+     * @param source The LaTeX source as handed to the tool
+     * @return The key
+     */
+    public static CompileKey of(String engine, int templateVersion, List<String> options, String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(engine.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Integer.toString(templateVersion).getBytes(StandardCharsets.UTF_8));
+            for (String option : options) {
+                digest.update((byte) 0);
+                digest.update(option.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+            digest.update(source.getBytes(StandardCharsets.UTF_8));
+            return new CompileKey(engine, HexFormat.of().formatHex(digest.digest()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package org.solace.scholar_ai.project_service.service.latex.compile;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.exception.LatexCompileRejectedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs pandoc and pdflatex processes on a fixed number of worker threads, so a burst of
+ * compilations queues instead of forking without limit. Waiting compilations sit in a bounded
+ * queue that is drained round-robin across projects, or across users when no project is known,
+ * and a caller gives up once its compilation has waited longer than the configured queue wait.
+ *
+ * <p>Each process has its output read on a separate thread, so a process that keeps writing
+ * cannot hold off its timeout, and is killed with all of its child processes once it runs past
+ * its timeout or writes more than {@link #MAX_OUTPUT_CHARS}.
+ *
+ * <p>Published as {@code latex.compile.duration} timers tagged by engine and outcome, with the
+ * time spent queued as {@code latex.compile.queue.wait}.
+ */
+@Slf4j
+@Component
+public class CompileScheduler {
+
+    static final String DURATION_TIMER = "latex.compile.duration";
+    static final String QUEUE_WAIT_TIMER = "latex.compile.queue.wait";
+
+    // Compilations with neither a project nor a user share one queue, held only to the overall capacity
+    private static final UUID SHARED_QUEUE = new UUID(0, 0);
+
+    // Output a runaway document may write before it is killed
+    static final int MAX_OUTPUT_CHARS = 16 * 1024 * 1024;
+
+    // Time for the output to be read to its end once the process exited
+    private static final Duration OUTPUT_GRACE = Duration.ofSeconds(5);
+
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final int maxQueuedPerProject;
+    private final Duration maxQueueWait;
+    private final Duration retryAfter;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService workers;
+    private final ExecutorService outputReaders;
+
+    private final Map<UUID, Deque<QueuedJob>> queuesByProject = new HashMap<>();
+    private final Deque<UUID> projectRotation = new ArrayDeque<>();
+    private int queued;
+    private int running;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public CompileScheduler(
+            MeterRegistry meterRegistry,
+            @Value("${scholarai.latex.compile.max-concurrent:2}") int maxConcurrent,
+            @Value("${scholarai.latex.compile.queue-capacity:50}") int queueCapacity,
+            @Value("${scholarai.latex.compile.max-queued-per-project:10}") int maxQueuedPerProject,
+            @Value("${scholarai.latex.compile.max-queue-wait:PT30S}") Duration maxQueueWait,
+            @Value("${scholarai.latex.compile.retry-after:PT10S}") Duration retryAfter) {
+        if (maxConcurrent < 1 || queueCapacity < 1 || maxQueuedPerProject < 1) {
+            throw new IllegalArgumentException("LaTeX compile concurrency and queue limits must be at least 1");
+        }
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrent = maxConcurrent;
+        this.queueCapacity = queueCapacity;
+        this.maxQueuedPerProject = maxQueuedPerProject;
+        this.maxQueueWait = maxQueueWait;
+        this.retryAfter = retryAfter;
+        this.workers = Executors.newFixedThreadPool(maxConcurrent, threadFactory("latex-compile-"));
+        this.outputReaders = Executors.newFixedThreadPool(maxConcurrent, threadFactory("latex-compile-output-"));
+
+        Gauge.builder("latex.compile.running", this, CompileScheduler::getRunningCount)
+                .description("Compile processes running")
+                .register(meterRegistry);
+        Gauge.builder("latex.compile.queued", this, CompileScheduler::getQueuedCount)
+                .description("Compilations waiting for a free worker")
+                .register(meterRegistry);
+        FunctionCounter.builder("latex.compile.rejected", rejected, LongAdder::sum)
+                .description("Compilations turned away because the queue was full or they waited too long")
+                .register(meterRegistry);
+        log.info(
+                "LaTeX compile scheduler: {} workers, queue capacity {} ({} per project)",
+                maxConcurrent,
+                queueCapacity,
+                maxQueuedPerProject);
+    }
+
+    /**
+     * Run a compile process once a worker is free and it is the project's turn, and wait for it
+     *
+     * @param queueKey The project compiling, or else the user compiling; may be null, in which
+     *     case the compilation waits in the shared queue
+     * @param job The process to run
+     * @return How the process ended; killed if it ran past the job's timeout
+     * @throws LatexCompileRejectedException When the queue, or the project's share of it, is
+     *     full, or the job waited longer than the queue wait for a worker
+     * @throws IOException When the process could not be started
+     * @throws InterruptedException When the caller was interrupted; the job is then dropped from
+     *     the queue, or its process killed
+     */
+    public ProcessResult run(UUID queueKey, CompileJob job) throws IOException, InterruptedException {
+        QueuedJob queuedJob = enqueue(queueKey != null ? queueKey : SHARED_QUEUE, job);
+        dispatch();
+        try {
+            try {
+                queuedJob.started.get(maxQueueWait.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (dequeue(queuedJob)) {
+                    rejected.increment();
+                    throw new LatexCompileRejectedException(
+                            "Compilation waited more than " + maxQueueWait.toSeconds() + "s for a free worker",
+                            retryAfter);
+                }
+                // It started while timing out
+            }
+            return queuedJob.result.get();
+        } catch (InterruptedException e) {
+            if (!dequeue(queuedJob)) {
+                queuedJob.abandon();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IllegalStateException("Compile process failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    public synchronized int getQueuedCount() {
+        return queued;
+    }
+
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted workers kill their processes
+        workers.shutdownNow();
+        outputReaders.shutdownNow();
+    }
+
+    private synchronized QueuedJob enqueue(UUID projectId, CompileJob job) {
+        if (queued >= queueCapacity) {
+            rejected.increment();
+            throw new LatexCompileRejectedException(
+                    "LaTeX compile queue is full (" + queueCapacity + " waiting compilations)", retryAfter);
+        }
+        Deque<QueuedJob> projectQueue = queuesByProject.get(projectId);
+        if (!SHARED_QUEUE.equals(projectId) && projectQueue != null && projectQueue.size() >= maxQueuedPerProject) {
+            rejected.increment();
+            throw new LatexCompileRejectedException(
+                    "Project already has " + maxQueuedPerProject + " compilations waiting", retryAfter);
+        }
+        QueuedJob queuedJob = new QueuedJob(projectId, job);
+        queuesByProject
+                .computeIfAbsent(projectId, id -> {
+                    projectRotation.add(id);
+                    return new ArrayDeque<>();
+                })
+                .add(queuedJob);
+        queued++;
+        return queuedJob;
+    }
+
+    /**
+     * Remove a job that has not started yet from the queue
+     *
+     * @return True when the job was waiting and will now never run
+     */
+    private synchronized boolean dequeue(QueuedJob queuedJob) {
+        Deque<QueuedJob> projectQueue = queuesByProject.get(queuedJob.projectId);
+        if (projectQueue == null || !projectQueue.remove(queuedJob)) {
+            return false;
+        }
+        if (projectQueue.isEmpty()) {
+            queuesByProject.remove(queuedJob.projectId);
+            projectRotation.remove(queuedJob.projectId);
+        }
+        queued--;
+        return true;
+    }
+
+    private synchronized void dispatch() {
+        while (running < maxConcurrent && queued > 0) {
+            QueuedJob next = pollNextFair();
+            running++;
+            workers.execute(() -> run(next));
+        }
+    }
+
+    /**
+     * Take the head of the next project in the rotation and move that project to the back
+     */
+    private QueuedJob pollNextFair() {
+        UUID projectId = projectRotation.poll();
+        Deque<QueuedJob> projectQueue = queuesByProject.get(projectId);
+        QueuedJob next = projectQueue.poll();
+        if (projectQueue.isEmpty()) {
+            queuesByProject.remove(projectId);
+        } else {
+            projectRotation.add(projectId);
+        }
+        queued--;
+        return next;
+    }
+
+    private void run(QueuedJob queuedJob) {
+        try {
+            Timer.builder(QUEUE_WAIT_TIMER)
+                    .description("Time compilations waited for a free worker")
+                    .tag("engine", queuedJob.job.engine())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - queuedJob.enqueuedAt, TimeUnit.NANOSECONDS);
+            queuedJob.started.complete(null);
+            queuedJob.result.complete(execute(queuedJob));
+        } catch (Exception e) {
+            queuedJob.result.completeExceptionally(e);
+        } finally {
+            synchronized (this) {
+                running--;
+            }
+            dispatch();
+        }
+    }
+
+    private ProcessResult execute(QueuedJob queuedJob) throws IOException, InterruptedException {
+        CompileJob job = queuedJob.job;
+        long start = System.nanoTime();
+        String outcome = "error";
+        Process process = null;
+        try {
+            ProcessBuilder builder = new ProcessBuilder(job.command()).directory(job.workDir().toFile());
+            if (job.includeErrors()) {
+                builder.redirectErrorStream(true);
+            } else {
+                builder.redirectError(ProcessBuilder.Redirect.DISCARD);
+            }
+            process = builder.start();
+            queuedJob.process = process;
+            if (queuedJob.abandoned) {
+                destroyTree(process);
+            }
+
+            OutputReader reader = new OutputReader(process);
+            Future<String> output = outputReaders.submit(reader);
+            boolean finished = process.waitFor(job.timeout().toMillis(), TimeUnit.MILLISECONDS);
+            if (!finished) {
+                log.warn("{} ran past its {}s timeout and was killed", job.engine(), job.timeout().toSeconds());
+                destroyTree(process);
+            } else if (reader.overflowed) {
+                log.warn("{} wrote more than {} characters and was killed", job.engine(), MAX_OUTPUT_CHARS);
+            }
+            String text = awaitOutput(output, process);
+
+            boolean killed = !finished || reader.overflowed || queuedJob.abandoned;
+            ProcessResult result = new ProcessResult(killed ? -1 : process.exitValue(), text, killed);
+            outcome = killed ? "killed" : result.succeeded() ? "success" : "failure";
+            return result;
+        } catch (InterruptedException e) {
+            destroyTree(process);
+            throw e;
+        } finally {
+            Timer.builder(DURATION_TIMER)
+                    .description("Wall-clock time of compile processes")
+                    .tag("engine", job.engine())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Wait for the output reader to reach the end of the output, which it does once the
+     * process and its children have exited
+     */
+    private String awaitOutput(Future<String> output, Process process) throws InterruptedException {
+        try {
+            return output.get(OUTPUT_GRACE.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Compile output still open {}s after the process ended", OUTPUT_GRACE.toSeconds());
+            destroyTree(process);
+            output.cancel(true);
+            return "";
+        } catch (ExecutionException e) {
+            log.warn("Could not read compile output: {}", e.getCause().getMessage());
+            return "";
+        }
+    }
+
+    /**
+     * Kill a process and every process it started
+     */
+    static void destroyTree(Process process) {
+        if (process == null) {
+            return;
+        }
+        // Collect the children first; once the parent is gone they are reparented
+        List<ProcessHandle> descendants = process.descendants().toList();
+        process.destroyForcibly();
+        descendants.forEach(ProcessHandle::destroyForcibly);
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Reads a process's output as it is written, killing the process once there is too much
+     */
+    private static final class OutputReader implements Callable<String> {
+
+        private final Process process;
+        private volatile boolean overflowed;
+
+        private OutputReader(Process process) {
+            this.process = process;
+        }
+
+        @Override
+        public String call() throws IOException {
+            StringBuilder output = new StringBuilder();
+            try (Reader reader = new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)) {
+                char[] buffer = new char[8192];
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    if (output.length() + read > MAX_OUTPUT_CHARS) {
+                        overflowed = true;
+                        destroyTree(process);
+                        break;
+                    }
+                    output.append(buffer, 0, read);
+                }
+            }
+            return output.toString();
+        }
+    }
+
+    private static final class QueuedJob {
+
+        private final UUID projectId;
+        private final CompileJob job;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Void> started = new CompletableFuture<>();
+        private final CompletableFuture<ProcessResult> result = new CompletableFuture<>();
+        private volatile Process process;
+        private volatile boolean abandoned;
+
+        private QueuedJob(UUID projectId, CompileJob job) {
+            this.projectId = projectId;
+            this.job = job;
+        }
+
+        /**
+         * Kill the job's process, now if it is running or as soon as it starts
+         */
+        private void abandon() {
+            abandoned = true;
+            destroyTree(process);
+        }
+    }
+}
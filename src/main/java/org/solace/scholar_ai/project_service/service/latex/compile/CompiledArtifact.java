@@ -0,0 +1,107 @@
+package org.solace.scholar_ai.project_service.service.latex.compile;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+/**
+ * Output of a compilation, read-only. Artifacts served from disk are memory-mapped, so
+ * sending one streams from the page cache without copying it onto the heap first.
+ */
+public final class CompiledArtifact {
+
+    private final ByteBuffer content;
+
+    CompiledArtifact(ByteBuffer content) {
+        this.content = content.asReadOnlyBuffer();
+    }
+
+    public static CompiledArtifact of(byte[] content) {
+        return new CompiledArtifact(ByteBuffer.wrap(content));
+    }
+
+    public int size() {
+        return content.remaining();
+    }
+
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[content.remaining()];
+        content.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * The artifact decoded as UTF-8, for HTML output
+     */
+    public String asString() {
+        return StandardCharsets.UTF_8.decode(content.duplicate()).toString();
+    }
+
+    /**
+     * The artifact as a resource a controller can return, for PDF output
+     *
+     * @param filename The file name to report
+     */
+    public Resource asResource(String filename) {
+        return new AbstractResource() {
+            @Override
+            public String getFilename() {
+                return filename;
+            }
+
+            @Override
+            public String getDescription() {
+                return "Compiled artifact [" + filename + "]";
+            }
+
+            @Override
+            public long contentLength() {
+                return content.remaining();
+            }
+
+            @Override
+            public boolean exists() {
+                return true;
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return new BufferInputStream(content.duplicate());
+            }
+        };
+    }
+
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package org.solace.scholar_ai.project_service.service.latex.compile;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Output of recent LaTeX compilations by {@link CompileKey}, so recompiling an unchanged
+ * source is served without forking pandoc or pdflatex. Artifacts are kept in memory up to one
+ * size and in a directory up to another, both evicted least recently used first; artifacts
+ * on disk survive a restart and are read memory-mapped. Only successful compilations should
+ * be put here.
+ *
+ * <p>Published as {@code cache.*} metrics tagged {@code cache=latex-compile}, with the hit
+ * ratio and the bytes served without compiling as {@code latex.compile.cache.*}.
+ */
+@Slf4j
+@Component
+public class LatexCompileCache {
+
+    static final String CACHE_NAME = "latex-compile";
+
+    // Artifacts are stored under their key's hash
+    private static final Pattern ARTIFACT_NAME = Pattern.compile("[0-9a-f]{64}");
+
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final Path directory;
+
+    // Access order, so the eldest entry is the least recently used; all guarded by this
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    public LatexCompileCache(
+            MeterRegistry meterRegistry,
+            @Value("${scholarai.latex.compile-cache.memory-max-size:64MB}") DataSize maxMemorySize,
+            @Value("${scholarai.latex.compile-cache.disk-max-size:512MB}") DataSize maxDiskSize,
+            @Value("${scholarai.latex.compile-cache.directory:${java.io.tmpdir}/scholarai-latex-cache}")
+                    Path directory) {
+        this.maxMemoryBytes = maxMemorySize.toBytes();
+        this.directory = directory;
+        this.maxDiskBytes = openDirectory(directory) ? maxDiskSize.toBytes() : 0;
+        deleteAll(evictFromDisk(null));
+
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .description("Compilations served from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .description("Compilations that had to run")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, LatexCompileCache::size)
+                .tags("cache", CACHE_NAME)
+                .description("Compiled artifacts held in memory")
+                .register(meterRegistry);
+        Gauge.builder("cache.resident", this, LatexCompileCache::memoryBytes)
+                .tags("cache", CACHE_NAME)
+                .description("Heap held by compiled artifacts")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("latex.compile.cache.disk.resident", this, LatexCompileCache::diskBytes)
+                .description("Disk held by compiled artifacts")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("latex.compile.cache.hit.ratio", this, LatexCompileCache::hitRatio)
+                .description("Share of compilations served from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("latex.compile.cache.bytes.saved", bytesSaved, LongAdder::sum)
+                .description("Compiled output served from the cache instead of compiling it")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the artifact of a compilation, from memory or else from disk
+     *
+     * @param key The compilation
+     * @return The artifact, or empty when it has to be compiled
+     */
+    public Optional<CompiledArtifact> get(CompileKey key) {
+        boolean onDisk;
+        synchronized (this) {
+            byte[] cached = memory.get(key.hash());
+            if (cached != null) {
+                return Optional.of(hit(CompiledArtifact.of(cached)));
+            }
+            onDisk = disk.get(key.hash()) != null;
+        }
+        if (onDisk) {
+            try (FileChannel channel = FileChannel.open(directory.resolve(key.hash()), StandardOpenOption.READ)) {
+                return Optional.of(hit(new CompiledArtifact(channel.map(MapMode.READ_ONLY, 0, channel.size()))));
+            } catch (NoSuchFileException e) {
+                forgetOnDisk(key.hash());
+            } catch (IOException e) {
+                log.warn("Could not read cached {} artifact {}: {}", key.engine(), key.hash(), e.getMessage());
+                forgetOnDisk(key.hash());
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Store the artifact of a successful compilation
+     *
+     * @param key The compilation
+     * @param content Its output
+     * @return The stored artifact
+     */
+    public CompiledArtifact put(CompileKey key, byte[] content) {
+        putInMemory(key.hash(), content);
+        if (maxDiskBytes > 0 && content.length <= maxDiskBytes) {
+            Path temp = null;
+            try {
+                // Written under a unique name then moved, so readers never map a partial artifact
+                temp = Files.createTempFile(directory, key.hash(), ".tmp");
+                Files.write(temp, content);
+                Files.move(
+                        temp,
+                        directory.resolve(key.hash()),
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                deleteAll(putOnDisk(key.hash(), content.length));
+            } catch (IOException e) {
+                log.warn("Could not write cached {} artifact {}: {}", key.engine(), key.hash(), e.getMessage());
+                if (temp != null) {
+                    deleteAll(List.of(temp));
+                }
+            }
+        }
+        return CompiledArtifact.of(content);
+    }
+
+    private CompiledArtifact hit(CompiledArtifact artifact) {
+        hits.increment();
+        bytesSaved.add(artifact.size());
+        return artifact;
+    }
+
+    private synchronized void putInMemory(String hash, byte[] content) {
+        if (content.length > maxMemoryBytes) {
+            return;
+        }
+        byte[] previous = memory.put(hash, content);
+        if (previous != null) {
+            memoryBytes -= previous.length;
+        }
+        memoryBytes += content.length;
+
+        Iterator<Map.Entry<String, byte[]>> eldest = memory.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+            Map.Entry<String, byte[]> entry = eldest.next();
+            if (entry.getKey().equals(hash)) {
+                continue;
+            }
+            memoryBytes -= entry.getValue().length;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Record an artifact written to disk and evict the least recently used ones over the size
+     *
+     * @return Files of the evicted artifacts, to delete outside the lock
+     */
+    private synchronized List<Path> putOnDisk(String hash, long size) {
+        Long previous = disk.put(hash, size);
+        if (previous != null) {
+            diskBytes -= previous;
+        }
+        diskBytes += size;
+        return evictFromDisk(hash);
+    }
+
+    /**
+     * Evict the least recently used artifacts on disk until they fit the size
+     *
+     * @param keep Hash of an artifact not to evict, may be null
+     * @return Files of the evicted artifacts
+     */
+    private synchronized List<Path> evictFromDisk(String keep) {
+        List<Path> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> eldest = disk.entrySet().iterator();
+        while (diskBytes > maxDiskBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            diskBytes -= entry.getValue();
+            evicted.add(directory.resolve(entry.getKey()));
+            eldest.remove();
+        }
+        return evicted;
+    }
+
+    private synchronized void forgetOnDisk(String hash) {
+        Long size = disk.remove(hash);
+        if (size != null) {
+            diskBytes -= size;
+        }
+    }
+
+    /**
+     * Create the cache directory and index the artifacts a previous run left in it, oldest
+     * written first so they are evicted first
+     *
+     * @return Whether artifacts can be kept on disk
+     */
+    private boolean openDirectory(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(Files::isRegularFile).toList();
+            }
+
+            List<Path> stale = new ArrayList<>();
+            List<Map.Entry<String, BasicFileAttributes>> artifacts = new ArrayList<>();
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (ARTIFACT_NAME.matcher(name).matches()) {
+                    artifacts.add(Map.entry(name, Files.readAttributes(file, BasicFileAttributes.class)));
+                } else {
+                    // Partial writes of a previous run
+                    stale.add(file);
+                }
+            }
+            artifacts.sort(Comparator.comparing(artifact -> artifact.getValue().lastModifiedTime()));
+            for (Map.Entry<String, BasicFileAttributes> artifact : artifacts) {
+                disk.put(artifact.getKey(), artifact.getValue().size());
+                diskBytes += artifact.getValue().size();
+            }
+            deleteAll(stale);
+
+            log.info("LaTeX compile cache in {} holds {} artifacts, {} bytes", directory, disk.size(), diskBytes);
+            return true;
+        } catch (IOException e) {
+            log.warn(
+                    "LaTeX compile cache directory {} is unusable, caching in memory only: {}",
+                    directory,
+                    e.getMessage());
+            disk.clear();
+            diskBytes = 0;
+            return false;
+        }
+    }
+
+    private void deleteAll(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.debug("Could not delete cached artifact {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    synchronized int size() {
+        return memory.size();
+    }
+
+    synchronized long memoryBytes() {
+        return memoryBytes;
+    }
+
+    synchronized long diskBytes() {
+        return diskBytes;
+    }
+
+    double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,374 @@
+package org.solace.scholar_ai.project_service.service.latex.compile;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.exception.LatexCompileRejectedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * pdflatex formats with a document preamble already loaded, by the hash of the preamble, so
+ * compiling a document whose preamble was seen before skips loading its class and packages.
+ * Formats are dumped with {@code mylatexformat}, which also makes pdflatex skip the preamble
+ * of a document compiled with the format.
+ *
+ * <p>A missing format is built in the background, on the compile scheduler, and the document
+ * compiles without one meanwhile. Preambles that cannot be dumped are remembered and not tried
+ * again. Formats are kept in a directory up to the configured size, evicted least recently used
+ * first, and survive a restart.
+ *
+ * <p>Published as {@code cache.*} metrics tagged {@code cache=latex-formats}.
+ */
+@Slf4j
+@Component
+public class PreambleFormatCache {
+
+    static final String CACHE_NAME = "latex-formats";
+
+    private static final String PDFLATEX_PATH = System.getProperty("pdflatex.path", "pdflatex");
+    private static final String BEGIN_DOCUMENT = "\\begin{document}";
+    private static final String FORMAT_SUFFIX = ".fmt";
+    private static final Pattern FORMAT_NAME = Pattern.compile("[0-9a-f]{64}\\.fmt");
+
+    // Version of how formats are built; bumped when it changes so earlier formats are not used
+    private static final int FORMAT_VERSION = 1;
+    private static final Duration BUILD_TIMEOUT = Duration.ofSeconds(120);
+
+    // Builds waiting for the builder thread; more are dropped and tried on a later compile
+    private static final int MAX_PENDING_BUILDS = 16;
+    private static final int MAX_FAILED_PREAMBLES = 1_000;
+
+    private final CompileScheduler compileScheduler;
+    private final Path directory;
+    private final long maxBytes;
+    private final boolean enabled;
+    private final ExecutorService builder;
+
+    // Access order, so the eldest entry is the least recently used; all guarded by this
+    private final LinkedHashMap<String, Long> formats = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> building = new HashSet<>();
+    private final LinkedHashMap<String, Boolean> failed = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_FAILED_PREAMBLES;
+        }
+    };
+    private long diskBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public PreambleFormatCache(
+            MeterRegistry meterRegistry,
+            CompileScheduler compileScheduler,
+            @Value("${scholarai.latex.format-cache.enabled:true}") boolean enabled,
+            @Value("${scholarai.latex.format-cache.max-size:1GB}") DataSize maxSize,
+            @Value("${scholarai.latex.format-cache.directory:${java.io.tmpdir}/scholarai-latex-formats}")
+                    Path directory) {
+        this.compileScheduler = compileScheduler;
+        this.directory = directory;
+        this.maxBytes = maxSize.toBytes();
+        this.enabled = enabled && openDirectory(directory);
+        deleteAll(evictOverSize(null));
+        this.builder = new ThreadPoolExecutor(
+                1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_PENDING_BUILDS), runnable -> {
+                    Thread thread = new Thread(runnable, "latex-format-builder");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .description("PDF compilations that loaded their preamble from a format")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .description("PDF compilations that had no format for their preamble")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, PreambleFormatCache::size)
+                .tags("cache", CACHE_NAME)
+                .description("Preamble formats on disk")
+                .register(meterRegistry);
+        Gauge.builder("latex.format.cache.disk.resident", this, PreambleFormatCache::diskBytes)
+                .description("Disk held by preamble formats")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the format of a document's preamble, building it for later compiles when missing
+     *
+     * @param latexContent The document
+     * @param queueKey The project, or else the user, compiling, for the build's turn in the compile queue; may be null
+     * @return The format, as the path to pass to pdflatex's {@code -fmt} without its suffix; or
+     *     empty to compile without one
+     */
+    public Optional<Path> formatFor(String latexContent, UUID queueKey) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<String> preamble = preambleOf(latexContent);
+        if (preamble.isEmpty()) {
+            return Optional.empty();
+        }
+        String hash = hash(preamble.get());
+        synchronized (this) {
+            if (formats.get(hash) != null) {
+                hits.increment();
+                return Optional.of(directory.resolve(hash));
+            }
+            misses.increment();
+            if (failed.containsKey(hash) || !building.add(hash)) {
+                return Optional.empty();
+            }
+        }
+        try {
+            builder.execute(() -> build(hash, preamble.get(), queueKey));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                building.remove(hash);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Drop a format pdflatex could not load, e.g. one dumped by another TeX version
+     *
+     * @param format The format as returned by {@link #formatFor}
+     */
+    public void evict(Path format) {
+        String hash = format.getFileName().toString();
+        synchronized (this) {
+            Long size = formats.remove(hash);
+            if (size == null) {
+                return;
+            }
+            diskBytes -= size;
+        }
+        log.warn("pdflatex could not load format {}, dropped it", hash);
+        deleteAll(List.of(directory.resolve(hash + FORMAT_SUFFIX)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * The preamble of a document, when it has one to dump
+     */
+    static Optional<String> preambleOf(String latexContent) {
+        int begin = latexContent.indexOf(BEGIN_DOCUMENT);
+        if (begin < 0) {
+            return Optional.empty();
+        }
+        String preamble = latexContent.substring(0, begin);
+        return preamble.contains("\\documentclass") ? Optional.of(preamble) : Optional.empty();
+    }
+
+    private void build(String hash, String preamble, UUID queueKey) {
+        Path workDir = null;
+        try {
+            workDir = Files.createTempDirectory(directory, "build-");
+            Files.writeString(
+                    workDir.resolve("preamble.tex"),
+                    preamble + "\n" + BEGIN_DOCUMENT + "\n\\end{document}\n",
+                    StandardCharsets.UTF_8);
+            List<String> command = List.of(
+                    PDFLATEX_PATH,
+                    "-ini",
+                    "-interaction=nonstopmode",
+                    "-jobname=" + hash,
+                    "&pdflatex",
+                    "mylatexformat.ltx",
+                    "preamble.tex");
+            ProcessResult result =
+                    compileScheduler.run(queueKey, new CompileJob("pdflatex-format", command, workDir, BUILD_TIMEOUT));
+
+            Path built = workDir.resolve(hash + FORMAT_SUFFIX);
+            if (!result.succeeded() || !Files.exists(built)) {
+                log.info("Preamble {} could not be dumped to a format, its documents compile without one", hash);
+                markFailed(hash);
+                return;
+            }
+            long size = Files.size(built);
+            Files.move(
+                    built,
+                    directory.resolve(hash + FORMAT_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            deleteAll(added(hash, size));
+            log.info("Built format of preamble {}, {} bytes", hash, size);
+        } catch (LatexCompileRejectedException e) {
+            // The compile queue is busy; tried again on a later compile
+            log.debug("Format build of preamble {} deferred: {}", hash, e.getMessage());
+        } catch (IOException e) {
+            log.warn("Could not build format of preamble {}: {}", hash, e.getMessage());
+            markFailed(hash);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                building.remove(hash);
+            }
+            if (workDir != null) {
+                deleteTree(workDir);
+            }
+        }
+    }
+
+    private synchronized void markFailed(String hash) {
+        failed.put(hash, Boolean.TRUE);
+    }
+
+    /**
+     * Record a built format and evict the least recently used ones over the size
+     *
+     * @return Files of the evicted formats, to delete outside the lock
+     */
+    private synchronized List<Path> added(String hash, long size) {
+        Long previous = formats.put(hash, size);
+        if (previous != null) {
+            diskBytes -= previous;
+        }
+        diskBytes += size;
+        return evictOverSize(hash);
+    }
+
+    /**
+     * Evict the least recently used formats until they fit the size
+     *
+     * @param keep Hash of a format not to evict, may be null
+     * @return Files of the evicted formats
+     */
+    private synchronized List<Path> evictOverSize(String keep) {
+        List<Path> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> eldest = formats.entrySet().iterator();
+        while (diskBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            diskBytes -= entry.getValue();
+            evicted.add(directory.resolve(entry.getKey() + FORMAT_SUFFIX));
+            eldest.remove();
+        }
+        return evicted;
+    }
+
+    /**
+     * Create the format directory and index the formats a previous run left in it, oldest
+     * built first so they are evicted first
+     *
+     * @return Whether formats can be kept
+     */
+    private boolean openDirectory(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            List<Path> entries;
+            try (Stream<Path> listing = Files.list(directory)) {
+                entries = listing.toList();
+            }
+
+            List<Map.Entry<String, BasicFileAttributes>> found = new ArrayList<>();
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (Files.isRegularFile(entry) && FORMAT_NAME.matcher(name).matches()) {
+                    found.add(Map.entry(
+                            name.substring(0, name.length() - FORMAT_SUFFIX.length()),
+                            Files.readAttributes(entry, BasicFileAttributes.class)));
+                } else {
+                    // Builds a previous run left unfinished
+                    deleteTree(entry);
+                }
+            }
+            found.sort(Comparator.comparing(format -> format.getValue().lastModifiedTime()));
+            for (Map.Entry<String, BasicFileAttributes> format : found) {
+                formats.put(format.getKey(), format.getValue().size());
+                diskBytes += format.getValue().size();
+            }
+
+            log.info("LaTeX format cache in {} holds {} formats, {} bytes", directory, formats.size(), diskBytes);
+            return true;
+        } catch (IOException e) {
+            log.warn(
+                    "LaTeX format cache directory {} is unusable, compiling without formats: {}",
+                    directory,
+                    e.getMessage());
+            formats.clear();
+            diskBytes = 0;
+            return false;
+        }
+    }
+
+    private static String hash(String preamble) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Integer.toString(FORMAT_VERSION).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(preamble.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    private void deleteAll(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.debug("Could not delete format {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private void deleteTree(Path root) {
+        try (Stream<Path> walk = Files.walk(root)) {
+            deleteAll(walk.sorted(Comparator.reverseOrder()).toList());
+        } catch (IOException e) {
+            log.debug("Could not delete {}: {}", root, e.getMessage());
+        }
+    }
+
+    synchronized int size() {
+        return formats.size();
+    }
+
+    synchronized long diskBytes() {
+        return diskBytes;
+    }
+}
@@ -0,0 +1,15 @@
+package org.solace.scholar_ai.project_service.service.latex.compile;
+
+/**
+ * How a compile process ended
+ *
+ * @param exitCode The exit code, or -1 when the process was killed
+ * @param output Its standard output, interleaved with standard error unless the job discards it
+ * @param killed Whether it was killed for running past its timeout or writing too much output
+ */
+public record ProcessResult(int exitCode, String output, boolean killed) {
+
+    public boolean succeeded() {
+        return !killed && exitCode == 0;
+    }
+}
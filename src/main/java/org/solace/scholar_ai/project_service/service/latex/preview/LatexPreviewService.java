@@ -0,0 +1,193 @@
+package org.solace.scholar_ai.project_service.service.latex.preview;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.text.StringEscapeUtils;
+import org.solace.scholar_ai.project_service.dto.latex.LatexPreviewResponseDTO;
+import org.solace.scholar_ai.project_service.dto.latex.PreviewFragmentDTO;
+import org.solace.scholar_ai.project_service.service.latex.LaTeXCompilationService;
+import org.springframework.stereotype.Service;
+
+/**
+ * Live preview of a document being edited. The document is split at its sections and each
+ * section is converted with the built-in converter and cached by the hash of its LaTeX, so a
+ * preview after an edit only converts the sections that changed. Numbers and the table of
+ * contents are added when the sections are put together, so inserting a section renumbers the
+ * ones after it without converting them again. The table of contents is only shown where the
+ * document has a {@code \tableofcontents} line.
+ *
+ * <p>The preview is returned as fragments in document order, each with an id that changes with
+ * its HTML; the HTML of fragments the client already shows is left out, so it only swaps the
+ * fragments that changed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LatexPreviewService {
+
+    static final String FRONT_MATTER = "front-matter";
+    static final String TABLE_OF_CONTENTS = "toc";
+    static final String SECTION = "section";
+
+    // Version of the converter and section markup; bumped when they change so cached HTML is not served
+    private static final int RENDER_VERSION = 1;
+
+    // A line holding only \tableofcontents, matched the way the converter matches \maketitle
+    private static final Pattern TABLE_OF_CONTENTS_LINE = Pattern.compile("(?m)^[ \\t]*\\\\tableofcontents[ \\t]*$");
+
+    // Hex digits of a fragment id, 64 bits
+    private static final int FRAGMENT_ID_LENGTH = 16;
+
+    private final LaTeXCompilationService latexCompilationService;
+    private final SectionHtmlCache sectionHtmlCache;
+
+    /**
+     * Preview a document
+     *
+     * @param latexContent The document, or a body without {@code \begin{document}}
+     * @param knownFragmentIds Ids of the fragments the client shows, may be null
+     * @return The fragments of the preview
+     */
+    public LatexPreviewResponseDTO preview(String latexContent, Collection<String> knownFragmentIds) {
+        Set<String> known = knownFragmentIds == null ? Set.of() : new HashSet<>(knownFragmentIds);
+        LatexSections document = LatexSections.split(latexContent);
+        AtomicInteger rendered = new AtomicInteger();
+        List<PreviewFragmentDTO> fragments = new ArrayList<>();
+
+        List<LatexSections.Section> sections = document.sections();
+        List<String> numbers = new ArrayList<>(sections.size());
+        int numbered = 0;
+        for (LatexSections.Section section : sections) {
+            numbers.add(section.numbered() ? String.valueOf(++numbered) : null);
+        }
+        String toc = tableOfContents(sections, numbers);
+
+        // The table of contents gets a fragment of its own where the front matter has it
+        String[] frontMatter = TABLE_OF_CONTENTS_LINE.split(document.frontMatter(), -1);
+        for (int i = 0; i < frontMatter.length; i++) {
+            if (i > 0) {
+                fragments.add(fragment(TABLE_OF_CONTENTS, toc, known));
+            }
+            if (frontMatter[i].isBlank()) {
+                continue;
+            }
+            String html = render(frontMatter[i], rendered);
+            if (!html.isBlank()) {
+                fragments.add(fragment(FRONT_MATTER, html, known));
+            }
+        }
+        for (int i = 0; i < sections.size(); i++) {
+            LatexSections.Section section = sections.get(i);
+            String[] parts = TABLE_OF_CONTENTS_LINE.split(section.body(), -1);
+            StringBuilder body = new StringBuilder(render(parts[0], rendered));
+            for (int part = 1; part < parts.length; part++) {
+                body.append(toc).append(render(parts[part], rendered));
+            }
+            fragments.add(fragment(SECTION, sectionHtml(i, numbers.get(i), section.title(), body.toString()), known));
+        }
+
+        log.debug("Previewed {} fragments, converted {}", fragments.size(), rendered.get());
+        return LatexPreviewResponseDTO.builder()
+                .fragments(fragments)
+                .renderedFragments(rendered.get())
+                .build();
+    }
+
+    private String render(String latexBody, AtomicInteger rendered) {
+        return sectionHtmlCache.get(sha256(RENDER_VERSION + "\0" + latexBody), () -> {
+            rendered.incrementAndGet();
+            return latexCompilationService.renderHtmlFragment(latexBody);
+        });
+    }
+
+    private static PreviewFragmentDTO fragment(String kind, String html, Set<String> known) {
+        String id = sha256(html).substring(0, FRAGMENT_ID_LENGTH);
+        return PreviewFragmentDTO.builder()
+                .id(id)
+                .kind(kind)
+                .html(known.contains(id) ? null : html)
+                .build();
+    }
+
+    private static String sectionHtml(int index, String number, String title, String body) {
+        StringBuilder html = new StringBuilder();
+        html.append("<section class='latex-section' id='").append(anchor(index)).append("'>\n<h2>");
+        if (number != null) {
+            html.append("<span class='section-number'>").append(number).append("</span> ");
+        }
+        html.append(StringEscapeUtils.escapeHtml4(title)).append("</h2>\n");
+        html.append(number != null ? numberSubsections(body, number) : body);
+        html.append("</section>\n");
+        return html.toString();
+    }
+
+    /**
+     * Number the subsection and subsubsection headings the converter wrote into a section
+     */
+    static String numberSubsections(String html, String sectionNumber) {
+        StringBuilder numbered = new StringBuilder(html.length() + 64);
+        int subsection = 0;
+        int subsubsection = 0;
+        int from = 0;
+        while (true) {
+            int h3 = html.indexOf("<h3>", from);
+            int h4 = html.indexOf("<h4>", from);
+            if (h3 < 0 && h4 < 0) {
+                break;
+            }
+            boolean isSubsection = h3 >= 0 && (h4 < 0 || h3 < h4);
+            int at = isSubsection ? h3 : h4;
+            numbered.append(html, from, at + 4).append("<span class='section-number'>");
+            if (isSubsection) {
+                subsubsection = 0;
+                numbered.append(sectionNumber).append('.').append(++subsection);
+            } else {
+                numbered.append(sectionNumber).append('.').append(subsection).append('.').append(++subsubsection);
+            }
+            numbered.append("</span> ");
+            from = at + 4;
+        }
+        return numbered.append(html, from, html.length()).toString();
+    }
+
+    private static String tableOfContents(List<LatexSections.Section> sections, List<String> numbers) {
+        StringBuilder html = new StringBuilder("<nav class='toc'>\n<ul>\n");
+        for (int i = 0; i < sections.size(); i++) {
+            if (numbers.get(i) == null) {
+                continue;
+            }
+            html.append("<li><a href='#")
+                    .append(anchor(i))
+                    .append("'><span class='section-number'>")
+                    .append(numbers.get(i))
+                    .append("</span> ")
+                    .append(StringEscapeUtils.escapeHtml4(sections.get(i).title()))
+                    .append("</a></li>\n");
+        }
+        return html.append("</ul>\n</nav>\n").toString();
+    }
+
+    private static String anchor(int index) {
+        return "section-" + (index + 1);
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+}
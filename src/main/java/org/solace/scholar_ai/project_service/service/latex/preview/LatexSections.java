@@ -0,0 +1,92 @@
+package org.solace.scholar_ai.project_service.service.latex.preview;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A document body split at its {@code \section} commands, the unit a preview is rendered and
+ * cached in. The preamble is dropped, as the converter does not read it.
+ *
+ * @param frontMatter The body before the first section: title, authors, abstract
+ * @param sections The sections in document order
+ */
+record LatexSections(String frontMatter, List<Section> sections) {
+
+    private static final String BEGIN_DOCUMENT = "\\begin{document}";
+    private static final String END_DOCUMENT = "\\end{document}";
+
+    /**
+     * One section
+     *
+     * @param title The title as written, or the rest of the line while its brace is still open
+     * @param numbered False for {@code \section*}
+     * @param body The LaTeX after the heading, up to the next section
+     */
+    record Section(String title, boolean numbered, String body) {}
+
+    /**
+     * Split a document, or a body without {@code \begin{document}}
+     */
+    static LatexSections split(String latex) {
+        String[] lines = latex.split("\n", -1);
+        int start = 0;
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].trim().equals(BEGIN_DOCUMENT)) {
+                start = i + 1;
+                break;
+            }
+        }
+
+        StringBuilder frontMatter = new StringBuilder();
+        List<Section> sections = new ArrayList<>();
+        String title = null;
+        boolean numbered = false;
+        StringBuilder body = frontMatter;
+        for (int i = start; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.equals(END_DOCUMENT)) {
+                break;
+            }
+            boolean starred = line.startsWith("\\section*{");
+            if (!starred && !line.startsWith("\\section{")) {
+                body.append(lines[i]).append('\n');
+                continue;
+            }
+
+            if (title != null) {
+                sections.add(new Section(title, numbered, body.toString()));
+            }
+            int open = line.indexOf('{');
+            int close = closingBrace(line, open);
+            title = close < 0 ? line.substring(open + 1) : line.substring(open + 1, close);
+            numbered = !starred;
+            body = new StringBuilder();
+            if (close >= 0 && close + 1 < line.length()) {
+                // e.g. a \label after the title
+                body.append(line.substring(close + 1)).append('\n');
+            }
+        }
+        if (title != null) {
+            sections.add(new Section(title, numbered, body.toString()));
+        }
+        return new LatexSections(frontMatter.toString(), List.copyOf(sections));
+    }
+
+    /**
+     * Index of the brace closing the one at {@code open}, or -1 when it is not closed on the line
+     */
+    private static int closingBrace(String line, int open) {
+        int depth = 0;
+        for (int i = open; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,114 @@
+package org.solace.scholar_ai.project_service.service.latex.preview;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * HTML of recently previewed document parts by the hash of their LaTeX, so a preview only
+ * converts the sections edited since the last one. Parts are evicted least recently used first
+ * once they hold more than the configured size.
+ *
+ * <p>Published as {@code cache.*} metrics tagged {@code cache=latex-preview-sections}.
+ */
+@Component
+public class SectionHtmlCache {
+
+    static final String CACHE_NAME = "latex-preview-sections";
+
+    private final long maxBytes;
+
+    // Access order, so the eldest entry is the least recently used; all guarded by this
+    private final LinkedHashMap<String, String> fragments = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public SectionHtmlCache(
+            MeterRegistry meterRegistry,
+            @Value("${scholarai.latex.preview.section-cache.max-size:16MB}") DataSize maxSize) {
+        this.maxBytes = maxSize.toBytes();
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .description("Previewed sections whose HTML was reused")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .description("Previewed sections that were converted")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, SectionHtmlCache::size)
+                .tags("cache", CACHE_NAME)
+                .description("Sections with cached HTML")
+                .register(meterRegistry);
+        Gauge.builder("cache.resident", this, SectionHtmlCache::residentBytes)
+                .tags("cache", CACHE_NAME)
+                .description("Approximate heap held by cached section HTML")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the HTML of a part, converting it if it is not cached
+     *
+     * @param hash Hash of the part's LaTeX
+     * @param render Converts the part
+     * @return The HTML
+     */
+    public String get(String hash, Supplier<String> render) {
+        synchronized (this) {
+            String cached = fragments.get(hash);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        String html = render.get();
+        put(hash, html);
+        return html;
+    }
+
+    private synchronized void put(String hash, String html) {
+        long size = bytes(html);
+        if (size > maxBytes) {
+            return;
+        }
+        String previous = fragments.put(hash, html);
+        if (previous != null) {
+            residentBytes -= bytes(previous);
+        }
+        residentBytes += size;
+
+        Iterator<Map.Entry<String, String>> eldest = fragments.entrySet().iterator();
+        while (residentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, String> entry = eldest.next();
+            if (entry.getKey().equals(hash)) {
+                continue;
+            }
+            residentBytes -= bytes(entry.getValue());
+            eldest.remove();
+        }
+    }
+
+    // Approximate, at two bytes a char
+    private static long bytes(String html) {
+        return 2L * html.length();
+    }
+
+    synchronized int size() {
+        return fragments.size();
+    }
+
+    synchronized long residentBytes() {
+        return residentBytes;
+    }
+}
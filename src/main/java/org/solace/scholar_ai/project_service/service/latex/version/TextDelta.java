@@ -0,0 +1,242 @@
+package org.solace.scholar_ai.project_service.service.latex.version;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compressed forward delta between two versions of a document: the new version as runs of
+ * lines copied from the old one and inserted text, deflated. An edit between two auto-saves
+ * encodes to a few hundred bytes whatever the size of the document.
+ */
+public final class TextDelta {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int END = 0;
+    private static final int COPY = 1;
+    private static final int INSERT = 2;
+
+    // Runs of equal lines shorter than this are inserted, as a copy would not be smaller
+    private static final int MIN_COPY_CHARS = 8;
+    // Places a line occurs in the old version tried as the start of a run; bounds blank lines
+    private static final int MAX_CANDIDATES = 8;
+
+    private TextDelta() {}
+
+    /**
+     * Encode a version against the one before it
+     *
+     * @param base The previous version
+     * @param target The new version
+     * @return The delta
+     */
+    public static byte[] encode(String base, String target) {
+        List<String> baseLines = lines(base);
+        int[] baseStarts = starts(baseLines);
+        Map<String, List<Integer>> lineIndex = new HashMap<>();
+        for (int i = 0; i < baseLines.size(); i++) {
+            lineIndex.computeIfAbsent(baseLines.get(i), line -> new ArrayList<>()).add(i);
+        }
+        List<String> targetLines = lines(target);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeByte(FORMAT_VERSION);
+            writeVarint(out, target.length());
+            Ops ops = new Ops(out);
+            int next = 0;
+            int expected = 0;
+            int insertFrom = 0;
+            int insertTo = 0;
+            while (next < targetLines.size()) {
+                int bestStart = -1;
+                int bestLines = 0;
+                int bestChars = 0;
+                String line = targetLines.get(next);
+                for (int candidate : candidates(lineIndex.get(line), expected, baseLines, line)) {
+                    int run = 0;
+                    while (candidate + run < baseLines.size()
+                            && next + run < targetLines.size()
+                            && baseLines.get(candidate + run).equals(targetLines.get(next + run))) {
+                        run++;
+                    }
+                    int chars = baseStarts[candidate + run] - baseStarts[candidate];
+                    if (chars > bestChars) {
+                        bestStart = candidate;
+                        bestLines = run;
+                        bestChars = chars;
+                    }
+                }
+
+                if (bestChars < MIN_COPY_CHARS) {
+                    insertTo += targetLines.get(next).length();
+                    next++;
+                    continue;
+                }
+                ops.insert(target.substring(insertFrom, insertTo));
+                ops.copy(baseStarts[bestStart], bestChars);
+                next += bestLines;
+                expected = bestStart + bestLines;
+                insertTo += bestChars;
+                insertFrom = insertTo;
+            }
+            ops.insert(target.substring(insertFrom, insertTo));
+            ops.flush();
+            out.writeByte(END);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Apply a delta to the version it was encoded against
+     *
+     * @param base The previous version
+     * @param delta The delta from {@link #encode}
+     * @return The new version
+     * @throws IllegalArgumentException If the delta is corrupt or was not encoded against the base
+     */
+    public static String apply(String base, byte[] delta) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(delta)))) {
+            int format = in.readUnsignedByte();
+            if (format != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unknown document delta format " + format);
+            }
+            int length = readVarint(in);
+            StringBuilder target = new StringBuilder(length);
+            for (int op = in.readUnsignedByte(); op != END; op = in.readUnsignedByte()) {
+                if (op == COPY) {
+                    int start = readVarint(in);
+                    target.append(base, start, start + readVarint(in));
+                } else if (op == INSERT) {
+                    byte[] text = new byte[readVarint(in)];
+                    in.readFully(text);
+                    target.append(new String(text, StandardCharsets.UTF_8));
+                } else {
+                    throw new IllegalArgumentException("Corrupt document delta: unknown op " + op);
+                }
+            }
+            if (target.length() != length) {
+                throw new IllegalArgumentException("Document delta was not encoded against this version");
+            }
+            return target.toString();
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Corrupt document delta", e);
+        }
+    }
+
+    // The line following the previous run first, as edits rarely move text
+    private static List<Integer> candidates(
+            List<Integer> occurrences, int expected, List<String> baseLines, String line) {
+        if (occurrences == null) {
+            return List.of();
+        }
+        List<Integer> candidates = new ArrayList<>(MAX_CANDIDATES + 1);
+        if (expected < baseLines.size() && baseLines.get(expected).equals(line)) {
+            candidates.add(expected);
+        }
+        for (int i = 0; i < occurrences.size() && candidates.size() <= MAX_CANDIDATES; i++) {
+            if (occurrences.get(i) != expected) {
+                candidates.add(occurrences.get(i));
+            }
+        }
+        return candidates;
+    }
+
+    // Lines with their terminators, so they concatenate back to the text
+    private static List<String> lines(String text) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int end = text.indexOf('\n'); end >= 0; end = text.indexOf('\n', start)) {
+            lines.add(text.substring(start, end + 1));
+            start = end + 1;
+        }
+        if (start < text.length()) {
+            lines.add(text.substring(start));
+        }
+        return lines;
+    }
+
+    private static int[] starts(List<String> lines) {
+        int[] starts = new int[lines.size() + 1];
+        for (int i = 0; i < lines.size(); i++) {
+            starts[i + 1] = starts[i] + lines.get(i).length();
+        }
+        return starts;
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint too long");
+    }
+
+    /** Writes ops, joining copies of adjacent runs of the old version */
+    private static final class Ops {
+
+        private final DataOutputStream out;
+        private int copyStart = -1;
+        private int copyLength;
+
+        Ops(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void copy(int start, int length) throws IOException {
+            if (copyStart >= 0 && copyStart + copyLength == start) {
+                copyLength += length;
+                return;
+            }
+            flush();
+            copyStart = start;
+            copyLength = length;
+        }
+
+        void insert(String text) throws IOException {
+            if (text.isEmpty()) {
+                return;
+            }
+            flush();
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            out.writeByte(INSERT);
+            writeVarint(out, bytes.length);
+            out.write(bytes);
+        }
+
+        void flush() throws IOException {
+            if (copyStart < 0) {
+                return;
+            }
+            out.writeByte(COPY);
+            writeVarint(out, copyStart);
+            writeVarint(out, copyLength);
+            copyStart = -1;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package org.solace.scholar_ai.project_service.service.summary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.config.SummaryContextProperties;
+import org.solace.scholar_ai.project_service.dto.summary.ExtractionContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Packs the extraction context of a paper into the token budget of one summary prompt.
+ * Each prompt lists the content it reads in priority order; content is taken in that order
+ * until the budget is spent, and the rest is left out of the prompt.
+ *
+ * <p>Sections are packed by paragraph and always keep their leading paragraphs. Before any
+ * section gets a second paragraph, every section the prompt reads gets its first one, so a
+ * long methods section cannot crowd the experiments out of the methods prompt; only content
+ * a prompt ranks above all of its sections, like the reproducibility prompt's code blocks,
+ * goes before those lead paragraphs. A lead paragraph too long for what is left of the budget
+ * is cut short rather than left out, with the budget left over shared among such leads. Tables,
+ * figures, code blocks and references are packed whole.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContextPacker {
+
+    // Marks a lead paragraph that was cut to fit the budget
+    private static final String CUT_MARK = "...";
+
+    private final SummaryContextProperties properties;
+
+    /**
+     * Pack the part of a paper's extraction a prompt needs into that prompt's budget
+     *
+     * @param context The paper's full extraction context
+     * @param prompt The prompt the context is packed for
+     * @return A context holding only the packed content, with the token counts
+     */
+    public PackedContext pack(ExtractionContext context, Prompt prompt) {
+        Budget budget = new Budget(budgetFor(prompt));
+
+        // Sections each source reads; a section matching several sources counts for the first
+        Map<SectionSource, List<ExtractionContext.SectionContent>> sectionsBySource = new LinkedHashMap<>();
+        Set<ExtractionContext.SectionContent> claimed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Source source : prompt.sources) {
+            if (source instanceof SectionSource sectionSource) {
+                List<ExtractionContext.SectionContent> sections = new ArrayList<>();
+                for (ExtractionContext.SectionContent section : sectionSource.select(context.getSections())) {
+                    if (claimed.add(section)) {
+                        sections.add(section);
+                        section.getParagraphs().forEach(paragraph -> budget.offer(estimateTokens(paragraph)));
+                    }
+                }
+                sectionsBySource.put(sectionSource, sections);
+            }
+        }
+
+        Set<Object> packedAttachments = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<ExtractionContext.SectionContent, Integer> packedParagraphs = new IdentityHashMap<>();
+        Map<ExtractionContext.SectionContent, String> cutLeads = new IdentityHashMap<>();
+
+        // Content ranked above every section, then the lead paragraph of each section
+        int firstSectionSource = 0;
+        while (firstSectionSource < prompt.sources.size()
+                && prompt.sources.get(firstSectionSource) instanceof Attachment attachment) {
+            packAttachment(attachment, context, budget, packedAttachments);
+            firstSectionSource++;
+        }
+        List<ExtractionContext.SectionContent> oversizedLeads = new ArrayList<>();
+        for (List<ExtractionContext.SectionContent> sections : sectionsBySource.values()) {
+            for (ExtractionContext.SectionContent section : sections) {
+                if (section.getParagraphs().isEmpty()) {
+                    continue;
+                }
+                if (budget.take(estimateTokens(section.getParagraphs().get(0)))) {
+                    packedParagraphs.put(section, 1);
+                } else {
+                    oversizedLeads.add(section);
+                }
+            }
+        }
+        for (int i = 0; i < oversizedLeads.size(); i++) {
+            ExtractionContext.SectionContent section = oversizedLeads.get(i);
+            String lead = cut(section.getParagraphs().get(0), budget.remaining / (oversizedLeads.size() - i));
+            if (!lead.isEmpty() && budget.take(estimateTokens(lead))) {
+                packedParagraphs.put(section, 1);
+                cutLeads.put(section, lead);
+            }
+        }
+
+        // Then the rest in priority order
+        for (Source source : prompt.sources.subList(firstSectionSource, prompt.sources.size())) {
+            if (source instanceof SectionSource sectionSource) {
+                for (ExtractionContext.SectionContent section : sectionsBySource.get(sectionSource)) {
+                    Integer packed = packedParagraphs.get(section);
+                    if (packed == null || cutLeads.containsKey(section)) {
+                        continue;
+                    }
+                    List<String> paragraphs = section.getParagraphs();
+                    while (packed < paragraphs.size() && budget.take(estimateTokens(paragraphs.get(packed)))) {
+                        packed++;
+                    }
+                    packedParagraphs.put(section, packed);
+                }
+            } else {
+                packAttachment((Attachment) source, context, budget, packedAttachments);
+            }
+        }
+
+        ExtractionContext packed = ExtractionContext.builder()
+                .title(context.getTitle())
+                .abstractText(context.getAbstractText())
+                .sections(context.getSections().stream()
+                        .filter(packedParagraphs::containsKey)
+                        .map(section -> truncate(section, packedParagraphs.get(section), cutLeads.get(section)))
+                        .toList())
+                .figures(packedOnly(context.getFigures(), packedAttachments))
+                .tables(packedOnly(context.getTables(), packedAttachments))
+                .equations(List.of())
+                .codeBlocks(packedOnly(context.getCodeBlocks(), packedAttachments))
+                .references(packedOnly(context.getReferences(), packedAttachments))
+                .entities(List.of())
+                .pageCount(context.getPageCount())
+                .language(context.getLanguage())
+                .build();
+        log.debug(
+                "Packed {} context for paper {}: {} tokens included, {} dropped",
+                prompt,
+                context.getTitle(),
+                budget.included,
+                budget.dropped());
+        return new PackedContext(packed, budget.included, budget.dropped());
+    }
+
+    private static void packAttachment(
+            Attachment attachment, ExtractionContext context, Budget budget, Set<Object> packedAttachments) {
+        for (Object item : attachment.select(context)) {
+            int tokens = estimateTokens(attachment.render(item));
+            budget.offer(tokens);
+            if (budget.take(tokens)) {
+                packedAttachments.add(item);
+            }
+        }
+    }
+
+    /**
+     * Cut a paragraph short at a word boundary so it estimates to at most the given tokens,
+     * marking the cut with an ellipsis
+     *
+     * @return The cut paragraph, empty when too few tokens are left to keep any of it
+     */
+    private static String cut(String paragraph, int tokens) {
+        int maxChars = tokens * 4 - CUT_MARK.length();
+        if (maxChars <= 0) {
+            return "";
+        }
+        int end = maxChars;
+        int lastSpace = paragraph.lastIndexOf(' ', maxChars);
+        if (lastSpace > maxChars / 2) {
+            end = lastSpace;
+        }
+        String kept = paragraph.substring(0, end).strip();
+        return kept.isEmpty() ? "" : kept + CUT_MARK;
+    }
+
+    /**
+     * Rough token count of a text, at about four characters per token
+     */
+    static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + 3) / 4;
+    }
+
+    private int budgetFor(Prompt prompt) {
+        SummaryContextProperties.Budgets budgets = properties.getBudgets();
+        return switch (prompt) {
+            case QUICK_TAKE -> budgets.getQuickTake();
+            case METHODS -> budgets.getMethods();
+            case REPRODUCIBILITY -> budgets.getReproducibility();
+            case ETHICS -> budgets.getEthics();
+            case CONTEXT_IMPACT -> budgets.getContextImpact();
+        };
+    }
+
+    private static ExtractionContext.SectionContent truncate(
+            ExtractionContext.SectionContent section, int paragraphs, String cutLead) {
+        List<String> kept = cutLead != null ? List.of(cutLead) : section.getParagraphs().subList(0, paragraphs);
+        return ExtractionContext.SectionContent.builder()
+                .id(section.getId())
+                .title(section.getTitle())
+                .type(section.getType())
+                .level(section.getLevel())
+                .paragraphs(kept)
+                .pageStart(section.getPageStart())
+                .pageEnd(section.getPageEnd())
+                .build();
+    }
+
+    private static <T> List<T> packedOnly(List<T> items, Set<Object> packed) {
+        return items.stream().filter(packed::contains).toList();
+    }
+
+    /**
+     * The summary prompts, each with the content it reads in priority order
+     */
+    public enum Prompt {
+        QUICK_TAKE(SectionSource.first(SectionGroup.INTRODUCTION), SectionSource.first(SectionGroup.CONCLUSION)),
+        METHODS(
+                SectionSource.all(SectionGroup.METHODS),
+                SectionSource.all(SectionGroup.EXPERIMENTS),
+                Attachment.TABLES,
+                Attachment.FIGURES,
+                Attachment.CODE_BLOCKS),
+        REPRODUCIBILITY(
+                Attachment.CODE_BLOCKS,
+                Attachment.LINKED_REFERENCES,
+                SectionSource.all(SectionGroup.SUPPLEMENTARY)),
+        ETHICS(
+                SectionSource.all(SectionGroup.ETHICS),
+                SectionSource.all(SectionGroup.LIMITATIONS),
+                SectionSource.all(SectionGroup.DISCUSSION),
+                SectionSource.all(SectionGroup.METHODS),
+                SectionSource.all(SectionGroup.EXPERIMENTS),
+                SectionSource.all(SectionGroup.ANALYSIS)),
+        CONTEXT_IMPACT(
+                SectionSource.first(SectionGroup.INTRODUCTION),
+                SectionSource.first(SectionGroup.RELATED_WORK),
+                SectionSource.all(SectionGroup.DISCUSSION),
+                SectionSource.all(SectionGroup.ANALYSIS),
+                Attachment.REFERENCES);
+
+        private final List<Source> sources;
+
+        Prompt(Source... sources) {
+            this.sources = List.of(sources);
+        }
+    }
+
+    /**
+     * Context packed for one prompt
+     *
+     * @param context The packed content
+     * @param includedTokens Estimated tokens of extraction content in the packed context
+     * @param droppedTokens Estimated tokens of content the prompt reads that did not fit
+     */
+    public record PackedContext(ExtractionContext context, int includedTokens, int droppedTokens) {}
+
+    /**
+     * Tokens left for a prompt, and what was offered and taken so far
+     */
+    private static final class Budget {
+        private int remaining;
+        private int included;
+        private int offered;
+
+        private Budget(int tokens) {
+            this.remaining = tokens;
+        }
+
+        private void offer(int tokens) {
+            offered += tokens;
+        }
+
+        private boolean take(int tokens) {
+            if (tokens > remaining) {
+                return false;
+            }
+            remaining -= tokens;
+            included += tokens;
+            return true;
+        }
+
+        private int dropped() {
+            return offered - included;
+        }
+    }
+
+    private sealed interface Source permits SectionSource, Attachment {}
+
+    private record SectionSource(SectionGroup group, boolean firstOnly) implements Source {
+
+        static SectionSource all(SectionGroup group) {
+            return new SectionSource(group, false);
+        }
+
+        static SectionSource first(SectionGroup group) {
+            return new SectionSource(group, true);
+        }
+
+        List<ExtractionContext.SectionContent> select(List<ExtractionContext.SectionContent> sections) {
+            Stream<ExtractionContext.SectionContent> matching = sections.stream().filter(group::matches);
+            return (firstOnly ? matching.limit(1) : matching).toList();
+        }
+    }
+
+    private enum Attachment implements Source {
+        TABLES(
+                ExtractionContext::getTables,
+                table -> table.getLabel() + ": " + table.getCaption() + "\n" + table.getHeaders()),
+        FIGURES(ExtractionContext::getFigures, figure -> figure.getLabel() + ": " + figure.getCaption()),
+        CODE_BLOCKS(ExtractionContext::getCodeBlocks, code -> code.getLanguage() + "\n" + code.getCode()),
+        LINKED_REFERENCES(
+                context -> context.getReferences().stream()
+                        .filter(reference -> reference.getUrl() != null || reference.getDoi() != null)
+                        .toList(),
+                reference -> reference.getTitle() + " URL: " + reference.getUrl() + " DOI: " + reference.getDoi()),
+        REFERENCES(
+                ExtractionContext::getReferences,
+                reference -> reference.getAuthors() + " (" + reference.getYear() + "): " + reference.getTitle());
+
+        private final Function<ExtractionContext, List<?>> items;
+        private final Function<Object, String> renderer;
+
+        @SuppressWarnings("unchecked")
+        <T> Attachment(Function<ExtractionContext, List<T>> items, Function<T, String> renderer) {
+            this.items = items::apply;
+            this.renderer = item -> renderer.apply((T) item);
+        }
+
+        List<?> select(ExtractionContext context) {
+            return items.apply(context);
+        }
+
+        String render(Object item) {
+            return renderer.apply(item);
+        }
+    }
+}
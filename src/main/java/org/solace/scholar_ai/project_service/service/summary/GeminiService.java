@@ -1,12 +1,19 @@
 package org.solace.scholar_ai.project_service.service.summary;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.github.resilience4j.retry.annotation.Retry;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.solace.scholar_ai.project_service.config.GeminiConfig;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -55,29 +63,7 @@ public class GeminiService {
         try {
             String url = geminiConfig.getApiUrl() + "?key=" + geminiConfig.getApiKey();
 
-            Map<String, Object> requestBody = new HashMap<>();
-
-            // Add prompt
-            Map<String, Object> content = new HashMap<>();
-            content.put("parts", List.of(Map.of("text", prompt)));
-            requestBody.put("contents", List.of(content));
-
-            // Add generation config
-            Map<String, Object> generationConfig = new HashMap<>();
-            generationConfig.put("temperature", config.getTemperature());
-            generationConfig.put("maxOutputTokens", config.getMaxOutputTokens());
-            generationConfig.put("topP", config.getTopP());
-            generationConfig.put("topK", config.getTopK());
-            requestBody.put("generationConfig", generationConfig);
-
-            // Add safety settings
-            requestBody.put(
-                    "safetySettings",
-                    List.of(
-                            Map.of("category", "HARM_CATEGORY_DANGEROUS_CONTENT", "threshold", "BLOCK_NONE"),
-                            Map.of("category", "HARM_CATEGORY_HATE_SPEECH", "threshold", "BLOCK_NONE"),
-                            Map.of("category", "HARM_CATEGORY_HARASSMENT", "threshold", "BLOCK_NONE"),
-                            Map.of("category", "HARM_CATEGORY_SEXUALLY_EXPLICIT", "threshold", "BLOCK_NONE")));
+            Map<String, Object> requestBody = buildRequestBody(prompt, config);
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
@@ -98,6 +84,110 @@ public class GeminiService {
         }
     }
 
+    /**
+     * Generate content with Gemini's streamGenerateContent endpoint, handing each text
+     * fragment to {@code onToken} as soon as it arrives. Not retried and without a fallback:
+     * once fragments have been forwarded, a second attempt would repeat them.
+     *
+     * @param prompt The prompt
+     * @param config Generation parameters
+     * @param onToken Receives text fragments in order; an exception thrown here aborts the stream
+     * @return The complete generated text
+     */
+    @RateLimiter(name = "gemini-api")
+    public String generateStream(String prompt, GenerationConfig config, Consumer<String> onToken) {
+        String url = streamUrl(geminiConfig.getApiUrl()) + "&key=" + geminiConfig.getApiKey();
+        Map<String, Object> requestBody = buildRequestBody(prompt, config);
+
+        String text = restTemplate.execute(
+                url,
+                HttpMethod.POST,
+                request -> {
+                    request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+                    objectMapper.writeValue(request.getBody(), requestBody);
+                },
+                response -> readStream(response.getBody(), onToken));
+
+        if (text == null || text.isBlank()) {
+            throw new RuntimeException("Gemini stream returned no text");
+        }
+        return text;
+    }
+
+    /**
+     * Streaming URL for a configured generateContent URL
+     */
+    static String streamUrl(String apiUrl) {
+        String base = apiUrl.replace(":generateContent", ":streamGenerateContent");
+        return base + (base.contains("?") ? "&" : "?") + "alt=sse";
+    }
+
+    /**
+     * Read a server-sent event stream of GenerateContentResponse chunks
+     */
+    private String readStream(InputStream body, Consumer<String> onToken) throws IOException {
+        StringBuilder text = new StringBuilder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+            String data = line.substring(5).trim();
+            if (data.isEmpty() || "[DONE]".equals(data)) {
+                continue;
+            }
+            String fragment = extractStreamedText(objectMapper.readTree(data));
+            if (!fragment.isEmpty()) {
+                text.append(fragment);
+                onToken.accept(fragment);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Text of one streamed chunk; the last chunk often carries only a finish reason
+     */
+    static String extractStreamedText(JsonNode chunk) {
+        if (chunk.has("error")) {
+            throw new RuntimeException("Gemini stream error: " + chunk.path("error").path("message").asText());
+        }
+        StringBuilder text = new StringBuilder();
+        for (JsonNode part : chunk.path("candidates").path(0).path("content").path("parts")) {
+            text.append(part.path("text").asText(""));
+        }
+        return text.toString();
+    }
+
+    private Map<String, Object> buildRequestBody(String prompt, GenerationConfig config) {
+        Map<String, Object> requestBody = new HashMap<>();
+
+        // Add prompt
+        Map<String, Object> content = new HashMap<>();
+        content.put("parts", List.of(Map.of("text", prompt)));
+        requestBody.put("contents", List.of(content));
+
+        // Add generation config
+        Map<String, Object> generationConfig = new HashMap<>();
+        generationConfig.put("temperature", config.getTemperature());
+        generationConfig.put("maxOutputTokens", config.getMaxOutputTokens());
+        generationConfig.put("topP", config.getTopP());
+        generationConfig.put("topK", config.getTopK());
+        requestBody.put("generationConfig", generationConfig);
+
+        // Add safety settings
+        requestBody.put(
+                "safetySettings",
+                List.of(
+                        Map.of("category", "HARM_CATEGORY_DANGEROUS_CONTENT", "threshold", "BLOCK_NONE"),
+                        Map.of("category", "HARM_CATEGORY_HATE_SPEECH", "threshold", "BLOCK_NONE"),
+                        Map.of("category", "HARM_CATEGORY_HARASSMENT", "threshold", "BLOCK_NONE"),
+                        Map.of("category", "HARM_CATEGORY_SEXUALLY_EXPLICIT", "threshold", "BLOCK_NONE")));
+        return requestBody;
+    }
+
     /**
      * Extract text from Gemini response
      */
@@ -3,101 +3,119 @@ package org.solace.scholar_ai.project_service.service.summary;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.solace.scholar_ai.project_service.client.UserNotificationClient;
 import org.solace.scholar_ai.project_service.dto.summary.ExtractionContext;
 import org.solace.scholar_ai.project_service.dto.summary.PaperSummaryDto;
 import org.solace.scholar_ai.project_service.exception.PaperNotExtractedException;
-import org.solace.scholar_ai.project_service.model.extraction.*;
 import org.solace.scholar_ai.project_service.model.paper.Paper;
 import org.solace.scholar_ai.project_service.model.papersearch.WebSearchOperation;
 import org.solace.scholar_ai.project_service.model.project.Project;
 import org.solace.scholar_ai.project_service.model.summary.PaperSummary;
-import org.solace.scholar_ai.project_service.repository.extraction.PaperExtractionRepository;
 import org.solace.scholar_ai.project_service.repository.paper.PaperRepository;
 import org.solace.scholar_ai.project_service.repository.papersearch.WebSearchOperationRepository;
 import org.solace.scholar_ai.project_service.repository.project.ProjectRepository;
 import org.solace.scholar_ai.project_service.repository.summary.PaperSummaryRepository;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshotLoader;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service for generating comprehensive paper summaries using extracted data and
- * Gemini AI
+ * Gemini AI. The extraction is read and the summary written in two short transactions;
+ * no database connection is held while the Gemini prompts run.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PaperSummaryGenerationService {
 
+    /**
+     * Gemini prompts issued for every generated summary
+     */
+    public static final int PROMPTS_PER_SUMMARY = 5;
+
+    /**
+     * Extraction content read by the summary prompts
+     */
+    private static final Set<ExtractionSnapshot.Content> SUMMARY_CONTENTS = EnumSet.of(
+            ExtractionSnapshot.Content.SECTIONS,
+            ExtractionSnapshot.Content.FIGURES,
+            ExtractionSnapshot.Content.TABLES,
+            ExtractionSnapshot.Content.CODE_BLOCKS,
+            ExtractionSnapshot.Content.REFERENCES);
+
     private final PaperRepository paperRepository;
-    private final PaperExtractionRepository extractionRepository;
+    private final ExtractionSnapshotLoader snapshotLoader;
     private final PaperSummaryRepository summaryRepository;
     private final GeminiService geminiService;
     private final ObjectMapper objectMapper;
     private final UserNotificationClient notificationClient;
     private final WebSearchOperationRepository webSearchOperationRepository;
     private final ProjectRepository projectRepository;
-
-    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    private final SummaryExecutors summaryExecutors;
+    private final ContextPacker contextPacker;
+    private final TransactionTemplate transactionTemplate;
 
     /**
-     * Generate a comprehensive summary for a paper
+     * Generate a comprehensive summary for a paper. Callers should go through
+     * {@link SummaryJobService}, which runs this on the summary job executor and shares one
+     * generation between concurrent requests for the same paper.
      */
-    @Transactional
     public PaperSummary generateSummary(UUID paperId) {
         log.info("Starting summary generation for paper: {}", paperId);
         long startTime = System.currentTimeMillis();
 
         try {
-            // 1. Check if paper exists first
-            Paper paper = paperRepository
-                    .findById(paperId)
-                    .orElseThrow(() -> new RuntimeException("Paper not found: " + paperId));
-
-            // 2. Check if paper has been extracted
-            if (!paper.getIsExtracted()) {
-                throw new PaperNotExtractedException(
-                        "Paper has not been extracted yet. Please extract the paper first before generating a summary.");
-            }
-
-            // 3. Check extraction status
-            if (!"COMPLETED".equals(paper.getExtractionStatus())) {
-                throw new PaperNotExtractedException("Paper extraction is not completed. Current status: "
-                        + paper.getExtractionStatus() + ". Please wait for extraction to complete.");
-            }
-
-            // 4. Set summarization status to PROCESSING
-            paper.setSummarizationStatus("PROCESSING");
-            paper.setSummarizationStartedAt(Instant.now());
-            paperRepository.save(paper);
-
-            // 5. Fetch extraction data
-            PaperExtraction extraction = extractionRepository
-                    .findByPaperId(paperId)
-                    .orElseThrow(() -> new RuntimeException("No extraction found for paper: " + paperId));
-
-            // 6. Build extraction context
-            ExtractionContext context = buildExtractionContext(extraction);
+            // 1-6. Validate the paper, mark it as processing and read its extraction
+            ExtractionContext context = transactionTemplate.execute(status -> prepareGeneration(paperId));
 
             // 7. Generate summary using parallel processing for different sections
-            PaperSummaryDto summaryDTO = generateSummaryWithGemini(context, extraction);
+            GeneratedSummary generated = generateSummaryWithGemini(context);
 
             // 8. Calculate quality metrics
-            enrichSummaryWithMetrics(summaryDTO, context);
+            enrichSummaryWithMetrics(generated.summary(), context);
 
             // 9. Save to database and update paper status
-            PaperSummary summary = saveSummary(summaryDTO, extraction.getPaper(), startTime);
+            PaperSummary summary;
+            try {
+                summary = transactionTemplate.execute(status -> saveSummary(
+                        generated,
+                        paperRepository
+                                .findById(paperId)
+                                .orElseThrow(() -> new RuntimeException("Paper not found: " + paperId)),
+                        startTime));
+            } catch (DataIntegrityViolationException e) {
+                // Handle race condition: another process created the summary while we were
+                // generating
+                log.info("Race condition detected during save for paper: {}, checking for existing summary", paperId);
+                PaperSummary existingSummary =
+                        summaryRepository.findByPaperId(paperId).orElse(null);
+                if (existingSummary == null) {
+                    throw e;
+                }
+                return existingSummary;
+            }
+            if (summary == null) {
+                log.info("Summary already exists for paper: {}, returning existing summary", paperId);
+                return summaryRepository.findByPaperId(paperId).orElseThrow();
+            }
+
+            notifySummarizationCompleted(summary);
 
             log.info(
                     "Summary generation completed for paper: {} in {} seconds",
@@ -127,76 +145,110 @@ public class PaperSummaryGenerationService {
     }
 
     /**
-     * Build extraction context from all extracted data
+     * Check that a paper can be summarized, mark it as processing and build the context
+     * for the prompts while the extraction is still attached
      */
-    private ExtractionContext buildExtractionContext(PaperExtraction extraction) {
-        log.debug(
-                "Building extraction context for paper: {}",
-                extraction.getPaper().getId());
+    private ExtractionContext prepareGeneration(UUID paperId) {
+        // 1. Check if paper exists first
+        Paper paper = paperRepository
+                .findById(paperId)
+                .orElseThrow(() -> new RuntimeException("Paper not found: " + paperId));
+
+        // 2. Check if paper has been extracted
+        if (!paper.getIsExtracted()) {
+            throw new PaperNotExtractedException(
+                    "Paper has not been extracted yet. Please extract the paper first before generating a summary.");
+        }
 
-        // Process sections hierarchically
-        List<ExtractionContext.SectionContent> sections = processSections(extraction.getSections());
+        // 3. Check extraction status
+        if (!"COMPLETED".equals(paper.getExtractionStatus())) {
+            throw new PaperNotExtractedException("Paper extraction is not completed. Current status: "
+                    + paper.getExtractionStatus() + ". Please wait for extraction to complete.");
+        }
 
-        // Process figures
-        List<ExtractionContext.FigureContent> figures =
-                extraction.getFigures().stream().map(this::mapFigure).collect(Collectors.toList());
+        // 4. Set summarization status to PROCESSING
+        paper.setSummarizationStatus("PROCESSING");
+        paper.setSummarizationStartedAt(Instant.now());
+        paperRepository.save(paper);
 
-        // Process tables
-        List<ExtractionContext.TableContent> tables =
-                extraction.getTables().stream().map(this::mapTable).collect(Collectors.toList());
+        // 5. Load the extraction content the prompts read
+        ExtractionSnapshot extraction = snapshotLoader
+                .loadByPaperId(paperId, SUMMARY_CONTENTS)
+                .orElseThrow(() -> new RuntimeException("No extraction found for paper: " + paperId));
 
-        // Process equations
-        List<ExtractionContext.EquationContent> equations =
-                extraction.getEquations().stream().map(this::mapEquation).collect(Collectors.toList());
+        // 6. Build extraction context
+        return buildExtractionContext(extraction);
+    }
 
-        // Process code blocks
-        List<ExtractionContext.CodeBlockContent> codeBlocks =
-                extraction.getCodeBlocks().stream().map(this::mapCodeBlock).collect(Collectors.toList());
+    /**
+     * Build extraction context from the extracted data the summary prompts read
+     */
+    private ExtractionContext buildExtractionContext(ExtractionSnapshot extraction) {
+        log.debug("Building extraction context for paper: {}", extraction.paperId());
 
-        // Process references
-        List<ExtractionContext.ReferenceContent> references =
-                extraction.getReferences().stream().map(this::mapReference).collect(Collectors.toList());
+        // Process sections hierarchically
+        List<ExtractionContext.SectionContent> sections = extraction.topLevelSections().stream()
+                .map(section -> mapSection(extraction, section))
+                .toList();
 
-        // Process entities
-        List<ExtractionContext.EntityContent> entities =
-                extraction.getEntities().stream().map(this::mapEntity).collect(Collectors.toList());
+        List<ExtractionContext.FigureContent> figures =
+                extraction.figures().stream().map(this::mapFigure).toList();
+        List<ExtractionContext.TableContent> tables =
+                extraction.tables().stream().map(this::mapTable).toList();
+        List<ExtractionContext.CodeBlockContent> codeBlocks =
+                extraction.codeBlocks().stream().map(this::mapCodeBlock).toList();
+        List<ExtractionContext.ReferenceContent> references =
+                extraction.references().stream().map(this::mapReference).toList();
 
+        // Equations and entities are not read by any prompt, so they are not loaded
         return ExtractionContext.builder()
-                .title(extraction.getTitle())
-                .abstractText(extraction.getAbstractText())
+                .title(extraction.title())
+                .abstractText(extraction.abstractText())
                 .sections(sections)
                 .figures(figures)
                 .tables(tables)
-                .equations(equations)
+                .equations(List.of())
                 .codeBlocks(codeBlocks)
                 .references(references)
-                .entities(entities)
-                .pageCount(extraction.getPageCount())
-                .language(extraction.getLanguage())
+                .entities(List.of())
+                .pageCount(extraction.pageCount())
+                .language(extraction.language())
                 .build();
     }
 
     /**
      * Generate summary using Gemini with parallel processing
      */
-    private PaperSummaryDto generateSummaryWithGemini(ExtractionContext context, PaperExtraction extraction) {
-        log.debug("Generating summary with Gemini for paper: {}", extraction.getTitle());
+    private GeneratedSummary generateSummaryWithGemini(ExtractionContext context) {
+        log.debug("Generating summary with Gemini for paper: {}", context.getTitle());
+        Executor promptExecutor = summaryExecutors.prompts();
+
+        // Pack the part of the extraction each prompt needs into its token budget
+        Map<ContextPacker.Prompt, ContextPacker.PackedContext> packed = new EnumMap<>(ContextPacker.Prompt.class);
+        for (ContextPacker.Prompt prompt : ContextPacker.Prompt.values()) {
+            packed.put(prompt, contextPacker.pack(context, prompt));
+        }
+        ExtractionContext quickTakeContext = packed.get(ContextPacker.Prompt.QUICK_TAKE).context();
+        ExtractionContext methodsContext = packed.get(ContextPacker.Prompt.METHODS).context();
+        ExtractionContext reproducibilityContext = packed.get(ContextPacker.Prompt.REPRODUCIBILITY).context();
+        ExtractionContext ethicsContext = packed.get(ContextPacker.Prompt.ETHICS).context();
+        ExtractionContext contextImpactContext = packed.get(ContextPacker.Prompt.CONTEXT_IMPACT).context();
 
         // Create parallel tasks for different aspects
         CompletableFuture<Map<String, Object>> quickTakeFuture =
-                CompletableFuture.supplyAsync(() -> generateQuickTake(context), executorService);
+                CompletableFuture.supplyAsync(() -> generateQuickTake(quickTakeContext), promptExecutor);
 
         CompletableFuture<Map<String, Object>> methodsFuture =
-                CompletableFuture.supplyAsync(() -> generateMethodsAndData(context), executorService);
+                CompletableFuture.supplyAsync(() -> generateMethodsAndData(methodsContext), promptExecutor);
 
-        CompletableFuture<Map<String, Object>> reproducibilityFuture =
-                CompletableFuture.supplyAsync(() -> generateReproducibility(context), executorService);
+        CompletableFuture<Map<String, Object>> reproducibilityFuture = CompletableFuture.supplyAsync(
+                () -> generateReproducibility(reproducibilityContext), promptExecutor);
 
         CompletableFuture<Map<String, Object>> ethicsFuture =
-                CompletableFuture.supplyAsync(() -> generateEthicsAndCompliance(context), executorService);
+                CompletableFuture.supplyAsync(() -> generateEthicsAndCompliance(ethicsContext), promptExecutor);
 
         CompletableFuture<Map<String, Object>> contextImpactFuture =
-                CompletableFuture.supplyAsync(() -> generateContextAndImpact(context), executorService);
+                CompletableFuture.supplyAsync(() -> generateContextAndImpact(contextImpactContext), promptExecutor);
 
         // Wait for all tasks and combine results
         CompletableFuture<Void> allFutures = CompletableFuture.allOf(
@@ -211,8 +263,32 @@ public class PaperSummaryGenerationService {
         Map<String, Object> ethics = ethicsFuture.join();
         Map<String, Object> contextImpact = contextImpactFuture.join();
 
+        // Detect fallback responses and strip their metadata before the fields are counted
+        String fallbackReason = null;
+        boolean fallback = false;
+        for (Map<String, Object> section : List.of(quickTake, methods, reproducibility, ethics, contextImpact)) {
+            if ("fallback".equals(section.remove(RESPONSE_SOURCE_KEY))) {
+                fallback = true;
+                fallbackReason = Stream.of(fallbackReason, (String) section.get(FALLBACK_REASON_KEY))
+                        .filter(reason -> reason != null)
+                        .findFirst()
+                        .orElse(null);
+            }
+            section.remove(FALLBACK_REASON_KEY);
+            section.remove("_timestamp");
+        }
+
         // Build final summary DTO
-        return buildSummaryDTO(quickTake, methods, reproducibility, ethics, contextImpact, context);
+        return new GeneratedSummary(
+                buildSummaryDTO(quickTake, methods, reproducibility, ethics, contextImpact, context),
+                fallback,
+                fallbackReason,
+                packed.values().stream()
+                        .mapToInt(ContextPacker.PackedContext::includedTokens)
+                        .sum(),
+                packed.values().stream()
+                        .mapToInt(ContextPacker.PackedContext::droppedTokens)
+                        .sum());
     }
 
     /**
@@ -291,110 +367,66 @@ public class PaperSummaryGenerationService {
     }
 
     /**
-     * Process sections hierarchically
-     */
-    private List<ExtractionContext.SectionContent> processSections(List<ExtractedSection> sections) {
-        // Sort by order index
-        sections.sort(
-                Comparator.comparing(ExtractedSection::getOrderIndex, Comparator.nullsLast(Comparator.naturalOrder())));
-
-        List<ExtractionContext.SectionContent> result = new ArrayList<>();
-
-        for (ExtractedSection section : sections) {
-            // Only process top-level sections (parent is null)
-            if (section.getParentSection() == null) {
-                result.add(processSectionRecursively(section));
-            }
-        }
-
-        return result;
-    }
-
-    /**
-     * Process a section and its subsections recursively
+     * Map a section with the paragraphs of its subsections appended to its own
      */
-    private ExtractionContext.SectionContent processSectionRecursively(ExtractedSection section) {
-        List<String> paragraphs = section.getParagraphs().stream()
-                .sorted(Comparator.comparing(
-                        ExtractedParagraph::getOrderIndex, Comparator.nullsLast(Comparator.naturalOrder())))
-                .map(ExtractedParagraph::getText)
+    private ExtractionContext.SectionContent mapSection(
+            ExtractionSnapshot extraction, ExtractionSnapshot.Section section) {
+        List<String> paragraphs = extraction.subtreeParagraphs(section).stream()
+                .map(ExtractionSnapshot.Paragraph::text)
                 .collect(Collectors.toList());
 
-        // Add subsection content
-        for (ExtractedSection subsection : section.getSubsections()) {
-            ExtractionContext.SectionContent subContent = processSectionRecursively(subsection);
-            paragraphs.addAll(subContent.getParagraphs());
-        }
-
         return ExtractionContext.SectionContent.builder()
-                .id(section.getSectionId())
-                .title(section.getTitle())
-                .type(section.getSectionType())
-                .level(section.getLevel())
+                .id(section.sectionId())
+                .title(section.title())
+                .type(section.type())
+                .level(section.level())
                 .paragraphs(paragraphs)
-                .pageStart(section.getPageStart())
-                .pageEnd(section.getPageEnd())
+                .pageStart(section.pageStart())
+                .pageEnd(section.pageEnd())
                 .build();
     }
 
-    // Mapping methods for other entities
-    private ExtractionContext.FigureContent mapFigure(ExtractedFigure figure) {
+    // Mapping methods for other extracted content
+    private ExtractionContext.FigureContent mapFigure(ExtractionSnapshot.Figure figure) {
         return ExtractionContext.FigureContent.builder()
-                .id(figure.getFigureId())
-                .label(figure.getLabel())
-                .caption(figure.getCaption())
-                .page(figure.getPage())
-                .ocrText(figure.getOcrText())
+                .id(figure.figureId())
+                .label(figure.label())
+                .caption(figure.caption())
+                .page(figure.page())
+                .ocrText(figure.ocrText())
                 .build();
     }
 
-    private ExtractionContext.TableContent mapTable(ExtractedTable table) {
+    private ExtractionContext.TableContent mapTable(ExtractionSnapshot.Table table) {
         return ExtractionContext.TableContent.builder()
-                .id(table.getTableId())
-                .label(table.getLabel())
-                .caption(table.getCaption())
-                .page(table.getPage())
-                .headers(table.getHeaders())
-                .rows(table.getRows())
-                .html(table.getHtml())
+                .id(table.tableId())
+                .label(table.label())
+                .caption(table.caption())
+                .page(table.page())
+                .headers(table.headers())
+                .rows(table.rows())
+                .html(table.html())
                 .build();
     }
 
-    private ExtractionContext.EquationContent mapEquation(ExtractedEquation equation) {
-        return ExtractionContext.EquationContent.builder()
-                .id(equation.getEquationId())
-                .label(equation.getLabel())
-                .latexContent(equation.getLatex())
-                .page(equation.getPage())
-                .build();
-    }
-
-    private ExtractionContext.CodeBlockContent mapCodeBlock(ExtractedCodeBlock codeBlock) {
+    private ExtractionContext.CodeBlockContent mapCodeBlock(ExtractionSnapshot.CodeBlock codeBlock) {
         return ExtractionContext.CodeBlockContent.builder()
-                .id(codeBlock.getCodeId())
-                .language(codeBlock.getLanguage())
-                .code(codeBlock.getCode())
-                .page(codeBlock.getPage())
+                .id(codeBlock.codeId())
+                .language(codeBlock.language())
+                .code(codeBlock.code())
+                .page(codeBlock.page())
                 .build();
     }
 
-    private ExtractionContext.ReferenceContent mapReference(ExtractedReference reference) {
+    private ExtractionContext.ReferenceContent mapReference(ExtractionSnapshot.Reference reference) {
         return ExtractionContext.ReferenceContent.builder()
-                .id(reference.getReferenceId())
-                .title(reference.getTitle())
-                .authors(reference.getAuthors())
-                .year(reference.getYear())
-                .venue(reference.getVenue())
-                .doi(reference.getDoi())
-                .build();
-    }
-
-    private ExtractionContext.EntityContent mapEntity(ExtractedEntity entity) {
-        return ExtractionContext.EntityContent.builder()
-                .id(entity.getEntityId())
-                .text(entity.getName())
-                .type(entity.getEntityType())
-                .metadata(entity.getContext())
+                .id(reference.referenceId())
+                .title(reference.title())
+                .authors(reference.authors())
+                .year(reference.year())
+                .venue(reference.venue())
+                .doi(reference.doi())
+                .url(reference.url())
                 .build();
     }
 
@@ -414,18 +446,9 @@ public class PaperSummaryGenerationService {
 
             Map<String, Object> parsed = objectMapper.readValue(json, Map.class);
 
-            // Check if this is a fallback response
-            if (parsed.containsKey("_response_source") && "fallback".equals(parsed.get("_response_source"))) {
-                log.info("Detected fallback response: {}", parsed.get("_fallback_reason"));
-                isFallbackResponse = true;
-                fallbackReason = (String) parsed.get("_fallback_reason");
-                // Remove metadata fields from the parsed response
-                parsed.remove("_response_source");
-                parsed.remove("_fallback_reason");
-                parsed.remove("_timestamp");
-            } else {
-                isFallbackResponse = false;
-                fallbackReason = null;
+            // Fallback metadata is kept until all sections are in, see generateSummaryWithGemini
+            if ("fallback".equals(parsed.get(RESPONSE_SOURCE_KEY))) {
+                log.info("Detected fallback response: {}", parsed.get(FALLBACK_REASON_KEY));
             }
 
             return parsed;
@@ -435,12 +458,19 @@ public class PaperSummaryGenerationService {
         }
     }
 
+    private static final String RESPONSE_SOURCE_KEY = "_response_source";
+    private static final String FALLBACK_REASON_KEY = "_fallback_reason";
+
     /**
-     * Track response source for monitoring and debugging
+     * Summary built from the Gemini responses, with whether any section came from a fallback
+     * and the estimated extraction tokens the prompts included and left out
      */
-    private boolean isFallbackResponse = false;
-
-    private String fallbackReason = null;
+    private record GeneratedSummary(
+            PaperSummaryDto summary,
+            boolean fallback,
+            String fallbackReason,
+            int contextTokensIncluded,
+            int contextTokensDropped) {}
 
     /**
      * Build final summary DTO from all components
@@ -809,13 +839,15 @@ public class PaperSummaryGenerationService {
 
     /**
      * Save summary to database
+     *
+     * @return The saved summary, or null when the paper already has one
      */
-    private PaperSummary saveSummary(PaperSummaryDto dto, Paper paper, long startTime) {
+    private PaperSummary saveSummary(GeneratedSummary generated, Paper paper, long startTime) {
+        PaperSummaryDto dto = generated.summary();
         try {
             // Double-check if summary already exists (race condition protection)
             if (summaryRepository.findByPaperId(paper.getId()).isPresent()) {
-                log.info("Summary already exists for paper: {}, returning existing summary", paper.getId());
-                return summaryRepository.findByPaperId(paper.getId()).get();
+                return null;
             }
 
             PaperSummary summary = PaperSummary.builder()
@@ -857,10 +889,12 @@ public class PaperSummaryGenerationService {
                     .futureWork(objectMapper.writeValueAsString(dto.getFutureWork()))
                     .modelVersion("gemini-pro-1.5")
                     .responseSource(
-                            isFallbackResponse
+                            generated.fallback()
                                     ? PaperSummary.ResponseSource.FALLBACK
                                     : PaperSummary.ResponseSource.GEMINI_API)
-                    .fallbackReason(fallbackReason)
+                    .fallbackReason(generated.fallbackReason())
+                    .contextTokensIncluded(generated.contextTokensIncluded())
+                    .contextTokensDropped(generated.contextTokensDropped())
                     .generationTimestamp(Instant.now())
                     .generationTimeSeconds((System.currentTimeMillis() - startTime) / 1000.0)
                     .validationStatus(PaperSummary.ValidationStatus.PENDING)
@@ -874,58 +908,51 @@ public class PaperSummaryGenerationService {
             paper.setIsSummarized(true);
             paperRepository.save(paper);
 
-            // Notify user
-            try {
-                java.util.Map<String, Object> data = new java.util.HashMap<>();
-                data.put("paperTitle", paper.getTitle());
-                data.put("doi", paper.getDoi());
-                data.put("confidence", summary.getConfidence());
-                data.put("appUrl", "https://scholarai.me");
-
-                java.util.UUID userId = null;
-                String correlationId = paper.getCorrelationId();
-                if (correlationId != null) {
-                    WebSearchOperation op =
-                            webSearchOperationRepository.findById(correlationId).orElse(null);
-                    if (op != null) {
-                        Project project =
-                                projectRepository.findById(op.getProjectId()).orElse(null);
-                        if (project != null) {
-                            userId = project.getUserId();
-                            data.put("projectName", project.getName());
-                        }
-                    }
-                }
-                if (userId != null) {
-                    notificationClient.send(userId, "SUMMARIZATION_COMPLETED", data);
-                } else {
-                    log.warn("Could not resolve userId for summarization notification of paper {}", paper.getId());
-                }
-            } catch (Exception e) {
-                log.warn("Failed to send summarization completed notification: {}", e.getMessage());
-            }
-
             return summary;
 
-        } catch (org.springframework.dao.DataIntegrityViolationException e) {
-            // Handle race condition: another process created the summary while we were
-            // generating
-            log.info("Race condition detected during save for paper: {}, checking for existing summary", paper.getId());
-            if (summaryRepository.findByPaperId(paper.getId()).isPresent()) {
-                PaperSummary existingSummary =
-                        summaryRepository.findByPaperId(paper.getId()).get();
-                log.info("Found existing summary for paper: {}, returning it", paper.getId());
-                return existingSummary;
-            }
-            // If summary still doesn't exist, re-throw the exception
-            log.error("DataIntegrityViolationException but no existing summary found for paper: {}", paper.getId(), e);
-            throw e;
         } catch (Exception e) {
             log.error("Failed to save summary for paper: {}", paper.getId(), e);
             throw new RuntimeException("Failed to save summary", e);
         }
     }
 
+    /**
+     * Notify the owner of the paper's project that its summary is ready. Runs after the
+     * summary is committed, so the notification call does not hold a database connection.
+     */
+    private void notifySummarizationCompleted(PaperSummary summary) {
+        Paper paper = summary.getPaper();
+        try {
+            java.util.Map<String, Object> data = new java.util.HashMap<>();
+            data.put("paperTitle", paper.getTitle());
+            data.put("doi", paper.getDoi());
+            data.put("confidence", summary.getConfidence());
+            data.put("appUrl", "https://scholarai.me");
+
+            java.util.UUID userId = null;
+            String correlationId = paper.getCorrelationId();
+            if (correlationId != null) {
+                WebSearchOperation op =
+                        webSearchOperationRepository.findById(correlationId).orElse(null);
+                if (op != null) {
+                    Project project =
+                            projectRepository.findById(op.getProjectId()).orElse(null);
+                    if (project != null) {
+                        userId = project.getUserId();
+                        data.put("projectName", project.getName());
+                    }
+                }
+            }
+            if (userId != null) {
+                notificationClient.send(userId, "SUMMARIZATION_COMPLETED", data);
+            } else {
+                log.warn("Could not resolve userId for summarization notification of paper {}", paper.getId());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to send summarization completed notification: {}", e.getMessage());
+            }
+    }
+
     // Helper conversion methods
     @SuppressWarnings("unchecked")
     private List<String> convertToList(Object obj) {
@@ -0,0 +1,507 @@
+package org.solace.scholar_ai.project_service.service.summary;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.dto.summary.BatchSummaryProgressDto;
+import org.solace.scholar_ai.project_service.exception.SummaryJobRejectedException;
+import org.solace.scholar_ai.project_service.model.paper.Paper;
+import org.solace.scholar_ai.project_service.model.papersearch.WebSearchOperation;
+import org.solace.scholar_ai.project_service.repository.extraction.PaperExtractionRepository;
+import org.solace.scholar_ai.project_service.repository.paper.PaperRepository;
+import org.solace.scholar_ai.project_service.repository.papersearch.WebSearchOperationRepository;
+import org.solace.scholar_ai.project_service.repository.summary.PaperSummaryRepository;
+import org.solace.scholar_ai.project_service.service.paper.PaperPersistenceService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Summarizes every extracted but unsummarized paper of a project. Selected papers are marked
+ * PENDING and as batched up front; that persisted state is what lets a run resume after a
+ * restart. Batched papers whose generation was cut off midway are left PROCESSING, and are
+ * resumed with the rest once they have been PROCESSING for longer than
+ * {@code scholarai.summary.batch.processing-timeout}. Single-paper summarizations cut off the
+ * same way are marked FAILED instead, so they never start a batch nobody asked for.
+ *
+ * <p>A run feeds its papers to {@link SummaryJobService} one at a time, keeping at most
+ * {@code scholarai.summary.batch.max-in-flight} of them generating. A paper is only started
+ * once the shared {@code gemini-api} rate limiter has a permit free for each of its prompts,
+ * so prompts are not turned away by the limiter and answered from the fallback. Papers with
+ * the fewest pages go first: their prompts are shortest, so in-flight slots turn over fastest,
+ * and papers that failed before go last.
+ */
+@Slf4j
+@Service
+public class ProjectSummaryBatchService {
+
+    static final String RATE_LIMITER_NAME = "gemini-api";
+    static final String PENDING = "PENDING";
+    static final String PROCESSING = "PROCESSING";
+
+    private final PaperPersistenceService paperPersistenceService;
+    private final PaperRepository paperRepository;
+    private final PaperExtractionRepository extractionRepository;
+    private final PaperSummaryRepository summaryRepository;
+    private final WebSearchOperationRepository webSearchOperationRepository;
+    private final SummaryJobService summaryJobService;
+    private final TransactionTemplate transactionTemplate;
+    private final RateLimiter rateLimiter;
+    private final int maxInFlight;
+    private final Duration processingTimeout;
+
+    private final ExecutorService dispatchers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentMap<UUID, BatchRun> runs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProjectSummaryBatchService(
+            PaperPersistenceService paperPersistenceService,
+            PaperRepository paperRepository,
+            PaperExtractionRepository extractionRepository,
+            PaperSummaryRepository summaryRepository,
+            WebSearchOperationRepository webSearchOperationRepository,
+            SummaryJobService summaryJobService,
+            TransactionTemplate transactionTemplate,
+            ObjectProvider<RateLimiterRegistry> rateLimiterRegistry,
+            @Value("${scholarai.summary.batch.max-in-flight:2}") int maxInFlight,
+            @Value("${scholarai.summary.batch.processing-timeout:PT30M}") Duration processingTimeout) {
+        this(
+                paperPersistenceService,
+                paperRepository,
+                extractionRepository,
+                summaryRepository,
+                webSearchOperationRepository,
+                summaryJobService,
+                transactionTemplate,
+                resolveRateLimiter(rateLimiterRegistry),
+                maxInFlight,
+                processingTimeout);
+    }
+
+    ProjectSummaryBatchService(
+            PaperPersistenceService paperPersistenceService,
+            PaperRepository paperRepository,
+            PaperExtractionRepository extractionRepository,
+            PaperSummaryRepository summaryRepository,
+            WebSearchOperationRepository webSearchOperationRepository,
+            SummaryJobService summaryJobService,
+            TransactionTemplate transactionTemplate,
+            RateLimiter rateLimiter,
+            int maxInFlight,
+            Duration processingTimeout) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Batch summarization needs at least 1 paper in flight");
+        }
+        this.paperPersistenceService = paperPersistenceService;
+        this.paperRepository = paperRepository;
+        this.extractionRepository = extractionRepository;
+        this.summaryRepository = summaryRepository;
+        this.webSearchOperationRepository = webSearchOperationRepository;
+        this.summaryJobService = summaryJobService;
+        this.transactionTemplate = transactionTemplate;
+        this.rateLimiter = rateLimiter;
+        this.maxInFlight = maxInFlight;
+        this.processingTimeout = processingTimeout;
+    }
+
+    /**
+     * Start summarizing all extracted, unsummarized papers of a project, or return the run
+     * that is already doing so
+     *
+     * @param projectId The project ID
+     * @return Progress of the project's run
+     */
+    public BatchSummaryProgressDto start(UUID projectId) {
+        return start(projectId, false).progress(null, null, null);
+    }
+
+    /**
+     * Progress of the project's current or most recent run
+     */
+    public Optional<BatchSummaryProgressDto> getProgress(UUID projectId) {
+        return Optional.ofNullable(runs.get(projectId)).map(run -> run.progress(null, null, null));
+    }
+
+    /**
+     * Receive progress updates of the project's run. A listener added after the run has
+     * finished gets {@link BatchListener#onComplete} straight away.
+     *
+     * @return False when the project has no run
+     */
+    public boolean addListener(UUID projectId, BatchListener listener) {
+        BatchRun run = runs.get(projectId);
+        if (run == null) {
+            return false;
+        }
+        run.addListener(listener);
+        return true;
+    }
+
+    public void removeListener(UUID projectId, BatchListener listener) {
+        BatchRun run = runs.get(projectId);
+        if (run != null) {
+            run.listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Resume the runs that were cut off by a restart, found through papers still marked PENDING
+     * and batched papers whose generation has been PROCESSING for longer than the processing
+     * timeout. Single-paper summarizations stuck the same way are marked FAILED.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRuns() {
+        Instant startedBefore = Instant.now().minus(processingTimeout);
+        Set<UUID> projectIds;
+        try {
+            Integer failed = transactionTemplate.execute(status -> paperRepository.failStaleSummarizations(
+                    startedBefore, "Summarization was interrupted, please try again"));
+            if (failed != null && failed > 0) {
+                log.info("Marked {} interrupted single-paper summarizations as failed", failed);
+            }
+            projectIds = transactionTemplate.execute(status -> Stream.concat(
+                            paperRepository.findBySummarizationStatusIn(List.of(PENDING)).stream(),
+                            paperRepository
+                                    .findBatchedBySummarizationStatusStartedBefore(PROCESSING, startedBefore)
+                                    .stream())
+                    .map(Paper::getCorrelationId)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .map(webSearchOperationRepository::findById)
+                    .flatMap(Optional::stream)
+                    .map(WebSearchOperation::getProjectId)
+                    .collect(Collectors.toSet()));
+        } catch (RuntimeException e) {
+            log.error("Failed to look up interrupted batch summarization runs: {}", e.getMessage(), e);
+            return;
+        }
+        for (UUID projectId : projectIds) {
+            log.info("Resuming batch summarization for project {}", projectId);
+            start(projectId, true);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Papers that did not get summarized stay PENDING or PROCESSING and are picked up on the next start
+        dispatchers.shutdownNow();
+    }
+
+    private synchronized BatchRun start(UUID projectId, boolean resumed) {
+        BatchRun existing = runs.get(projectId);
+        if (existing != null && existing.isRunning()) {
+            return existing;
+        }
+
+        List<UUID> paperIds = transactionTemplate.execute(status -> selectAndMarkPending(projectId));
+        BatchRun run = new BatchRun(projectId, paperIds, maxInFlight, resumed);
+        runs.put(projectId, run);
+        log.info("Starting batch summarization of {} papers for project {}", paperIds.size(), projectId);
+        dispatchers.execute(() -> dispatch(run));
+        return run;
+    }
+
+    /**
+     * Pick the project's papers that still need a summary, mark them PENDING and return them
+     * in the order they should be summarized
+     */
+    private List<UUID> selectAndMarkPending(UUID projectId) {
+        List<Paper> candidates = paperPersistenceService.findPapersByProjectId(projectId).stream()
+                .filter(paper -> Boolean.TRUE.equals(paper.getIsExtracted())
+                        && "COMPLETED".equals(paper.getExtractionStatus()))
+                .filter(paper -> !Boolean.TRUE.equals(paper.getIsSummarized())
+                        && !"COMPLETED".equals(paper.getSummarizationStatus()))
+                .toList();
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        // A stored summary would be returned as is, leaving the paper PENDING for good
+        Set<UUID> summarized = new HashSet<>(summaryRepository.findSummarizedPaperIds(
+                candidates.stream().map(Paper::getId).toList()));
+        List<Paper> papers = candidates.stream()
+                .filter(paper -> !summarized.contains(paper.getId()))
+                .toList();
+        if (papers.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, Integer> pageCounts = new HashMap<>();
+        for (Object[] row : extractionRepository.findPageCountsByPaperIds(
+                papers.stream().map(Paper::getId).toList())) {
+            if (row[1] != null) {
+                pageCounts.put((UUID) row[0], (Integer) row[1]);
+            }
+        }
+        List<UUID> ordered = papers.stream()
+                .sorted(Comparator.comparing((Paper paper) -> "FAILED".equals(paper.getSummarizationStatus()))
+                        .thenComparing(paper -> pageCounts.getOrDefault(paper.getId(), Integer.MAX_VALUE)))
+                .map(Paper::getId)
+                .toList();
+
+        papers.forEach(paper -> {
+            paper.setSummarizationStatus(PENDING);
+            paper.setSummarizationBatched(true);
+        });
+        paperRepository.saveAll(papers);
+        return ordered;
+    }
+
+    private void dispatch(BatchRun run) {
+        // The paper taken from the queue that has not been handed to a job yet
+        UUID taken = null;
+        try {
+            while ((taken = run.next()) != null) {
+                awaitRatePermits();
+                SummaryJobService.SummaryJob job = submit(taken);
+                UUID paperId = taken;
+                taken = null;
+                run.started(paperId);
+                job.getFuture().whenComplete((summary, error) -> {
+                    leaveBatch(paperId);
+                    run.finished(paperId, error);
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (taken != null) {
+                run.putBack(taken);
+            }
+        } catch (RuntimeException e) {
+            log.error("Batch summarization for project {} stopped: {}", run.projectId, e.getMessage(), e);
+            if (taken != null) {
+                run.putBack(taken);
+            }
+            run.abort();
+        }
+    }
+
+    /**
+     * Take a finished paper out of the batch, so a later single-paper summarization of it that
+     * is cut off is not resumed as a batch
+     */
+    private void leaveBatch(UUID paperId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> paperRepository.clearSummarizationBatched(paperId));
+        } catch (RuntimeException e) {
+            log.warn("Failed to take paper {} out of its summarization batch: {}", paperId, e.getMessage());
+        }
+    }
+
+    private SummaryJobService.SummaryJob submit(UUID paperId) throws InterruptedException {
+        while (true) {
+            try {
+                return summaryJobService.submit(paperId, false);
+            } catch (SummaryJobRejectedException e) {
+                // Single-paper requests filled the job queue; wait for it to drain
+                Thread.sleep(e.getRetryAfter().toMillis());
+            }
+        }
+    }
+
+    /**
+     * Wait until the rate limiter could admit every prompt of one summary. Only checks the
+     * available permits; the prompts themselves take them when they call Gemini.
+     */
+    private void awaitRatePermits() throws InterruptedException {
+        if (rateLimiter == null) {
+            return;
+        }
+        int needed = Math.min(
+                PaperSummaryGenerationService.PROMPTS_PER_SUMMARY,
+                rateLimiter.getRateLimiterConfig().getLimitForPeriod());
+        long refreshNanos = rateLimiter.getRateLimiterConfig().getLimitRefreshPeriod().toNanos();
+        while (rateLimiter.getMetrics().getAvailablePermissions() < needed) {
+            LockSupport.parkNanos(refreshNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private static RateLimiter resolveRateLimiter(ObjectProvider<RateLimiterRegistry> rateLimiterRegistry) {
+        RateLimiterRegistry registry = rateLimiterRegistry.getIfAvailable();
+        if (registry == null) {
+            log.warn("No rate limiter registry available, batch summarization is only bounded by concurrency");
+            return null;
+        }
+        return registry.rateLimiter(RATE_LIMITER_NAME);
+    }
+
+    /**
+     * Receives progress of a batch run
+     */
+    public interface BatchListener {
+        /**
+         * A paper of the run started or finished
+         */
+        void onProgress(BatchSummaryProgressDto progress);
+
+        /**
+         * Every paper of the run has finished
+         */
+        void onComplete(BatchSummaryProgressDto progress);
+    }
+
+    private static final class BatchRun {
+        private final UUID projectId;
+        private final Deque<UUID> queue;
+        private final int total;
+        private final Semaphore slots;
+        private final boolean resumed;
+        private final Instant startedAt = Instant.now();
+        private final List<BatchListener> listeners = new CopyOnWriteArrayList<>();
+        private int completed;
+        private int failed;
+        private int inFlight;
+        private Instant completedAt;
+
+        private BatchRun(UUID projectId, List<UUID> paperIds, int maxInFlight, boolean resumed) {
+            this.projectId = projectId;
+            this.queue = new ArrayDeque<>(paperIds);
+            this.total = paperIds.size();
+            this.slots = new Semaphore(maxInFlight);
+            this.resumed = resumed;
+            if (paperIds.isEmpty()) {
+                completedAt = startedAt;
+            }
+        }
+
+        /**
+         * Wait for a free in-flight slot and take the next paper. The paper counts as in
+         * flight from here on, so the run is not finished while it waits to be started.
+         *
+         * @return The next paper, or null when every paper has been started
+         */
+        private UUID next() throws InterruptedException {
+            slots.acquire();
+            synchronized (this) {
+                UUID next = queue.poll();
+                if (next == null) {
+                    slots.release();
+                } else {
+                    inFlight++;
+                }
+                return next;
+            }
+        }
+
+        /**
+         * Return a paper taken with {@link #next} that could not be started; it stays PENDING
+         */
+        private void putBack(UUID paperId) {
+            slots.release();
+            synchronized (this) {
+                inFlight--;
+                queue.addFirst(paperId);
+            }
+        }
+
+        private void started(UUID paperId) {
+            BatchSummaryProgressDto progress = progress(paperId, "RUNNING", null);
+            listeners.forEach(listener -> listener.onProgress(progress));
+        }
+
+        private void finished(UUID paperId, Throwable error) {
+            slots.release();
+            BatchSummaryProgressDto progress;
+            boolean done;
+            synchronized (this) {
+                inFlight--;
+                if (error == null) {
+                    completed++;
+                } else {
+                    failed++;
+                }
+                done = queue.isEmpty() && inFlight == 0;
+                if (done) {
+                    completedAt = Instant.now();
+                }
+                Throwable cause = error != null && error.getCause() != null ? error.getCause() : error;
+                progress = progress(
+                        paperId, error == null ? "COMPLETED" : "FAILED", cause != null ? cause.getMessage() : null);
+            }
+            listeners.forEach(listener -> listener.onProgress(progress));
+            if (done) {
+                BatchSummaryProgressDto summary = progress(null, null, null);
+                listeners.forEach(listener -> listener.onComplete(summary));
+            }
+        }
+
+        /**
+         * Stop starting papers; the ones still queued stay PENDING for the next run
+         */
+        private void abort() {
+            BatchSummaryProgressDto summary;
+            synchronized (this) {
+                queue.clear();
+                if (inFlight > 0 || completedAt != null) {
+                    return;
+                }
+                completedAt = Instant.now();
+                summary = progress(null, null, null);
+            }
+            listeners.forEach(listener -> listener.onComplete(summary));
+        }
+
+        private void addListener(BatchListener listener) {
+            BatchSummaryProgressDto summary;
+            synchronized (this) {
+                if (isRunning()) {
+                    listeners.add(listener);
+                    return;
+                }
+                summary = progress(null, null, null);
+            }
+            listener.onComplete(summary);
+        }
+
+        private synchronized boolean isRunning() {
+            return completedAt == null;
+        }
+
+        private synchronized BatchSummaryProgressDto progress(UUID paperId, String paperStatus, String paperError) {
+            return BatchSummaryProgressDto.builder()
+                    .projectId(projectId)
+                    .state(completedAt == null ? "RUNNING" : "COMPLETED")
+                    .total(total)
+                    .completed(completed)
+                    .failed(failed)
+                    .inFlight(inFlight)
+                    .remaining(queue.size())
+                    .resumed(resumed)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .paperId(paperId)
+                    .paperStatus(paperStatus)
+                    .paperError(paperError)
+                    .build();
+        }
+    }
+}
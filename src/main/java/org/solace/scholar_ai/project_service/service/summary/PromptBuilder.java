@@ -4,7 +4,8 @@ import java.util.stream.Collectors;
 import org.solace.scholar_ai.project_service.dto.summary.ExtractionContext;
 
 /**
- * Builds optimized prompts for Gemini to generate accurate paper summaries
+ * Builds optimized prompts for Gemini to generate accurate paper summaries. Each builder
+ * expects the context {@link ContextPacker} packed for its prompt and includes all of it.
  */
 public class PromptBuilder {
 
@@ -98,10 +99,7 @@ public class PromptBuilder {
             prompt.append("\n## Code Blocks Found:\n");
             context.getCodeBlocks().forEach(code -> {
                 prompt.append("Language: ").append(code.getLanguage()).append("\n");
-                prompt.append("Code snippet (first 500 chars): ")
-                        .append(code.getCode()
-                                .substring(0, Math.min(500, code.getCode().length())))
-                        .append("\n\n");
+                prompt.append("Code snippet: ").append(code.getCode()).append("\n\n");
             });
         }
 
@@ -121,6 +119,16 @@ public class PromptBuilder {
             });
         }
 
+        // Add figure captions
+        if (!context.getFigures().isEmpty()) {
+            prompt.append("\n## Figures:\n");
+            context.getFigures().forEach(figure -> prompt.append("Figure ")
+                    .append(figure.getLabel())
+                    .append(": ")
+                    .append(figure.getCaption())
+                    .append("\n"));
+        }
+
         prompt.append("\nGenerate a JSON object with the following structure:\n");
         prompt.append(
                 """
@@ -219,6 +227,11 @@ public class PromptBuilder {
                             .distinct()
                             .collect(Collectors.joining(", ")))
                     .append("\n");
+            context.getCodeBlocks().forEach(code -> prompt.append("```")
+                    .append(code.getLanguage())
+                    .append("\n")
+                    .append(code.getCode())
+                    .append("\n```\n"));
         }
 
         prompt.append("\nGenerate a JSON object with the following structure:\n");
@@ -392,7 +405,7 @@ public class PromptBuilder {
 
         // Include references for context
         prompt.append("\n## Key References:\n");
-        context.getReferences().stream().limit(10).forEach(ref -> prompt.append("- ")
+        context.getReferences().forEach(ref -> prompt.append("- ")
                 .append(ref.getAuthors())
                 .append(" (")
                 .append(ref.getYear())
@@ -469,55 +482,36 @@ public class PromptBuilder {
         return prompt.toString();
     }
 
-    // Helper methods to add specific sections
+    // Helper methods to add specific sections; the packer already sized each section to the budget
     private static void addIntroductionSection(StringBuilder prompt, ExtractionContext context) {
         context.getSections().stream()
-                .filter(s -> s.getType() != null
-                        && (s.getType().toLowerCase().contains("introduction")
-                                || s.getType().toLowerCase().contains("intro")))
+                .filter(SectionGroup.INTRODUCTION::matches)
                 .findFirst()
                 .ifPresent(section -> {
                     prompt.append("\n## Introduction Section:\n");
-                    section.getParagraphs().stream().limit(3).forEach(p -> prompt.append(p)
-                            .append("\n"));
+                    section.getParagraphs().forEach(p -> prompt.append(p).append("\n"));
                 });
     }
 
     private static void addMethodsSections(StringBuilder prompt, ExtractionContext context) {
         prompt.append("\n## Methods Sections:\n");
-        context.getSections().stream()
-                .filter(s -> s.getType() != null
-                        && (s.getType().toLowerCase().contains("method")
-                                || s.getType().toLowerCase().contains("approach")
-                                || s.getType().toLowerCase().contains("algorithm")))
-                .forEach(section -> {
-                    prompt.append("### ").append(section.getTitle()).append("\n");
-                    section.getParagraphs().stream().limit(5).forEach(p -> prompt.append(
-                                    p.substring(0, Math.min(500, p.length())))
-                            .append("...\n"));
-                });
+        context.getSections().stream().filter(SectionGroup.METHODS::matches).forEach(section -> {
+            prompt.append("### ").append(section.getTitle()).append("\n");
+            section.getParagraphs().forEach(p -> prompt.append(p).append("\n"));
+        });
     }
 
     private static void addExperimentSections(StringBuilder prompt, ExtractionContext context) {
         prompt.append("\n## Experiment Sections:\n");
-        context.getSections().stream()
-                .filter(s -> s.getType() != null
-                        && (s.getType().toLowerCase().contains("experiment")
-                                || s.getType().toLowerCase().contains("evaluation")
-                                || s.getType().toLowerCase().contains("result")))
-                .forEach(section -> {
-                    prompt.append("### ").append(section.getTitle()).append("\n");
-                    section.getParagraphs().stream().limit(3).forEach(p -> prompt.append(
-                                    p.substring(0, Math.min(500, p.length())))
-                            .append("...\n"));
-                });
+        context.getSections().stream().filter(SectionGroup.EXPERIMENTS::matches).forEach(section -> {
+            prompt.append("### ").append(section.getTitle()).append("\n");
+            section.getParagraphs().forEach(p -> prompt.append(p).append("\n"));
+        });
     }
 
     private static void addConclusionSection(StringBuilder prompt, ExtractionContext context) {
         context.getSections().stream()
-                .filter(s -> s.getType() != null
-                        && (s.getType().toLowerCase().contains("conclusion")
-                                || s.getType().toLowerCase().contains("summary")))
+                .filter(SectionGroup.CONCLUSION::matches)
                 .findFirst()
                 .ifPresent(section -> {
                     prompt.append("\n## Conclusion:\n");
@@ -527,70 +521,35 @@ public class PromptBuilder {
 
     private static void addRelatedWorkSection(StringBuilder prompt, ExtractionContext context) {
         context.getSections().stream()
-                .filter(s -> s.getType() != null
-                        && (s.getType().toLowerCase().contains("related")
-                                || s.getType().toLowerCase().contains("background")
-                                || s.getType().toLowerCase().contains("prior")))
+                .filter(SectionGroup.RELATED_WORK::matches)
                 .findFirst()
                 .ifPresent(section -> {
                     prompt.append("\n## Related Work:\n");
-                    section.getParagraphs().stream().limit(3).forEach(p -> prompt.append(
-                                    p.substring(0, Math.min(500, p.length())))
-                            .append("...\n"));
+                    section.getParagraphs().forEach(p -> prompt.append(p).append("\n"));
                 });
     }
 
     private static void addSupplementarySections(StringBuilder prompt, ExtractionContext context) {
-        context.getSections().stream()
-                .filter(s -> s.getType() != null
-                        && (s.getType().toLowerCase().contains("appendix")
-                                || s.getType().toLowerCase().contains("supplementary")
-                                || s.getType().toLowerCase().contains("implementation")))
-                .forEach(section -> {
-                    prompt.append("\n## ").append(section.getTitle()).append(":\n");
-                    section.getParagraphs().stream().limit(2).forEach(p -> prompt.append(
-                                    p.substring(0, Math.min(300, p.length())))
-                            .append("...\n"));
-                });
+        addTitledSections(prompt, context, SectionGroup.SUPPLEMENTARY);
     }
 
     private static void addEthicsSections(StringBuilder prompt, ExtractionContext context) {
-        context.getSections().stream()
-                .filter(s -> s.getType() != null
-                        && (s.getType().toLowerCase().contains("ethic")
-                                || s.getType().toLowerCase().contains("bias")
-                                || s.getType().toLowerCase().contains("fairness")
-                                || s.getType().toLowerCase().contains("limitation")))
-                .forEach(section -> {
-                    prompt.append("\n## ").append(section.getTitle()).append(":\n");
-                    section.getParagraphs().forEach(p -> prompt.append(p).append("\n"));
-                });
+        addTitledSections(prompt, context, SectionGroup.ETHICS);
     }
 
     private static void addLimitationsSections(StringBuilder prompt, ExtractionContext context) {
-        context.getSections().stream()
-                .filter(s -> s.getType() != null
-                        && (s.getType().toLowerCase().contains("limitation")
-                                || s.getType().toLowerCase().contains("threat")
-                                || s.getType().toLowerCase().contains("broader impact")))
-                .forEach(section -> {
-                    prompt.append("\n## ").append(section.getTitle()).append(":\n");
-                    section.getParagraphs().forEach(p -> prompt.append(p).append("\n"));
-                });
+        addTitledSections(prompt, context, SectionGroup.LIMITATIONS);
     }
 
     private static void addDiscussionSections(StringBuilder prompt, ExtractionContext context) {
-        context.getSections().stream()
-                .filter(s -> s.getType() != null
-                        && (s.getType().toLowerCase().contains("discussion")
-                                || s.getType().toLowerCase().contains("future")
-                                || s.getType().toLowerCase().contains("impact")))
-                .forEach(section -> {
-                    prompt.append("\n## ").append(section.getTitle()).append(":\n");
-                    section.getParagraphs().stream().limit(3).forEach(p -> prompt.append(
-                                    p.substring(0, Math.min(400, p.length())))
-                            .append("...\n"));
-                });
+        addTitledSections(prompt, context, SectionGroup.DISCUSSION);
+    }
+
+    private static void addTitledSections(StringBuilder prompt, ExtractionContext context, SectionGroup group) {
+        context.getSections().stream().filter(group::matches).forEach(section -> {
+            prompt.append("\n## ").append(section.getTitle()).append(":\n");
+            section.getParagraphs().forEach(p -> prompt.append(p).append("\n"));
+        });
     }
 
     /**
@@ -599,18 +558,9 @@ public class PromptBuilder {
     private static void addComprehensiveAnalysisSections(StringBuilder prompt, ExtractionContext context) {
         // Add any section that might contain relevant information
         prompt.append("\n## Additional Analysis Sections:\n");
-        context.getSections().stream()
-                .filter(s -> s.getType() != null
-                        && (s.getType().toLowerCase().contains("analysis")
-                                || s.getType().toLowerCase().contains("evaluation")
-                                || s.getType().toLowerCase().contains("comparison")
-                                || s.getType().toLowerCase().contains("validation")
-                                || s.getType().toLowerCase().contains("assessment")))
-                .forEach(section -> {
-                    prompt.append("### ").append(section.getTitle()).append(":\n");
-                    section.getParagraphs().stream().limit(2).forEach(p -> prompt.append(
-                                    p.substring(0, Math.min(300, p.length())))
-                            .append("...\n"));
-                });
+        context.getSections().stream().filter(SectionGroup.ANALYSIS::matches).forEach(section -> {
+            prompt.append("### ").append(section.getTitle()).append(":\n");
+            section.getParagraphs().forEach(p -> prompt.append(p).append("\n"));
+        });
     }
 }
@@ -0,0 +1,34 @@
+package org.solace.scholar_ai.project_service.service.summary;
+
+import java.util.List;
+import org.solace.scholar_ai.project_service.dto.summary.ExtractionContext;
+
+/**
+ * Groups of paper sections the summary prompts read, matched on the extracted section type
+ */
+public enum SectionGroup {
+    INTRODUCTION("introduction", "intro"),
+    METHODS("method", "approach", "algorithm"),
+    EXPERIMENTS("experiment", "evaluation", "result"),
+    CONCLUSION("conclusion", "summary"),
+    RELATED_WORK("related", "background", "prior"),
+    SUPPLEMENTARY("appendix", "supplementary", "implementation"),
+    ETHICS("ethic", "bias", "fairness", "limitation"),
+    LIMITATIONS("limitation", "threat", "broader impact"),
+    DISCUSSION("discussion", "future", "impact"),
+    ANALYSIS("analysis", "evaluation", "comparison", "validation", "assessment");
+
+    private final List<String> keywords;
+
+    SectionGroup(String... keywords) {
+        this.keywords = List.of(keywords);
+    }
+
+    public boolean matches(ExtractionContext.SectionContent section) {
+        if (section.getType() == null) {
+            return false;
+        }
+        String type = section.getType().toLowerCase();
+        return keywords.stream().anyMatch(type::contains);
+    }
+}
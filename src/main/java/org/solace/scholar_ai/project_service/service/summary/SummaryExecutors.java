@@ -0,0 +1,98 @@
+package org.solace.scholar_ai.project_service.service.summary;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Thread pools for summary generation. Jobs run one paper each on the job pool, and fan their
+ * Gemini prompts out to the prompt pool. The pools are separate so a job waiting for its
+ * prompts can never hold the thread a prompt needs. Both pools are bounded and published as
+ * {@code executor.*} metrics tagged {@code name=summary.jobs} and {@code name=summary.prompts}.
+ *
+ * <p>A job only holds a database connection while it reads the extraction and while it saves
+ * the summary, so the number of jobs is limited by Gemini throughput rather than by the
+ * connection pool.
+ */
+@Slf4j
+@Component
+public class SummaryExecutors {
+
+    private final ThreadPoolExecutor jobs;
+    private final ThreadPoolExecutor prompts;
+
+    public SummaryExecutors(
+            MeterRegistry meterRegistry,
+            @Value("${scholarai.summary.jobs.max-concurrent:4}") int maxConcurrentJobs,
+            @Value("${scholarai.summary.jobs.queue-capacity:50}") int jobQueueCapacity,
+            @Value("${scholarai.summary.prompts.max-concurrent:10}") int maxConcurrentPrompts) {
+        if (maxConcurrentJobs < 1 || jobQueueCapacity < 1 || maxConcurrentPrompts < 1) {
+            throw new IllegalArgumentException("Summary executor sizes must be at least 1");
+        }
+        // Rejects jobs once the queue is full, which callers surface as a retry-later response
+        this.jobs = new ThreadPoolExecutor(
+                maxConcurrentJobs,
+                maxConcurrentJobs,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(jobQueueCapacity),
+                threadFactory("summary-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // Every running job queues at most its own prompts; running one on the job thread is only a backstop
+        this.prompts = new ThreadPoolExecutor(
+                maxConcurrentPrompts,
+                maxConcurrentPrompts,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxConcurrentJobs * PaperSummaryGenerationService.PROMPTS_PER_SUMMARY),
+                threadFactory("summary-prompt-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        new ExecutorServiceMetrics(jobs, "summary.jobs", Tags.empty()).bindTo(meterRegistry);
+        new ExecutorServiceMetrics(prompts, "summary.prompts", Tags.empty()).bindTo(meterRegistry);
+        log.info(
+                "Summary executors: {} jobs (queue {}), {} concurrent prompts",
+                maxConcurrentJobs,
+                jobQueueCapacity,
+                maxConcurrentPrompts);
+    }
+
+    /**
+     * Pool that runs one summary job per paper. Its {@code execute} throws
+     * {@link java.util.concurrent.RejectedExecutionException} when the job queue is full.
+     */
+    public Executor jobs() {
+        return jobs;
+    }
+
+    /**
+     * Pool that runs the Gemini prompts of running jobs
+     */
+    public Executor prompts() {
+        return prompts;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.shutdownNow();
+        prompts.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
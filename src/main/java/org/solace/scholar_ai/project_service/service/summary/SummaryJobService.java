@@ -0,0 +1,214 @@
+package org.solace.scholar_ai.project_service.service.summary;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.solace.scholar_ai.project_service.exception.SummaryJobRejectedException;
+import org.solace.scholar_ai.project_service.model.summary.PaperSummary;
+import org.solace.scholar_ai.project_service.repository.summary.PaperSummaryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs summary generation as asynchronous jobs on the summary job executor. There is at most
+ * one job per paper in flight: concurrent requests for a paper that is already being
+ * summarized share that job's future instead of starting a second generation.
+ *
+ * <p>A regenerate request never joins a job that keeps the existing summary. It is queued as
+ * a follow-up of that job instead, and runs on the same worker once the job finishes; later
+ * regenerate requests share the follow-up.
+ */
+@Slf4j
+@Service
+public class SummaryJobService {
+
+    private final PaperSummaryGenerationService generationService;
+    private final PaperSummaryRepository summaryRepository;
+    private final SummaryExecutors summaryExecutors;
+    private final Duration retryAfter;
+
+    private final ConcurrentMap<UUID, SummaryJob> inFlight = new ConcurrentHashMap<>();
+
+    public SummaryJobService(
+            PaperSummaryGenerationService generationService,
+            PaperSummaryRepository summaryRepository,
+            SummaryExecutors summaryExecutors,
+            @Value("${scholarai.summary.jobs.retry-after:PT30S}") Duration retryAfter) {
+        this.generationService = generationService;
+        this.summaryRepository = summaryRepository;
+        this.summaryExecutors = summaryExecutors;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Start summarizing a paper, or join the job that is already summarizing it
+     *
+     * @param paperId The paper to summarize
+     * @param regenerate Whether an existing summary is replaced; otherwise it is returned as is
+     * @return The job that answers this request
+     * @throws SummaryJobRejectedException When the job queue is full
+     */
+    public SummaryJob submit(UUID paperId, boolean regenerate) {
+        SummaryJob job = new SummaryJob(paperId, regenerate, Instant.now());
+        // The job answering this request, and whether it is new and has to be started
+        SummaryJob[] answer = new SummaryJob[1];
+        boolean[] start = new boolean[1];
+        // Follow-ups are chained under the map's lock for the paper, the same lock handOff() takes
+        inFlight.compute(paperId, (id, current) -> {
+            if (current == null) {
+                answer[0] = job;
+                start[0] = true;
+                return job;
+            }
+            if (!regenerate || current.regenerate) {
+                answer[0] = current;
+            } else if (current.followUp != null) {
+                answer[0] = current.followUp;
+            } else {
+                current.followUp = job;
+                answer[0] = job;
+            }
+            return current;
+        });
+        if (!start[0]) {
+            log.info(
+                    answer[0] == job
+                            ? "Queueing summary regeneration after the in-flight job for paper: {}"
+                            : "Joining in-flight summary job for paper: {}",
+                    paperId);
+            return answer[0];
+        }
+
+        try {
+            summaryExecutors.jobs().execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            job.future.completeExceptionally(e);
+            // A regeneration queued behind the rejected job in the meantime never runs either
+            SummaryJob followUp = handOff(job);
+            if (followUp != null) {
+                inFlight.remove(paperId, followUp);
+                followUp.future.completeExceptionally(e);
+            }
+            throw new SummaryJobRejectedException("Summary job queue is full", retryAfter);
+        }
+        return job;
+    }
+
+    /**
+     * Find the job that is summarizing a paper right now
+     *
+     * @param paperId The paper ID
+     * @return The queued or running job, empty once it has finished
+     */
+    public Optional<SummaryJob> findInFlight(UUID paperId) {
+        return Optional.ofNullable(inFlight.get(paperId));
+    }
+
+    private void run(SummaryJob first) {
+        for (SummaryJob job = first; job != null; job = handOff(job)) {
+            generate(job);
+        }
+    }
+
+    private void generate(SummaryJob job) {
+        job.startedAt = Instant.now();
+        try {
+            if (job.regenerate) {
+                // Delete existing summary if present
+                summaryRepository.findByPaperId(job.paperId).ifPresent(summaryRepository::delete);
+            } else {
+                Optional<PaperSummary> existingSummary = summaryRepository.findByPaperId(job.paperId);
+                if (existingSummary.isPresent()) {
+                    log.info("Summary already exists for paper: {}, returning existing summary", job.paperId);
+                    job.future.complete(existingSummary.get());
+                    return;
+                }
+            }
+            job.future.complete(generationService.generateSummary(job.paperId));
+        } catch (Throwable t) {
+            job.future.completeExceptionally(t);
+        }
+    }
+
+    /**
+     * Retire a finished job, making its follow-up the paper's in-flight job
+     *
+     * @return The follow-up to run next, or null
+     */
+    private SummaryJob handOff(SummaryJob job) {
+        SummaryJob[] next = new SummaryJob[1];
+        inFlight.computeIfPresent(job.paperId, (id, current) -> {
+            if (current != job) {
+                return current;
+            }
+            next[0] = job.followUp;
+            return job.followUp;
+        });
+        return next[0];
+    }
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * Summary generation of one paper
+     */
+    public static final class SummaryJob {
+        private final UUID paperId;
+        private final boolean regenerate;
+        private final Instant submittedAt;
+        private final CompletableFuture<PaperSummary> future = new CompletableFuture<>();
+        private volatile Instant startedAt;
+        // Regeneration queued behind this job; guarded by the in-flight map's lock for the paper
+        private SummaryJob followUp;
+
+        private SummaryJob(UUID paperId, boolean regenerate, Instant submittedAt) {
+            this.paperId = paperId;
+            this.regenerate = regenerate;
+            this.submittedAt = submittedAt;
+        }
+
+        public UUID getPaperId() {
+            return paperId;
+        }
+
+        public boolean isRegenerate() {
+            return regenerate;
+        }
+
+        public Instant getSubmittedAt() {
+            return submittedAt;
+        }
+
+        public Instant getStartedAt() {
+            return startedAt;
+        }
+
+        /**
+         * Completes with the paper's summary, or exceptionally with the generation failure
+         */
+        public CompletableFuture<PaperSummary> getFuture() {
+            return future;
+        }
+
+        public State getState() {
+            if (future.isCompletedExceptionally()) {
+                return State.FAILED;
+            }
+            if (future.isDone()) {
+                return State.COMPLETED;
+            }
+            return startedAt == null ? State.QUEUED : State.RUNNING;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+-- Precomputed lexical index for extracted paragraphs
+-- V16__create_paragraph_term_vectors.sql
+
+CREATE TABLE IF NOT EXISTS paragraph_term_vectors (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    paragraph_id UUID NOT NULL UNIQUE,
+    paper_extraction_id UUID NOT NULL,
+    format_version INTEGER NOT NULL,
+    token_count INTEGER,
+    term_data BYTEA NOT NULL,        -- [n][hashed term ids][counts] as big-endian ints
+    minhash_signature BYTEA,         -- MinHash slots as big-endian ints
+
+    CONSTRAINT fk_term_vector_paragraph FOREIGN KEY (paragraph_id) REFERENCES extracted_paragraphs(id) ON DELETE CASCADE,
+    CONSTRAINT fk_term_vector_extraction FOREIGN KEY (paper_extraction_id) REFERENCES paper_extractions(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_paragraph_term_vectors_extraction ON paragraph_term_vectors(paper_extraction_id);
+
+COMMENT ON TABLE paragraph_term_vectors IS 'Hashed term counts and MinHash signatures of extracted paragraphs, built at extraction time';
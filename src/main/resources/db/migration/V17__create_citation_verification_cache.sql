@@ -0,0 +1,19 @@
+-- Cache of AI verification decisions for citation checks
+-- V17__create_citation_verification_cache.sql
+
+CREATE TABLE IF NOT EXISTS citation_verification_cache (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    cache_key VARCHAR(64) NOT NULL UNIQUE,  -- SHA-256 of normalized claim, paragraph id and prompt version
+    paragraph_id UUID NOT NULL,
+    prompt_version INTEGER NOT NULL,
+    decision VARCHAR(32) NOT NULL,
+    confidence DOUBLE PRECISION NOT NULL,
+    rationale TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_verification_cache_paragraph FOREIGN KEY (paragraph_id) REFERENCES extracted_paragraphs(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_citation_verification_cache_paragraph ON citation_verification_cache(paragraph_id);
+
+COMMENT ON TABLE citation_verification_cache IS 'AI verification decisions reused across citation checks of edited documents';
@@ -0,0 +1,31 @@
+-- Store checked LaTeX content so the next check of a document can run incrementally
+-- V18__add_content_to_citation_checks.sql
+
+-- Add content column only if it doesn't exist
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.columns 
+        WHERE table_name = 'citation_checks' 
+        AND column_name = 'content'
+    ) THEN
+        ALTER TABLE citation_checks 
+        ADD content TEXT;
+    END IF;
+END $$;
+
+-- Add context_hash column only if it doesn't exist
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.columns 
+        WHERE table_name = 'citation_checks' 
+        AND column_name = 'context_hash'
+    ) THEN
+        ALTER TABLE citation_checks 
+        ADD context_hash VARCHAR(64);
+    END IF;
+END $$;
+
+COMMENT ON COLUMN citation_checks.content IS 'LaTeX content that was checked, diffed against by incremental re-checks';
+COMMENT ON COLUMN citation_checks.context_hash IS 'SHA256 hash of the papers used as local corpus, incremental re-checks require a match';
@@ -0,0 +1,16 @@
+-- Dedupe ledger for extraction completed events
+-- V19__create_extraction_job_ledger.sql
+
+CREATE TABLE IF NOT EXISTS extraction_job_ledger (
+    job_id VARCHAR(100) PRIMARY KEY,
+    paper_id UUID NOT NULL,
+    status VARCHAR(20) NOT NULL,     -- PROCESSING, COMPLETED or FAILED
+    attempts INTEGER NOT NULL DEFAULT 1,
+    claimed_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP,
+    last_error TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_extraction_job_ledger_paper ON extraction_job_ledger(paper_id);
+
+COMMENT ON TABLE extraction_job_ledger IS 'Claimed extraction jobs, so redelivered completed events are ingested once';
@@ -0,0 +1,8 @@
+-- Record how much extraction content the summary prompts included and left out
+-- V20__add_context_tokens_to_paper_summaries.sql
+
+ALTER TABLE paper_summaries ADD COLUMN IF NOT EXISTS context_tokens_included INTEGER;
+ALTER TABLE paper_summaries ADD COLUMN IF NOT EXISTS context_tokens_dropped INTEGER;
+
+COMMENT ON COLUMN paper_summaries.context_tokens_included IS 'Estimated extraction tokens packed into the summary prompts';
+COMMENT ON COLUMN paper_summaries.context_tokens_dropped IS 'Estimated extraction tokens left out to fit the prompt budgets';
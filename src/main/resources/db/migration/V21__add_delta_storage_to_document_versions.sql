@@ -0,0 +1,36 @@
+-- Store document versions as periodic snapshots plus compressed deltas
+-- V21__add_delta_storage_to_document_versions.sql
+
+CREATE TABLE IF NOT EXISTS document_versions (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    document_id UUID NOT NULL,
+    version_number INTEGER NOT NULL,
+    content TEXT,
+    commit_message VARCHAR(255),
+    created_by UUID,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    is_auto_save BOOLEAN DEFAULT FALSE
+);
+
+ALTER TABLE document_versions ADD COLUMN IF NOT EXISTS delta BYTEA;
+ALTER TABLE document_versions ADD COLUMN IF NOT EXISTS snapshot_version INTEGER;
+
+-- Concurrent saves could take the same version number before. Every existing row is a full
+-- snapshot, so renumbering the versions of documents with duplicates in order loses nothing
+WITH numbered AS (
+    SELECT id, ROW_NUMBER() OVER (PARTITION BY document_id ORDER BY version_number, created_at, id) AS renumbered
+    FROM document_versions
+    WHERE document_id IN (
+        SELECT document_id FROM document_versions GROUP BY document_id, version_number HAVING COUNT(*) > 1
+    )
+)
+UPDATE document_versions v
+SET version_number = numbered.renumbered
+FROM numbered
+WHERE v.id = numbered.id AND v.version_number <> numbered.renumbered;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_document_versions_document_version ON document_versions(document_id, version_number);
+
+COMMENT ON COLUMN document_versions.content IS 'Full content of snapshot versions; null for versions stored as a delta';
+COMMENT ON COLUMN document_versions.delta IS 'Deflated line copy/insert delta from the previous version; null for snapshots';
+COMMENT ON COLUMN document_versions.snapshot_version IS 'Version number of the snapshot a delta version is rebuilt from';
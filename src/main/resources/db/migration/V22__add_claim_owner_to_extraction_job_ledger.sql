@@ -0,0 +1,7 @@
+-- Record which consumer holds an extraction job claim
+-- V22__add_claim_owner_to_extraction_job_ledger.sql
+
+ALTER TABLE extraction_job_ledger ADD COLUMN IF NOT EXISTS claimed_by VARCHAR(36);
+
+COMMENT ON COLUMN extraction_job_ledger.claimed_by IS 'Claim token of the consumer ingesting the job; only it can finish the job';
+COMMENT ON COLUMN extraction_job_ledger.claimed_at IS 'When the job was claimed, refreshed by the owner while it ingests';
@@ -0,0 +1,9 @@
+-- Mark papers selected by a project batch summarization run
+-- V23__add_summarization_batched_to_papers.sql
+
+ALTER TABLE papers ADD COLUMN IF NOT EXISTS summarization_batched BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Only batch runs mark papers PENDING
+UPDATE papers SET summarization_batched = TRUE WHERE summarization_status = 'PENDING';
+
+COMMENT ON COLUMN papers.summarization_batched IS 'Whether the paper belongs to a batch summarization run that has not summarized it yet';
@@ -0,0 +1,107 @@
+package org.solace.scholar_ai.project_service.client.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.config.OutboundHttpProperties;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+class DestinationRoutingRequestFactoryTest {
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer stubServer;
+    private String stubUrl;
+    private DestinationRoutingRequestFactory requestFactory;
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stubServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stubServer.createContext("/ok", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        stubServer.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(3000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        stubServer.start();
+        stubUrl = "http://127.0.0.1:" + stubServer.getAddress().getPort();
+
+        OutboundHttpProperties.Destination stub = new OutboundHttpProperties.Destination();
+        stub.setBaseUrl(stubUrl + "/any/path");
+        stub.setReadTimeout(Duration.ofSeconds(1));
+        OutboundHttpProperties properties = new OutboundHttpProperties();
+        properties.getDestinations().put("stub", stub);
+
+        requestFactory = new DestinationRoutingRequestFactory(properties);
+        restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(new OutboundRequestMetricsInterceptor(meterRegistry, requestFactory));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.stop(0);
+        requestFactory.destroy();
+    }
+
+    @Test
+    void requests_ReuseOnePooledConnectionPerDestination() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals("{\"ok\":true}", restTemplate.getForObject(stubUrl + "/ok", String.class));
+        }
+
+        assertEquals(1, clientPorts.size(), "requests opened " + clientPorts.size() + " connections");
+        Timer timer = meterRegistry
+                .get(OutboundRequestMetricsInterceptor.METRIC_NAME)
+                .tags("destination", "stub", "outcome", "SUCCESS")
+                .timer();
+        assertEquals(5, timer.count());
+    }
+
+    @Test
+    void requests_UseTheDestinationReadTimeout() {
+        assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(stubUrl + "/slow", String.class));
+
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(OutboundRequestMetricsInterceptor.METRIC_NAME)
+                        .tags("destination", "stub", "outcome", "IO_ERROR")
+                        .timer()
+                        .count());
+    }
+
+    @Test
+    void destinationOf_FallsBackToDefaultForUnknownOrigins() {
+        assertEquals("stub", requestFactory.destinationOf(URI.create(stubUrl + "/ok?x=1")));
+        assertEquals(
+                DestinationRoutingRequestFactory.DEFAULT_DESTINATION,
+                requestFactory.destinationOf(URI.create("https://example.org/ok")));
+        assertEquals(
+                "https://example.org:443",
+                DestinationRoutingRequestFactory.origin(URI.create("HTTPS://Example.org/a")));
+    }
+}
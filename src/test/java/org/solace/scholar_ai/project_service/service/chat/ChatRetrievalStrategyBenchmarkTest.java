@@ -0,0 +1,92 @@
+package org.solace.scholar_ai.project_service.service.chat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.solace.scholar_ai.project_service.model.chat.ContentChunk;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.ChatQuery;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.ChatRetrievalStrategy;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.ChunkStoreCache;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.IntelligentRetrievalStrategy;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.KeywordRetrievalStrategy;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.RequirementsRetrievalStrategy;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.RetrievalPlan;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Compares the chat retrieval strategies on the same synthetic 50-page paper and questions:
+ * median latency of planning and retrieving one turn, and the prompt tokens each answer is
+ * generated from. Run with {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ChatRetrievalStrategyBenchmarkTest {
+
+    private static final int PAGES = 50;
+    private static final int WARMUP_TURNS = 2_000;
+    private static final int MEASURED_TURNS = 5_000;
+
+    private static final List<ChatQuery> QUERIES = List.of(
+            new ChatQuery("How does sparse routing reduce attention latency?", null, null),
+            new ChatQuery("What accuracy does the model reach on the benchmark in table 3?", null, null),
+            new ChatQuery("Explain the optimizer schedule and gradient variance", null, null),
+            new ChatQuery("Which ablation shows the expert layer matters?", null, null),
+            new ChatQuery("Summarize the paper", null, null),
+            new ChatQuery("Why does this hold?", "the expert layer routes each token to a sparse subset", null));
+
+    @Test
+    void compareStrategies_OnTheSamePaperAndQuestions() {
+        EnhancedContentRetrievalService retrievalService = new EnhancedContentRetrievalService(
+                new IntelligentQueryStrategy(),
+                new ChunkStoreCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(64)));
+        List<ChatRetrievalStrategy> strategies = List.of(
+                new KeywordRetrievalStrategy(),
+                new IntelligentRetrievalStrategy(retrievalService),
+                new RequirementsRetrievalStrategy(new QueryRequirementAnalysisService(), retrievalService));
+        IntelligentPromptBuilder promptBuilder = new IntelligentPromptBuilder();
+        ExtractionSnapshot paper = SyntheticPapers.paper(new Random(42), PAGES);
+
+        System.out.printf(
+                "%-13s %12s %10s %8s %14s%n", "strategy", "median (us)", "p99 (us)", "chunks", "prompt tokens");
+        for (ChatRetrievalStrategy strategy : strategies) {
+            for (int i = 0; i < WARMUP_TURNS; i++) {
+                retrieve(strategy, QUERIES.get(i % QUERIES.size()), paper);
+            }
+            long[] nanos = new long[MEASURED_TURNS];
+            for (int i = 0; i < MEASURED_TURNS; i++) {
+                long start = System.nanoTime();
+                retrieve(strategy, QUERIES.get(i % QUERIES.size()), paper);
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+
+            // Tokens per answer, estimated at four characters per token
+            long chunks = 0;
+            long tokens = 0;
+            for (ChatQuery query : QUERIES) {
+                List<ContentChunk> retrieved = retrieve(strategy, query, paper);
+                String prompt = promptBuilder.buildChatPrompt(
+                        paper, retrieved, List.of(), query.message(), query.selectedText(), null);
+                chunks += retrieved.size();
+                tokens += (prompt.length() + 3) / 4;
+            }
+
+            System.out.printf(
+                    "%-13s %12.1f %10.1f %8.1f %14d%n",
+                    strategy.mode(),
+                    nanos[MEASURED_TURNS / 2] / 1e3,
+                    nanos[MEASURED_TURNS * 99 / 100] / 1e3,
+                    (double) chunks / QUERIES.size(),
+                    tokens / QUERIES.size());
+        }
+    }
+
+    private static List<ContentChunk> retrieve(
+            ChatRetrievalStrategy strategy, ChatQuery query, ExtractionSnapshot paper) {
+        RetrievalPlan plan = strategy.plan(query);
+        return plan.retrieve(paper, List.of());
+    }
+}
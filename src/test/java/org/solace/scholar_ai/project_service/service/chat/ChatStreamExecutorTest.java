@@ -0,0 +1,54 @@
+package org.solace.scholar_ai.project_service.service.chat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ChatStreamExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ChatStreamExecutor executor = new ChatStreamExecutor(meterRegistry, 2, Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void tryReserve_TurnsAwayStreamsOnceEverySlotIsTaken() throws Exception {
+        CountDownLatch finish = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        assertTrue(executor.tryReserve());
+        assertTrue(executor.tryReserve());
+
+        assertFalse(executor.tryReserve());
+        assertEquals(1, meterRegistry.get("chat.streams.rejected").counter().count());
+
+        executor.submit(() -> {
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finished.countDown();
+        });
+        executor.release();
+        assertTrue(executor.tryReserve());
+        assertFalse(executor.tryReserve());
+
+        finish.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        boolean freed = executor.tryReserve();
+        for (int i = 0; i < 100 && !freed; i++) {
+            Thread.sleep(10);
+            freed = executor.tryReserve();
+        }
+        assertTrue(freed, "the finished stream did not free its slot");
+        assertFalse(executor.tryReserve());
+    }
+}
@@ -0,0 +1,78 @@
+package org.solace.scholar_ai.project_service.service.chat;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.ChunkStoreCache;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Measures retrieval latency over a synthetic 50-page paper once its chunk store is built,
+ * for a query that reads every content category. Run with {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ContentRetrievalBenchmarkTest {
+
+    private static final int PAGES = 50;
+    private static final int WARMUP_QUERIES = 5_000;
+    private static final int MEASURED_QUERIES = 10_000;
+
+    @Test
+    void retrieveOptimalContent_TakesUnderAMillisecondForAFiftyPagePaper() {
+        EnhancedContentRetrievalService service = new EnhancedContentRetrievalService(
+                mock(IntelligentQueryStrategy.class),
+                new ChunkStoreCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(64)));
+        ExtractionSnapshot paper = SyntheticPapers.paper(new Random(42), PAGES);
+        IntelligentQueryStrategy.QueryAnalysis analysis = IntelligentQueryStrategy.QueryAnalysis.builder()
+                .primaryType(IntelligentQueryStrategy.QueryType.GENERAL)
+                .contextRequirements(IntelligentQueryStrategy.ContextRequirements.builder()
+                        .maxChunks(20)
+                        .includeReferences(true)
+                        .contentPriority(IntelligentQueryStrategy.ContentPriority.builder()
+                                .abstractWeight(0.6)
+                                .methodologyWeight(0.9)
+                                .resultsWeight(0.8)
+                                .conclusionWeight(0.6)
+                                .figuresWeight(0.5)
+                                .tablesWeight(0.5)
+                                .equationsWeight(0.4)
+                                .referencesWeight(0.4)
+                                .build())
+                        .build())
+                .build();
+        String[] queries = {
+            "How does sparse routing reduce attention latency?",
+            "What accuracy does the model reach on the benchmark?",
+            "Explain the optimizer schedule and gradient variance",
+            "Which ablation shows the expert layer matters?"
+        };
+
+        long buildStart = System.nanoTime();
+        service.retrieveOptimalContent(paper, analysis, queries[0], null, null, null);
+        long buildNanos = System.nanoTime() - buildStart;
+
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            service.retrieveOptimalContent(paper, analysis, queries[i % queries.length], null, null, null);
+        }
+        long[] nanos = new long[MEASURED_QUERIES];
+        for (int i = 0; i < MEASURED_QUERIES; i++) {
+            long start = System.nanoTime();
+            service.retrieveOptimalContent(paper, analysis, queries[i % queries.length], null, null, null);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        long median = nanos[MEASURED_QUERIES / 2];
+        long p99 = nanos[MEASURED_QUERIES * 99 / 100];
+
+        System.out.printf(
+                "Retrieval over %d pages: first query (builds the chunk store) %.2f ms, median %.1f us, p99 %.1f us%n",
+                PAGES, buildNanos / 1e6, median / 1e3, p99 / 1e3);
+        assertTrue(median < 1_000_000, "median retrieval should take under a millisecond");
+    }
+}
@@ -0,0 +1,125 @@
+package org.solace.scholar_ai.project_service.service.chat;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.model.chat.ContentChunk;
+import org.solace.scholar_ai.project_service.service.chat.retrieval.ChunkStoreCache;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Golden ranking of a small paper: changes to tokenization, BM25 parameters or priority
+ * weighting show up here as a different order.
+ */
+class EnhancedContentRetrievalServiceTest {
+
+    private final EnhancedContentRetrievalService service = new EnhancedContentRetrievalService(
+            mock(IntelligentQueryStrategy.class),
+            new ChunkStoreCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1)));
+
+    private final ExtractionSnapshot paper = paper();
+
+    @Test
+    void retrieveOptimalContent_RanksChunksByPriorityAndBm25() {
+        List<ContentChunk> chunks = service.retrieveOptimalContent(
+                paper, analysis(5, null), "sparse attention routing", "routing table", null, List.of());
+
+        assertEquals(
+                List.of(
+                        "User-selected text",
+                        "Section: Method",
+                        "Figure 1 (Page 2)",
+                        "Table 1 (Page 4)",
+                        "Section: Approach Details"),
+                chunks.stream().map(ContentChunk::getSource).toList());
+        assertEquals(0.7581, chunks.get(1).getRelevanceScore(), 1e-4);
+        assertEquals(0.7297, chunks.get(2).getRelevanceScore(), 1e-4);
+        // The short table caption outranks the long section that mentions two query terms
+        assertTrue(chunks.get(3).getRelevanceScore() > chunks.get(4).getRelevanceScore());
+    }
+
+    @Test
+    void retrieveOptimalContent_KeepsTheFirstOfDuplicateContent() {
+        IntelligentQueryStrategy.SpecificReferences references = new IntelligentQueryStrategy.SpecificReferences();
+        references.pages.add(2);
+
+        List<ContentChunk> chunks =
+                service.retrieveOptimalContent(paper, analysis(20, references), "sparse attention", null, null, null);
+
+        // Page 2 only holds the method section, which was already offered as methodology
+        List<ContentChunk> method = chunks.stream()
+                .filter(chunk -> chunk.getContent().startsWith("Sparse attention routes"))
+                .toList();
+        assertEquals(1, method.size());
+        assertEquals("methodology", method.get(0).getType());
+        assertEquals(7, chunks.size());
+    }
+
+    private static IntelligentQueryStrategy.QueryAnalysis analysis(
+            int maxChunks, IntelligentQueryStrategy.SpecificReferences references) {
+        return IntelligentQueryStrategy.QueryAnalysis.builder()
+                .primaryType(IntelligentQueryStrategy.QueryType.GENERAL)
+                .specificReferences(references)
+                .contextRequirements(IntelligentQueryStrategy.ContextRequirements.builder()
+                        .maxChunks(maxChunks)
+                        .contentPriority(IntelligentQueryStrategy.ContentPriority.builder()
+                                .methodologyWeight(0.6)
+                                .resultsWeight(0.6)
+                                .figuresWeight(0.6)
+                                .tablesWeight(0.6)
+                                .build())
+                        .build())
+                .build();
+    }
+
+    private static ExtractionSnapshot paper() {
+        return new ExtractionSnapshot(
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                "Sparse routing",
+                "We study sparse attention.",
+                "en",
+                6,
+                EnumSet.allOf(ExtractionSnapshot.Content.class),
+                List.of(
+                        section(0, "Method", "method", 2, "Sparse attention routes each token. "
+                                + "Routing is sparse and attention is sparse."),
+                        section(1, "Approach Details", null, 3, "We describe the approach in more detail here, "
+                                + "including sparse attention, optimizer settings, data pipelines, hardware and "
+                                + "many other implementation matters."),
+                        section(2, "Results", "results", 4, "Dense attention baselines are compared against "
+                                + "our attention variant."),
+                        section(3, "Evaluation", "evaluation", 5, "Training curves for all runs."),
+                        section(4, "Introduction", "introduction", 1, "Attention is everywhere.")),
+                List.of(
+                        new ExtractionSnapshot.Figure(UUID.randomUUID(), "f1", "1", "Sparse routing diagram", 2, null),
+                        new ExtractionSnapshot.Figure(UUID.randomUUID(), "f2", "2", "Loss curves", 5, null)),
+                List.of(new ExtractionSnapshot.Table(
+                        UUID.randomUUID(), "t1", "1", "Routing accuracy", 4, "Model|Accuracy", "Dense|90", null)),
+                List.of(),
+                List.of(),
+                List.of(),
+                List.of());
+    }
+
+    private static ExtractionSnapshot.Section section(int order, String title, String type, int page, String text) {
+        return new ExtractionSnapshot.Section(
+                UUID.randomUUID(),
+                null,
+                "s" + order,
+                null,
+                title,
+                type,
+                1,
+                page,
+                page,
+                order,
+                List.of(new ExtractionSnapshot.Paragraph(UUID.randomUUID(), text, page, 0)));
+    }
+}
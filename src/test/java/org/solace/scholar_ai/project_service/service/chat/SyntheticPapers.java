@@ -0,0 +1,101 @@
+package org.solace.scholar_ai.project_service.service.chat;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
+
+/**
+ * Synthetic extracted papers for the retrieval benchmarks: two sections of about 450 words
+ * per page, a figure every second page, a table every fourth, an equation per page and 60
+ * references, drawn from a small vocabulary so queries match
+ */
+final class SyntheticPapers {
+
+    private static final String[] WORDS = ("attention transformer sparse routing token expert layer gradient loss "
+                    + "training dataset benchmark accuracy latency memory throughput baseline model parameter "
+                    + "encoder decoder embedding optimizer schedule evaluation ablation variance")
+            .split(" ");
+
+    private SyntheticPapers() {}
+
+    static ExtractionSnapshot paper(Random random, int pages) {
+        String[] types = {"introduction", "method", "results", "experiments", "conclusion"};
+        String[] titles = {"Introduction", "Method", "Results", "Experimental Setup", "Conclusion"};
+        List<ExtractionSnapshot.Section> sections = new ArrayList<>();
+        List<ExtractionSnapshot.Figure> figures = new ArrayList<>();
+        List<ExtractionSnapshot.Table> tables = new ArrayList<>();
+        List<ExtractionSnapshot.Equation> equations = new ArrayList<>();
+        List<ExtractionSnapshot.Reference> references = new ArrayList<>();
+
+        for (int page = 1; page <= pages; page++) {
+            // Two sections of five paragraphs per page, about 900 words
+            for (int s = 0; s < 2; s++) {
+                int kind = (page * 2 + s) * types.length / (pages * 2 + 2);
+                List<ExtractionSnapshot.Paragraph> paragraphs = new ArrayList<>();
+                for (int p = 0; p < 5; p++) {
+                    paragraphs.add(new ExtractionSnapshot.Paragraph(UUID.randomUUID(), words(random, 90), page, p));
+                }
+                sections.add(new ExtractionSnapshot.Section(
+                        UUID.randomUUID(),
+                        null,
+                        "s" + sections.size(),
+                        null,
+                        titles[kind] + " " + sections.size(),
+                        types[kind],
+                        1,
+                        page,
+                        page,
+                        sections.size(),
+                        paragraphs));
+            }
+            if (page % 2 == 0) {
+                figures.add(new ExtractionSnapshot.Figure(
+                        UUID.randomUUID(), "f" + page, String.valueOf(page / 2), words(random, 20), page, null));
+            }
+            if (page % 4 == 0) {
+                tables.add(new ExtractionSnapshot.Table(
+                        UUID.randomUUID(),
+                        "t" + page,
+                        String.valueOf(page / 4),
+                        words(random, 12),
+                        page,
+                        "Model|Accuracy|Latency",
+                        words(random, 60),
+                        null));
+            }
+            equations.add(new ExtractionSnapshot.Equation(
+                    UUID.randomUUID(), "e" + page, "(" + page + ")", "\\mathcal{L} = \\sum_i x_i^2", page));
+        }
+        for (int r = 0; r < 60; r++) {
+            references.add(new ExtractionSnapshot.Reference(
+                    UUID.randomUUID(), "r" + r, words(random, 10), "A. Author, B. Author", 2020, "NeurIPS", null, null));
+        }
+
+        return new ExtractionSnapshot(
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                "Synthetic paper",
+                words(random, 200),
+                "en",
+                pages,
+                EnumSet.allOf(ExtractionSnapshot.Content.class),
+                sections,
+                figures,
+                tables,
+                equations,
+                List.of(),
+                references,
+                List.of());
+    }
+
+    static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i > 0 ? " " : "").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.append('.').toString();
+    }
+}
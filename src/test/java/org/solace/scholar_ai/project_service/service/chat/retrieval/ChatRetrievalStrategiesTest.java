@@ -0,0 +1,61 @@
+package org.solace.scholar_ai.project_service.service.chat.retrieval;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.model.chat.ChatRetrievalMode;
+
+class ChatRetrievalStrategiesTest {
+
+    private final ChatRetrievalStrategy keyword = strategy(ChatRetrievalMode.KEYWORD);
+    private final ChatRetrievalStrategy intelligent = strategy(ChatRetrievalMode.INTELLIGENT);
+
+    @Test
+    void get_ReturnsTheDefaultWhenNoModeIsRequested() {
+        ChatRetrievalStrategies strategies =
+                new ChatRetrievalStrategies(List.of(keyword, intelligent), ChatRetrievalMode.INTELLIGENT);
+
+        assertSame(intelligent, strategies.get(null));
+        assertEquals(ChatRetrievalMode.INTELLIGENT, strategies.getDefaultMode());
+    }
+
+    @Test
+    void get_ReturnsTheRequestedStrategy() {
+        ChatRetrievalStrategies strategies =
+                new ChatRetrievalStrategies(List.of(keyword, intelligent), ChatRetrievalMode.INTELLIGENT);
+
+        assertSame(keyword, strategies.get(ChatRetrievalMode.KEYWORD));
+    }
+
+    @Test
+    void get_RejectsAModeWithoutAStrategy() {
+        ChatRetrievalStrategies strategies =
+                new ChatRetrievalStrategies(List.of(keyword, intelligent), ChatRetrievalMode.KEYWORD);
+
+        assertThrows(IllegalArgumentException.class, () -> strategies.get(ChatRetrievalMode.REQUIREMENTS));
+    }
+
+    @Test
+    void constructor_RejectsTwoStrategiesForOneMode() {
+        ChatRetrievalStrategy otherKeyword = strategy(ChatRetrievalMode.KEYWORD);
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> new ChatRetrievalStrategies(List.of(keyword, otherKeyword), ChatRetrievalMode.KEYWORD));
+    }
+
+    @Test
+    void constructor_RejectsADefaultWithoutAStrategy() {
+        assertThrows(
+                IllegalStateException.class,
+                () -> new ChatRetrievalStrategies(List.of(keyword), ChatRetrievalMode.INTELLIGENT));
+    }
+
+    private static ChatRetrievalStrategy strategy(ChatRetrievalMode mode) {
+        ChatRetrievalStrategy strategy = mock(ChatRetrievalStrategy.class);
+        when(strategy.mode()).thenReturn(mode);
+        return strategy;
+    }
+}
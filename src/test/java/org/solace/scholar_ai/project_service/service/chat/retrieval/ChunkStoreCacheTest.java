@@ -0,0 +1,85 @@
+package org.solace.scholar_ai.project_service.service.chat.retrieval;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot;
+import org.springframework.util.unit.DataSize;
+
+class ChunkStoreCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ChunkStoreCache cache = new ChunkStoreCache(meterRegistry, DataSize.ofBytes(2_000));
+
+    @Test
+    void get_ReusesTheStoreOfTheSameSnapshot() {
+        ExtractionSnapshot snapshot = snapshot(UUID.randomUUID(), "Sparse attention routes tokens.");
+
+        ChunkStore first = cache.get(snapshot);
+        ChunkStore second = cache.get(snapshot);
+
+        assertSame(first, second);
+        assertEquals(1, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void get_RebuildsTheStoreForAnotherSnapshotOfThePaper() {
+        UUID paperId = UUID.randomUUID();
+        ChunkStore old = cache.get(snapshot(paperId, "Dense attention."));
+
+        ChunkStore rebuilt = cache.get(snapshot(paperId, "Sparse attention."));
+
+        assertNotSame(old, rebuilt);
+        assertEquals("Sparse attention.", rebuilt.getSections().get(0).content());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void get_EvictsLeastRecentlyUsedStoresBySize() {
+        ExtractionSnapshot first = snapshot(UUID.randomUUID(), "a".repeat(400));
+        ExtractionSnapshot second = snapshot(UUID.randomUUID(), "b".repeat(400));
+        ExtractionSnapshot third = snapshot(UUID.randomUUID(), "c".repeat(400));
+
+        ChunkStore firstStore = cache.get(first);
+        cache.get(second);
+        cache.get(first);
+        cache.get(third);
+
+        assertEquals(2, cache.size());
+        assertSame(firstStore, cache.get(first));
+        assertTrue(cache.residentBytes() <= 2_000);
+    }
+
+    private static ExtractionSnapshot snapshot(UUID paperId, String text) {
+        return new ExtractionSnapshot(
+                UUID.randomUUID(),
+                paperId,
+                "Title",
+                null,
+                "en",
+                1,
+                EnumSet.of(ExtractionSnapshot.Content.SECTIONS),
+                List.of(new ExtractionSnapshot.Section(
+                        UUID.randomUUID(),
+                        null,
+                        "s0",
+                        null,
+                        "Section",
+                        null,
+                        1,
+                        1,
+                        1,
+                        0,
+                        List.of(new ExtractionSnapshot.Paragraph(UUID.randomUUID(), text, 1, 0)))),
+                List.of(),
+                List.of(),
+                List.of(),
+                List.of(),
+                List.of(),
+                List.of());
+    }
+}
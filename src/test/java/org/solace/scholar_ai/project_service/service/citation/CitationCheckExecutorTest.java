@@ -0,0 +1,154 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.exception.CitationCheckRejectedException;
+
+class CitationCheckExecutorTest {
+
+    private final CitationCheckExecutor executor = new CitationCheckExecutor(1, 4, 3, Duration.ofSeconds(15));
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_AlternatesBetweenProjects() throws Exception {
+        UUID busyProject = UUID.randomUUID();
+        UUID otherProject = UUID.randomUUID();
+        List<String> started = new CopyOnWriteArrayList<>();
+        CountDownLatch allStarted = new CountDownLatch(4);
+
+        submit(busyProject, UUID.randomUUID(), () -> {
+            await(release);
+            started.add("busy-0");
+            allStarted.countDown();
+        });
+        for (int i = 1; i <= 2; i++) {
+            String name = "busy-" + i;
+            submit(busyProject, UUID.randomUUID(), () -> {
+                started.add(name);
+                allStarted.countDown();
+            });
+        }
+        submit(otherProject, UUID.randomUUID(), () -> {
+            started.add("other-0");
+            allStarted.countDown();
+        });
+
+        release.countDown();
+        assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("busy-0", "busy-1", "other-0", "busy-2"), started);
+    }
+
+    @Test
+    void submit_ReportsQueuePositionsAsChecksAhead() throws Exception {
+        UUID projectId = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        Map<UUID, List<Integer>> positions = new ConcurrentHashMap<>();
+        CountDownLatch secondDone = new CountDownLatch(1);
+
+        submit(projectId, UUID.randomUUID(), () -> await(release), positions);
+        submit(projectId, first, () -> {}, positions);
+        submit(projectId, second, secondDone::countDown, positions);
+
+        assertEquals(1, executor.getQueuePosition(first).getAsInt());
+        assertEquals(2, executor.getQueuePosition(second).getAsInt());
+
+        release.countDown();
+        assertTrue(secondDone.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1), positions.get(first));
+        assertEquals(List.of(2, 1), positions.get(second));
+        assertTrue(executor.getQueuePosition(second).isEmpty());
+    }
+
+    @Test
+    void reserve_RejectsWithRetryAfter_WhenQueueIsFull() {
+        UUID projectId = UUID.randomUUID();
+        submit(projectId, UUID.randomUUID(), () -> await(release));
+        executor.reserve(projectId);
+        executor.reserve(projectId);
+        executor.reserve(projectId);
+
+        CitationCheckRejectedException perProject =
+                assertThrows(CitationCheckRejectedException.class, () -> executor.reserve(projectId));
+        assertEquals(Duration.ofSeconds(15), perProject.getRetryAfter());
+
+        executor.reserve(UUID.randomUUID());
+        assertThrows(CitationCheckRejectedException.class, () -> executor.reserve(UUID.randomUUID()));
+    }
+
+    @Test
+    void cancel_RemovesWaitingCheckAndFreesItsSlot() throws Exception {
+        UUID projectId = UUID.randomUUID();
+        UUID waiting = UUID.randomUUID();
+        List<UUID> ran = new CopyOnWriteArrayList<>();
+        submit(projectId, UUID.randomUUID(), () -> await(release));
+        submit(projectId, waiting, () -> ran.add(waiting));
+
+        assertTrue(executor.cancel(waiting));
+        assertFalse(executor.cancel(waiting));
+        assertEquals(0, executor.getQueuedCount());
+
+        CountDownLatch next = new CountDownLatch(1);
+        submit(projectId, UUID.randomUUID(), next::countDown);
+        release.countDown();
+        assertTrue(next.await(5, TimeUnit.SECONDS));
+        assertTrue(ran.isEmpty());
+    }
+
+    @Test
+    void cancel_FlagsRunningCheckUntilItEnds() throws Exception {
+        UUID running = UUID.randomUUID();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        submit(UUID.randomUUID(), running, () -> {
+            started.countDown();
+            while (!executor.isCancelled(running)) {
+                Thread.onSpinWait();
+            }
+            stopped.countDown();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertFalse(executor.isCancelled(running));
+
+        assertFalse(executor.cancel(running));
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        while (executor.getRunningCount() > 0) {
+            Thread.sleep(10);
+        }
+        assertFalse(executor.isCancelled(running));
+    }
+
+    private void submit(UUID projectId, UUID checkId, Runnable task) {
+        submit(projectId, checkId, task, new ConcurrentHashMap<>());
+    }
+
+    private void submit(UUID projectId, UUID checkId, Runnable task, Map<UUID, List<Integer>> positions) {
+        executor.submit(executor.reserve(projectId), checkId, task, position -> positions
+                .computeIfAbsent(checkId, id -> new CopyOnWriteArrayList<>())
+                .add(position));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
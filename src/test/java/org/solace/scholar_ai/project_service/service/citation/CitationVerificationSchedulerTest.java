@@ -0,0 +1,118 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class CitationVerificationSchedulerTest {
+
+    @Test
+    void submit_NeverRunsMoreCallsThanMaxConcurrency() {
+        CitationVerificationScheduler scheduler =
+                new CitationVerificationScheduler(4, Duration.ofSeconds(30), (RateLimiter) null);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            int value = i;
+            futures.add(scheduler.submit(() -> {
+                int current = inFlight.incrementAndGet();
+                maxInFlight.accumulateAndGet(current, Math::max);
+                sleep(10);
+                inFlight.decrementAndGet();
+                return value;
+            }));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(i, futures.get(i).join());
+        }
+        assertTrue(maxInFlight.get() <= 4, "max in flight was " + maxInFlight.get());
+        assertTrue(maxInFlight.get() > 1, "calls did not overlap");
+        assertEquals(0, scheduler.getActiveCalls());
+        scheduler.shutdown();
+    }
+
+    @Test
+    void submit_FailsWithTimeout_WhenNoSlotFreesUp() throws Exception {
+        CitationVerificationScheduler scheduler =
+                new CitationVerificationScheduler(1, Duration.ofMillis(50), (RateLimiter) null);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> blocking = scheduler.submit(() -> {
+            await(release);
+            return "done";
+        });
+        while (scheduler.getActiveCalls() == 0) {
+            Thread.sleep(1);
+        }
+
+        CompletableFuture<String> starved = scheduler.submit(() -> "never");
+        CompletionException error = assertThrows(CompletionException.class, starved::join);
+        assertInstanceOf(TimeoutException.class, error.getCause());
+
+        release.countDown();
+        assertEquals("done", blocking.join());
+        scheduler.shutdown();
+    }
+
+    @Test
+    void submit_WaitsForRateLimiterPermits() {
+        RateLimiter rateLimiter = RateLimiter.of(
+                CitationVerificationScheduler.RATE_LIMITER_NAME,
+                RateLimiterConfig.custom()
+                        .limitForPeriod(5)
+                        .limitRefreshPeriod(Duration.ofMillis(100))
+                        .timeoutDuration(Duration.ofMillis(20))
+                        .build());
+        CitationVerificationScheduler scheduler =
+                new CitationVerificationScheduler(8, Duration.ofSeconds(30), rateLimiter);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            int value = i;
+            futures.add(scheduler.submit(() -> value));
+        }
+        futures.forEach(CompletableFuture::join);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 15 calls at 5 per 100ms span at least three refresh cycles
+        assertTrue(elapsedMillis >= 100, "rate limiter was not respected, took " + elapsedMillis + "ms");
+        scheduler.shutdown();
+    }
+
+    @Test
+    void constructor_RejectsNonPositiveConcurrency() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new CitationVerificationScheduler(0, Duration.ofSeconds(1), (RateLimiter) null));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.repository.citation.VerificationCacheRepository;
+import org.solace.scholar_ai.project_service.service.citation.CitationAnalysisService.VerificationDecision;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class ClaimVerifierTest {
+
+    private static final String SINGLE_SUPPORTS =
+            "{\"decision\": \"supports\", \"confidence\": 0.9, \"rationale\": \"single\"}";
+
+    private final CitationVerificationScheduler scheduler =
+            new CitationVerificationScheduler(4, Duration.ofSeconds(30), (RateLimiter) null);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CitationAnalysisMetrics metrics = new CitationAnalysisMetrics();
+    private final List<String> prompts = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void verify_PacksPairsIntoOneRequest_WhenBatched() {
+        ClaimVerifier verifier = new ClaimVerifier(
+                scheduler, respond(prompt -> batchResponse(0, 1, 2, 3, 4)), objectMapper, 8, metrics, null);
+
+        List<CompletableFuture<VerificationDecision>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(verifier.verify("claim " + i, null, "evidence " + i));
+        }
+        verifier.flush();
+
+        for (int i = 0; i < 5; i++) {
+            VerificationDecision decision = results.get(i).join();
+            assertEquals("supports", decision.getDecision());
+            assertEquals("pair " + i, decision.getRationale());
+        }
+        assertEquals(1, prompts.size());
+        assertTrue(prompts.get(0).contains("PAIR 4"));
+        assertEquals(5L, metrics.getVerificationPairs());
+        assertEquals(1L, metrics.getVerificationRequests());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> verification = (Map<String, Object>) metrics.toSummary().get("verification");
+        assertEquals("batched", verification.get("mode"));
+        assertEquals(4L, verification.get("requestsSaved"));
+        assertTrue((Long) verification.get("estimatedTokensSaved") > 0);
+    }
+
+    @Test
+    void verify_RetriesOnlyMalformedEntriesSingly() {
+        String batch = "```json\n["
+                + "{\"index\": 0, \"decision\": \"contradicts\", \"confidence\": 0.7, \"rationale\": \"pair 0\"},"
+                + "{\"index\": 1, \"decision\": \"maybe\", \"confidence\": 0.7},"
+                + "{\"index\": 3, \"decision\": \"supports\", \"confidence\": 0.8, \"rationale\": \"pair 3\"}"
+                + "]\n```";
+        ClaimVerifier verifier = new ClaimVerifier(
+                scheduler,
+                respond(prompt -> prompt.contains("PAIR 0") ? batch : SINGLE_SUPPORTS),
+                objectMapper,
+                4,
+                metrics,
+                null);
+
+        List<CompletableFuture<VerificationDecision>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(verifier.verify("claim " + i, null, "evidence " + i));
+        }
+
+        assertEquals("contradicts", results.get(0).join().getDecision());
+        assertEquals("single", results.get(1).join().getRationale());
+        assertEquals("single", results.get(2).join().getRationale());
+        assertEquals("pair 3", results.get(3).join().getRationale());
+        assertEquals(3, prompts.size());
+        assertEquals(3L, metrics.getVerificationRequests());
+    }
+
+    @Test
+    void verify_RetriesPairsAnsweredTwiceSingly() {
+        String batch = "["
+                + "{\"index\": 0, \"decision\": \"contradicts\", \"confidence\": 0.7, \"rationale\": \"pair 0\"},"
+                + "{\"index\": 0, \"decision\": \"supports\", \"confidence\": 0.7, \"rationale\": \"pair 1\"},"
+                + "{\"index\": 2, \"decision\": \"supports\", \"confidence\": 0.8, \"rationale\": \"pair 2\"}"
+                + "]";
+        ClaimVerifier verifier = new ClaimVerifier(
+                scheduler,
+                respond(prompt -> prompt.contains("PAIR 0") ? batch : SINGLE_SUPPORTS),
+                objectMapper,
+                3,
+                metrics,
+                null);
+
+        List<CompletableFuture<VerificationDecision>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(verifier.verify("claim " + i, null, "evidence " + i));
+        }
+
+        assertEquals("single", results.get(0).join().getRationale());
+        assertEquals("single", results.get(1).join().getRationale());
+        assertEquals("pair 2", results.get(2).join().getRationale());
+        assertEquals(3, prompts.size());
+    }
+
+    @Test
+    void verify_SendsOneRequestPerPair_WhenBatchingIsOff() {
+        ClaimVerifier verifier =
+                new ClaimVerifier(scheduler, respond(prompt -> SINGLE_SUPPORTS), objectMapper, 1, metrics, null);
+
+        List<CompletableFuture<VerificationDecision>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(verifier.verify("claim " + i, null, "evidence " + i));
+        }
+        verifier.flush();
+
+        results.forEach(result -> assertEquals("supports", result.join().getDecision()));
+        assertEquals(3, prompts.size());
+        assertFalse(prompts.get(0).contains("PAIR"));
+        assertEquals("single", ((Map<?, ?>) metrics.toSummary().get("verification")).get("mode"));
+    }
+
+    @Test
+    void verify_AnswersRepeatedPairsFromCache() {
+        VerificationDecisionCache cache =
+                new VerificationDecisionCache(mock(VerificationCacheRepository.class), mock(JdbcTemplate.class), 100);
+        UUID paragraphId = UUID.randomUUID();
+        ClaimVerifier first =
+                new ClaimVerifier(scheduler, respond(prompt -> SINGLE_SUPPORTS), objectMapper, 1, metrics, cache);
+
+        CompletableFuture<VerificationDecision> asked = first.verify("The claim.", paragraphId, "evidence");
+        CompletableFuture<VerificationDecision> repeated = first.verify("The claim.", paragraphId, "evidence");
+        assertEquals("supports", asked.join().getDecision());
+        assertSame(asked, repeated);
+        assertEquals(1, first.drainNewCacheEntries().size());
+
+        ClaimVerifier second =
+                new ClaimVerifier(scheduler, respond(prompt -> SINGLE_SUPPORTS), objectMapper, 1, metrics, cache);
+        VerificationDecision cached = second.verify("  the   CLAIM. ", paragraphId, "evidence").join();
+
+        assertEquals("single", cached.getRationale());
+        assertEquals(1, prompts.size());
+        assertEquals(1L, metrics.getVerificationCacheHits());
+        assertTrue(second.drainNewCacheEntries().isEmpty());
+    }
+
+    @Test
+    void verify_DoesNotCacheUnparseableResponses() {
+        VerificationDecisionCache cache =
+                new VerificationDecisionCache(mock(VerificationCacheRepository.class), mock(JdbcTemplate.class), 100);
+        ClaimVerifier verifier =
+                new ClaimVerifier(scheduler, respond(prompt -> "no idea"), objectMapper, 1, metrics, cache);
+
+        VerificationDecision decision = verifier.verify("claim", UUID.randomUUID(), "evidence").join();
+
+        assertEquals("not_enough_info", decision.getDecision());
+        assertEquals(0, cache.size());
+        assertTrue(verifier.drainNewCacheEntries().isEmpty());
+    }
+
+    @Test
+    void parseBatchVerificationResponse_SkipsOutOfRangeEntriesAndIndexesAnsweredTwice() {
+        ClaimVerifier verifier = new ClaimVerifier(scheduler, respond(prompt -> ""), objectMapper, 8, metrics, null);
+        String response = "Here you go: ["
+                + "{\"index\": 0, \"decision\": \"supports\", \"confidence\": 0.9, \"rationale\": \"first\"},"
+                + "{\"index\": 0, \"decision\": \"contradicts\", \"confidence\": 0.9},"
+                + "{\"index\": 3, \"decision\": \"supports\", \"confidence\": 0.9},"
+                + "{\"index\": 1, \"decision\": \"not_enough_info\"},"
+                + "{\"index\": 2, \"decision\": \"supports\", \"confidence\": 0.8, \"rationale\": \"third\"},"
+                + "\"junk\"]";
+
+        Map<Integer, VerificationDecision> decisions = verifier.parseBatchVerificationResponse(response, 3);
+
+        assertEquals(Set.of(2), decisions.keySet());
+        assertEquals("third", decisions.get(2).getRationale());
+        assertTrue(verifier.parseBatchVerificationResponse("not json", 2).isEmpty());
+    }
+
+    private Function<String, String> respond(Function<String, String> responder) {
+        return prompt -> {
+            prompts.add(prompt);
+            return responder.apply(prompt);
+        };
+    }
+
+    private static String batchResponse(int... indexes) {
+        StringJoiner entries = new StringJoiner(",", "[", "]");
+        for (int index : indexes) {
+            entries.add("{\"index\": " + index + ", \"decision\": \"supports\", \"confidence\": 0.9, "
+                    + "\"rationale\": \"pair " + index + "\"}");
+        }
+        return entries.toString();
+    }
+}
@@ -0,0 +1,184 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.model.extraction.ExtractedParagraph;
+import org.solace.scholar_ai.project_service.service.extraction.index.TermVector;
+
+class CorpusTextIndexTest {
+
+    private static final String[] VOCABULARY = {
+        "neural", "network", "training", "dataset", "accuracy", "results", "shows", "model", "transformer", "attention",
+        "baseline", "improves", "benchmark", "evaluation", "method", "approach", "study", "analysis", "data", "the",
+        "and", "with", "proposed", "significant", "performance", "learning", "gradient", "optimization", "layer", "loss"
+    };
+
+    @Test
+    void search_MatchesBruteForceScan_ForEvidenceAndPlagiarismThresholds() {
+        Random random = new Random(42);
+        Map<String, List<ExtractedParagraph>> corpus = new LinkedHashMap<>();
+        for (int paper = 0; paper < 8; paper++) {
+            List<ExtractedParagraph> paragraphs = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                String text = i % 17 == 0 ? null : randomText(random, 3 + random.nextInt(40));
+                paragraphs.add(ExtractedParagraph.builder()
+                        .id(UUID.randomUUID())
+                        .text(text)
+                        .page(i / 5)
+                        .build());
+            }
+            corpus.put(UUID.randomUUID().toString(), paragraphs);
+        }
+
+        List<String> sentences = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            sentences.add(randomText(random, 4 + random.nextInt(20)));
+        }
+        // Near-verbatim copies to exercise the plagiarism threshold
+        for (List<ExtractedParagraph> paragraphs : corpus.values()) {
+            for (int i = 1; i < paragraphs.size(); i += 9) {
+                String text = paragraphs.get(i).getText();
+                if (text != null) {
+                    sentences.add(text);
+                    sentences.add(text + " additional");
+                }
+            }
+        }
+
+        CorpusTextIndex index = CorpusTextIndex.build(corpus);
+        CorpusTextIndex precomputedIndex = CorpusTextIndex.build(corpus, precomputeVectors(corpus));
+
+        for (String sentence : sentences) {
+            List<String> evidence = bruteForce(sentence, corpus, 50, 0.3);
+            List<String> plagiarism = bruteForce(sentence, corpus, 30, 0.85);
+
+            assertEquals(evidence, describe(index.search(sentence, 50, 0.3)));
+            assertEquals(plagiarism, describe(index.search(sentence, 30, 0.85)));
+            assertEquals(evidence, describe(precomputedIndex.search(sentence, 50, 0.3)));
+            assertEquals(plagiarism, describe(precomputedIndex.search(sentence, 30, 0.85)));
+        }
+    }
+
+    @Test
+    void search_ScoresExactWords_WhenTermIdsCollide() {
+        String[] colliding = collidingWords();
+        ExtractedParagraph paragraph = ExtractedParagraph.builder()
+                .id(UUID.randomUUID())
+                .text("shared " + colliding[0])
+                .build();
+        Map<String, List<ExtractedParagraph>> corpus = Map.of("paper", List.of(paragraph));
+        String sentence = "shared " + colliding[1];
+
+        for (CorpusTextIndex index : List.of(
+                CorpusTextIndex.build(corpus), CorpusTextIndex.build(corpus, precomputeVectors(corpus)))) {
+            List<CorpusTextIndex.Match> evidence = index.search(sentence, 0, 0.3);
+            assertEquals(1, evidence.size());
+            assertEquals(legacySimilarity(sentence, paragraph.getText()), evidence.get(0).similarity());
+            assertTrue(index.search(sentence, 0, 0.85).isEmpty());
+        }
+    }
+
+    @Test
+    void search_ReturnsEmpty_ForSentenceWithoutIndexableTokens() {
+        Map<String, List<ExtractedParagraph>> corpus = Map.of(
+                "paper",
+                List.of(ExtractedParagraph.builder()
+                        .text("A long paragraph about neural network training on a benchmark dataset")
+                        .build()));
+
+        CorpusTextIndex index = CorpusTextIndex.build(corpus);
+
+        assertTrue(index.search("a an of to", 0, 0.0).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void jaccard_MatchesLegacySimilarity() {
+        String first = "The proposed model shows significant improvements over the baseline";
+        String second = "Our model improves the baseline with significant margins";
+
+        double expected = legacySimilarity(first, second);
+        double actual = CorpusTextIndex.jaccard(CorpusTextIndex.tokenize(first), CorpusTextIndex.tokenize(second));
+
+        assertEquals(expected, actual);
+    }
+
+    private static Map<UUID, TermVector> precomputeVectors(Map<String, List<ExtractedParagraph>> corpus) {
+        Map<UUID, TermVector> vectors = new HashMap<>();
+        corpus.values().stream()
+                .flatMap(List::stream)
+                .filter(paragraph -> paragraph.getText() != null)
+                .forEach(paragraph -> {
+                    TermVector vector = TermVector.of(paragraph.getText());
+                    vectors.put(paragraph.getId(), TermVector.decode(vector.encodeTerms(), vector.encodeMinHash()));
+                });
+        return vectors;
+    }
+
+    // Two different long words with the same term id, found by the birthday bound in ~2^16 tries
+    private static String[] collidingWords() {
+        Map<Integer, String> seen = new HashMap<>();
+        for (int i = 0; ; i++) {
+            String word = "word" + Integer.toString(i, 36);
+            String other = seen.putIfAbsent(TermVector.termId(word), word);
+            if (other != null) {
+                return new String[] {other, word};
+            }
+        }
+    }
+
+    private static String randomText(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(random.nextInt(6) == 0 ? ", " : " ");
+            }
+            String word = VOCABULARY[random.nextInt(VOCABULARY.length)];
+            text.append(random.nextBoolean() ? word : word.toUpperCase());
+        }
+        return text.append('.').toString();
+    }
+
+    private static List<String> bruteForce(
+            String sentence, Map<String, List<ExtractedParagraph>> corpus, int minLength, double threshold) {
+        List<String> matches = new ArrayList<>();
+        for (Map.Entry<String, List<ExtractedParagraph>> entry : corpus.entrySet()) {
+            for (ExtractedParagraph paragraph : entry.getValue()) {
+                if (paragraph.getText() != null && paragraph.getText().length() > minLength) {
+                    double similarity = legacySimilarity(sentence, paragraph.getText());
+                    if (similarity > threshold) {
+                        matches.add(entry.getKey() + "/" + paragraph.getId() + "/" + similarity);
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static List<String> describe(List<CorpusTextIndex.Match> matches) {
+        return matches.stream()
+                .map(m -> m.paperId() + "/" + m.paragraph().getId() + "/" + m.similarity())
+                .collect(Collectors.toList());
+    }
+
+    // Copy of the original CitationAnalysisService#calculateTextSimilarity
+    private static double legacySimilarity(String text1, String text2) {
+        Set<String> words1 = Arrays.stream(text1.toLowerCase().split("\\W+"))
+                .filter(w -> w.length() > 3)
+                .collect(Collectors.toSet());
+        Set<String> words2 = Arrays.stream(text2.toLowerCase().split("\\W+"))
+                .filter(w -> w.length() > 3)
+                .collect(Collectors.toSet());
+
+        Set<String> intersection = new HashSet<>(words1);
+        intersection.retainAll(words2);
+
+        Set<String> union = new HashSet<>(words1);
+        union.addAll(words2);
+
+        return union.isEmpty() ? 0.0 : (double) intersection.size() / union.size();
+    }
+}
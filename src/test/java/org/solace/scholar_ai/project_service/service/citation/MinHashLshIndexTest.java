@@ -0,0 +1,67 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.model.extraction.ExtractedParagraph;
+
+class MinHashLshIndexTest {
+
+    @Test
+    void search_FindsSamePlagiarismMatchesAsExactIndex_WithFewerComparisons() {
+        Random random = new Random(7);
+        Map<String, List<ExtractedParagraph>> corpus = new LinkedHashMap<>();
+        List<String> sentences = new ArrayList<>();
+        for (int paper = 0; paper < 10; paper++) {
+            List<ExtractedParagraph> paragraphs = new ArrayList<>();
+            for (int i = 0; i < 80; i++) {
+                String text = randomText(random, 12 + random.nextInt(20));
+                paragraphs.add(ExtractedParagraph.builder()
+                        .id(UUID.randomUUID())
+                        .text(text)
+                        .build());
+                if (i % 10 == 0) {
+                    sentences.add(text);
+                }
+            }
+            corpus.put("paper-" + paper, paragraphs);
+        }
+        for (int i = 0; i < 100; i++) {
+            sentences.add(randomText(random, 8 + random.nextInt(15)));
+        }
+
+        CorpusTextIndex corpusIndex = CorpusTextIndex.build(corpus);
+        MinHashLshIndex lshIndex = MinHashLshIndex.build(corpusIndex, 16, 4, 30);
+
+        long candidatePairs = 0;
+        for (String sentence : sentences) {
+            MinHashLshIndex.SearchResult result = lshIndex.search(sentence, 0.85);
+            candidatePairs += result.candidateCount();
+            assertEquals(paragraphIds(corpusIndex.search(sentence, 30, 0.85)), paragraphIds(result.matches()));
+        }
+
+        long totalPairs = (long) sentences.size() * lshIndex.getEligibleParagraphs();
+        assertTrue(candidatePairs < totalPairs / 10, "LSH should prune most pairs");
+    }
+
+    @Test
+    void build_RejectsBandsThatDoNotFitSignature() {
+        CorpusTextIndex corpusIndex = CorpusTextIndex.build(Map.of());
+
+        assertThrows(IllegalArgumentException.class, () -> MinHashLshIndex.build(corpusIndex, 20, 4, 30));
+        assertThrows(IllegalArgumentException.class, () -> MinHashLshIndex.build(corpusIndex, 0, 4, 30));
+    }
+
+    private static List<UUID> paragraphIds(List<CorpusTextIndex.Match> matches) {
+        return matches.stream().map(match -> match.paragraph().getId()).toList();
+    }
+
+    private static String randomText(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(i > 0 ? " " : "").append("term").append(random.nextInt(2000));
+        }
+        return text.toString();
+    }
+}
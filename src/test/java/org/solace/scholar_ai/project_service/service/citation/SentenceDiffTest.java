@@ -0,0 +1,52 @@
+package org.solace.scholar_ai.project_service.service.citation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.service.citation.CitationAnalysisService.LatexSentence;
+
+class SentenceDiffTest {
+
+    @Test
+    void match_PairsUnchangedSentencesAcrossMovedPositions() {
+        List<LatexSentence> previous = List.of(
+                sentence("First claim about the data", 0, 1),
+                sentence("Second claim about the method", 40, 2, "smith2020"),
+                sentence("Third claim about the results", 80, 3));
+        List<LatexSentence> current = List.of(
+                sentence("A new opening sentence", 0, 1),
+                sentence("First claim about the data", 30, 2),
+                sentence("Second claim about the method", 70, 3, "smith2020"),
+                sentence("Third claim about the results, edited", 110, 4));
+
+        assertArrayEquals(new int[] {-1, 0, 1, -1}, SentenceDiff.match(previous, current));
+    }
+
+    @Test
+    void match_TreatsChangedCitedKeysAsChanged() {
+        List<LatexSentence> previous = List.of(sentence("Claim about the method", 0, 1, "a", "b"));
+        List<LatexSentence> sameKeys = List.of(sentence("Claim about the method", 0, 1, "b", "a"));
+        List<LatexSentence> droppedKey = List.of(sentence("Claim about the method", 0, 1, "a"));
+
+        assertArrayEquals(new int[] {0}, SentenceDiff.match(previous, sameKeys));
+        assertArrayEquals(new int[] {-1}, SentenceDiff.match(previous, droppedKey));
+    }
+
+    @Test
+    void match_PairsRepeatedSentencesInOrder() {
+        List<LatexSentence> previous =
+                List.of(sentence("Repeated claim text", 0, 1), sentence("Repeated claim text", 30, 2));
+        List<LatexSentence> current = List.of(
+                sentence("Repeated claim text", 0, 1),
+                sentence("Repeated claim text", 30, 2),
+                sentence("Repeated claim text", 60, 3));
+
+        assertArrayEquals(new int[] {0, 1, -1}, SentenceDiff.match(previous, current));
+    }
+
+    private static LatexSentence sentence(String text, int start, int line, String... citedKeys) {
+        return new LatexSentence(text, start, start + text.length(), line, line, Set.of(citedKeys));
+    }
+}
@@ -0,0 +1,251 @@
+package org.solace.scholar_ai.project_service.service.extraction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.solace.scholar_ai.project_service.dto.event.extraction.ExtractionCompletedEvent;
+import org.solace.scholar_ai.project_service.exception.CustomException;
+import org.solace.scholar_ai.project_service.model.extraction.ExtractionJobRecord;
+import org.solace.scholar_ai.project_service.repository.extraction.ExtractionJobLedgerRepository;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ExtractionIngestProcessorTest {
+
+    private final ExtractionService extractionService = mock(ExtractionService.class);
+    private final ExtractionJobLedgerRepository ledgerRepository = mock(ExtractionJobLedgerRepository.class);
+    private final ExtractionIngestProcessor processor = new ExtractionIngestProcessor(
+            extractionService,
+            ledgerRepository,
+            new TransactionTemplate(new NoOpTransactionManager()),
+            3,
+            Duration.ZERO,
+            Duration.ofMinutes(15));
+
+    @BeforeEach
+    void setUp() {
+        when(ledgerRepository.finish(any(), any(), any(), any(), any())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        processor.shutdown();
+    }
+
+    @Test
+    void process_SkipsJobsThatCannotBeClaimed() {
+        when(ledgerRepository.claim(eq("job-1"), any(), any(), any(), any())).thenReturn(0);
+
+        ExtractionIngestProcessor.Result result = processor.process(event("job-1"));
+
+        assertEquals(ExtractionIngestProcessor.Outcome.DUPLICATE, result.outcome());
+        verifyNoInteractions(extractionService);
+    }
+
+    @Test
+    void process_FinishesTheJobOnlyUnderItsOwnClaim() {
+        ArgumentCaptor<String> owner = ArgumentCaptor.forClass(String.class);
+        when(ledgerRepository.claim(any(), any(), owner.capture(), any(), any())).thenReturn(1);
+
+        processor.process(event("job-1"));
+
+        verify(ledgerRepository)
+                .finish(eq("job-1"), eq(owner.getValue()), eq(ExtractionJobRecord.Status.COMPLETED), any(), isNull());
+    }
+
+    @Test
+    void process_DiscardsTheIngestWhenItsClaimWasTakenOver() {
+        RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+        ExtractionIngestProcessor processor = new ExtractionIngestProcessor(
+                extractionService,
+                ledgerRepository,
+                new TransactionTemplate(transactionManager),
+                3,
+                Duration.ZERO,
+                Duration.ofMinutes(15));
+        when(ledgerRepository.claim(any(), any(), any(), any(), any())).thenReturn(1);
+        when(ledgerRepository.finish(any(), any(), any(), any(), any())).thenReturn(0);
+
+        ExtractionIngestProcessor.Result result = processor.process(event("job-1"));
+        processor.shutdown();
+
+        assertEquals(ExtractionIngestProcessor.Outcome.DUPLICATE, result.outcome());
+        assertEquals(1, transactionManager.rollbacks);
+        verify(extractionService, times(1)).handleExtractionCompleted(any());
+    }
+
+    @Test
+    void process_RefreshesTheClaimWhileIngesting() {
+        ExtractionIngestProcessor processor = new ExtractionIngestProcessor(
+                extractionService,
+                ledgerRepository,
+                new TransactionTemplate(new NoOpTransactionManager()),
+                3,
+                Duration.ZERO,
+                Duration.ofSeconds(3));
+        ArgumentCaptor<String> owner = ArgumentCaptor.forClass(String.class);
+        when(ledgerRepository.claim(any(), any(), owner.capture(), any(), any())).thenReturn(1);
+        CountDownLatch refreshed = new CountDownLatch(1);
+        when(ledgerRepository.heartbeat(eq("job-1"), any(), any())).thenAnswer(invocation -> {
+            if (owner.getValue().equals(invocation.getArgument(1))) {
+                refreshed.countDown();
+            }
+            return 1;
+        });
+        AtomicBoolean refreshedWhileIngesting = new AtomicBoolean();
+        doAnswer(invocation -> {
+                    refreshedWhileIngesting.set(refreshed.await(5, TimeUnit.SECONDS));
+                    return null;
+                })
+                .when(extractionService)
+                .handleExtractionCompleted(any());
+
+        ExtractionIngestProcessor.Result result = processor.process(event("job-1"));
+        processor.shutdown();
+
+        assertEquals(ExtractionIngestProcessor.Outcome.COMPLETED, result.outcome());
+        assertTrue(refreshedWhileIngesting.get());
+    }
+
+    @Test
+    void process_RetriesTransientFailuresThenMarksTheJobCompleted() {
+        when(ledgerRepository.claim(any(), any(), any(), any(), any())).thenReturn(1);
+        doThrow(new TransientDataAccessResourceException("connection reset"))
+                .doNothing()
+                .when(extractionService)
+                .handleExtractionCompleted(any());
+
+        ExtractionIngestProcessor.Result result = processor.process(event("job-1"));
+
+        assertEquals(ExtractionIngestProcessor.Outcome.COMPLETED, result.outcome());
+        assertEquals(2, result.attempts());
+        verify(ledgerRepository).finish(eq("job-1"), any(), eq(ExtractionJobRecord.Status.COMPLETED), any(), isNull());
+    }
+
+    @Test
+    void process_MarksTheJobFailedOnceAttemptsRunOut() {
+        when(ledgerRepository.claim(any(), any(), any(), any(), any())).thenReturn(1);
+        doThrow(new TransientDataAccessResourceException("connection reset"))
+                .when(extractionService)
+                .handleExtractionCompleted(any());
+
+        ExtractionIngestProcessor.Result result = processor.process(event("job-1"));
+
+        assertEquals(ExtractionIngestProcessor.Outcome.FAILED, result.outcome());
+        assertEquals(3, result.attempts());
+        verify(extractionService, times(3)).handleExtractionCompleted(any());
+        verify(ledgerRepository)
+                .finish(eq("job-1"), any(), eq(ExtractionJobRecord.Status.FAILED), any(), eq("connection reset"));
+    }
+
+    @Test
+    void process_DoesNotRetryMissingPapers() {
+        when(ledgerRepository.claim(any(), any(), any(), any(), any())).thenReturn(1);
+        doThrow(new CustomException("Paper not found", HttpStatus.NOT_FOUND))
+                .when(extractionService)
+                .handleExtractionCompleted(any());
+
+        ExtractionIngestProcessor.Result result = processor.process(event("job-1"));
+
+        assertEquals(ExtractionIngestProcessor.Outcome.FAILED, result.outcome());
+        assertEquals(1, result.attempts());
+    }
+
+    @Test
+    void process_RejectsEventsWithoutAPaperIdBeforeClaiming() {
+        ExtractionCompletedEvent event = new ExtractionCompletedEvent(
+                "job-1", "not-a-uuid", "corr", "completed", null, null, null, null, null, null, null, Instant.now());
+
+        ExtractionIngestProcessor.Result result = processor.process(event);
+
+        assertEquals(ExtractionIngestProcessor.Outcome.FAILED, result.outcome());
+        verifyNoInteractions(ledgerRepository, extractionService);
+    }
+
+    @Test
+    void process_IngestsConcurrentDuplicatesOnce() throws Exception {
+        Set<String> claimedJobs = ConcurrentHashMap.newKeySet();
+        when(ledgerRepository.claim(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> claimedJobs.add(invocation.getArgument(0)) ? 1 : 0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ExtractionIngestProcessor.Result>> results = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                ExtractionCompletedEvent event = event("job-" + (i % 3));
+                results.add(pool.submit(() -> processor.process(event)));
+            }
+            int completed = 0;
+            for (Future<ExtractionIngestProcessor.Result> result : results) {
+                if (result.get().outcome() == ExtractionIngestProcessor.Outcome.COMPLETED) {
+                    completed++;
+                }
+            }
+            assertEquals(3, completed);
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(extractionService, times(3)).handleExtractionCompleted(any());
+    }
+
+    private static ExtractionCompletedEvent event(String jobId) {
+        return new ExtractionCompletedEvent(
+                jobId,
+                UUID.nameUUIDFromBytes(jobId.getBytes()).toString(),
+                "corr",
+                "completed",
+                null,
+                "{}",
+                1.0,
+                100.0,
+                null,
+                null,
+                null,
+                Instant.now());
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {}
+
+        @Override
+        public void rollback(TransactionStatus status) {}
+    }
+
+    private static class RecordingTransactionManager extends NoOpTransactionManager {
+        private int rollbacks;
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            rollbacks++;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.solace.scholar_ai.project_service.service.extraction.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class TermVectorTest {
+
+    @Test
+    void of_CountsWordsLongerThanTwoCharacters() {
+        TermVector vector = TermVector.of("The model and the MODEL: a transformer, of course.");
+
+        assertEquals(2, vector.count(TermVector.termId("the")));
+        assertEquals(2, vector.count(TermVector.termId("model")));
+        assertEquals(1, vector.count(TermVector.termId("transformer")));
+        assertFalse(vector.contains(TermVector.termId("of")));
+        assertEquals(7, vector.tokenCount());
+    }
+
+    @Test
+    void termId_FlagsWordsLongerThanThreeCharacters() {
+        assertTrue(TermVector.isLongTerm(TermVector.termId("data")));
+        assertFalse(TermVector.isLongTerm(TermVector.termId("the")));
+        assertEquals(2, TermVector.of("the data and more data").getLongTermIds().length);
+    }
+
+    @Test
+    void decode_RoundTripsEncodedVector() {
+        TermVector original = TermVector.of("Attention layers improve translation quality on every benchmark.");
+
+        TermVector decoded = TermVector.decode(original.encodeTerms(), original.encodeMinHash());
+
+        assertArrayEquals(original.getTermIds(), decoded.getTermIds());
+        assertArrayEquals(original.getMinHash(), decoded.getMinHash());
+        assertEquals(original.tokenCount(), decoded.tokenCount());
+    }
+
+    @Test
+    void decode_RecomputesMissingMinHash() {
+        TermVector original = TermVector.of("Gradient descent converges under mild assumptions.");
+
+        TermVector decoded = TermVector.decode(original.encodeTerms(), null);
+
+        assertArrayEquals(original.getMinHash(), decoded.getMinHash());
+    }
+
+    @Test
+    void estimateJaccard_IsOneForIdenticalAndLowForDisjointText() {
+        int[] first = TermVector.of("neural network training improves accuracy").getMinHash();
+        int[] same = TermVector.of("Accuracy improves: neural network training").getMinHash();
+        int[] other = TermVector.of("bibliography formatting with latex macros").getMinHash();
+
+        assertEquals(1.0, TermVector.estimateJaccard(first, same));
+        assertTrue(TermVector.estimateJaccard(first, other) < 0.2);
+    }
+}
@@ -0,0 +1,322 @@
+package org.solace.scholar_ai.project_service.service.extraction.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Column;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Table;
+import java.lang.reflect.Field;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.solace.scholar_ai.project_service.dto.event.extraction.ExtractionCompletedEvent;
+import org.solace.scholar_ai.project_service.model.extraction.PaperExtraction;
+import org.solace.scholar_ai.project_service.model.paper.Paper;
+import org.solace.scholar_ai.project_service.service.extraction.index.ParagraphTermVectorService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+class ExtractionBulkWriterTest {
+
+    private static final Pattern INSERT = Pattern.compile("INSERT INTO (\\w+) \\((.*)\\) VALUES");
+
+    private static final String EXTRACTION_JSON =
+            """
+            {
+              "id": "ext-1",
+              "pdf_hash": "abc",
+              "extraction_timestamp": "2025-01-02 03:04:05",
+              "metadata": {"title": "A Paper", "abstract": "Abstract", "language": "en", "page_count": 9},
+              "extraction_methods": ["grobid", "ocr"],
+              "sections": [
+                {"id": "s1", "title": "Intro", "type": "introduction", "level": 1, "page_start": 1,
+                 "paragraphs": [
+                   {"text": "First paragraph.", "page": 1, "bbox": {"x1": 1, "y1": 2, "x2": 3, "y2": 4}},
+                   {"text": "Second paragraph.", "page": 1, "style": {"font": "Times"}}]},
+                {"id": "s2", "title": "Method", "level": 1,
+                 "paragraphs": [{"text": "Third paragraph.", "page": 2}]}
+              ],
+              "figures": [{"id": "f1", "label": "Figure 1", "caption": "A plot", "page": 3,
+                           "bbox": {"x1": 0.1, "y1": 0.2, "x2": 0.3, "y2": 0.4, "confidence": 0.9},
+                           "references": ["s1"]}],
+              "tables": [{"id": "t1", "caption": "Results", "headers": [["a", "b"]], "rows": [[1, 2]]}],
+              "equations": [{"id": "e1", "latex": "x^2", "inline": true}],
+              "code_blocks": [{"id": "c1", "language": "python", "code": "print(1)"}],
+              "references": [{"id": "r1", "title": "Prior work", "year": 2020, "authors": ["A. Author"],
+                              "cited_by_sections": ["s1", "s2"]}],
+              "entities": [{"id": "n1", "type": "METHOD", "name": "BM25", "confidence": 0.8}]
+            }
+            """;
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ParagraphTermVectorService termVectorService = mock(ParagraphTermVectorService.class);
+    private final ExtractionPersistenceService persistenceService = new ExtractionPersistenceService(
+            new ExtractionBulkWriter(jdbcTemplate, new NoOpTransactionManager(), meterRegistry, 2),
+            new ObjectMapper(),
+            termVectorService);
+
+    @Test
+    void persistExtractionResult_InsertsEveryMappedColumnOfTheGraph() throws Exception {
+        PaperExtraction extraction = persist();
+
+        Map<UUID, Object> entitiesById = new HashMap<>();
+        allEntities(extraction).forEach(entity -> entitiesById.put(idOf(entity), entity));
+
+        Map<String, Integer> rowsByTable = new HashMap<>();
+        for (RecordedBatch batch : jdbcTemplate.batches) {
+            for (Object[] row : batch.rows()) {
+                Map<String, Object> inserted = new LinkedHashMap<>();
+                for (int i = 0; i < batch.columns().size(); i++) {
+                    inserted.put(batch.columns().get(i), row[i]);
+                }
+                Object entity = entitiesById.get((UUID) inserted.get("id"));
+                assertNotNull(entity, "row without an entity in " + batch.table());
+                assertEquals(batch.table(), entity.getClass().getAnnotation(Table.class).name());
+                assertEquals(mappedColumns(entity), inserted, "columns of " + batch.table());
+                rowsByTable.merge(batch.table(), 1, Integer::sum);
+            }
+        }
+
+        assertEquals(
+                Map.of(
+                        "paper_extractions", 1,
+                        "extracted_sections", 2,
+                        "extracted_paragraphs", 3,
+                        "extracted_figures", 1,
+                        "extracted_tables", 1,
+                        "extracted_equations", 1,
+                        "extracted_code_blocks", 1,
+                        "extracted_references", 1,
+                        "extracted_entities", 1),
+                rowsByTable);
+        assertEquals(12, entitiesById.size());
+    }
+
+    @Test
+    void persistExtractionResult_InsertsInOrderedBatches() throws Exception {
+        persist();
+
+        List<String> tables = jdbcTemplate.batches.stream().map(RecordedBatch::table).toList();
+        assertEquals(
+                List.of(
+                        "paper_extractions",
+                        "extracted_sections",
+                        "extracted_paragraphs",
+                        "extracted_paragraphs",
+                        "extracted_figures",
+                        "extracted_tables",
+                        "extracted_equations",
+                        "extracted_code_blocks",
+                        "extracted_references",
+                        "extracted_entities"),
+                tables);
+        assertEquals(1, meterRegistry.get(ExtractionBulkWriter.INGEST_TIMER).timer().count());
+        assertEquals(
+                3.0,
+                meterRegistry
+                        .get(ExtractionBulkWriter.INGEST_ROWS)
+                        .tag("table", "extracted_paragraphs")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void persistExtractionResult_DropsOnlyTheCategoryThatFailsToInsert() throws Exception {
+        jdbcTemplate.failingTable = "extracted_figures";
+
+        PaperExtraction extraction = persist();
+
+        assertTrue(extraction.getFigures().isEmpty());
+        assertEquals(2, extraction.getSections().size());
+        assertEquals(1, extraction.getEntities().size());
+        assertTrue(jdbcTemplate.batches.stream().anyMatch(batch -> batch.table().equals("extracted_entities")));
+    }
+
+    @Test
+    void streamingIngest_InsertsTheSameRowsAsTheTreePath() throws Exception {
+        persist();
+        List<RecordedBatch> treeBatches = List.copyOf(jdbcTemplate.batches);
+        jdbcTemplate.batches.clear();
+
+        persistenceService.setStreamingThreshold(0);
+        persistenceService.persistExtractionResult(newPaper(), newEvent(EXTRACTION_JSON));
+
+        Map<String, List<Map<String, Object>>> streamed = canonicalRows(jdbcTemplate.batches);
+        assertEquals(canonicalRows(treeBatches), streamed);
+        verify(termVectorService, times(1)).buildVectors(any(PaperExtraction.class));
+        verify(termVectorService, times(2)).buildVectors(any(), any());
+    }
+
+    @Test
+    void streamingIngest_UpdatesMetadataThatFollowsTheContentArrays() {
+        String metadataLast = "{\"sections\": [{\"id\": \"s1\", \"paragraphs\": [{\"text\": \"Only.\"}]}],"
+                + " \"id\": \"ext-2\", \"metadata\": {\"title\": \"Late Title\"}}";
+
+        persistenceService.setStreamingThreshold(0);
+        persistenceService.persistExtractionResult(newPaper(), newEvent(metadataLast));
+
+        assertEquals("paper_extractions", jdbcTemplate.batches.get(0).table());
+        assertEquals(1, jdbcTemplate.updates.size());
+        assertTrue(Arrays.asList(jdbcTemplate.updates.get(0)).containsAll(List.of("ext-2", "Late Title")));
+    }
+
+    /**
+     * Inserted rows per table with UUIDs replaced by the table and position of the row they
+     * identify, and audit timestamps removed, so runs with different generated IDs compare equal
+     */
+    private static Map<String, List<Map<String, Object>>> canonicalRows(List<RecordedBatch> batches) {
+        Map<Object, String> canonicalIds = new HashMap<>();
+        Map<String, Integer> positions = new HashMap<>();
+        for (RecordedBatch batch : batches) {
+            for (Object[] row : batch.rows()) {
+                int position = positions.merge(batch.table(), 1, Integer::sum);
+                canonicalIds.put(row[batch.columns().indexOf("id")], batch.table() + "#" + position);
+            }
+        }
+
+        Map<String, List<Map<String, Object>>> rows = new TreeMap<>();
+        for (RecordedBatch batch : batches) {
+            for (Object[] row : batch.rows()) {
+                Map<String, Object> columns = new TreeMap<>();
+                for (int i = 0; i < row.length; i++) {
+                    String column = batch.columns().get(i);
+                    if (!column.equals("created_at") && !column.equals("updated_at")) {
+                        columns.put(column, row[i] instanceof UUID ? canonicalIds.get(row[i]) : row[i]);
+                    }
+                }
+                rows.computeIfAbsent(batch.table(), table -> new ArrayList<>()).add(columns);
+            }
+        }
+        return rows;
+    }
+
+    private PaperExtraction persist() {
+        persistenceService.persistExtractionResult(newPaper(), newEvent(EXTRACTION_JSON));
+
+        ArgumentCaptor<PaperExtraction> captor = ArgumentCaptor.forClass(PaperExtraction.class);
+        verify(termVectorService).buildVectors(captor.capture());
+        return captor.getValue();
+    }
+
+    private final UUID paperId = UUID.randomUUID();
+
+    private Paper newPaper() {
+        Paper paper = new Paper();
+        paper.setId(paperId);
+        return paper;
+    }
+
+    private ExtractionCompletedEvent newEvent(String extractionResult) {
+        return new ExtractionCompletedEvent(
+                "job",
+                paperId.toString(),
+                "corr",
+                "completed",
+                null,
+                extractionResult,
+                1.5,
+                95.0,
+                null,
+                null,
+                null,
+                Instant.now());
+    }
+
+    private static Stream<Object> allEntities(PaperExtraction extraction) {
+        return Stream.of(
+                        Stream.of((Object) extraction),
+                        extraction.getSections().stream(),
+                        extraction.getSections().stream().flatMap(s -> s.getParagraphs().stream()),
+                        extraction.getFigures().stream(),
+                        extraction.getTables().stream(),
+                        extraction.getEquations().stream(),
+                        extraction.getCodeBlocks().stream(),
+                        extraction.getReferences().stream(),
+                        extraction.getEntities().stream())
+                .flatMap(s -> s);
+    }
+
+    /**
+     * Column values Hibernate would insert for an entity, read from its JPA mapping
+     */
+    private static Map<String, Object> mappedColumns(Object entity) throws Exception {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        for (Field field : entity.getClass().getDeclaredFields()) {
+            field.setAccessible(true);
+            Object value = field.get(entity);
+            if (field.isAnnotationPresent(Id.class)) {
+                columns.put("id", value);
+            } else if (field.isAnnotationPresent(JoinColumn.class)) {
+                columns.put(field.getAnnotation(JoinColumn.class).name(), value != null ? idOf(value) : null);
+            } else if (field.isAnnotationPresent(Column.class)) {
+                columns.put(
+                        field.getAnnotation(Column.class).name(),
+                        value instanceof Instant instant ? Timestamp.from(instant) : value);
+            }
+        }
+        return columns;
+    }
+
+    private static UUID idOf(Object entity) {
+        try {
+            Field id = entity.getClass().getDeclaredField("id");
+            id.setAccessible(true);
+            return (UUID) id.get(entity);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record RecordedBatch(String table, List<String> columns, List<Object[]> rows) {}
+
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+        private final List<RecordedBatch> batches = new ArrayList<>();
+        private final List<Object[]> updates = new ArrayList<>();
+        private String failingTable;
+
+        @Override
+        public int update(String sql, Object... args) {
+            assertTrue(sql.startsWith("UPDATE paper_extractions SET"), sql);
+            updates.add(args);
+            return 1;
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            Matcher matcher = INSERT.matcher(sql);
+            assertTrue(matcher.find(), sql);
+            if (matcher.group(1).equals(failingTable)) {
+                throw new IllegalStateException("insert failed");
+            }
+            batches.add(new RecordedBatch(
+                    matcher.group(1), List.of(matcher.group(2).split(", ")), new ArrayList<>(batchArgs)));
+            return new int[batchArgs.size()];
+        }
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {}
+
+        @Override
+        public void rollback(TransactionStatus status) {}
+    }
+}
@@ -0,0 +1,134 @@
+package org.solace.scholar_ai.project_service.service.extraction.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.solace.scholar_ai.project_service.dto.event.extraction.ExtractionCompletedEvent;
+import org.solace.scholar_ai.project_service.model.paper.Paper;
+import org.solace.scholar_ai.project_service.service.extraction.index.ParagraphTermVectorService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * Compares the heap retained while ingesting a synthetic large extraction result in tree and
+ * streaming mode. Heap is sampled after a GC at every batch insert, so the peak is what the
+ * ingest keeps reachable rather than garbage. Run with {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExtractionIngestMemoryBenchmarkTest {
+
+    private static final int SECTIONS = 1_500;
+    private static final int PARAGRAPHS_PER_SECTION = 20;
+
+    @Test
+    void streamingIngest_RetainsFarLessHeapThanTheTreePath() {
+        String payload = syntheticPayload(SECTIONS, PARAGRAPHS_PER_SECTION);
+
+        long treePeak = peakRetainedBytes(payload, Integer.MAX_VALUE);
+        long streamingPeak = peakRetainedBytes(payload, 0);
+        long smallerStreamingPeak = peakRetainedBytes(syntheticPayload(SECTIONS / 4, PARAGRAPHS_PER_SECTION), 0);
+
+        System.out.printf(
+                "Extraction ingest of %.1f MB payload: tree peak %.1f MB, streaming peak %.1f MB"
+                        + " (streaming peak for a quarter of the sections: %.1f MB)%n",
+                payload.length() / 1e6, treePeak / 1e6, streamingPeak / 1e6, smallerStreamingPeak / 1e6);
+        assertTrue(streamingPeak * 4 < treePeak, "streaming should retain under a quarter of the tree path");
+    }
+
+    private static long peakRetainedBytes(String payload, int streamingThreshold) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        HeapSamplingJdbcTemplate jdbcTemplate = new HeapSamplingJdbcTemplate(memory);
+        ExtractionPersistenceService service = new ExtractionPersistenceService(
+                new ExtractionBulkWriter(jdbcTemplate, new NoOpTransactionManager(), new SimpleMeterRegistry(), 500),
+                new ObjectMapper(),
+                mock(ParagraphTermVectorService.class));
+        service.setStreamingThreshold(streamingThreshold);
+        UUID paperId = UUID.randomUUID();
+        Paper paper = new Paper();
+        paper.setId(paperId);
+        ExtractionCompletedEvent event = new ExtractionCompletedEvent(
+                "job",
+                paperId.toString(),
+                "corr",
+                "completed",
+                null,
+                payload,
+                1.0,
+                100.0,
+                null,
+                null,
+                null,
+                Instant.now());
+
+        System.gc();
+        jdbcTemplate.baseline = memory.getHeapMemoryUsage().getUsed();
+        service.persistExtractionResult(paper, event);
+        return jdbcTemplate.peak;
+    }
+
+    private static String syntheticPayload(int sections, int paragraphsPerSection) {
+        String text = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt "
+                .repeat(4);
+        StringBuilder json =
+                new StringBuilder("{\"id\": \"bench\", \"metadata\": {\"title\": \"Bench\"}, \"sections\": [");
+        for (int s = 0; s < sections; s++) {
+            json.append(s > 0 ? "," : "").append("{\"id\": \"s").append(s).append("\", \"paragraphs\": [");
+            for (int p = 0; p < paragraphsPerSection; p++) {
+                json.append(p > 0 ? "," : "")
+                        .append("{\"text\": \"")
+                        .append(s)
+                        .append('.')
+                        .append(p)
+                        .append(' ')
+                        .append(text)
+                        .append("\", \"page\": ")
+                        .append(s / 10 + 1)
+                        .append(", \"bbox\": {\"x1\": 1.0, \"y1\": 2.0, \"x2\": 3.0, \"y2\": 4.0}}");
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static class HeapSamplingJdbcTemplate extends JdbcTemplate {
+        private final MemoryMXBean memory;
+        private long baseline;
+        private long peak;
+
+        HeapSamplingJdbcTemplate(MemoryMXBean memory) {
+            this.memory = memory;
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            System.gc();
+            peak = Math.max(peak, memory.getHeapMemoryUsage().getUsed() - baseline);
+            return new int[batchArgs.size()];
+        }
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {}
+
+        @Override
+        public void rollback(TransactionStatus status) {}
+    }
+}
@@ -0,0 +1,126 @@
+package org.solace.scholar_ai.project_service.service.extraction.snapshot;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.service.extraction.snapshot.ExtractionSnapshot.Content;
+import org.springframework.util.unit.DataSize;
+
+class ExtractionSnapshotCacheTest {
+
+    private final ExtractionSnapshotLoader loader = mock(ExtractionSnapshotLoader.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExtractionSnapshotCache cache =
+            new ExtractionSnapshotCache(loader, meterRegistry, DataSize.ofBytes(1_000));
+
+    @Test
+    void get_AnswersFollowUpLookupsFromMemory() {
+        UUID paperId = UUID.randomUUID();
+        stubLoader(paperId, 100);
+
+        cache.get(paperId, EnumSet.of(Content.SECTIONS));
+        Optional<ExtractionSnapshot> second = cache.get(paperId, EnumSet.of(Content.SECTIONS));
+
+        assertTrue(second.isPresent());
+        verify(loader, times(1)).loadByPaperId(eq(paperId), any());
+        assertEquals(0.5, meterRegistry.get("cache.hit.ratio").gauge().value());
+        assertEquals(100, meterRegistry.get("cache.resident").gauge().value());
+    }
+
+    @Test
+    void get_ReloadsWithTheCachedContentWhenACategoryIsMissing() {
+        UUID paperId = UUID.randomUUID();
+        stubLoader(paperId, 100);
+
+        cache.get(paperId, EnumSet.of(Content.SECTIONS));
+        cache.get(paperId, EnumSet.of(Content.FIGURES));
+        cache.get(paperId, EnumSet.of(Content.SECTIONS, Content.FIGURES));
+
+        verify(loader).loadByPaperId(paperId, EnumSet.of(Content.SECTIONS));
+        verify(loader).loadByPaperId(paperId, EnumSet.of(Content.SECTIONS, Content.FIGURES));
+        verifyNoMoreInteractions(loader);
+    }
+
+    @Test
+    void get_EvictsLeastRecentlyUsedSnapshotsByTextSize() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        stubLoader(first, 400);
+        stubLoader(second, 400);
+        stubLoader(third, 400);
+
+        cache.get(first, EnumSet.of(Content.SECTIONS));
+        cache.get(second, EnumSet.of(Content.SECTIONS));
+        cache.get(first, EnumSet.of(Content.SECTIONS));
+        cache.get(third, EnumSet.of(Content.SECTIONS));
+
+        assertEquals(800, cache.residentBytes());
+        assertEquals(1, meterRegistry.get("cache.evictions").functionCounter().count());
+        // The second paper was least recently used, so it is the one read again
+        cache.get(first, EnumSet.of(Content.SECTIONS));
+        cache.get(second, EnumSet.of(Content.SECTIONS));
+        verify(loader, times(1)).loadByPaperId(eq(first), any());
+        verify(loader, times(2)).loadByPaperId(eq(second), any());
+    }
+
+    @Test
+    void get_DoesNotCacheSnapshotsLargerThanTheCache() {
+        UUID paperId = UUID.randomUUID();
+        stubLoader(paperId, 2_000);
+
+        assertTrue(cache.get(paperId, EnumSet.of(Content.SECTIONS)).isPresent());
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidate_DropsTheSnapshotAndDiscardsLoadsThatRacedIt() {
+        UUID paperId = UUID.randomUUID();
+        stubLoader(paperId, 100);
+        cache.get(paperId, EnumSet.of(Content.SECTIONS));
+
+        cache.invalidate(paperId);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.residentBytes());
+
+        // The extraction is replaced while a lookup is reading the old one
+        when(loader.loadByPaperId(eq(paperId), any())).thenAnswer(invocation -> {
+            cache.invalidate(paperId);
+            return Optional.of(snapshot(paperId, 100, invocation.getArgument(1)));
+        });
+        assertTrue(cache.get(paperId, EnumSet.of(Content.SECTIONS)).isPresent());
+        assertEquals(0, cache.size());
+    }
+
+    private void stubLoader(UUID paperId, int textBytes) {
+        when(loader.loadByPaperId(eq(paperId), any()))
+                .thenAnswer(invocation -> Optional.of(snapshot(paperId, textBytes, invocation.getArgument(1))));
+    }
+
+    private static ExtractionSnapshot snapshot(UUID paperId, int textBytes, Set<Content> contents) {
+        return new ExtractionSnapshot(
+                UUID.randomUUID(),
+                paperId,
+                "x".repeat(textBytes),
+                null,
+                "en",
+                1,
+                contents,
+                List.of(),
+                List.of(),
+                List.of(),
+                List.of(),
+                List.of(),
+                List.of(),
+                List.of());
+    }
+}
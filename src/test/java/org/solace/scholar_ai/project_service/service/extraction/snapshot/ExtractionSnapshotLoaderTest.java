@@ -0,0 +1,166 @@
+package org.solace.scholar_ai.project_service.service.extraction.snapshot;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.model.extraction.ExtractedFigure;
+import org.solace.scholar_ai.project_service.model.extraction.ExtractedParagraph;
+import org.solace.scholar_ai.project_service.model.extraction.ExtractedReference;
+import org.solace.scholar_ai.project_service.model.extraction.ExtractedSection;
+import org.solace.scholar_ai.project_service.model.extraction.PaperExtraction;
+import org.solace.scholar_ai.project_service.model.paper.Paper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Counts the statements Hibernate prepares to load a snapshot: the count has to stay the
+ * same however many sections, paragraphs and figures an extraction has.
+ */
+@SpringBootTest
+@Transactional
+class ExtractionSnapshotLoaderTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ExtractionSnapshotLoader loader;
+
+    @Test
+    void loadByPaperId_RunsTheSameNumberOfQueriesForSmallAndLargePapers() {
+        UUID smallPaper = persistExtraction(1, 1, 1);
+        UUID largePaper = persistExtraction(40, 3, 25);
+        entityManager.flush();
+        entityManager.clear();
+        Set<ExtractionSnapshot.Content> contents = EnumSet.of(
+                ExtractionSnapshot.Content.SECTIONS,
+                ExtractionSnapshot.Content.FIGURES,
+                ExtractionSnapshot.Content.REFERENCES);
+
+        long smallQueries = countQueries(smallPaper, contents);
+        long largeQueries = countQueries(largePaper, contents);
+
+        // Header, sections, paragraphs, figures and references
+        assertEquals(5, smallQueries);
+        assertEquals(smallQueries, largeQueries);
+    }
+
+    @Test
+    void loadByPaperId_OnlyLoadsTheRequestedContent() {
+        UUID paperId = persistExtraction(5, 2, 3);
+        entityManager.flush();
+        entityManager.clear();
+
+        long queries = countQueries(paperId, EnumSet.of(ExtractionSnapshot.Content.FIGURES));
+        ExtractionSnapshot snapshot = loader.loadByPaperId(paperId, EnumSet.of(ExtractionSnapshot.Content.FIGURES))
+                .orElseThrow();
+
+        assertEquals(2, queries);
+        assertEquals(5, snapshot.figures().size());
+        assertTrue(snapshot.sections().isEmpty());
+        assertTrue(snapshot.references().isEmpty());
+    }
+
+    @Test
+    void loadByPaperId_KeepsSubsectionParagraphsUnderTheirSection() {
+        UUID paperId = persistExtraction(2, 2, 1);
+        entityManager.flush();
+        entityManager.clear();
+
+        ExtractionSnapshot snapshot = loader.loadByPaperId(paperId, EnumSet.of(ExtractionSnapshot.Content.SECTIONS))
+                .orElseThrow();
+
+        assertEquals(2, snapshot.topLevelSections().size());
+        assertEquals(6, snapshot.sections().size());
+        ExtractionSnapshot.Section first = snapshot.topLevelSections().get(0);
+        // Its own paragraph, then one from each of its two subsections
+        assertEquals(
+                List.of("p0", "p0.0", "p0.1"),
+                snapshot.subtreeParagraphs(first).stream()
+                        .map(ExtractionSnapshot.Paragraph::text)
+                        .toList());
+    }
+
+    private long countQueries(UUID paperId, Set<ExtractionSnapshot.Content> contents) {
+        Statistics statistics =
+                entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        assertTrue(loader.loadByPaperId(paperId, contents).isPresent());
+        long queries = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return queries;
+    }
+
+    /**
+     * Persist an extraction whose top-level sections each have one paragraph and the given
+     * number of subsections and paragraphs, with a figure and a reference per section
+     */
+    private UUID persistExtraction(int sections, int subsectionsPerSection, int paragraphsPerSubsection) {
+        Paper paper = Paper.builder()
+                .correlationId("snapshot-" + UUID.randomUUID())
+                .title("Snapshot test paper")
+                .build();
+        entityManager.persist(paper);
+        PaperExtraction extraction = PaperExtraction.builder()
+                .paper(paper)
+                .extractionId(UUID.randomUUID().toString())
+                .title("Snapshot test paper")
+                .abstractText("Abstract")
+                .pageCount(sections)
+                .build();
+        entityManager.persist(extraction);
+
+        for (int i = 0; i < sections; i++) {
+            ExtractedSection section = section(extraction, null, "s" + i, i);
+            paragraph(section, "p" + i, 0);
+            for (int j = 0; j < subsectionsPerSection; j++) {
+                ExtractedSection subsection = section(extraction, section, "s" + i + "." + j, j);
+                for (int k = 0; k < paragraphsPerSubsection; k++) {
+                    paragraph(subsection, k == 0 ? "p" + i + "." + j : "p" + i + "." + j + "." + k, k);
+                }
+            }
+            entityManager.persist(ExtractedFigure.builder()
+                    .paperExtraction(extraction)
+                    .label("Figure " + i)
+                    .caption("Caption " + i)
+                    .orderIndex(i)
+                    .build());
+            entityManager.persist(ExtractedReference.builder()
+                    .paperExtraction(extraction)
+                    .title("Reference " + i)
+                    .orderIndex(i)
+                    .build());
+        }
+        return paper.getId();
+    }
+
+    private ExtractedSection section(PaperExtraction extraction, ExtractedSection parent, String id, int order) {
+        ExtractedSection section = ExtractedSection.builder()
+                .paperExtraction(extraction)
+                .parentSection(parent)
+                .sectionId(id)
+                .title(id)
+                .orderIndex(order)
+                .build();
+        entityManager.persist(section);
+        return section;
+    }
+
+    private void paragraph(ExtractedSection section, String text, int order) {
+        entityManager.persist(ExtractedParagraph.builder()
+                .section(section)
+                .text(text)
+                .orderIndex(order)
+                .build());
+    }
+}
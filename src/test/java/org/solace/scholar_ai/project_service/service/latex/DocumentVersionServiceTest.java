@@ -0,0 +1,173 @@
+package org.solace.scholar_ai.project_service.service.latex;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.solace.scholar_ai.project_service.dto.latex.DocumentVersionDTO;
+import org.solace.scholar_ai.project_service.model.latex.DocumentVersion;
+import org.solace.scholar_ai.project_service.repository.latex.DocumentRepository;
+import org.solace.scholar_ai.project_service.repository.latex.DocumentVersionRepository;
+
+class DocumentVersionServiceTest {
+
+    private static final UUID DOCUMENT_ID = UUID.randomUUID();
+
+    private final List<DocumentVersion> rows = new ArrayList<>();
+    private final DocumentVersionRepository repository = mock(DocumentVersionRepository.class);
+    private final DocumentRepository documentRepository = mock(DocumentRepository.class);
+    private final DocumentVersionService service = new DocumentVersionService(repository, documentRepository);
+
+    @BeforeEach
+    void setUp() {
+        when(repository.save(any())).thenAnswer(invocation -> {
+            DocumentVersion version = invocation.getArgument(0);
+            version.setId(UUID.randomUUID());
+            rows.add(version);
+            return version;
+        });
+        when(repository.findFirstByDocumentIdOrderByVersionNumberDesc(DOCUMENT_ID))
+                .thenAnswer(invocation -> rows.stream().max(byNumber()));
+        when(repository.findByDocumentIdOrderByVersionNumberAsc(DOCUMENT_ID))
+                .thenAnswer(invocation -> rows.stream().sorted(byNumber()).toList());
+        when(repository.findByDocumentIdAndVersionNumber(eq(DOCUMENT_ID), anyInt()))
+                .thenAnswer(invocation -> row(invocation.getArgument(1)));
+        when(repository.findByDocumentIdAndVersionNumberBetweenOrderByVersionNumberAsc(
+                        eq(DOCUMENT_ID), anyInt(), anyInt()))
+                .thenAnswer(invocation -> rows.stream()
+                        .filter(v -> v.getVersionNumber() >= (Integer) invocation.getArgument(1)
+                                && v.getVersionNumber() <= (Integer) invocation.getArgument(2))
+                        .sorted(byNumber())
+                        .toList());
+        when(repository.findFirstByDocumentIdAndVersionNumberLessThanOrderByVersionNumberDesc(
+                        eq(DOCUMENT_ID), anyInt()))
+                .thenAnswer(invocation -> rows.stream()
+                        .filter(v -> v.getVersionNumber() < (Integer) invocation.getArgument(1))
+                        .max(byNumber()));
+    }
+
+    @Test
+    void createAutoSaveVersion_StoresDeltasBetweenPeriodicSnapshots() {
+        List<String> contents = saveEdits(45);
+
+        assertEquals(List.of(1, 21, 41), snapshotNumbers());
+        for (DocumentVersion row : rows) {
+            assertEquals(row.getDelta() == null, row.getContent() != null);
+        }
+        long stored = rows.stream()
+                .mapToLong(v -> v.getDelta() != null ? v.getDelta().length : v.getContent().length())
+                .sum();
+        long full = contents.stream().mapToLong(String::length).sum();
+        assertTrue(stored < full / 10, stored + " stored of " + full);
+    }
+
+    @Test
+    void getVersion_RebuildsEveryVersion() {
+        List<String> contents = saveEdits(30);
+
+        for (int number = 1; number <= contents.size(); number++) {
+            assertEquals(contents.get(number - 1), service.getVersion(DOCUMENT_ID, number).orElseThrow().getContent());
+        }
+        List<DocumentVersionDTO> history = service.getVersionHistory(DOCUMENT_ID);
+        assertEquals(30, history.get(0).getVersionNumber());
+        assertEquals(contents.get(29), history.get(0).getContent());
+        assertEquals(contents.get(0), history.get(29).getContent());
+    }
+
+    @Test
+    void getPreviousVersion_UsesASingleRowLookup() {
+        List<String> contents = saveEdits(10);
+
+        DocumentVersionDTO previous = service.getPreviousVersion(DOCUMENT_ID, 8).orElseThrow();
+
+        assertEquals(7, previous.getVersionNumber());
+        assertEquals(contents.get(6), previous.getContent());
+        verify(repository, never()).findByDocumentIdOrderByVersionNumberDesc(any());
+    }
+
+    @Test
+    void createVersion_LocksTheDocumentBeforeTakingAVersionNumber() {
+        service.createAutoSaveVersion(DOCUMENT_ID, document(0, 100));
+
+        InOrder order = inOrder(documentRepository, repository);
+        order.verify(documentRepository).findByIdForUpdate(DOCUMENT_ID);
+        order.verify(repository).findFirstByDocumentIdOrderByVersionNumberDesc(DOCUMENT_ID);
+    }
+
+    @Test
+    void createVersion_StoresASnapshotWhenTheDocumentIsRewritten() {
+        service.createAutoSaveVersion(DOCUMENT_ID, document(0, 100));
+        StringBuilder rewritten = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            rewritten.append(UUID.randomUUID()).append('\n');
+        }
+        service.createVersion(DOCUMENT_ID, rewritten.toString(), "Rewrite", null);
+
+        assertEquals(List.of(1, 2), snapshotNumbers());
+        assertEquals("Rewrite", rows.get(1).getCommitMessage());
+        assertFalse(rows.get(1).getIsAutoSave());
+    }
+
+    @Test
+    void getVersion_ReadsVersionsStoredBeforeDeltas() {
+        rows.add(DocumentVersion.builder()
+                .documentId(DOCUMENT_ID)
+                .versionNumber(1)
+                .content(document(0, 100))
+                .isAutoSave(true)
+                .build());
+        String edited = document(1, 100);
+
+        service.createAutoSaveVersion(DOCUMENT_ID, edited);
+
+        assertNotNull(rows.get(1).getDelta());
+        assertEquals(1, rows.get(1).getSnapshotVersion());
+        assertEquals(edited, service.getVersion(DOCUMENT_ID, 2).orElseThrow().getContent());
+    }
+
+    private List<String> saveEdits(int versions) {
+        List<String> contents = new ArrayList<>();
+        for (int edit = 0; edit < versions; edit++) {
+            String content = document(edit, 200);
+            contents.add(content);
+            service.createAutoSaveVersion(DOCUMENT_ID, content);
+        }
+        return contents;
+    }
+
+    // A document with one more paragraph edited at each edit
+    private static String document(int edits, int paragraphs) {
+        StringBuilder document = new StringBuilder("\\documentclass{article}\n\\begin{document}\n");
+        for (int i = 0; i < paragraphs; i++) {
+            document.append(i < edits ? "Revised paragraph " : "Paragraph ")
+                    .append(i)
+                    .append(" discusses the results of the experiments in detail.\n\n");
+        }
+        return document.append("\\end{document}\n").toString();
+    }
+
+    private Optional<DocumentVersion> row(int number) {
+        return rows.stream().filter(v -> v.getVersionNumber() == number).findFirst();
+    }
+
+    private List<Integer> snapshotNumbers() {
+        return rows.stream()
+                .filter(v -> v.getDelta() == null)
+                .map(DocumentVersion::getVersionNumber)
+                .toList();
+    }
+
+    private static Comparator<DocumentVersion> byNumber() {
+        return Comparator.comparing(DocumentVersion::getVersionNumber);
+    }
+}
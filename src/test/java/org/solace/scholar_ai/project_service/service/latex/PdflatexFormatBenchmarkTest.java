@@ -0,0 +1,131 @@
+package org.solace.scholar_ai.project_service.service.latex;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompileScheduler;
+import org.solace.scholar_ai.project_service.service.latex.compile.LatexCompileCache;
+import org.solace.scholar_ai.project_service.service.latex.compile.PreambleFormatCache;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Compares compiling a thesis-like document to PDF with pdflatex loading its preamble from
+ * scratch against loading it from a format of the preamble: median and slowest of a run of
+ * compiles, each of a different body so none is served from the compile cache. Needs pdflatex
+ * and {@code mylatexformat} installed. Run with {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PdflatexFormatBenchmarkTest {
+
+    private static final int COMPILES = 10;
+
+    private static final String PREAMBLE =
+            """
+            \\documentclass[12pt,a4paper,twoside]{report}
+            \\usepackage[utf8]{inputenc}
+            \\usepackage[T1]{fontenc}
+            \\usepackage{lmodern}
+            \\usepackage{amsmath,amssymb,amsthm,mathtools}
+            \\usepackage{graphicx}
+            \\usepackage{booktabs,longtable,multirow}
+            \\usepackage{xcolor}
+            \\usepackage{tikz}
+            \\usetikzlibrary{arrows.meta,positioning,calc}
+            \\usepackage{pgfplots}
+            \\pgfplotsset{compat=1.17}
+            \\usepackage{listings}
+            \\usepackage{geometry}
+            \\usepackage{setspace}
+            \\usepackage{fancyhdr}
+            \\usepackage{caption,subcaption}
+            \\usepackage{hyperref}
+            \\usepackage{cleveref}
+            \\newtheorem{theorem}{Theorem}[chapter]
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compareCompiles_WithAndWithoutAPreambleFormat() throws Exception {
+        assumeTrue(installed("pdflatex", "--version"), "pdflatex is not installed");
+        assumeTrue(installed("kpsewhich", "mylatexformat.ltx"), "mylatexformat is not installed");
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CompileScheduler scheduler =
+                new CompileScheduler(meterRegistry, 1, 50, 50, Duration.ofMinutes(5), Duration.ofSeconds(10));
+        LatexCompileCache compileCache = new LatexCompileCache(
+                meterRegistry, DataSize.ofMegabytes(64), DataSize.ofMegabytes(64), directory.resolve("cache"));
+        PreambleFormatCache noFormats = new PreambleFormatCache(
+                meterRegistry, scheduler, false, DataSize.ofGigabytes(1), directory.resolve("none"));
+        PreambleFormatCache formats = new PreambleFormatCache(
+                meterRegistry, scheduler, true, DataSize.ofGigabytes(1), directory.resolve("formats"));
+        try {
+            // Build the format before measuring
+            formats.formatFor(document(-1), null);
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+            while (formats.formatFor(document(-1), null).isEmpty()) {
+                assumeTrue(System.nanoTime() < deadline, "the preamble could not be dumped to a format");
+                Thread.sleep(100);
+            }
+
+            System.out.printf("%-16s %12s %12s%n", "preamble", "median (ms)", "max (ms)");
+            report("loaded", compile(new PDFLatexService(compileCache, scheduler, noFormats), 0));
+            report("from format", compile(new PDFLatexService(compileCache, scheduler, formats), COMPILES));
+        } finally {
+            formats.shutdown();
+            noFormats.shutdown();
+            scheduler.shutdown();
+        }
+    }
+
+    private static long[] compile(PDFLatexService service, int firstBody) {
+        long[] nanos = new long[COMPILES];
+        for (int i = 0; i < COMPILES; i++) {
+            long start = System.nanoTime();
+            service.compileLatexToPDF(document(firstBody + i), null);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void report(String label, long[] nanos) {
+        System.out.printf(
+                "%-16s %12.1f %12.1f%n", label, nanos[nanos.length / 2] / 1e6, nanos[nanos.length - 1] / 1e6);
+    }
+
+    private static String document(int body) {
+        StringBuilder document = new StringBuilder(PREAMBLE).append("\\begin{document}\n");
+        for (int chapter = 1; chapter <= 5; chapter++) {
+            document.append("\\chapter{Chapter ").append(chapter).append("}\n");
+            for (int paragraph = 0; paragraph < 20; paragraph++) {
+                document.append("Body ")
+                        .append(body)
+                        .append(" paragraph ")
+                        .append(paragraph)
+                        .append(" with inline math $e^{i\\pi} + 1 = 0$ and a display\n")
+                        .append("\\begin{equation} \\sum_{k=1}^{n} k = \\frac{n(n+1)}{2} \\end{equation}\n\n");
+            }
+        }
+        return document.append("\\end{document}\n").toString();
+    }
+
+    private static boolean installed(String... command) {
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            process.getInputStream().transferTo(OutputStream.nullOutputStream());
+            return process.waitFor(30, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
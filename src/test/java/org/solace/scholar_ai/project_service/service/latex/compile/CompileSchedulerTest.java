@@ -0,0 +1,162 @@
+package org.solace.scholar_ai.project_service.service.latex.compile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.solace.scholar_ai.project_service.exception.LatexCompileRejectedException;
+
+@DisabledOnOs(OS.WINDOWS)
+class CompileSchedulerTest {
+
+    @TempDir
+    Path workDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private CompileScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void run_ReturnsTheOutputAndExitCode() throws Exception {
+        scheduler = scheduler(2, 4, 4, Duration.ofSeconds(10));
+
+        ProcessResult result =
+                scheduler.run(null, job("echo compiled; echo warning >&2; exit 3", Duration.ofSeconds(10)));
+
+        assertEquals(3, result.exitCode());
+        assertEquals("compiled\nwarning\n", result.output());
+        assertFalse(result.succeeded());
+        assertEquals(1, meterRegistry.get(CompileScheduler.DURATION_TIMER)
+                .tags("engine", "sh", "outcome", "failure")
+                .timer()
+                .count());
+    }
+
+    @Test
+    void run_KillsTheProcessTreeOnTimeout() throws Exception {
+        scheduler = scheduler(1, 4, 4, Duration.ofSeconds(10));
+        long start = System.nanoTime();
+
+        // The child keeps the output open, so the run only ends early if the child is killed too
+        ProcessResult result = scheduler.run(null, job("sleep 30 & sleep 30; wait", Duration.ofMillis(300)));
+
+        assertTrue(result.killed());
+        assertEquals(-1, result.exitCode());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(4)) < 0);
+    }
+
+    @Test
+    void run_AlternatesBetweenProjects() throws Exception {
+        scheduler = scheduler(1, 8, 4, Duration.ofSeconds(10));
+        UUID busyProject = UUID.randomUUID();
+        UUID otherProject = UUID.randomUUID();
+        Path order = workDir.resolve("order");
+        Path release = workDir.resolve("release");
+
+        Future<ProcessResult> blocker =
+                submit(busyProject, "while [ ! -f release ]; do sleep 0.05; done; echo busy-0 >> order");
+        awaitRunning(1);
+        Future<ProcessResult> busy1 = submit(busyProject, "echo busy-1 >> order");
+        awaitQueued(1);
+        Future<ProcessResult> busy2 = submit(busyProject, "echo busy-2 >> order");
+        awaitQueued(2);
+        Future<ProcessResult> other = submit(otherProject, "echo other-1 >> order");
+        awaitQueued(3);
+        Files.createFile(release);
+
+        for (Future<ProcessResult> run : List.of(blocker, busy1, busy2, other)) {
+            assertTrue(run.get().succeeded());
+        }
+        assertEquals(List.of("busy-0", "busy-1", "other-1", "busy-2"), Files.readAllLines(order));
+    }
+
+    @Test
+    void run_RejectsWhenTheProjectsShareOfTheQueueIsFull() throws Exception {
+        scheduler = scheduler(1, 8, 1, Duration.ofSeconds(10));
+        UUID project = UUID.randomUUID();
+
+        submit(project, "while [ ! -f release ]; do sleep 0.05; done");
+        awaitRunning(1);
+        submit(project, "true");
+        awaitQueued(1);
+
+        assertThrows(
+                LatexCompileRejectedException.class, () -> scheduler.run(project, job("true", Duration.ofSeconds(10))));
+        Future<ProcessResult> otherProject = submit(UUID.randomUUID(), "true");
+        awaitQueued(2);
+        Files.createFile(workDir.resolve("release"));
+        assertTrue(otherProject.get().succeeded());
+    }
+
+    @Test
+    void run_HoldsTheSharedQueueOnlyToTheOverallCapacity() throws Exception {
+        scheduler = scheduler(1, 8, 1, Duration.ofSeconds(10));
+
+        submit(null, "while [ ! -f release ]; do sleep 0.05; done");
+        awaitRunning(1);
+        List<Future<ProcessResult>> waiting = List.of(submit(null, "true"), submit(null, "true"), submit(null, "true"));
+        awaitQueued(3);
+
+        Files.createFile(workDir.resolve("release"));
+        for (Future<ProcessResult> run : waiting) {
+            assertTrue(run.get().succeeded());
+        }
+    }
+
+    @Test
+    void run_RejectsAfterWaitingTooLongForAWorker() throws Exception {
+        scheduler = scheduler(1, 8, 8, Duration.ofMillis(200));
+
+        submit(null, "while [ ! -f release ]; do sleep 0.05; done");
+        awaitRunning(1);
+
+        LatexCompileRejectedException rejected = assertThrows(
+                LatexCompileRejectedException.class, () -> scheduler.run(null, job("true", Duration.ofSeconds(10))));
+        assertEquals(Duration.ofSeconds(5), rejected.getRetryAfter());
+        assertEquals(0, scheduler.getQueuedCount());
+        Files.createFile(workDir.resolve("release"));
+    }
+
+    private CompileScheduler scheduler(int maxConcurrent, int queueCapacity, int perProject, Duration maxQueueWait) {
+        return new CompileScheduler(
+                meterRegistry, maxConcurrent, queueCapacity, perProject, maxQueueWait, Duration.ofSeconds(5));
+    }
+
+    private CompileJob job(String script, Duration timeout) {
+        return new CompileJob("sh", List.of("sh", "-c", script), workDir, timeout);
+    }
+
+    private Future<ProcessResult> submit(UUID projectId, String script) {
+        return callers.submit(() -> scheduler.run(projectId, job(script, Duration.ofSeconds(10))));
+    }
+
+    private void awaitRunning(int count) throws InterruptedException {
+        while (scheduler.getRunningCount() < count) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitQueued(int count) throws InterruptedException {
+        while (scheduler.getQueuedCount() < count) {
+            Thread.sleep(10);
+        }
+    }
+}
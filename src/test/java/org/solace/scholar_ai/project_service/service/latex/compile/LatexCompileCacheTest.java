@@ -0,0 +1,103 @@
+package org.solace.scholar_ai.project_service.service.latex.compile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class LatexCompileCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void get_ServesAStoredCompilationAndCountsTheBytesSaved() {
+        LatexCompileCache cache = cache(1_000, 1_000);
+        CompileKey key = key("\\section{Intro}");
+
+        assertTrue(cache.get(key).isEmpty());
+        cache.put(key, "<h1>Intro</h1>".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("<h1>Intro</h1>", cache.get(key).orElseThrow().asString());
+        assertEquals(0.5, meterRegistry.get("latex.compile.cache.hit.ratio").gauge().value());
+        assertEquals(14, meterRegistry.get("latex.compile.cache.bytes.saved").functionCounter().count());
+    }
+
+    @Test
+    void get_ReadsFromDiskOnceEvictedFromMemory() throws IOException {
+        LatexCompileCache cache = cache(100, 1_000);
+        CompileKey first = key("first");
+        byte[] pdf = bytes(80, 'a');
+        cache.put(first, pdf);
+        cache.put(key("second"), bytes(80, 'b'));
+
+        assertEquals(1, cache.size());
+        CompiledArtifact artifact = cache.get(first).orElseThrow();
+        assertArrayEquals(pdf, artifact.toByteArray());
+        try (InputStream in = artifact.asResource("document.pdf").getInputStream()) {
+            assertArrayEquals(pdf, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void put_EvictsTheLeastRecentlyUsedArtifactsFromDisk() {
+        LatexCompileCache cache = cache(0, 200);
+        CompileKey first = key("first");
+        CompileKey second = key("second");
+        cache.put(first, bytes(80, 'a'));
+        cache.put(second, bytes(80, 'b'));
+        cache.get(first);
+        cache.put(key("third"), bytes(80, 'c'));
+
+        assertTrue(cache.get(first).isPresent());
+        assertTrue(cache.get(second).isEmpty());
+        assertFalse(Files.exists(directory.resolve(second.hash())));
+        assertEquals(160, cache.diskBytes());
+    }
+
+    @Test
+    void constructor_KeepsArtifactsOfAPreviousRunAndDropsPartialWrites() throws IOException {
+        CompileKey key = key("kept");
+        cache(1_000, 1_000).put(key, bytes(10, 'a'));
+        Path partial = Files.createFile(directory.resolve(key.hash() + "123.tmp"));
+
+        LatexCompileCache restarted = cache(1_000, 1_000);
+
+        assertArrayEquals(bytes(10, 'a'), restarted.get(key).orElseThrow().toByteArray());
+        assertFalse(Files.exists(partial));
+    }
+
+    @Test
+    void compileKey_DependsOnEngineVersionOptionsAndSource() {
+        CompileKey key = CompileKey.of("pdflatex", 1, List.of("-interaction=nonstopmode"), "x");
+
+        assertEquals(key, CompileKey.of("pdflatex", 1, List.of("-interaction=nonstopmode"), "x"));
+        assertNotEquals(key.hash(), CompileKey.of("pandoc-pdf", 1, List.of("-interaction=nonstopmode"), "x").hash());
+        assertNotEquals(key.hash(), CompileKey.of("pdflatex", 2, List.of("-interaction=nonstopmode"), "x").hash());
+        assertNotEquals(key.hash(), CompileKey.of("pdflatex", 1, List.of(), "x").hash());
+        assertNotEquals(key.hash(), CompileKey.of("pdflatex", 1, List.of("-interaction=nonstopmode"), "y").hash());
+    }
+
+    private LatexCompileCache cache(long maxMemoryBytes, long maxDiskBytes) {
+        return new LatexCompileCache(
+                meterRegistry, DataSize.ofBytes(maxMemoryBytes), DataSize.ofBytes(maxDiskBytes), directory);
+    }
+
+    private static CompileKey key(String source) {
+        return CompileKey.of("pdflatex", 1, List.of("-interaction=nonstopmode"), source);
+    }
+
+    private static byte[] bytes(int length, char fill) {
+        return String.valueOf(fill).repeat(length).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,127 @@
+package org.solace.scholar_ai.project_service.service.latex.compile;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class PreambleFormatCacheTest {
+
+    private static final String DOCUMENT =
+            "\\documentclass{article}\n\\usepackage{amsmath}\n\\begin{document}\nHello\n\\end{document}\n";
+
+    @TempDir
+    Path directory;
+
+    private final CompileScheduler compileScheduler = mock(CompileScheduler.class);
+    private PreambleFormatCache cache;
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void formatFor_BuildsTheFormatInTheBackgroundAndUsesItOnceBuilt() throws Exception {
+        when(compileScheduler.run(any(), any())).thenAnswer(invocation -> {
+            CompileJob job = invocation.getArgument(1);
+            String jobName = job.command().get(3).substring("-jobname=".length());
+            Files.write(job.workDir().resolve(jobName + ".fmt"), new byte[100]);
+            return new ProcessResult(0, "", false);
+        });
+        cache = cache(1_000);
+
+        assertTrue(cache.formatFor(DOCUMENT, null).isEmpty());
+        Optional<Path> format = awaitFormat();
+
+        assertTrue(Files.exists(Path.of(format.orElseThrow() + ".fmt")));
+        assertEquals(100, cache.diskBytes());
+        assertEquals(format, cache.formatFor(DOCUMENT.replace("Hello", "Changed body"), null));
+        verify(compileScheduler, times(1)).run(any(), any());
+    }
+
+    @Test
+    void formatFor_DoesNotRetryAPreambleThatCannotBeDumped() throws Exception {
+        when(compileScheduler.run(any(), any()))
+                .thenReturn(new ProcessResult(1, "! Undefined control sequence", false));
+        cache = cache(1_000);
+
+        cache.formatFor(DOCUMENT, null);
+        verify(compileScheduler, timeout(5_000)).run(any(), any());
+        Thread.sleep(100);
+        cache.formatFor(DOCUMENT, null);
+        Thread.sleep(100);
+
+        verify(compileScheduler, times(1)).run(any(), any());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void formatFor_SkipsDocumentsWithoutAPreamble() {
+        cache = cache(1_000);
+
+        assertTrue(cache.formatFor("\\section{Intro}\nHello", null).isEmpty());
+        assertTrue(cache.formatFor("\\begin{document}\nHello\n\\end{document}", null).isEmpty());
+        verifyNoInteractions(compileScheduler);
+    }
+
+    @Test
+    void constructor_KeepsTheNewestFormatsThatFitAndDropsUnfinishedBuilds() throws Exception {
+        Path oldest = format("a", 1);
+        Path newer = format("b", 2);
+        Path newest = format("c", 3);
+        Path build = Files.createDirectories(directory.resolve("build-123"));
+        Files.writeString(build.resolve("preamble.tex"), "\\documentclass{article}");
+
+        cache = cache(250);
+
+        assertEquals(2, cache.size());
+        assertFalse(Files.exists(oldest));
+        assertTrue(Files.exists(newer));
+        assertTrue(Files.exists(newest));
+        assertFalse(Files.exists(build));
+    }
+
+    @Test
+    void evict_DropsAFormatPdflatexCouldNotLoad() throws Exception {
+        Path stale = format("a", 1);
+        cache = cache(1_000);
+
+        cache.evict(directory.resolve("a".repeat(64)));
+
+        assertEquals(0, cache.size());
+        assertFalse(Files.exists(stale));
+    }
+
+    private PreambleFormatCache cache(long maxBytes) {
+        return new PreambleFormatCache(
+                new SimpleMeterRegistry(), compileScheduler, true, DataSize.ofBytes(maxBytes), directory);
+    }
+
+    private Path format(String hashChar, long builtAt) throws Exception {
+        Path format = directory.resolve(hashChar.repeat(64) + ".fmt");
+        Files.write(format, new byte[100]);
+        Files.setLastModifiedTime(format, FileTime.fromMillis(builtAt * 1_000));
+        return format;
+    }
+
+    private Optional<Path> awaitFormat() throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            Optional<Path> format = cache.formatFor(DOCUMENT, null);
+            if (format.isPresent()) {
+                return format;
+            }
+            Thread.sleep(10);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,104 @@
+package org.solace.scholar_ai.project_service.service.latex.preview;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.dto.latex.LatexPreviewResponseDTO;
+import org.solace.scholar_ai.project_service.dto.latex.PreviewFragmentDTO;
+import org.solace.scholar_ai.project_service.service.latex.LaTeXCompilationService;
+import org.solace.scholar_ai.project_service.service.latex.compile.CompileScheduler;
+import org.solace.scholar_ai.project_service.service.latex.compile.LatexCompileCache;
+import org.springframework.util.unit.DataSize;
+
+class LatexPreviewServiceTest {
+
+    private final LatexPreviewService previewService = new LatexPreviewService(
+            new LaTeXCompilationService(mock(LatexCompileCache.class), mock(CompileScheduler.class)),
+            new SectionHtmlCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1)));
+
+    @Test
+    void preview_NumbersSectionsAndListsThemInTheTableOfContents() {
+        String intro = "\\section{Intro}\nHello\n\\subsection{Scope}\nNarrow";
+        LatexPreviewResponseDTO preview = previewService.preview(
+                document("\\tableofcontents", intro, "\\section*{Notes}\nx", "\\section{End}"), null);
+
+        assertEquals(List.of("front-matter", "toc", "section", "section", "section"), kinds(preview));
+        String toc = preview.getFragments().get(1).getHtml();
+        assertTrue(toc.contains("<span class='section-number'>1</span> Intro"));
+        assertTrue(toc.contains("<span class='section-number'>2</span> End"));
+        assertFalse(toc.contains("Notes"));
+        String introHtml = preview.getFragments().get(2).getHtml();
+        assertTrue(introHtml.contains("<h3><span class='section-number'>1.1</span> Scope"));
+        assertEquals(4, preview.getRenderedFragments());
+    }
+
+    @Test
+    void preview_ShowsTheTableOfContentsOnlyWhereTheDocumentHasOne() {
+        LatexPreviewResponseDTO without =
+                previewService.preview(document("\\section{A}\none", "\\section{B}\ntwo"), null);
+        LatexPreviewResponseDTO inSection = previewService.preview(
+                document("\\section{A}\none\n  \\tableofcontents\nafter", "\\section{B}\ntwo"), null);
+
+        assertEquals(List.of("front-matter", "section", "section"), kinds(without));
+        assertEquals(List.of("front-matter", "section", "section"), kinds(inSection));
+        String a = inSection.getFragments().get(1).getHtml();
+        assertTrue(a.indexOf("one") < a.indexOf("<nav class='toc'>"));
+        assertTrue(a.indexOf("<nav class='toc'>") < a.indexOf("after"));
+        assertFalse(a.contains("tableofcontents"));
+    }
+
+    @Test
+    void preview_OnlyConvertsAndSendsTheEditedSection() {
+        LatexPreviewResponseDTO first =
+                previewService.preview(document("\\section{A}\none", "\\section{B}\ntwo"), null);
+
+        LatexPreviewResponseDTO edited = previewService.preview(
+                document("\\section{A}\none", "\\section{B}\ntwo, edited"), ids(first));
+
+        assertEquals(1, edited.getRenderedFragments());
+        assertEquals(ids(first).subList(0, 2), ids(edited).subList(0, 2));
+        assertNotEquals(ids(first).get(2), ids(edited).get(2));
+        assertNull(edited.getFragments().get(1).getHtml());
+        assertTrue(edited.getFragments().get(2).getHtml().contains("two, edited"));
+    }
+
+    @Test
+    void preview_RenumbersSectionsAfterAnInsertedOneWithoutConvertingThem() {
+        LatexPreviewResponseDTO first =
+                previewService.preview(document("\\section{A}\none", "\\section{B}\ntwo"), null);
+
+        LatexPreviewResponseDTO inserted = previewService.preview(
+                document("\\section{New}\nzero", "\\section{A}\none", "\\section{B}\ntwo"), ids(first));
+
+        assertEquals(1, inserted.getRenderedFragments());
+        PreviewFragmentDTO renumbered = inserted.getFragments().get(3);
+        assertTrue(renumbered.getHtml().contains("<span class='section-number'>3</span> B"));
+        assertFalse(ids(first).contains(renumbered.getId()));
+    }
+
+    @Test
+    void split_KeepsTextAfterTheTitleAndAnUnclosedTitle() {
+        LatexSections sections = LatexSections.split("\\section{A \\{x\\}}\\label{a}\nbody\n\\section{Typing");
+
+        assertEquals("A \\{x\\}", sections.sections().get(0).title());
+        assertEquals("\\label{a}\nbody\n", sections.sections().get(0).body());
+        assertEquals("Typing", sections.sections().get(1).title());
+    }
+
+    private static String document(String... sections) {
+        return "\\documentclass{article}\n\\begin{document}\n\\title{Thesis}\n\\maketitle\n"
+                + String.join("\n", sections)
+                + "\n\\end{document}\n";
+    }
+
+    private static List<String> kinds(LatexPreviewResponseDTO preview) {
+        return preview.getFragments().stream().map(PreviewFragmentDTO::getKind).toList();
+    }
+
+    private static List<String> ids(LatexPreviewResponseDTO preview) {
+        return preview.getFragments().stream().map(PreviewFragmentDTO::getId).toList();
+    }
+}
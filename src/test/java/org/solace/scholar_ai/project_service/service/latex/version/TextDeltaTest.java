@@ -0,0 +1,61 @@
+package org.solace.scholar_ai.project_service.service.latex.version;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TextDeltaTest {
+
+    @Test
+    void apply_RebuildsTheNewVersion() {
+        String base = document(200);
+        String target = base.replace("Paragraph 17 ", "Paragraph seventeen, reworded, ")
+                .replace("Paragraph 150 ", "")
+                + "\\section{Appendix}\nNew text without a trailing newline";
+
+        assertEquals(target, TextDelta.apply(base, TextDelta.encode(base, target)));
+    }
+
+    @Test
+    void encode_IsSmallForAnEditOfALargeDocument() {
+        String base = document(2_000);
+        String target = base.replace("Paragraph 1000 ", "Paragraph one thousand, edited ");
+
+        byte[] delta = TextDelta.encode(base, target);
+
+        assertTrue(delta.length < 200, "delta of " + delta.length + " bytes");
+        assertEquals(target, TextDelta.apply(base, delta));
+    }
+
+    @Test
+    void apply_HandlesMovedRepeatedAndNonAsciiLines() {
+        String base = "\\begin{document}\n\n\nα β γ — first line\n\n\nsecond line here\n\n\\end{document}\n";
+        String target = "second line here\n\n\n\\begin{document}\n\n\nα β γ — first line\nδ\n\n\\end{document}";
+
+        assertEquals(target, TextDelta.apply(base, TextDelta.encode(base, target)));
+        assertEquals("", TextDelta.apply(base, TextDelta.encode(base, "")));
+        assertEquals(base, TextDelta.apply("", TextDelta.encode("", base)));
+    }
+
+    @Test
+    void apply_RejectsADeltaEncodedAgainstAnotherVersion() {
+        byte[] delta = TextDelta.encode(document(50), document(51));
+
+        assertThrows(IllegalArgumentException.class, () -> TextDelta.apply("short", delta));
+        assertThrows(IllegalArgumentException.class, () -> TextDelta.apply(document(50), new byte[] {1, 2, 3}));
+    }
+
+    private static String document(int paragraphs) {
+        Random random = new Random(paragraphs);
+        StringBuilder document = new StringBuilder("\\documentclass{article}\n\\begin{document}\n");
+        for (int i = 0; i < paragraphs; i++) {
+            document.append("Paragraph ")
+                    .append(i)
+                    .append(" cites \\cite{ref")
+                    .append(random.nextInt(1_000))
+                    .append("} and discusses the results.\n\n");
+        }
+        return document.append("\\end{document}\n").toString();
+    }
+}
@@ -0,0 +1,133 @@
+package org.solace.scholar_ai.project_service.service.summary;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.config.SummaryContextProperties;
+import org.solace.scholar_ai.project_service.dto.summary.ExtractionContext;
+
+class ContextPackerTest {
+
+    // 400 characters estimate to 100 tokens
+    private static final String PARAGRAPH = "x".repeat(400);
+
+    private final SummaryContextProperties properties = new SummaryContextProperties();
+    private final ContextPacker packer = new ContextPacker(properties);
+
+    @Test
+    void pack_GivesEverySectionItsLeadBeforeFillingByPriority() {
+        properties.getBudgets().setMethods(350);
+        ExtractionContext context = context(
+                List.of(
+                        section("intro", "introduction", 3),
+                        section("method", "methodology", 3),
+                        section("experiments", "experiments", 3)),
+                List.of(),
+                List.of());
+
+        ContextPacker.PackedContext packed = packer.pack(context, ContextPacker.Prompt.METHODS);
+
+        List<ExtractionContext.SectionContent> sections = packed.context().getSections();
+        assertEquals(
+                List.of("method", "experiments"),
+                sections.stream().map(ExtractionContext.SectionContent::getId).toList());
+        assertEquals(2, sections.get(0).getParagraphs().size());
+        assertEquals(1, sections.get(1).getParagraphs().size());
+        assertEquals(300, packed.includedTokens());
+        // The introduction is not read by the methods prompt, so it is not counted as dropped
+        assertEquals(300, packed.droppedTokens());
+    }
+
+    @Test
+    void pack_PutsCodeBlocksFirstForReproducibility() {
+        properties.getBudgets().setReproducibility(150);
+        ExtractionContext.CodeBlockContent code = ExtractionContext.CodeBlockContent.builder()
+                .id("code")
+                .language("py")
+                .code("y".repeat(390))
+                .build();
+        ExtractionContext context = context(List.of(section("appendix", "appendix", 2)), List.of(code), List.of());
+
+        ContextPacker.PackedContext packed = packer.pack(context, ContextPacker.Prompt.REPRODUCIBILITY);
+
+        assertEquals(List.of(code), packed.context().getCodeBlocks());
+        assertTrue(packed.context().getSections().isEmpty());
+        assertEquals(200, packed.droppedTokens());
+    }
+
+    @Test
+    void pack_CutsALeadParagraphLongerThanTheBudget() {
+        properties.getBudgets().setQuickTake(150);
+        String longLead = "word ".repeat(2400);
+        ExtractionContext.SectionContent intro = ExtractionContext.SectionContent.builder()
+                .id("intro")
+                .title("Introduction")
+                .type("introduction")
+                .paragraphs(List.of(longLead))
+                .build();
+        ExtractionContext context =
+                context(List.of(intro, section("conclusion", "conclusion", 1)), List.of(), List.of());
+
+        ContextPacker.PackedContext packed = packer.pack(context, ContextPacker.Prompt.QUICK_TAKE);
+
+        List<ExtractionContext.SectionContent> sections = packed.context().getSections();
+        assertEquals(
+                List.of("intro", "conclusion"),
+                sections.stream().map(ExtractionContext.SectionContent::getId).toList());
+        String cutLead = sections.get(0).getParagraphs().get(0);
+        assertTrue(cutLead.endsWith("word..."));
+        assertTrue(longLead.startsWith(cutLead.substring(0, cutLead.length() - 3)));
+        assertEquals(List.of(PARAGRAPH), sections.get(1).getParagraphs());
+        assertEquals(150, packed.includedTokens());
+    }
+
+    @Test
+    void pack_KeepsSmallPapersWhole() {
+        ExtractionContext.TableContent table = ExtractionContext.TableContent.builder()
+                .id("t1")
+                .label("1")
+                .caption("Accuracy by model")
+                .headers("model,accuracy")
+                .build();
+        ExtractionContext context = context(
+                List.of(section("method", "method", 2), section("results", "results", 2)), List.of(), List.of(table));
+
+        ContextPacker.PackedContext packed = packer.pack(context, ContextPacker.Prompt.METHODS);
+
+        assertEquals(0, packed.droppedTokens());
+        assertEquals(List.of(table), packed.context().getTables());
+        assertEquals(
+                4,
+                packed.context().getSections().stream()
+                        .mapToInt(section -> section.getParagraphs().size())
+                        .sum());
+    }
+
+    private static ExtractionContext context(
+            List<ExtractionContext.SectionContent> sections,
+            List<ExtractionContext.CodeBlockContent> codeBlocks,
+            List<ExtractionContext.TableContent> tables) {
+        return ExtractionContext.builder()
+                .title("Paper")
+                .abstractText("Abstract")
+                .sections(sections)
+                .figures(List.of())
+                .tables(tables)
+                .equations(List.of())
+                .codeBlocks(codeBlocks)
+                .references(List.of())
+                .entities(List.of())
+                .build();
+    }
+
+    private static ExtractionContext.SectionContent section(String id, String type, int paragraphs) {
+        return ExtractionContext.SectionContent.builder()
+                .id(id)
+                .title(id)
+                .type(type)
+                .paragraphs(Collections.nCopies(paragraphs, PARAGRAPH))
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package org.solace.scholar_ai.project_service.service.summary;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.config.GeminiConfig;
+import org.springframework.web.client.RestTemplate;
+
+class GeminiServiceStreamTest {
+
+    private final CountDownLatch firstTokenReceived = new CountDownLatch(1);
+    private HttpServer stubServer;
+    private GeminiService geminiService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stubServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stubServer.createContext("/v1beta/models/test:streamGenerateContent", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                writeChunk(out, "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"Hello\"}]}}]}");
+                // The rest is only sent once the client has handed on the first fragment
+                if (!firstTokenReceived.await(5, TimeUnit.SECONDS)) {
+                    return;
+                }
+                writeChunk(out, "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\", world\"}]}}]}");
+                writeChunk(out, "{\"candidates\":[{\"finishReason\":\"STOP\"}]}");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        stubServer.start();
+
+        GeminiConfig config = new GeminiConfig();
+        config.setApiKey("test-key");
+        config.setApiUrl("http://127.0.0.1:" + stubServer.getAddress().getPort()
+                + "/v1beta/models/test:generateContent");
+        geminiService = new GeminiService(config, new RestTemplate(), new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.stop(0);
+    }
+
+    @Test
+    void generateStream_ForwardsFragmentsBeforeTheResponseEnds() {
+        List<String> fragments = new CopyOnWriteArrayList<>();
+
+        String text = geminiService.generateStream(
+                "prompt", GeminiService.GenerationConfig.builder().build(), fragment -> {
+                    fragments.add(fragment);
+                    firstTokenReceived.countDown();
+                });
+
+        assertEquals(List.of("Hello", ", world"), fragments);
+        assertEquals("Hello, world", text);
+    }
+
+    @Test
+    void streamUrl_SwitchesToServerSentEvents() {
+        assertEquals(
+                "https://host/v1beta/models/m:streamGenerateContent?alt=sse",
+                GeminiService.streamUrl("https://host/v1beta/models/m:generateContent"));
+    }
+
+    private static void writeChunk(OutputStream out, String json) throws IOException {
+        out.write(("data: " + json + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
@@ -0,0 +1,288 @@
+package org.solace.scholar_ai.project_service.service.summary;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.dto.summary.BatchSummaryProgressDto;
+import org.solace.scholar_ai.project_service.model.paper.Paper;
+import org.solace.scholar_ai.project_service.model.papersearch.WebSearchOperation;
+import org.solace.scholar_ai.project_service.model.summary.PaperSummary;
+import org.solace.scholar_ai.project_service.repository.extraction.PaperExtractionRepository;
+import org.solace.scholar_ai.project_service.repository.paper.PaperRepository;
+import org.solace.scholar_ai.project_service.repository.papersearch.WebSearchOperationRepository;
+import org.solace.scholar_ai.project_service.repository.summary.PaperSummaryRepository;
+import org.solace.scholar_ai.project_service.service.paper.PaperPersistenceService;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ProjectSummaryBatchServiceTest {
+
+    private final PaperPersistenceService paperPersistenceService = mock(PaperPersistenceService.class);
+    private final PaperRepository paperRepository = mock(PaperRepository.class);
+    private final PaperExtractionRepository extractionRepository = mock(PaperExtractionRepository.class);
+    private final PaperSummaryRepository summaryRepository = mock(PaperSummaryRepository.class);
+    private final WebSearchOperationRepository webSearchOperationRepository = mock(WebSearchOperationRepository.class);
+    private final SummaryJobService summaryJobService = mock(SummaryJobService.class);
+    private final RateLimiter rateLimiter = RateLimiter.of(
+            "gemini-api",
+            RateLimiterConfig.custom()
+                    .limitForPeriod(PaperSummaryGenerationService.PROMPTS_PER_SUMMARY)
+                    .limitRefreshPeriod(Duration.ofMillis(500))
+                    .timeoutDuration(Duration.ZERO)
+                    .build());
+    private final ProjectSummaryBatchService batchService = new ProjectSummaryBatchService(
+            paperPersistenceService,
+            paperRepository,
+            extractionRepository,
+            summaryRepository,
+            webSearchOperationRepository,
+            summaryJobService,
+            new TransactionTemplate(new NoOpTransactionManager()),
+            rateLimiter,
+            1,
+            Duration.ofMinutes(30));
+    private final List<UUID> submitted = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        batchService.shutdown();
+    }
+
+    @Test
+    void start_SummarizesSmallestExtractionsFirstAndPreviousFailuresLast() throws Exception {
+        UUID projectId = UUID.randomUUID();
+        Paper large = paper("COMPLETED", false, null);
+        Paper small = paper("COMPLETED", false, null);
+        Paper failedBefore = paper("COMPLETED", false, "FAILED");
+        Paper notExtracted = paper("PROCESSING", false, null);
+        Paper summarized = paper("COMPLETED", true, "COMPLETED");
+        when(paperPersistenceService.findPapersByProjectId(projectId))
+                .thenReturn(List.of(large, small, failedBefore, notExtracted, summarized));
+        when(extractionRepository.findPageCountsByPaperIds(any()))
+                .thenReturn(List.of(
+                        new Object[] {large.getId(), 40},
+                        new Object[] {small.getId(), 6},
+                        new Object[] {failedBefore.getId(), 2}));
+        completeJobsImmediately();
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<BatchSummaryProgressDto> finalProgress = new AtomicReference<>();
+
+        BatchSummaryProgressDto progress = batchService.start(projectId);
+        batchService.addListener(projectId, new ProjectSummaryBatchService.BatchListener() {
+            @Override
+            public void onProgress(BatchSummaryProgressDto progress) {}
+
+            @Override
+            public void onComplete(BatchSummaryProgressDto progress) {
+                finalProgress.set(progress);
+                done.countDown();
+            }
+        });
+
+        assertEquals(3, progress.getTotal());
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(small.getId(), large.getId(), failedBefore.getId()), submitted);
+        assertEquals("COMPLETED", finalProgress.get().getState());
+        assertEquals(3, finalProgress.get().getCompleted());
+        assertEquals(ProjectSummaryBatchService.PENDING, large.getSummarizationStatus());
+        assertTrue(large.getSummarizationBatched());
+        assertNull(notExtracted.getSummarizationStatus());
+    }
+
+    @Test
+    void start_WaitsForRateLimiterPermitsBeforeStartingAPaper() {
+        UUID projectId = UUID.randomUUID();
+        Paper paper = paper("COMPLETED", false, null);
+        when(paperPersistenceService.findPapersByProjectId(projectId)).thenReturn(List.of(paper));
+        completeJobsImmediately();
+        // Another caller used up this period's permits
+        assertTrue(rateLimiter.acquirePermission(PaperSummaryGenerationService.PROMPTS_PER_SUMMARY));
+
+        batchService.start(projectId);
+
+        verify(summaryJobService, after(200).never()).submit(any(), anyBoolean());
+        verify(summaryJobService, timeout(2000)).submit(paper.getId(), false);
+        // Waiting must not take permits away from the prompts themselves
+        assertEquals(
+                PaperSummaryGenerationService.PROMPTS_PER_SUMMARY,
+                rateLimiter.getMetrics().getAvailablePermissions());
+    }
+
+    @Test
+    void start_DoesNotCompleteWhileTheLastPaperWaitsForRatePermits() throws Exception {
+        RateLimiter slowLimiter = RateLimiter.of(
+                "gemini-api",
+                RateLimiterConfig.custom()
+                        .limitForPeriod(PaperSummaryGenerationService.PROMPTS_PER_SUMMARY)
+                        .limitRefreshPeriod(Duration.ofSeconds(1))
+                        .timeoutDuration(Duration.ZERO)
+                        .build());
+        ProjectSummaryBatchService twoInFlight = new ProjectSummaryBatchService(
+                paperPersistenceService,
+                paperRepository,
+                extractionRepository,
+                summaryRepository,
+                webSearchOperationRepository,
+                summaryJobService,
+                new TransactionTemplate(new NoOpTransactionManager()),
+                slowLimiter,
+                2,
+                Duration.ofMinutes(30));
+        UUID projectId = UUID.randomUUID();
+        Paper first = paper("COMPLETED", false, null);
+        Paper last = paper("COMPLETED", false, null);
+        when(paperPersistenceService.findPapersByProjectId(projectId)).thenReturn(List.of(first, last));
+        CompletableFuture<PaperSummary> firstSummary = new CompletableFuture<>();
+        when(summaryJobService.submit(any(), eq(false))).thenAnswer(invocation -> {
+            SummaryJobService.SummaryJob job = mock(SummaryJobService.SummaryJob.class);
+            if (first.getId().equals(invocation.getArgument(0))) {
+                // The first paper's prompts use up this period's permits
+                slowLimiter.acquirePermission(PaperSummaryGenerationService.PROMPTS_PER_SUMMARY);
+                when(job.getFuture()).thenReturn(firstSummary);
+            } else {
+                when(job.getFuture()).thenReturn(CompletableFuture.completedFuture(new PaperSummary()));
+            }
+            return job;
+        });
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<BatchSummaryProgressDto> finalProgress = new AtomicReference<>();
+        try {
+            twoInFlight.start(projectId);
+            twoInFlight.addListener(projectId, new ProjectSummaryBatchService.BatchListener() {
+                @Override
+                public void onProgress(BatchSummaryProgressDto progress) {}
+
+                @Override
+                public void onComplete(BatchSummaryProgressDto progress) {
+                    finalProgress.set(progress);
+                    done.countDown();
+                }
+            });
+            verify(summaryJobService, timeout(2000)).submit(first.getId(), false);
+
+            firstSummary.complete(new PaperSummary());
+
+            verify(summaryJobService, never()).submit(last.getId(), false);
+            BatchSummaryProgressDto waiting = twoInFlight.getProgress(projectId).orElseThrow();
+            assertEquals("RUNNING", waiting.getState());
+            assertEquals(1, waiting.getInFlight());
+            assertEquals(1, done.getCount());
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            verify(summaryJobService).submit(last.getId(), false);
+            assertEquals(2, finalProgress.get().getCompleted());
+        } finally {
+            twoInFlight.shutdown();
+        }
+    }
+
+    @Test
+    void resumeInterruptedRuns_RestartsProjectsWithPendingPapers() {
+        UUID projectId = UUID.randomUUID();
+        Paper pending = paper("COMPLETED", false, ProjectSummaryBatchService.PENDING);
+        when(paperRepository.findBySummarizationStatusIn(List.of(ProjectSummaryBatchService.PENDING)))
+                .thenReturn(List.of(pending));
+        when(webSearchOperationRepository.findById(pending.getCorrelationId()))
+                .thenReturn(Optional.of(WebSearchOperation.builder()
+                        .correlationId(pending.getCorrelationId())
+                        .projectId(projectId)
+                        .build()));
+        when(paperPersistenceService.findPapersByProjectId(projectId)).thenReturn(List.of(pending));
+        completeJobsImmediately();
+
+        batchService.resumeInterruptedRuns();
+
+        verify(summaryJobService, timeout(2000)).submit(pending.getId(), false);
+        BatchSummaryProgressDto progress = batchService.getProgress(projectId).orElseThrow();
+        assertTrue(progress.isResumed());
+        assertEquals(1, progress.getTotal());
+    }
+
+    @Test
+    void resumeInterruptedRuns_RestartsProjectsWithStaleBatchedPapers() {
+        UUID projectId = UUID.randomUUID();
+        Paper cutOff = paper("COMPLETED", false, ProjectSummaryBatchService.PROCESSING);
+        cutOff.setSummarizationBatched(true);
+        cutOff.setSummarizationStartedAt(Instant.now().minus(Duration.ofHours(1)));
+        when(paperRepository.findBatchedBySummarizationStatusStartedBefore(
+                        eq(ProjectSummaryBatchService.PROCESSING), any()))
+                .thenAnswer(invocation -> cutOff.getSummarizationStartedAt()
+                                .isBefore(invocation.getArgument(1, Instant.class))
+                        ? List.of(cutOff)
+                        : List.of());
+        when(webSearchOperationRepository.findById(cutOff.getCorrelationId()))
+                .thenReturn(Optional.of(WebSearchOperation.builder()
+                        .correlationId(cutOff.getCorrelationId())
+                        .projectId(projectId)
+                        .build()));
+        when(paperPersistenceService.findPapersByProjectId(projectId)).thenReturn(List.of(cutOff));
+        completeJobsImmediately();
+
+        batchService.resumeInterruptedRuns();
+
+        verify(summaryJobService, timeout(2000)).submit(cutOff.getId(), false);
+        assertTrue(batchService.getProgress(projectId).orElseThrow().isResumed());
+        verify(paperRepository, timeout(2000)).clearSummarizationBatched(cutOff.getId());
+    }
+
+    @Test
+    void resumeInterruptedRuns_FailsStaleSinglePaperSummarizationsInsteadOfStartingABatch() {
+        when(paperRepository.failStaleSummarizations(any(), any())).thenReturn(1);
+
+        batchService.resumeInterruptedRuns();
+
+        verify(paperRepository).failStaleSummarizations(any(), any());
+        verifyNoInteractions(summaryJobService, paperPersistenceService);
+    }
+
+    private void completeJobsImmediately() {
+        when(summaryJobService.submit(any(), eq(false))).thenAnswer(invocation -> {
+            submitted.add(invocation.getArgument(0));
+            SummaryJobService.SummaryJob job = mock(SummaryJobService.SummaryJob.class);
+            when(job.getFuture()).thenReturn(CompletableFuture.completedFuture(new PaperSummary()));
+            return job;
+        });
+    }
+
+    private static Paper paper(String extractionStatus, boolean summarized, String summarizationStatus) {
+        return Paper.builder()
+                .id(UUID.randomUUID())
+                .correlationId("search-" + UUID.randomUUID())
+                .title("Paper")
+                .isExtracted("COMPLETED".equals(extractionStatus))
+                .extractionStatus(extractionStatus)
+                .isSummarized(summarized)
+                .summarizationStatus(summarizationStatus)
+                .build();
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {}
+
+        @Override
+        public void rollback(TransactionStatus status) {}
+    }
+}
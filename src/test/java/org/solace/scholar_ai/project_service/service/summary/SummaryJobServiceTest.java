@@ -0,0 +1,143 @@
+package org.solace.scholar_ai.project_service.service.summary;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.solace.scholar_ai.project_service.exception.SummaryJobRejectedException;
+import org.solace.scholar_ai.project_service.model.summary.PaperSummary;
+import org.solace.scholar_ai.project_service.repository.summary.PaperSummaryRepository;
+
+class SummaryJobServiceTest {
+
+    private final PaperSummaryGenerationService generationService = mock(PaperSummaryGenerationService.class);
+    private final PaperSummaryRepository summaryRepository = mock(PaperSummaryRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SummaryExecutors executors = new SummaryExecutors(meterRegistry, 1, 1, 5);
+    private final SummaryJobService jobService =
+            new SummaryJobService(generationService, summaryRepository, executors, Duration.ofSeconds(20));
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executors.shutdown();
+    }
+
+    @Test
+    void submit_SharesOneJobBetweenConcurrentRequestsForAPaper() throws Exception {
+        UUID paperId = UUID.randomUUID();
+        PaperSummary summary = new PaperSummary();
+        CountDownLatch started = new CountDownLatch(1);
+        when(summaryRepository.findByPaperId(paperId)).thenReturn(Optional.empty());
+        when(generationService.generateSummary(paperId)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return summary;
+        });
+
+        SummaryJobService.SummaryJob first = jobService.submit(paperId, false);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        SummaryJobService.SummaryJob second = jobService.submit(paperId, false);
+
+        assertSame(first, second);
+        assertEquals(SummaryJobService.State.RUNNING, first.getState());
+        release.countDown();
+        assertSame(summary, second.getFuture().get(5, TimeUnit.SECONDS));
+        verify(generationService, times(1)).generateSummary(paperId);
+        assertEquals(SummaryJobService.State.COMPLETED, first.getState());
+    }
+
+    @Test
+    void submit_QueuesARegenerationBehindAJobThatKeepsTheSummary() throws Exception {
+        UUID paperId = UUID.randomUUID();
+        PaperSummary summary = new PaperSummary();
+        PaperSummary regenerated = new PaperSummary();
+        CountDownLatch started = new CountDownLatch(1);
+        when(summaryRepository.findByPaperId(paperId)).thenReturn(Optional.empty(), Optional.of(summary));
+        when(generationService.generateSummary(paperId))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    release.await();
+                    return summary;
+                })
+                .thenReturn(regenerated);
+
+        SummaryJobService.SummaryJob first = jobService.submit(paperId, false);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        SummaryJobService.SummaryJob regenerate = jobService.submit(paperId, true);
+
+        assertNotSame(first, regenerate);
+        assertSame(regenerate, jobService.submit(paperId, true));
+        assertSame(first, jobService.submit(paperId, false));
+        assertEquals(SummaryJobService.State.QUEUED, regenerate.getState());
+        release.countDown();
+        assertSame(summary, first.getFuture().get(5, TimeUnit.SECONDS));
+        assertSame(regenerated, regenerate.getFuture().get(5, TimeUnit.SECONDS));
+        verify(summaryRepository).delete(summary);
+        verify(generationService, times(2)).generateSummary(paperId);
+    }
+
+    @Test
+    void submit_RejectsJobsOnceTheQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        when(summaryRepository.findByPaperId(any())).thenReturn(Optional.empty());
+        when(generationService.generateSummary(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new PaperSummary();
+        });
+
+        jobService.submit(UUID.randomUUID(), false);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        SummaryJobService.SummaryJob queued = jobService.submit(UUID.randomUUID(), false);
+        UUID rejectedPaper = UUID.randomUUID();
+
+        SummaryJobRejectedException rejected =
+                assertThrows(SummaryJobRejectedException.class, () -> jobService.submit(rejectedPaper, false));
+        assertEquals(Duration.ofSeconds(20), rejected.getRetryAfter());
+        assertEquals(SummaryJobService.State.QUEUED, queued.getState());
+        assertTrue(jobService.findInFlight(rejectedPaper).isEmpty());
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .get("executor.queued")
+                        .tag("name", "summary.jobs")
+                        .gauge()
+                        .value());
+    }
+
+    @Test
+    void submit_ReturnsAnExistingSummaryWithoutGenerating() throws Exception {
+        UUID paperId = UUID.randomUUID();
+        PaperSummary existing = new PaperSummary();
+        when(summaryRepository.findByPaperId(paperId)).thenReturn(Optional.of(existing));
+
+        SummaryJobService.SummaryJob job = jobService.submit(paperId, false);
+
+        assertSame(existing, job.getFuture().get(5, TimeUnit.SECONDS));
+        verifyNoInteractions(generationService);
+    }
+
+    @Test
+    void submit_RegenerateDeletesTheExistingSummaryFirst() throws Exception {
+        UUID paperId = UUID.randomUUID();
+        PaperSummary existing = new PaperSummary();
+        PaperSummary regenerated = new PaperSummary();
+        when(summaryRepository.findByPaperId(paperId)).thenReturn(Optional.of(existing));
+        when(generationService.generateSummary(paperId)).thenReturn(regenerated);
+
+        SummaryJobService.SummaryJob job = jobService.submit(paperId, true);
+
+        assertSame(regenerated, job.getFuture().get(5, TimeUnit.SECONDS));
+        verify(summaryRepository).delete(existing);
+    }
+}